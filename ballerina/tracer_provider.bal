@@ -20,6 +20,55 @@ import ballerina/observe;
 
 const PROVIDER_NAME = "amp";
 const DEFAULT_SAMPLER_TYPE = "const";
+const DEFAULT_PRIORITY_QUEUE_SIZE = 256;
+const DEFAULT_PROPAGATOR = "tracecontext";
+const DEFAULT_TENANT_WEIGHT = 1;
+const DEFAULT_SPAN_SUMMARY_MIN_RUN_LENGTH = 10;
+const DEFAULT_SPAN_SUMMARY_EXEMPLARS = 1;
+const DEFAULT_SPAN_VERBOSITY = "full";
+const DEFAULT_EXPORT_BYTE_RATE_POLICY = "queue";
+const DEFAULT_METRICS_REPORT_INTERVAL = 10000;
+const DEFAULT_SLOW_SPAN_SAMPLE_INTERVAL = 10;
+final string[] & readonly SUPPORTED_PROPAGATORS = ["tracecontext", "baggage", "b3", "b3multi", "jaeger", "ottrace"];
+final string[] & readonly SUPPORTED_SPAN_VERBOSITIES = ["entry", "remote", "full"];
+final string[] & readonly SUPPORTED_EXPORT_BYTE_RATE_POLICIES = ["queue", "downsample"];
+final string[] & readonly SUPPORTED_SPAN_KINDS = ["server", "client", "producer", "consumer", "internal"];
+
+# A rule which matches spans to be dropped before they are exported.
+# In the patterns, `*` matches any sequence of characters.
+#
+# + name - Pattern of the span name, which matches any name when empty
+# + kind - Kind of the span, one of `server`, `client`, `producer`, `consumer` and `internal`, or empty for any kind
+# + attributes - Patterns of span attribute values, which must all match
+type SpanFilter record {|
+    string name = "";
+    string kind = "";
+    map<string> attributes = {};
+|};
+
+# An Amp tenant to which the spans of some services are reported instead of the default tenant.
+# Empty values are not sent, the same as for the default tenant.
+#
+# + name - Name of the tenant, used in logs
+# + services - Names of the Ballerina services whose spans are reported to this tenant
+# + apiKey - API key for authentication send via Authorization header
+# + serviceName - Name of the service send as a resource attribute
+# + orgUid - Organization UID send as a resource attribute
+# + projectUid - Project UID send as a resource attribute
+# + componentUid - Component UID send as a resource attribute
+# + environmentUid - Environment UID send as a resource attribute
+# + weight - Share of the export bandwidth of the tenant relative to the other tenants
+type Tenant record {|
+    string name;
+    string[] services;
+    string apiKey = "";
+    string serviceName = "";
+    string orgUid = "";
+    string projectUid = "";
+    string componentUid = "";
+    string environmentUid = "";
+    int weight = DEFAULT_TENANT_WEIGHT;
+|};
 
 configurable string otelEndpoint = "http://localhost:21893";
 configurable string apiKey = "";
@@ -32,11 +81,43 @@ configurable string samplerType = "const";
 configurable decimal samplerParam = 1;
 configurable int reporterFlushInterval = 1000;
 configurable int reporterBufferSize = 10000;
+configurable int priorityQueueSize = DEFAULT_PRIORITY_QUEUE_SIZE;
+configurable string prioritySpanAttribute = "";
+configurable string[] propagators = [DEFAULT_PROPAGATOR];
+configurable boolean timePrefixedTraceIds = false;
+configurable int clockResolutionMicros = 0;
+configurable string spanVerbosity = DEFAULT_SPAN_VERBOSITY;
+configurable SpanFilter[] spanFilters = [];
+configurable int spanNameLimit = 0;
+configurable boolean summarizeSpans = false;
+configurable int spanSummaryMinRunLength = DEFAULT_SPAN_SUMMARY_MIN_RUN_LENGTH;
+configurable int spanSummaryExemplars = DEFAULT_SPAN_SUMMARY_EXEMPLARS;
+configurable int flightRecorderSize = 0;
+configurable int slowSpanThreshold = 0;
+configurable int slowSpanSampleInterval = DEFAULT_SLOW_SPAN_SAMPLE_INTERVAL;
+configurable int exportByteRate = 0;
+configurable string exportByteRatePolicy = DEFAULT_EXPORT_BYTE_RATE_POLICY;
+configurable string spanRecordingFile = "";
+configurable Tenant[] tenants = [];
+configurable int metricsReportInterval = DEFAULT_METRICS_REPORT_INTERVAL;
 
 function init() {
+    // The metric reporter is initialized first, since the tracer provider records span durations for it
+    if (observe:isMetricsEnabled() && observe:getMetricsReporter() == PROVIDER_NAME) {
+        int selectedMetricsReportInterval = metricsReportInterval;
+        if (metricsReportInterval <= 0) {
+            selectedMetricsReportInterval = DEFAULT_METRICS_REPORT_INTERVAL;
+            io:println("error: invalid Amp configuration metrics report interval: " + metricsReportInterval.toString()
+                                               + ". using default " + DEFAULT_METRICS_REPORT_INTERVAL.toString());
+        }
+        externInitializeMetricReporter(otelEndpoint, selectedMetricsReportInterval, apiKey, serviceName, orgUid,
+            projectUid, componentUid, environmentUid);
+    }
+
     if (observe:isTracingEnabled() && observe:getTracingProvider() == PROVIDER_NAME) {
         string selectedSamplerType;
-        if (samplerType != "const" && samplerType != "ratelimiting" && samplerType != "probabilistic") {
+        if (samplerType != "const" && samplerType != "ratelimiting" && samplerType != "probabilistic"
+                && samplerType != "consistent") {
             selectedSamplerType = DEFAULT_SAMPLER_TYPE;
             io:println("error: invalid Amp configuration sampler type: " + samplerType
                                                + ". using default " + DEFAULT_SAMPLER_TYPE + " sampling");
@@ -44,14 +125,185 @@ function init() {
             selectedSamplerType = samplerType;
         }
 
+        int selectedPriorityQueueSize = priorityQueueSize;
+        if (priorityQueueSize <= 0) {
+            selectedPriorityQueueSize = DEFAULT_PRIORITY_QUEUE_SIZE;
+            io:println("error: invalid Amp configuration priority queue size: " + priorityQueueSize.toString()
+                                               + ". using default " + DEFAULT_PRIORITY_QUEUE_SIZE.toString());
+        }
+
+        string[] selectedPropagators = [];
+        foreach string propagator in propagators {
+            if (SUPPORTED_PROPAGATORS.indexOf(propagator) is ()) {
+                io:println("error: invalid Amp configuration propagator: " + propagator + ". ignoring");
+            } else {
+                selectedPropagators.push(propagator);
+            }
+        }
+        if (selectedPropagators.length() == 0) {
+            selectedPropagators.push(DEFAULT_PROPAGATOR);
+        }
+
+        int selectedClockResolutionMicros = clockResolutionMicros;
+        if (clockResolutionMicros < 0) {
+            selectedClockResolutionMicros = 0;
+            io:println("error: invalid Amp configuration clock resolution: " + clockResolutionMicros.toString()
+                                               + ". using the system clock");
+        }
+
+        string selectedSpanVerbosity = spanVerbosity;
+        if (SUPPORTED_SPAN_VERBOSITIES.indexOf(spanVerbosity) is ()) {
+            selectedSpanVerbosity = DEFAULT_SPAN_VERBOSITY;
+            io:println("error: invalid Amp configuration span verbosity: " + spanVerbosity
+                                               + ". using default " + DEFAULT_SPAN_VERBOSITY);
+        }
+
+        SpanFilter[] selectedSpanFilters = [];
+        foreach SpanFilter spanFilter in spanFilters {
+            if (spanFilter.kind != "" && SUPPORTED_SPAN_KINDS.indexOf(spanFilter.kind) is ()) {
+                io:println("error: invalid Amp configuration span filter kind: " + spanFilter.kind + ". ignoring");
+            } else if (spanFilter.name == "" && spanFilter.kind == "" && spanFilter.attributes.length() == 0) {
+                io:println("error: invalid Amp configuration span filter without conditions. ignoring");
+            } else {
+                selectedSpanFilters.push(spanFilter);
+            }
+        }
+
+        int selectedSpanNameLimit = spanNameLimit;
+        if (spanNameLimit < 0) {
+            selectedSpanNameLimit = 0;
+            io:println("error: invalid Amp configuration span name limit: " + spanNameLimit.toString()
+                                               + ". keeping the span names as they are");
+        }
+
+        int selectedSpanSummaryMinRunLength = spanSummaryMinRunLength;
+        if (spanSummaryMinRunLength < 2) {
+            selectedSpanSummaryMinRunLength = DEFAULT_SPAN_SUMMARY_MIN_RUN_LENGTH;
+            io:println("error: invalid Amp configuration span summary min run length: "
+                    + spanSummaryMinRunLength.toString() + ". using default "
+                    + DEFAULT_SPAN_SUMMARY_MIN_RUN_LENGTH.toString());
+        }
+        int selectedSpanSummaryExemplars = spanSummaryExemplars;
+        if (spanSummaryExemplars < 0) {
+            selectedSpanSummaryExemplars = DEFAULT_SPAN_SUMMARY_EXEMPLARS;
+            io:println("error: invalid Amp configuration span summary exemplars: " + spanSummaryExemplars.toString()
+                                               + ". using default " + DEFAULT_SPAN_SUMMARY_EXEMPLARS.toString());
+        }
+
+        int selectedFlightRecorderSize = flightRecorderSize;
+        if (flightRecorderSize < 0) {
+            selectedFlightRecorderSize = 0;
+            io:println("error: invalid Amp configuration flight recorder size: " + flightRecorderSize.toString()
+                                               + ". disabling the flight recorder");
+        }
+
+        int selectedSlowSpanThreshold = slowSpanThreshold;
+        if (slowSpanThreshold < 0) {
+            selectedSlowSpanThreshold = 0;
+            io:println("error: invalid Amp configuration slow span threshold: " + slowSpanThreshold.toString()
+                                               + ". disabling the slow span profiler");
+        }
+        int selectedSlowSpanSampleInterval = slowSpanSampleInterval;
+        if (slowSpanSampleInterval <= 0) {
+            selectedSlowSpanSampleInterval = DEFAULT_SLOW_SPAN_SAMPLE_INTERVAL;
+            io:println("error: invalid Amp configuration slow span sample interval: "
+                    + slowSpanSampleInterval.toString() + ". using default "
+                    + DEFAULT_SLOW_SPAN_SAMPLE_INTERVAL.toString());
+        }
+
+        int selectedExportByteRate = exportByteRate;
+        if (exportByteRate < 0) {
+            selectedExportByteRate = 0;
+            io:println("error: invalid Amp configuration export byte rate: " + exportByteRate.toString()
+                                               + ". exporting without a limit");
+        }
+        string selectedExportByteRatePolicy = exportByteRatePolicy;
+        if (SUPPORTED_EXPORT_BYTE_RATE_POLICIES.indexOf(exportByteRatePolicy) is ()) {
+            selectedExportByteRatePolicy = DEFAULT_EXPORT_BYTE_RATE_POLICY;
+            io:println("error: invalid Amp configuration export byte rate policy: " + exportByteRatePolicy
+                                               + ". using default " + DEFAULT_EXPORT_BYTE_RATE_POLICY);
+        }
+
+        Tenant[] selectedTenants = [];
+        foreach Tenant tenant in tenants {
+            if (tenant.services.length() == 0) {
+                io:println("error: invalid Amp configuration tenant without services: " + tenant.name + ". ignoring");
+            } else if (tenant.weight <= 0) {
+                io:println("error: invalid Amp configuration tenant weight: " + tenant.weight.toString()
+                                                   + ". using default " + DEFAULT_TENANT_WEIGHT.toString());
+                selectedTenants.push({...tenant, weight: DEFAULT_TENANT_WEIGHT});
+            } else {
+                selectedTenants.push(tenant);
+            }
+        }
+
         externInitializeConfigurations(otelEndpoint, selectedSamplerType, samplerParam,
-            reporterFlushInterval, reporterBufferSize, apiKey, serviceName, orgUid, projectUid, componentUid, environmentUid);
+            reporterFlushInterval, reporterBufferSize, selectedPriorityQueueSize, prioritySpanAttribute,
+            selectedPropagators, timePrefixedTraceIds, selectedClockResolutionMicros, selectedSpanVerbosity,
+            selectedSpanFilters, selectedSpanNameLimit, summarizeSpans, selectedSpanSummaryMinRunLength,
+            selectedSpanSummaryExemplars, selectedFlightRecorderSize, selectedSlowSpanThreshold,
+            selectedSlowSpanSampleInterval, selectedExportByteRate, selectedExportByteRatePolicy, spanRecordingFile,
+            selectedTenants, apiKey, serviceName, orgUid, projectUid, componentUid, environmentUid);
     }
 }
 
 function externInitializeConfigurations(string otelEndpoint, string samplerType,
-        decimal samplerParam, int reporterFlushInterval, int reporterBufferSize, string apiKey,
-        string serviceName, string orgUid, string projectUid, string componentUid, string environmentUid) = @java:Method {
+        decimal samplerParam, int reporterFlushInterval, int reporterBufferSize, int priorityQueueSize,
+        string prioritySpanAttribute, string[] propagators, boolean timePrefixedTraceIds, int clockResolutionMicros,
+        string spanVerbosity, SpanFilter[] spanFilters, int spanNameLimit, boolean summarizeSpans,
+        int spanSummaryMinRunLength, int spanSummaryExemplars, int flightRecorderSize, int slowSpanThreshold,
+        int slowSpanSampleInterval, int exportByteRate, string exportByteRatePolicy, string spanRecordingFile,
+        Tenant[] tenants, string apiKey, string serviceName, string orgUid, string projectUid, string componentUid,
+        string environmentUid) = @java:Method {
     'class: "io.ballerina.observe.trace.amp.AmpTracerProvider",
     name: "initializeConfigurations"
 } external;
+
+function externInitializeMetricReporter(string otelEndpoint, int reportInterval, string apiKey, string serviceName,
+        string orgUid, string projectUid, string componentUid, string environmentUid) = @java:Method {
+    'class: "io.ballerina.observe.trace.amp.AmpMetricReporter",
+    name: "initializeConfigurations"
+} external;
+
+# Returns the spans of a trace kept by the flight recorder, whether they were sampled or not.
+#
+# + traceId - ID of the trace, as 32 hexadecimal characters
+# + return - Array of the recorded spans, or an error if the dump cannot be read
+public function dumpTrace(string traceId) returns json|error {
+    return externDumpTrace(traceId).fromJsonString();
+}
+
+# Returns the spans kept by the flight recorder of the traces in which a span failed recently.
+#
+# + seconds - Length of the time window, ending now, in which a span of the trace failed
+# + return - Array of the recorded spans, or an error if the dump cannot be read
+public function dumpFailedTraces(decimal seconds) returns json|error {
+    return externDumpFailedTraces(seconds).fromJsonString();
+}
+
+# Exports the spans of a trace kept by the flight recorder which were not sampled.
+#
+# + traceId - ID of the trace, as 32 hexadecimal characters
+# + return - Number of exported spans
+public function promoteTrace(string traceId) returns int = @java:Method {
+    'class: "io.ballerina.observe.trace.amp.AmpTracerProvider"
+} external;
+
+# Exports the spans kept by the flight recorder which were not sampled, of the traces in which a span failed
+# recently.
+#
+# + seconds - Length of the time window, ending now, in which a span of the trace failed
+# + return - Number of exported spans
+public function promoteFailedTraces(decimal seconds) returns int = @java:Method {
+    'class: "io.ballerina.observe.trace.amp.AmpTracerProvider"
+} external;
+
+function externDumpTrace(string traceId) returns string = @java:Method {
+    'class: "io.ballerina.observe.trace.amp.AmpTracerProvider",
+    name: "dumpTrace"
+} external;
+
+function externDumpFailedTraces(decimal seconds) returns string = @java:Method {
+    'class: "io.ballerina.observe.trace.amp.AmpTracerProvider",
+    name: "dumpFailedTraces"
+} external;
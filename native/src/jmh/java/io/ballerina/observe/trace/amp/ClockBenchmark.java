@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.Clock;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of reading the clock and of short spans, comparing the cached {@link AmpClock} with the SDK default.
+ * <p>
+ * At the end of each trial, the lag of the cached clock behind the system clock is sampled and printed, which is
+ * the timestamp error traded for the cheaper reads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class ClockBenchmark {
+    private static final PrintStream console = System.out;
+    private static final int ERROR_SAMPLES = 10000;
+
+    @Param({"system", "cached-100us", "cached-1ms"})
+    public String clockType;
+
+    private Clock clock;
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+    private Span parent;
+
+    @Setup
+    public void setup() {
+        switch (clockType) {
+            case "cached-100us":
+                clock = AmpClock.create(100, TimeUnit.MICROSECONDS);
+                break;
+            case "cached-1ms":
+                clock = AmpClock.create(1, TimeUnit.MILLISECONDS);
+                break;
+            default:
+                clock = Clock.getDefault();
+                break;
+        }
+        // No span processor, so that the spans are recorded but the benchmark measures the span lifecycle only
+        tracerProvider = SdkTracerProvider.builder().setClock(clock).build();
+        tracer = tracerProvider.get("benchmark");
+        parent = tracer.spanBuilder("parent").startSpan();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        long maxLag = 0;
+        long totalLag = 0;
+        for (int i = 0; i < ERROR_SAMPLES; i++) {
+            long lag = Math.abs(System.nanoTime() - clock.nanoTime());
+            maxLag = Math.max(maxLag, lag);
+            totalLag += lag;
+            if (i % 100 == 0) {
+                Thread.sleep(0, 50000);
+            }
+        }
+        console.println(clockType + " timestamp error: mean " + totalLag / ERROR_SAMPLES + " ns, max " + maxLag
+                + " ns");
+        parent.end();
+        tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+        if (clock instanceof AmpClock) {
+            ((AmpClock) clock).close();
+        }
+    }
+
+    @Benchmark
+    public long now() {
+        return clock.now();
+    }
+
+    @Benchmark
+    public long nanoTime() {
+        return clock.nanoTime();
+    }
+
+    @Benchmark
+    public Span rootSpan() {
+        Span span = tracer.spanBuilder("root").startSpan();
+        span.end();
+        return span;
+    }
+
+    @Benchmark
+    public Span childSpan() {
+        Span span = tracer.spanBuilder("child").setParent(Context.root().with(parent)).startSpan();
+        span.end();
+        return span;
+    }
+}
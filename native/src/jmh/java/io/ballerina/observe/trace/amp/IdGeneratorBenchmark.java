@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import io.opentelemetry.sdk.trace.IdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of trace and span ID generation, comparing the Amp generators with the SDK default.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class IdGeneratorBenchmark {
+    @Param({"amp", "amp-time-prefixed", "sdk"})
+    public String generator;
+
+    private IdGenerator idGenerator;
+
+    @Setup
+    public void setup() {
+        switch (generator) {
+            case "amp":
+                idGenerator = AmpIdGenerator.random();
+                break;
+            case "amp-time-prefixed":
+                idGenerator = AmpIdGenerator.timePrefixed();
+                break;
+            default:
+                idGenerator = IdGenerator.random();
+                break;
+        }
+    }
+
+    @Benchmark
+    public String generateTraceId() {
+        return idGenerator.generateTraceId();
+    }
+
+    @Benchmark
+    public String generateSpanId() {
+        return idGenerator.generateSpanId();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of a traced request when the sampler never samples, comparing the no-op tracer of
+ * {@link AmpTracerProvider} with an SDK tracer provider which drops every span, and with propagating the context
+ * without a span.
+ * <p>
+ * Each request extracts the trace context from its headers, runs a server span with the attributes which the
+ * Ballerina runtime sets, and injects the context into the headers of an outbound call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NeverSampledBenchmark {
+    private static final String TRACE_PARENT = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01";
+    private static final TextMapGetter<Map<String, String>> GETTER = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(Map<String, String> carrier) {
+            return carrier.keySet();
+        }
+
+        @Override
+        public String get(Map<String, String> carrier, String key) {
+            return carrier == null ? null : carrier.get(key);
+        }
+    };
+
+    @Param({"amp-noop", "sdk-always-off"})
+    public String tracerType;
+
+    private SdkTracerProvider sdkTracerProvider;
+    private Tracer tracer;
+    private TextMapPropagator propagator;
+    private final Map<String, String> inboundHeaders = Collections.singletonMap("traceparent", TRACE_PARENT);
+    private final Map<String, String> outboundHeaders = new HashMap<>();
+
+    @Setup
+    public void setup() {
+        AmpTracerProvider.initializeConfigurationsForInternal("http://localhost:21893", "const", 0, 1000, 512,
+                256, "", new String[]{"tracecontext"}, false, 0, "full", Collections.emptyList(), 0, false, 10, 1,
+                0, 0, 10, 0, "queue", "", Collections.emptyList(), "", "benchmark", "", "", "", "");
+        AmpTracerProvider provider = new AmpTracerProvider();
+        propagator = provider.getPropagators().getTextMapPropagator();
+        if (tracerType.equals("sdk-always-off")) {
+            // The pipeline which was built for a sampler that never samples, before the no-op tracer
+            sdkTracerProvider = SdkTracerProvider.builder().setSampler(Sampler.alwaysOff()).build();
+            tracer = sdkTracerProvider.get("benchmark");
+        } else {
+            tracer = provider.getTracer("benchmark");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (sdkTracerProvider != null) {
+            sdkTracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+        }
+        AmpTracerProvider.shutdown();
+    }
+
+    @Benchmark
+    public Map<String, String> tracedRequest() {
+        Context parent = propagator.extract(Context.root(), inboundHeaders, GETTER);
+        Span span = tracer.spanBuilder("get /sum")
+                .setSpanKind(SpanKind.SERVER)
+                .setParent(parent)
+                .startSpan();
+        span.setAttribute("src.module", "$anon/.:0.0.0");
+        span.setAttribute("http.method", "GET");
+        span.setAttribute("http.url", "/test/sum");
+        span.setStatus(StatusCode.OK);
+        propagator.inject(parent.with(span), outboundHeaders, Map::put);
+        span.end();
+        return outboundHeaders;
+    }
+
+    /**
+     * The same request without a span, which is the least work to carry the context through to the outbound call.
+     */
+    @Benchmark
+    public Map<String, String> propagationOnly() {
+        Context parent = propagator.extract(Context.root(), inboundHeaders, GETTER);
+        propagator.inject(parent, outboundHeaders, Map::put);
+        return outboundHeaders;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.exporter;
+
+import com.sun.net.httpserver.HttpServer;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of exporting a span batch to a local collector over a Unix domain socket and over loopback HTTP.
+ * <p>
+ * Both collectors are in process stand-ins which discard the request, so the difference is the cost of the
+ * transport. The sample time mode reports the latency percentiles of a single export, and the throughput of
+ * exports follows from the average.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExporterTransportBenchmark {
+    @Param({"uds", "http"})
+    public String transport;
+
+    @Param({"64", "512"})
+    public int batchSize;
+
+    private Path tempDir;
+    private UnixDomainSocketReceiver udsReceiver;
+    private HttpServer httpReceiver;
+    private SpanExporter exporter;
+    private List<SpanData> spans;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        spans = UnixDomainSocketSpanExporterTest.createSpans(batchSize);
+        if ("uds".equals(transport)) {
+            tempDir = Files.createTempDirectory("amp-uds-benchmark");
+            udsReceiver = new UnixDomainSocketReceiver(tempDir.resolve("otlp.sock"), false);
+            exporter = UnixDomainSocketSpanExporter.builder(udsReceiver.getEndpoint()).build();
+        } else {
+            httpReceiver = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            httpReceiver.createContext("/v1/traces", exchange -> {
+                try (InputStream body = exchange.getRequestBody()) {
+                    body.readAllBytes();
+                }
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+            });
+            httpReceiver.start();
+            exporter = OtlpHttpSpanExporter.builder()
+                    .setEndpoint("http://127.0.0.1:" + httpReceiver.getAddress().getPort() + "/v1/traces")
+                    .build();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        exporter.shutdown().join(10, TimeUnit.SECONDS);
+        if (udsReceiver != null) {
+            udsReceiver.close();
+            Files.deleteIfExists(tempDir);
+        }
+        if (httpReceiver != null) {
+            httpReceiver.stop(0);
+        }
+    }
+
+    @Benchmark
+    public boolean export() {
+        CompletableResultCode result = exporter.export(spans).join(10, TimeUnit.SECONDS);
+        return result.isSuccess();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.metrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the per span cost of recording a span duration into an exponential histogram.
+ * <p>
+ * The durations cycle through a few orders of magnitude, so that the histogram settles at the scale which fits them
+ * and the benchmarks measure the bucket lookup rather than downscaling. The contended benchmark records from four
+ * threads which share the histogram. Run with {@code ./gradlew :amp-extension-native:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExponentialHistogramBenchmark {
+    private static final double[] DURATIONS = {0.0012, 0.015, 0.09, 0.35, 1.7, 0.004, 0.027, 0.21};
+
+    private ExponentialHistogramAggregator aggregator;
+
+    @Setup
+    public void setup() {
+        aggregator = new ExponentialHistogramAggregator();
+        for (double duration : DURATIONS) {
+            aggregator.record(duration, 1);
+        }
+    }
+
+    @Benchmark
+    public void record(ThreadState state) {
+        aggregator.record(state.next(), 1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordContended(ThreadState state) {
+        aggregator.record(state.next(), 1);
+    }
+
+    /**
+     * The position of a thread in the durations.
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private int index;
+
+        double next() {
+            index = (index + 1) & (DURATIONS.length - 1);
+            return DURATIONS[index];
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the cost of the slow span profiler while no span reaches its threshold.
+ * <p>
+ * The track benchmarks measure what the profiler adds to each span, claiming a slot when the span starts and
+ * releasing it when the span ends, on one thread and on four threads which share the profiler. The tick benchmark
+ * measures one pass of the watchdog over the table of spans, which runs at each sample interval. Run with
+ * {@code ./gradlew :amp-extension-native:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlowSpanProfilerBenchmark {
+    private SlowSpanProfiler profiler;
+    private SdkTracerProvider tracerProvider;
+
+    @Setup
+    public void setup() {
+        profiler = new SlowSpanProfiler(1, 10, TimeUnit.MINUTES);
+        tracerProvider = SdkTracerProvider.builder().build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        tracerProvider.shutdown();
+    }
+
+    @Benchmark
+    public void track(SpanState state, Blackhole blackhole) {
+        profiler.onStart(Context.root(), state.span);
+        profiler.onEnd(state.spanData, blackhole::consume);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void trackContended(SpanState state, Blackhole blackhole) {
+        profiler.onStart(Context.root(), state.span);
+        profiler.onEnd(state.spanData, blackhole::consume);
+    }
+
+    @Benchmark
+    public void tick() {
+        profiler.sample(System.nanoTime());
+    }
+
+    /**
+     * A started span of a thread, and its data as it reaches the stages when it ends.
+     */
+    @State(Scope.Thread)
+    public static class SpanState {
+        private ReadWriteSpan span;
+        private SpanData spanData;
+
+        @Setup
+        public void setup(SlowSpanProfilerBenchmark benchmark) {
+            span = (ReadWriteSpan) benchmark.tracerProvider.get("benchmark").spanBuilder("get /orders").startSpan();
+            spanData = span.toSpanData();
+        }
+    }
+}
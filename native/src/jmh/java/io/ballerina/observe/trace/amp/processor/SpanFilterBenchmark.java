@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Benchmark of the per span decision cost of the span filters.
+ * <p>
+ * Uses the filters of a typical configuration, which drop health checks and responses by name and readiness
+ * probes by attribute, optionally with further filters which match none of the spans. The start benchmarks
+ * measure the name and kind filters, and the end benchmarks the attribute filters and the re-parenting of spans
+ * whose parent was dropped. Run with {@code ./gradlew :amp-extension-native:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpanFilterBenchmark {
+    @Param({"0", "8"})
+    public int unmatchedFilters;
+
+    private SpanFilterStage stage;
+    private Consumer<SpanData> next;
+    private SpanData lastSpan;
+    private ReadWriteSpan keptSpan;
+    private ReadWriteSpan healthSpan;
+    private SpanData keptSpanData;
+    private SpanData readySpanData;
+    private SpanData reparentedSpanData;
+
+    @Setup
+    public void setup() {
+        List<SpanFilter> filters = new ArrayList<>();
+        filters.add(SpanFilter.builder().setName("get /health*").setKind(SpanKind.SERVER).build());
+        filters.add(SpanFilter.builder().setName("ballerina/http/Caller:respond").build());
+        filters.add(SpanFilter.builder().addAttribute("http.url", "/readyz*").build());
+        for (int i = 0; i < unmatchedFilters; i++) {
+            filters.add(i % 2 == 0
+                    ? SpanFilter.builder().setName("*/internal" + i + "/*").build()
+                    : SpanFilter.builder().setKind(SpanKind.CLIENT).addAttribute("peer.service", "svc" + i).build());
+        }
+        stage = new SpanFilterStage(filters);
+        next = span -> lastSpan = span;
+
+        Map<String, ReadableSpan> spans = new HashMap<>();
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(new CapturingProcessor(spans))
+                .build();
+        Tracer tracer = tracerProvider.get("benchmark");
+        Span root = tracer.spanBuilder("get /sum").setSpanKind(SpanKind.SERVER).startSpan();
+        root.setAttribute("http.url", "/test/sum");
+        Span respond = tracer.spanBuilder("ballerina/http/Caller:respond")
+                .setParent(Context.root().with(root)).startSpan();
+        Span child = tracer.spanBuilder("ballerina/log:printInfo")
+                .setParent(Context.root().with(respond)).startSpan();
+        Span ready = tracer.spanBuilder("get /readyz").setSpanKind(SpanKind.SERVER).startSpan();
+        ready.setAttribute("http.url", "/readyz");
+        Span health = tracer.spanBuilder("get /health").setSpanKind(SpanKind.SERVER).startSpan();
+        for (Span span : new Span[]{child, respond, root, ready, health}) {
+            span.end();
+        }
+        tracerProvider.shutdown();
+
+        keptSpan = (ReadWriteSpan) spans.get("get /sum");
+        healthSpan = (ReadWriteSpan) spans.get("get /health");
+        keptSpanData = keptSpan.toSpanData();
+        readySpanData = spans.get("get /readyz").toSpanData();
+        reparentedSpanData = spans.get("ballerina/log:printInfo").toSpanData();
+        // Remember the dropped parent of the re-parented span
+        stage.onStart(Context.root(), (ReadWriteSpan) spans.get("ballerina/http/Caller:respond"));
+    }
+
+    @Benchmark
+    public SpanFilterStage startKept() {
+        stage.onStart(Context.root(), keptSpan);
+        return stage;
+    }
+
+    @Benchmark
+    public SpanFilterStage startDroppedByName() {
+        stage.onStart(Context.root(), healthSpan);
+        return stage;
+    }
+
+    @Benchmark
+    public SpanData endKept() {
+        stage.onEnd(keptSpanData, next);
+        return lastSpan;
+    }
+
+    @Benchmark
+    public SpanData endDroppedByAttributes() {
+        stage.onEnd(readySpanData, next);
+        return lastSpan;
+    }
+
+    @Benchmark
+    public SpanData endReparented() {
+        stage.onEnd(reparentedSpanData, next);
+        return lastSpan;
+    }
+
+    /**
+     * Keeps the spans by name, so that the benchmarks can replay their start and end.
+     */
+    private static final class CapturingProcessor implements SpanProcessor {
+        private final Map<String, ReadableSpan> spans;
+
+        private CapturingProcessor(Map<String, ReadableSpan> spans) {
+            this.spans = spans;
+        }
+
+        @Override
+        public void onStart(Context parentContext, ReadWriteSpan span) {
+            spans.put(span.getName(), span);
+        }
+
+        @Override
+        public boolean isStartRequired() {
+            return true;
+        }
+
+        @Override
+        public void onEnd(ReadableSpan span) {
+        }
+
+        @Override
+        public boolean isEndRequired() {
+            return false;
+        }
+    }
+}
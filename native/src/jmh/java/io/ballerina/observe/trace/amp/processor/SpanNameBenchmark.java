@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the per span cost of the span name normalization.
+ * <p>
+ * The known name benchmarks look up a name which is in the map, before and after the stage starts templating, on
+ * one thread and on four threads which share the stage. The template benchmarks measure templating a name which is
+ * not in the map, as for each span of a name with a new ID which is evicted before it is seen again. Run with
+ * {@code ./gradlew :amp-extension-native:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpanNameBenchmark {
+    private static final int MAX_NAMES = 1000;
+    private static final String KNOWN_NAME = "get /orders/1234/items";
+
+    private SpanNameStage keepingStage;
+    private SpanNameStage templatingStage;
+
+    @Setup
+    public void setup() {
+        keepingStage = new SpanNameStage(MAX_NAMES);
+        keepingStage.normalize(KNOWN_NAME);
+        templatingStage = new SpanNameStage(MAX_NAMES);
+        for (int i = 0; i <= MAX_NAMES; i++) {
+            templatingStage.normalize("get /orders/" + i);
+        }
+        templatingStage.normalize(KNOWN_NAME);
+    }
+
+    @Benchmark
+    public String knownName() {
+        return keepingStage.normalize(KNOWN_NAME);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String knownNameContended() {
+        return keepingStage.normalize(KNOWN_NAME);
+    }
+
+    @Benchmark
+    public String knownNameTemplating() {
+        return templatingStage.normalize(KNOWN_NAME);
+    }
+
+    @Benchmark
+    public String templateWords() {
+        return SpanNameStage.template("ballerina/http/Caller:respond");
+    }
+
+    @Benchmark
+    public String templateIds() {
+        return SpanNameStage.template("get /users/123e4567-e89b-12d3-a456-426614174000/orders/1234");
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.propagation;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of trace context extraction and injection.
+ * <p>
+ * Compares the Amp W3C trace context propagator with the OpenTelemetry one, and the cached propagators with
+ * creating them per call. Run with {@code ./gradlew :amp-extension-native:jmh}, which enables the GC profiler
+ * so that the allocations per operation are reported as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropagationBenchmark {
+    private static final TextMapGetter<Map<String, String>> GETTER = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(Map<String, String> carrier) {
+            return carrier.keySet();
+        }
+
+        @Override
+        public String get(Map<String, String> carrier, String key) {
+            return carrier == null ? null : carrier.get(key);
+        }
+    };
+    private static final TextMapSetter<Map<String, String>> SETTER = Map::put;
+
+    @Param({"amp", "otel"})
+    public String propagator;
+
+    private TextMapPropagator textMapPropagator;
+    private Map<String, String> inboundHeaders;
+    private Map<String, String> outboundHeaders;
+    private Context spanContext;
+
+    @Setup
+    public void setup() {
+        textMapPropagator = "amp".equals(propagator)
+                ? AmpW3CTraceContextPropagator.getInstance() : W3CTraceContextPropagator.getInstance();
+        inboundHeaders = new HashMap<>();
+        inboundHeaders.put("traceparent", "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01");
+        outboundHeaders = new HashMap<>();
+        spanContext = Context.root().with(Span.wrap(SpanContext.create("0af7651916cd43dd8448eb211c80319c",
+                "b7ad6b7169203331", TraceFlags.getSampled(), TraceState.getDefault())));
+    }
+
+    @Benchmark
+    public Context extract() {
+        return textMapPropagator.extract(Context.root(), inboundHeaders, GETTER);
+    }
+
+    @Benchmark
+    public Map<String, String> inject() {
+        textMapPropagator.inject(spanContext, outboundHeaders, SETTER);
+        return outboundHeaders;
+    }
+
+    @Benchmark
+    public ContextPropagators getPropagatorsCached() {
+        return AmpPropagators.getDefault();
+    }
+
+    @Benchmark
+    public ContextPropagators getPropagatorsPerCall() {
+        return ContextPropagators.create(W3CTraceContextPropagator.getInstance());
+    }
+}
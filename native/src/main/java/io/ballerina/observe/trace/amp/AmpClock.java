@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import io.opentelemetry.sdk.common.Clock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Clock which returns timestamps cached by a background ticker, instead of reading the system clock on each call.
+ * <p>
+ * The ticker reads {@link System#nanoTime()} once per resolution period and publishes it, so that reading the clock
+ * is a single volatile read. The epoch time is derived from the monotonic time, anchored to the wall clock when the
+ * clock is created, so the timestamps stay monotonic and consistent with each other. Timestamps lag the system
+ * clock by up to the resolution, and spans shorter than the resolution may have a duration of zero.
+ * <p>
+ * The ticker is a daemon thread which runs until the clock is closed. After that, the clock reads the system
+ * clock on each call.
+ */
+public final class AmpClock implements Clock, AutoCloseable {
+    private static final String TICKER_THREAD_NAME = "amp-clock-ticker";
+
+    private final long resolutionNanos;
+    private final long anchorEpochNanos;
+    private final long anchorNanoTime;
+    private final Thread ticker;
+    private volatile long nanoTime;
+    private volatile boolean isClosed;
+
+    private AmpClock(long resolutionNanos) {
+        this.resolutionNanos = resolutionNanos;
+        this.anchorEpochNanos = Clock.getDefault().now();
+        this.anchorNanoTime = System.nanoTime();
+        this.nanoTime = anchorNanoTime;
+        this.ticker = new Thread(this::tick, TICKER_THREAD_NAME);
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    /**
+     * Create a clock which caches the time with the given resolution.
+     *
+     * @param resolution the interval at which the cached time is advanced
+     * @param unit       the unit of the resolution
+     * @return a new clock, which must be closed to stop its ticker
+     */
+    public static AmpClock create(long resolution, TimeUnit unit) {
+        if (resolution <= 0) {
+            throw new IllegalArgumentException("resolution must be positive.");
+        }
+        return new AmpClock(unit.toNanos(resolution));
+    }
+
+    @Override
+    public long now() {
+        return anchorEpochNanos + (nanoTime() - anchorNanoTime);
+    }
+
+    @Override
+    public long nanoTime() {
+        return isClosed ? System.nanoTime() : nanoTime;
+    }
+
+    /**
+     * Get the interval at which the cached time is advanced.
+     *
+     * @return the resolution in nanoseconds
+     */
+    public long getResolutionNanos() {
+        return resolutionNanos;
+    }
+
+    private void tick() {
+        while (!isClosed) {
+            LockSupport.parkNanos(resolutionNanos);
+            nanoTime = System.nanoTime();
+        }
+    }
+
+    /**
+     * Stop the ticker.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        LockSupport.unpark(ticker);
+    }
+
+    @Override
+    public String toString() {
+        return "AmpClock{resolutionNanos=" + resolutionNanos + '}';
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import io.opentelemetry.api.internal.OtelEncodingUtils;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.api.trace.TraceId;
+import io.opentelemetry.sdk.trace.IdGenerator;
+
+import java.util.SplittableRandom;
+
+/**
+ * Trace and span ID generator which uses a splittable random number generator per thread.
+ * <p>
+ * Each thread gets its own generator, split from a shared root generator, so that generating an ID needs no
+ * synchronization. The IDs are written as hex into a per thread buffer, and the returned string is the only
+ * allocation.
+ * <p>
+ * In the time prefixed mode, the first 32 bits of each trace ID hold the epoch second in which the trace started,
+ * so that traces which are close in time are also close in the index of the tracing backend. The remaining 96
+ * bits are random, which includes the lower 64 bits used by the trace ID ratio based sampler.
+ */
+public final class AmpIdGenerator implements IdGenerator {
+    private static final long INVALID_ID = 0;
+    private static final SplittableRandom ROOT_RANDOM = new SplittableRandom();
+    private static final ThreadLocal<ThreadState> THREAD_STATE = ThreadLocal.withInitial(ThreadState::new);
+
+    private static final AmpIdGenerator RANDOM = new AmpIdGenerator(false);
+    private static final AmpIdGenerator TIME_PREFIXED = new AmpIdGenerator(true);
+
+    private final boolean timePrefixed;
+
+    private AmpIdGenerator(boolean timePrefixed) {
+        this.timePrefixed = timePrefixed;
+    }
+
+    /**
+     * Get the generator of fully random trace IDs.
+     *
+     * @return the random ID generator
+     */
+    public static AmpIdGenerator random() {
+        return RANDOM;
+    }
+
+    /**
+     * Get the generator of trace IDs prefixed with the epoch second.
+     *
+     * @return the time prefixed ID generator
+     */
+    public static AmpIdGenerator timePrefixed() {
+        return TIME_PREFIXED;
+    }
+
+    @Override
+    public String generateSpanId() {
+        ThreadState state = THREAD_STATE.get();
+        long id;
+        do {
+            id = state.random.nextLong();
+        } while (id == INVALID_ID);
+        OtelEncodingUtils.longToBase16String(id, state.chars, 0);
+        return new String(state.chars, 0, SpanId.getLength());
+    }
+
+    @Override
+    public String generateTraceId() {
+        ThreadState state = THREAD_STATE.get();
+        long idHi;
+        if (timePrefixed) {
+            idHi = (System.currentTimeMillis() / 1000) << 32 | (state.random.nextInt() & 0xFFFFFFFFL);
+        } else {
+            idHi = state.random.nextLong();
+        }
+        long idLo;
+        do {
+            idLo = state.random.nextLong();
+        } while (idLo == INVALID_ID);
+        OtelEncodingUtils.longToBase16String(idHi, state.chars, 0);
+        OtelEncodingUtils.longToBase16String(idLo, state.chars, SpanId.getLength());
+        return new String(state.chars, 0, TraceId.getLength());
+    }
+
+    @Override
+    public String toString() {
+        return timePrefixed ? "AmpIdGenerator{timePrefixed}" : "AmpIdGenerator{random}";
+    }
+
+    private static final class ThreadState {
+        private final SplittableRandom random;
+        private final char[] chars = new char[TraceId.getLength()];
+
+        private ThreadState() {
+            synchronized (ROOT_RANDOM) {
+                random = ROOT_RANDOM.split();
+            }
+        }
+    }
+}
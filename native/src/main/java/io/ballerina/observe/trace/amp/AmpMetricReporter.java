@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import io.ballerina.observe.trace.amp.exporter.UnixDomainSocketSpanExporter;
+import io.ballerina.observe.trace.amp.metrics.OtlpMetricsReporter;
+import io.ballerina.observe.trace.amp.metrics.SpanDurationStage;
+import io.ballerina.runtime.api.values.BString;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.sdk.resources.Resource;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import static io.opentelemetry.semconv.ResourceAttributes.SERVICE_NAME;
+
+/**
+ * Publishes the metrics of the Ballerina runtime, the durations of the entry spans, and the counters of the span
+ * pipelines, such as the dropped spans, to Amp.
+ */
+public final class AmpMetricReporter {
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    private static final PrintStream console = System.out;
+
+    static OtlpMetricsReporter reporter;
+    static SpanDurationStage spanDurationStage;
+
+    private AmpMetricReporter() {
+    }
+
+    public static void initializeConfigurations(BString otelEndpoint, int reportInterval, BString apiKey,
+                                                BString serviceName, BString orgUid, BString projectUid,
+                                                BString componentUid, BString environmentUid) {
+        initializeConfigurationsForInternal(otelEndpoint.toString(), reportInterval, apiKey.toString(),
+                serviceName.toString(), orgUid.toString(), projectUid.toString(), componentUid.toString(),
+                environmentUid.toString());
+    }
+
+    /**
+     * Initialize configurations with plain Java types (for testing without Ballerina runtime).
+     */
+
+    public static void initializeConfigurationsForInternal(String otelEndpoint, int reportInterval, String apiKey,
+                                                           String serviceName, String orgUid, String projectUid,
+                                                           String componentUid, String environmentUid) {
+        if (UnixDomainSocketSpanExporter.isUnixDomainSocketEndpoint(otelEndpoint)) {
+            console.println("ballerina: Amp metrics cannot be published to a Unix domain socket endpoint, "
+                    + "metrics are not published");
+            return;
+        }
+        AttributesBuilder attributes = Attributes.builder();
+        if (!serviceName.isEmpty()) {
+            attributes.put(SERVICE_NAME, serviceName);
+        }
+        if (!orgUid.isEmpty()) {
+            attributes.put(AmpResourceAttributes.ORG_UID, orgUid);
+        }
+        if (!projectUid.isEmpty()) {
+            attributes.put(AmpResourceAttributes.PROJECT_UID, projectUid);
+        }
+        if (!componentUid.isEmpty()) {
+            attributes.put(AmpResourceAttributes.COMPONENT_UID, componentUid);
+        }
+        if (!environmentUid.isEmpty()) {
+            attributes.put(AmpResourceAttributes.ENVIRONMENT_UID, environmentUid);
+        }
+        String endpoint = otelEndpoint + OtlpMetricsReporter.DEFAULT_METRICS_PATH;
+        // The tracer provider reads the stage when it builds its pipelines
+        spanDurationStage = new SpanDurationStage();
+        OtlpMetricsReporter.Builder builder = OtlpMetricsReporter.builder(endpoint)
+                .setTimeout(reportInterval, TimeUnit.MILLISECONDS)
+                .setResource(Resource.create(attributes.build()))
+                .setSpanDurations(spanDurationStage)
+                .addSource(AmpTracerProvider::collectMetrics);
+        if (!apiKey.isEmpty()) {
+            builder.addHeader("Authorization", "Bearer " + apiKey);
+        }
+        reporter = builder.build();
+        reporter.start(reportInterval, TimeUnit.MILLISECONDS);
+        console.println("ballerina: started publishing metrics to Amp on " + endpoint);
+    }
+
+    /**
+     * Get the stage which records the span durations of the published metrics.
+     *
+     * @return the stage, or null when metrics are not published
+     */
+    static SpanDurationStage getSpanDurationStage() {
+        return spanDurationStage;
+    }
+
+    /**
+     * Stop publishing metrics, after publishing the metrics which changed since the last report.
+     */
+    public static void shutdown() {
+        if (reporter == null) {
+            return;
+        }
+        reporter.shutdown().join(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        reporter = null;
+        if (spanDurationStage.getUnrecordedSpans() > 0) {
+            console.println("ballerina: Amp span duration metrics passed " + SpanDurationStage.MAX_SERIES
+                    + " series, and " + spanDurationStage.getUnrecordedSpans() + " spans were not recorded");
+        }
+        spanDurationStage = null;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import io.opentelemetry.api.common.AttributeKey;
+
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+
+/**
+ * Resource attribute keys published by the Amp extension.
+ * <p>
+ * This class only holds immutable constants so that it can be initialized at native image build time.
+ */
+final class AmpResourceAttributes {
+    static final AttributeKey<String> ORG_UID = stringKey("openchoreo.dev/org-uid");
+    static final AttributeKey<String> PROJECT_UID = stringKey("openchoreo.dev/project-uid");
+    static final AttributeKey<String> COMPONENT_UID = stringKey("openchoreo.dev/component-uid");
+    static final AttributeKey<String> ENVIRONMENT_UID = stringKey("openchoreo.dev/environment-uid");
+
+    private AmpResourceAttributes() {
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * An Amp tenant to which the spans of some of the services in the program are reported.
+ * <p>
+ * Each tenant has its own API key, resource attributes, span queue and sampler, so that the services of one
+ * component do not report as another, and a tenant which produces many spans only fills its own queue. Empty
+ * values are not sent, the same as for the default tenant.
+ */
+public final class AmpTenant {
+    public static final int DEFAULT_WEIGHT = 1;
+
+    private final String name;
+    private final Set<String> services;
+    private final String apiKey;
+    private final String serviceName;
+    private final String orgUid;
+    private final String projectUid;
+    private final String componentUid;
+    private final String environmentUid;
+    private final int weight;
+
+    private AmpTenant(Builder builder) {
+        this.name = builder.name;
+        this.services = Collections.unmodifiableSet(new LinkedHashSet<>(builder.services));
+        this.apiKey = builder.apiKey;
+        this.serviceName = builder.serviceName;
+        this.orgUid = builder.orgUid;
+        this.projectUid = builder.projectUid;
+        this.componentUid = builder.componentUid;
+        this.environmentUid = builder.environmentUid;
+        this.weight = builder.weight;
+    }
+
+    /**
+     * Create a builder for a tenant.
+     *
+     * @param name the name of the tenant, used in logs only
+     * @return a new builder
+     */
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the names of the Ballerina services whose spans are reported to this tenant.
+     *
+     * @return the service names
+     */
+    public Set<String> getServices() {
+        return services;
+    }
+
+    public String getApiKey() {
+        return apiKey;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getOrgUid() {
+        return orgUid;
+    }
+
+    public String getProjectUid() {
+        return projectUid;
+    }
+
+    public String getComponentUid() {
+        return componentUid;
+    }
+
+    public String getEnvironmentUid() {
+        return environmentUid;
+    }
+
+    /**
+     * Get the share of the export bandwidth of this tenant relative to the other tenants.
+     *
+     * @return the weight
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return "AmpTenant{name=" + name + ", services=" + services + ", weight=" + weight + '}';
+    }
+
+    /**
+     * Builder for {@link AmpTenant}.
+     */
+    public static final class Builder {
+        private final String name;
+        private final Set<String> services = new LinkedHashSet<>();
+        private String apiKey = "";
+        private String serviceName = "";
+        private String orgUid = "";
+        private String projectUid = "";
+        private String componentUid = "";
+        private String environmentUid = "";
+        private int weight = DEFAULT_WEIGHT;
+
+        private Builder(String name) {
+            if (name == null) {
+                throw new IllegalArgumentException("tenant name cannot be null");
+            }
+            this.name = name;
+        }
+
+        public Builder addService(String service) {
+            this.services.add(service);
+            return this;
+        }
+
+        public Builder setApiKey(String apiKey) {
+            this.apiKey = apiKey;
+            return this;
+        }
+
+        public Builder setServiceName(String serviceName) {
+            this.serviceName = serviceName;
+            return this;
+        }
+
+        public Builder setOrgUid(String orgUid) {
+            this.orgUid = orgUid;
+            return this;
+        }
+
+        public Builder setProjectUid(String projectUid) {
+            this.projectUid = projectUid;
+            return this;
+        }
+
+        public Builder setComponentUid(String componentUid) {
+            this.componentUid = componentUid;
+            return this;
+        }
+
+        public Builder setEnvironmentUid(String environmentUid) {
+            this.environmentUid = environmentUid;
+            return this;
+        }
+
+        public Builder setWeight(int weight) {
+            if (weight <= 0) {
+                throw new IllegalArgumentException("weight must be positive.");
+            }
+            this.weight = weight;
+            return this;
+        }
+
+        public AmpTenant build() {
+            return new AmpTenant(this);
+        }
+    }
+}
@@ -17,25 +17,64 @@
  */
 package io.ballerina.observe.trace.amp;
 
+import io.ballerina.observe.trace.amp.exporter.ByteRateLimitingSpanExporter;
+import io.ballerina.observe.trace.amp.exporter.FairExportScheduler;
+import io.ballerina.observe.trace.amp.exporter.UnixDomainSocketSpanExporter;
+import io.ballerina.observe.trace.amp.metrics.MetricSource;
+import io.ballerina.observe.trace.amp.metrics.SpanDurationStage;
+import io.ballerina.observe.trace.amp.processor.AmpBatchSpanProcessor;
+import io.ballerina.observe.trace.amp.processor.PropagatedSpans;
+import io.ballerina.observe.trace.amp.processor.SlowSpanProfiler;
+import io.ballerina.observe.trace.amp.processor.SpanFilter;
+import io.ballerina.observe.trace.amp.processor.SpanFilterStage;
+import io.ballerina.observe.trace.amp.processor.SpanFlightRecorder;
+import io.ballerina.observe.trace.amp.processor.SpanFlightRecorder.RecordedSpan;
+import io.ballerina.observe.trace.amp.processor.SpanNameStage;
+import io.ballerina.observe.trace.amp.processor.SpanSummaryStage;
+import io.ballerina.observe.trace.amp.propagation.AmpPropagators;
+import io.ballerina.observe.trace.amp.recording.SpanRecorder;
+import io.ballerina.observe.trace.amp.sampler.ConsistentProbabilitySampler;
+import io.ballerina.observe.trace.amp.sampler.FixedProbabilitySampler;
+import io.ballerina.observe.trace.amp.sampler.LoadSheddingSampler;
+import io.ballerina.observe.trace.amp.sampler.RateLimiter;
 import io.ballerina.observe.trace.amp.sampler.RateLimitingSampler;
+import io.ballerina.observe.trace.amp.sampler.RecordingSampler;
+import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.values.BArray;
 import io.ballerina.runtime.api.values.BDecimal;
+import io.ballerina.runtime.api.values.BMap;
 import io.ballerina.runtime.api.values.BString;
 import io.ballerina.runtime.observability.tracer.spi.TracerProvider;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.api.trace.SpanKind;
 import io.opentelemetry.api.trace.Tracer;
-import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
 import io.opentelemetry.context.propagation.ContextPropagators;
 import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
 import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporterBuilder;
+import io.opentelemetry.sdk.common.Clock;
+import io.opentelemetry.sdk.common.CompletableResultCode;
 import io.opentelemetry.sdk.resources.Resource;
 import io.opentelemetry.sdk.trace.SdkTracerProvider;
 import io.opentelemetry.sdk.trace.SdkTracerProviderBuilder;
-import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
 import io.opentelemetry.sdk.trace.samplers.Sampler;
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import static io.opentelemetry.semconv.ResourceAttributes.SERVICE_NAME;
 
@@ -44,15 +83,39 @@ import static io.opentelemetry.semconv.ResourceAttributes.SERVICE_NAME;
  */
 public class AmpTracerProvider implements TracerProvider {
     private static final String TRACER_NAME = "amp";
+    private static final String DEFAULT_TENANT = "default";
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
     private static final PrintStream console = System.out;
+    private static final Tracer NOOP_TRACER = OpenTelemetry.noop().getTracer(TRACER_NAME);
 
-    static SdkTracerProviderBuilder tracerProviderBuilder;
-    static SdkTracerProvider sdkTracerProvider;
-    static String serviceName;
-    static String orgUid;
-    static String projectUid;
-    static String componentUid;
-    static String environmentUid;
+    // Metrics of the pipelines, which the metric reporter publishes
+    static final AttributeKey<String> TENANT = AttributeKey.stringKey("amp.tenant");
+    static final AttributeKey<String> QUEUE_LANE = AttributeKey.stringKey("amp.queue.lane");
+    static final String DROPPED_SPANS_METRIC = "amp.span_queue.dropped";
+    static final String FILTERED_SPANS_METRIC = "amp.span_filter.filtered";
+    static final String TEMPLATED_SPANS_METRIC = "amp.span_name.templated";
+    static final String DISTINCT_NAMES_METRIC = "amp.span_name.distinct";
+    static final String THROTTLED_TIME_METRIC = "amp.export.throttled_time";
+    static final String THROTTLED_EXPORTS_METRIC = "amp.export.throttled";
+    static final String DOWNSAMPLED_SPANS_METRIC = "amp.export.downsampled";
+    private static final String SPAN_UNIT = "{span}";
+    private static final String NAME_UNIT = "{name}";
+    private static final String EXPORT_UNIT = "{export}";
+
+    static TenantPipeline defaultPipeline;
+    // Pipelines of the configured tenants, by the names of their services
+    static Map<String, TenantPipeline> tenantPipelines = Collections.emptyMap();
+    static FairExportScheduler exportScheduler;
+    static SpanFilterStage spanFilterStage;
+    static SpanNameStage spanNameStage;
+    static PropagatedSpans propagatedSpans;
+    static SlowSpanProfiler slowSpanProfiler;
+    static SpanRecorder spanRecorder;
+    static ContextPropagators propagators = AmpPropagators.getDefault();
+    static Clock clock = Clock.getDefault();
+    static SpanVerbosity spanVerbosity = SpanVerbosity.FULL;
+    // Whether the pipelines and threads of a configuration run until shutdown
+    private static boolean started;
 
     @Override
     public String getName() {
@@ -65,8 +128,17 @@ public class AmpTracerProvider implements TracerProvider {
 
     public static void initializeConfigurations(BString otelEndpoint, BString samplerType,
                                                 BDecimal samplerParam, int reporterFlushInterval,
-                                                int reporterBufferSize, BString apiKey, BString serviceName,
-                                                BString orgUid, BString projectUid, BString componentUid,
+                                                int reporterBufferSize, int priorityQueueSize,
+                                                BString prioritySpanAttribute, BArray propagators,
+                                                boolean timePrefixedTraceIds, int clockResolutionMicros,
+                                                BString spanVerbosity, BArray spanFilters, int spanNameLimit,
+                                                boolean summarizeSpans, int spanSummaryMinRunLength,
+                                                int spanSummaryExemplars, int flightRecorderSize,
+                                                int slowSpanThreshold, int slowSpanSampleInterval,
+                                                int exportByteRate, BString exportByteRatePolicy,
+                                                BString spanRecordingFile, BArray tenants,
+                                                BString apiKey, BString serviceName, BString orgUid,
+                                                BString projectUid, BString componentUid,
                                                 BString environmentUid) {
         initializeConfigurationsForInternal(
                 otelEndpoint.toString(),
@@ -74,6 +146,24 @@ public class AmpTracerProvider implements TracerProvider {
                 samplerParam.value().doubleValue(),
                 reporterFlushInterval,
                 reporterBufferSize,
+                priorityQueueSize,
+                prioritySpanAttribute.toString(),
+                propagators.getStringArray(),
+                timePrefixedTraceIds,
+                clockResolutionMicros,
+                spanVerbosity.toString(),
+                toSpanFilters(spanFilters),
+                spanNameLimit,
+                summarizeSpans,
+                spanSummaryMinRunLength,
+                spanSummaryExemplars,
+                flightRecorderSize,
+                slowSpanThreshold,
+                slowSpanSampleInterval,
+                exportByteRate,
+                exportByteRatePolicy.toString(),
+                spanRecordingFile.toString(),
+                toTenants(tenants),
                 apiKey.toString(),
                 serviceName.toString(),
                 orgUid.toString(),
@@ -87,37 +177,278 @@ public class AmpTracerProvider implements TracerProvider {
      */
     public static void initializeConfigurationsForInternal(String otelEndpoint, String samplerType,
                                                            double samplerParam, int reporterFlushInterval,
-                                                           int reporterBufferSize, String apiKey, String serviceName,
+                                                           int reporterBufferSize, int priorityQueueSize,
+                                                           String prioritySpanAttribute, String[] propagators,
+                                                           boolean timePrefixedTraceIds, int clockResolutionMicros,
+                                                           String spanVerbosity, List<SpanFilter> spanFilters,
+                                                           int spanNameLimit, boolean summarizeSpans,
+                                                           int spanSummaryMinRunLength, int spanSummaryExemplars,
+                                                           int flightRecorderSize, int slowSpanThreshold,
+                                                           int slowSpanSampleInterval, int exportByteRate,
+                                                           String exportByteRatePolicy, String spanRecordingFile,
+                                                           List<AmpTenant> tenants,
+                                                           String apiKey, String serviceName,
                                                            String orgUid, String projectUid, String componentUid,
                                                            String environmentUid) {
-        AmpTracerProvider.serviceName = serviceName;
-        AmpTracerProvider.orgUid = orgUid;
-        AmpTracerProvider.projectUid = projectUid;
-        AmpTracerProvider.componentUid = componentUid;
-        AmpTracerProvider.environmentUid = environmentUid;
+        // A new configuration replaces the previous one, whose spans are flushed and whose threads are stopped
+        shutdown();
+        started = true;
+        AmpTracerProvider.propagators = AmpPropagators.create(propagators);
+        AmpTracerProvider.spanVerbosity = SpanVerbosity.of(spanVerbosity);
+        if (!canSample(samplerType, samplerParam) && flightRecorderSize == 0) {
+            // Nothing would ever be exported, so the spans only carry the incoming context through the program
+            defaultPipeline = null;
+            tenantPipelines = Collections.emptyMap();
+            exportScheduler = null;
+            spanFilterStage = null;
+            spanNameStage = null;
+            propagatedSpans = null;
+            slowSpanProfiler = null;
+            spanRecorder = null;
+            clock = Clock.getDefault();
+            console.println("ballerina: Amp sampler " + samplerType + " with parameter " + samplerParam
+                    + " never samples, so no traces are published");
+            return;
+        }
+        spanFilterStage = spanFilters.isEmpty() ? null : new SpanFilterStage(spanFilters);
+        spanNameStage = spanNameLimit > 0 ? new SpanNameStage(spanNameLimit) : null;
+        // The summaries keep the spans whose context was injected, for their children in other services
+        propagatedSpans = summarizeSpans ? new PropagatedSpans() : null;
+        if (propagatedSpans != null) {
+            AmpTracerProvider.propagators = ContextPropagators.create(
+                    propagatedSpans.track(AmpTracerProvider.propagators.getTextMapPropagator()));
+        }
+        // One watchdog thread samples the slow spans of all tenants
+        slowSpanProfiler = slowSpanThreshold > 0 ? new SlowSpanProfiler(slowSpanThreshold, slowSpanSampleInterval,
+                TimeUnit.MILLISECONDS) : null;
+        if (slowSpanProfiler != null) {
+            slowSpanProfiler.start();
+        }
+        spanRecorder = null;
+        if (!spanRecordingFile.isEmpty()) {
+            try {
+                spanRecorder = new SpanRecorder(Paths.get(spanRecordingFile));
+                console.println("ballerina: recording Amp spans to " + spanRecorder.getFile());
+            } catch (IOException | RuntimeException e) {
+                console.println("ballerina: cannot record Amp spans to " + spanRecordingFile + ": " + e.getMessage());
+            }
+        }
+        clock = clockResolutionMicros > 0
+                ? AmpClock.create(clockResolutionMicros, TimeUnit.MICROSECONDS) : Clock.getDefault();
+        // The tenants share one pool of export threads, and a program with a single tenant exports on the
+        // thread of its span processor as before
+        exportScheduler = tenants.isEmpty() ? null : new FairExportScheduler(FairExportScheduler.DEFAULT_WORKERS,
+                reporterFlushInterval, TimeUnit.MILLISECONDS);
 
-        String reporterEndpoint = otelEndpoint + "/v1/traces";
+        // The tenants share the bytes, which allows bursts of up to one second of export
+        RateLimiter exportByteLimiter = exportByteRate > 0
+                ? new RateLimiter(exportByteRate, exportByteRate, Clock.getDefault()) : null;
 
-        OtlpHttpSpanExporterBuilder builder = OtlpHttpSpanExporter.builder()
-                .setEndpoint(reporterEndpoint);
+        PipelineConfig config = new PipelineConfig(otelEndpoint, samplerType, samplerParam, reporterFlushInterval,
+                reporterBufferSize, priorityQueueSize, prioritySpanAttribute, timePrefixedTraceIds, summarizeSpans,
+                spanSummaryMinRunLength, spanSummaryExemplars, flightRecorderSize, exportByteLimiter,
+                ByteRateLimitingSpanExporter.Policy.of(exportByteRatePolicy));
+        defaultPipeline = new TenantPipeline(AmpTenant.builder(DEFAULT_TENANT)
+                .setApiKey(apiKey)
+                .setServiceName(serviceName)
+                .setOrgUid(orgUid)
+                .setProjectUid(projectUid)
+                .setComponentUid(componentUid)
+                .setEnvironmentUid(environmentUid)
+                .build(), config);
+        Map<String, TenantPipeline> pipelines = new HashMap<>();
+        for (AmpTenant tenant : tenants) {
+            TenantPipeline pipeline = new TenantPipeline(tenant, config);
+            for (String service : tenant.getServices()) {
+                pipelines.putIfAbsent(service, pipeline);
+            }
+            console.println("ballerina: publishing traces of services " + tenant.getServices()
+                    + " to Amp tenant " + tenant.getName());
+        }
+        tenantPipelines = pipelines;
 
-        if (!apiKey.isEmpty()) {
-            builder.addHeader("Authorization", "Bearer " + apiKey);
+        console.println("ballerina: started publishing traces to Amp on " + defaultPipeline.reporterEndpoint);
+    }
+
+    /**
+     * Convert the span filter records configured in Ballerina.
+     */
+    private static List<SpanFilter> toSpanFilters(BArray spanFilters) {
+        BString nameField = StringUtils.fromString("name");
+        BString kindField = StringUtils.fromString("kind");
+        BString attributesField = StringUtils.fromString("attributes");
+        List<SpanFilter> filters = new ArrayList<>(spanFilters.size());
+        for (int i = 0; i < spanFilters.size(); i++) {
+            BMap<?, ?> record = (BMap<?, ?>) spanFilters.get(i);
+            SpanFilter.Builder builder = SpanFilter.builder()
+                    .setName(record.getStringValue(nameField).toString());
+            String kind = record.getStringValue(kindField).toString();
+            if (!kind.isEmpty()) {
+                builder.setKind(SpanKind.valueOf(kind.toUpperCase(Locale.ROOT)));
+            }
+            BMap<?, ?> attributes = record.getMapValue(attributesField);
+            for (Object key : attributes.getKeys()) {
+                builder.addAttribute(key.toString(), attributes.get(key).toString());
+            }
+            filters.add(builder.build());
         }
+        return filters;
+    }
 
-        OtlpHttpSpanExporter exporter = builder.build();
+    /**
+     * Convert the tenant records configured in Ballerina.
+     */
+    private static List<AmpTenant> toTenants(BArray tenants) {
+        BString nameField = StringUtils.fromString("name");
+        BString servicesField = StringUtils.fromString("services");
+        BString apiKeyField = StringUtils.fromString("apiKey");
+        BString serviceNameField = StringUtils.fromString("serviceName");
+        BString orgUidField = StringUtils.fromString("orgUid");
+        BString projectUidField = StringUtils.fromString("projectUid");
+        BString componentUidField = StringUtils.fromString("componentUid");
+        BString environmentUidField = StringUtils.fromString("environmentUid");
+        BString weightField = StringUtils.fromString("weight");
+        List<AmpTenant> result = new ArrayList<>(tenants.size());
+        for (int i = 0; i < tenants.size(); i++) {
+            BMap<?, ?> record = (BMap<?, ?>) tenants.get(i);
+            AmpTenant.Builder builder = AmpTenant.builder(record.getStringValue(nameField).toString())
+                    .setApiKey(record.getStringValue(apiKeyField).toString())
+                    .setServiceName(record.getStringValue(serviceNameField).toString())
+                    .setOrgUid(record.getStringValue(orgUidField).toString())
+                    .setProjectUid(record.getStringValue(projectUidField).toString())
+                    .setComponentUid(record.getStringValue(componentUidField).toString())
+                    .setEnvironmentUid(record.getStringValue(environmentUidField).toString())
+                    .setWeight(((Long) record.get(weightField)).intValue());
+            for (String service : ((BArray) record.get(servicesField)).getStringArray()) {
+                builder.addService(service);
+            }
+            result.add(builder.build());
+        }
+        return result;
+    }
 
+    /**
+     * Dump the spans of a trace kept by the flight recorders.
+     *
+     * @param traceId the trace ID
+     * @return the spans as a JSON array
+     */
+    public static BString dumpTrace(BString traceId) {
+        String id = traceId.toString();
+        return StringUtils.fromString(SpanFlightRecorder.toJson(readFlightRecorders(
+                recorder -> recorder.getTrace(id))));
+    }
 
-        tracerProviderBuilder = SdkTracerProvider.builder()
-                .addSpanProcessor(BatchSpanProcessor
-                        .builder(exporter)
-                        .setMaxExportBatchSize(reporterBufferSize)
-                        .setExporterTimeout(reporterFlushInterval, TimeUnit.MILLISECONDS)
-                        .build());
+    /**
+     * Dump the spans of the traces kept by the flight recorders which failed recently.
+     *
+     * @param seconds the time window, ending now, in which a span of the trace failed
+     * @return the spans as a JSON array
+     */
+    public static BString dumpFailedTraces(BDecimal seconds) {
+        long to = clock.now();
+        long from = to - (long) (seconds.value().doubleValue() * TimeUnit.SECONDS.toNanos(1));
+        return StringUtils.fromString(SpanFlightRecorder.toJson(readFlightRecorders(
+                recorder -> recorder.getFailedTraces(from, to))));
+    }
 
-        tracerProviderBuilder.setSampler(selectSampler(samplerType, samplerParam));
+    /**
+     * Export the spans of a trace kept by the flight recorders which were not sampled.
+     *
+     * @param traceId the trace ID
+     * @return the number of exported spans
+     */
+    public static long promoteTrace(BString traceId) {
+        String id = traceId.toString();
+        return promoteFromFlightRecorders(recorder -> recorder.getTrace(id));
+    }
 
-        console.println("ballerina: started publishing traces to Amp on " + reporterEndpoint);
+    /**
+     * Export the spans of the traces kept by the flight recorders which failed recently, and were not sampled.
+     *
+     * @param seconds the time window, ending now, in which a span of the trace failed
+     * @return the number of exported spans
+     */
+    public static long promoteFailedTraces(BDecimal seconds) {
+        long to = clock.now();
+        long from = to - (long) (seconds.value().doubleValue() * TimeUnit.SECONDS.toNanos(1));
+        return promoteFromFlightRecorders(recorder -> recorder.getFailedTraces(from, to));
+    }
+
+    private static List<RecordedSpan> readFlightRecorders(
+            Function<SpanFlightRecorder, List<RecordedSpan>> query) {
+        List<RecordedSpan> spans = new ArrayList<>();
+        for (TenantPipeline pipeline : getPipelines()) {
+            if (pipeline.flightRecorder != null) {
+                spans.addAll(query.apply(pipeline.flightRecorder));
+            }
+        }
+        return spans;
+    }
+
+    private static long promoteFromFlightRecorders(Function<SpanFlightRecorder, List<RecordedSpan>> query) {
+        long promoted = 0;
+        for (TenantPipeline pipeline : getPipelines()) {
+            if (pipeline.flightRecorder != null) {
+                // Promoted spans are reported with the resource of the latest tracer of the pipeline
+                List<SpanData> spans = SpanFlightRecorder.promote(query.apply(pipeline.flightRecorder),
+                        pipeline.resource);
+                pipeline.spanProcessor.export(spans);
+                promoted += spans.size();
+            }
+        }
+        return promoted;
+    }
+
+    /**
+     * Record the counters of the pipelines, which are otherwise only printed when the tracer provider is shut
+     * down, so that the metric reporter publishes them.
+     *
+     * @param recorder the recorder of the values
+     */
+    static void collectMetrics(MetricSource.Recorder recorder) {
+        SpanFilterStage filterStage = spanFilterStage;
+        if (filterStage != null) {
+            // The span filters are shared by all tenants
+            recorder.counter(FILTERED_SPANS_METRIC, "Spans dropped by the span filters", SPAN_UNIT,
+                    Attributes.empty(), filterStage.getFilteredSpans());
+        }
+        SpanNameStage nameStage = spanNameStage;
+        if (nameStage != null) {
+            // The span names are shared by all tenants as well
+            recorder.counter(TEMPLATED_SPANS_METRIC, "Spans whose name was replaced with a template", SPAN_UNIT,
+                    Attributes.empty(), nameStage.getTemplatedSpans());
+            recorder.counter(DISTINCT_NAMES_METRIC, "Distinct span names which were reported as they are",
+                    NAME_UNIT, Attributes.empty(), nameStage.getDistinctNames());
+        }
+        for (TenantPipeline pipeline : getPipelines()) {
+            pipeline.collectMetrics(recorder);
+        }
+    }
+
+    private static List<TenantPipeline> getPipelines() {
+        LinkedHashSet<TenantPipeline> pipelines = new LinkedHashSet<>();
+        if (defaultPipeline != null) {
+            pipelines.add(defaultPipeline);
+        }
+        pipelines.addAll(tenantPipelines.values());
+        return new ArrayList<>(pipelines);
+    }
+
+    /**
+     * Check whether the sampler selected by the configuration samples any span.
+     */
+    static boolean canSample(String samplerType, double samplerParam) {
+        switch (samplerType) {
+            default:
+            case "const":
+                return (int) samplerParam != 0;
+            case "probabilistic":
+            case ConsistentProbabilitySampler.TYPE:
+                return samplerParam > 0;
+            case RateLimitingSampler.TYPE:
+                return (int) samplerParam > 0;
+        }
     }
 
     private static Sampler selectSampler(String samplerType, double samplerParam) {
@@ -127,12 +458,16 @@ public class AmpTracerProvider implements TracerProvider {
                 if ((int) samplerParam == 0) {
                     return Sampler.alwaysOff();
                 } else {
-                    return Sampler.alwaysOn();
+                    // Every span is sampled, so each stands for itself
+                    return new FixedProbabilitySampler(Sampler.alwaysOn(), 1.0);
                 }
             case "probabilistic":
-                return Sampler.traceIdRatioBased(samplerParam);
+                Sampler sampler = Sampler.traceIdRatioBased(samplerParam);
+                return samplerParam > 0 ? new FixedProbabilitySampler(sampler, samplerParam) : sampler;
             case RateLimitingSampler.TYPE:
-                return new RateLimitingSampler((int) samplerParam);
+                return new RateLimitingSampler((int) samplerParam, clock);
+            case ConsistentProbabilitySampler.TYPE:
+                return new ConsistentProbabilitySampler(samplerParam);
         }
     }
 
@@ -142,42 +477,280 @@ public class AmpTracerProvider implements TracerProvider {
     }
 
     private static Tracer getTracerInternal(String serviceName) {
-        AttributesBuilder builder = Attributes.builder();
-        if (!AmpTracerProvider.serviceName.isEmpty()) {
-            builder.put(SERVICE_NAME, AmpTracerProvider.serviceName);
-        } else {
-            builder.put(SERVICE_NAME, serviceName);
+        if (defaultPipeline == null) {
+            // The spans of the no-op tracer carry the context of their parent, so it is still propagated
+            return NOOP_TRACER;
+        }
+        Tracer tracer = tenantPipelines.getOrDefault(serviceName, defaultPipeline).getTracer(serviceName);
+        return spanVerbosity == SpanVerbosity.FULL ? tracer : new VerbosityTracer(tracer, spanVerbosity);
+    }
+
+    @Override
+    public ContextPropagators getPropagators() {
+        return propagators;
+    }
+
+    /**
+     * Shutdown the tracer provider and flush all pending spans. Once shut down, it does nothing until it is
+     * configured again.
+     */
+    public static void shutdown() {
+        if (!started) {
+            return;
+        }
+        started = false;
+        List<CompletableResultCode> results = new ArrayList<>();
+        if (defaultPipeline != null) {
+            results.add(defaultPipeline.shutdown());
+        }
+        new LinkedHashSet<>(tenantPipelines.values()).forEach(pipeline -> results.add(pipeline.shutdown()));
+        if (exportScheduler != null) {
+            // The pipelines flush through the shared export threads, so wait for them before stopping the threads
+            CompletableResultCode.ofAll(results).join(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            exportScheduler.shutdown();
         }
-        if (!AmpTracerProvider.orgUid.isEmpty()) {
-            builder.put("openchoreo.dev/org-uid", AmpTracerProvider.orgUid);
+        if (clock instanceof AmpClock) {
+            // Spans which end after this read the system clock
+            ((AmpClock) clock).close();
         }
-        if (!AmpTracerProvider.projectUid.isEmpty()) {
-            builder.put("openchoreo.dev/project-uid", AmpTracerProvider.projectUid);
+        if (spanRecorder != null) {
+            // The pipelines passed the spans which their stages held back to the recorder as they shut down
+            spanRecorder.close();
+            console.println("ballerina: recorded " + spanRecorder.getRecordedSpans() + " Amp spans to "
+                    + spanRecorder.getFile() + ", and dropped " + spanRecorder.getDroppedSpans() + " spans");
+            spanRecorder = null;
         }
-        if (!AmpTracerProvider.componentUid.isEmpty()) {
-            builder.put("openchoreo.dev/component-uid", AmpTracerProvider.componentUid);
+        if (slowSpanProfiler != null) {
+            slowSpanProfiler.close();
+            if (slowSpanProfiler.getUntrackedSpans() > 0) {
+                console.println("ballerina: Amp slow span profiler was full and did not track "
+                        + slowSpanProfiler.getUntrackedSpans() + " spans");
+            }
         }
-        if (!AmpTracerProvider.environmentUid.isEmpty()) {
-            builder.put("openchoreo.dev/environment-uid", AmpTracerProvider.environmentUid);
+        if (spanFilterStage != null && spanFilterStage.getFilteredSpans() > 0) {
+            console.println("ballerina: Amp span filters dropped " + spanFilterStage.getFilteredSpans() + " spans");
+        }
+        if (spanNameStage != null && spanNameStage.isTemplating()) {
+            console.println("ballerina: Amp span names passed " + spanNameStage.getDistinctNames()
+                    + " distinct names, and the names of " + spanNameStage.getTemplatedSpans()
+                    + " spans were templated");
+        }
+        long throttledMillis = 0;
+        long downsampledSpans = 0;
+        for (TenantPipeline pipeline : getPipelines()) {
+            if (pipeline.rateLimitedExporter != null) {
+                throttledMillis += pipeline.rateLimitedExporter.getThrottledTime(TimeUnit.MILLISECONDS);
+                downsampledSpans += pipeline.rateLimitedExporter.getDownsampledSpans();
+            }
+        }
+        if (throttledMillis > 0 || downsampledSpans > 0) {
+            console.println("ballerina: Amp export byte rate limit held exports back for " + throttledMillis
+                    + " ms and downsampled " + downsampledSpans + " spans");
         }
-        sdkTracerProvider = tracerProviderBuilder
-                .setResource(Resource.create(builder.build()))
-                .build();
-        return sdkTracerProvider.get("amp");
     }
 
-    @Override
-    public ContextPropagators getPropagators() {
+    /**
+     * Settings which are common to the pipelines of all tenants.
+     */
+    private static final class PipelineConfig {
+        private final String otelEndpoint;
+        private final String samplerType;
+        private final double samplerParam;
+        private final int reporterFlushInterval;
+        private final int reporterBufferSize;
+        private final int priorityQueueSize;
+        private final String prioritySpanAttribute;
+        private final boolean timePrefixedTraceIds;
+        private final boolean summarizeSpans;
+        private final int spanSummaryMinRunLength;
+        private final int spanSummaryExemplars;
+        private final int flightRecorderSize;
+        private final RateLimiter exportByteLimiter;
+        private final ByteRateLimitingSpanExporter.Policy exportByteRatePolicy;
 
-        return ContextPropagators.create(W3CTraceContextPropagator.getInstance());
+        private PipelineConfig(String otelEndpoint, String samplerType, double samplerParam,
+                               int reporterFlushInterval, int reporterBufferSize, int priorityQueueSize,
+                               String prioritySpanAttribute, boolean timePrefixedTraceIds, boolean summarizeSpans,
+                               int spanSummaryMinRunLength, int spanSummaryExemplars, int flightRecorderSize,
+                               RateLimiter exportByteLimiter,
+                               ByteRateLimitingSpanExporter.Policy exportByteRatePolicy) {
+            this.otelEndpoint = otelEndpoint;
+            this.samplerType = samplerType;
+            this.samplerParam = samplerParam;
+            this.reporterFlushInterval = reporterFlushInterval;
+            this.reporterBufferSize = reporterBufferSize;
+            this.priorityQueueSize = priorityQueueSize;
+            this.prioritySpanAttribute = prioritySpanAttribute;
+            this.timePrefixedTraceIds = timePrefixedTraceIds;
+            this.summarizeSpans = summarizeSpans;
+            this.spanSummaryMinRunLength = spanSummaryMinRunLength;
+            this.spanSummaryExemplars = spanSummaryExemplars;
+            this.flightRecorderSize = flightRecorderSize;
+            this.exportByteLimiter = exportByteLimiter;
+            this.exportByteRatePolicy = exportByteRatePolicy;
+        }
     }
 
     /**
-     * Shutdown the tracer provider and flush all pending spans.
+     * The exporter, span queue and sampler of a tenant.
      */
-    public static void shutdown() {
-        if (sdkTracerProvider != null) {
-            sdkTracerProvider.shutdown();
+    static final class TenantPipeline {
+        final AmpTenant tenant;
+        final String reporterEndpoint;
+        final AmpBatchSpanProcessor spanProcessor;
+        final SpanSummaryStage spanSummaryStage;
+        final SpanFlightRecorder flightRecorder;
+        final ByteRateLimitingSpanExporter rateLimitedExporter;
+        final SdkTracerProviderBuilder tracerProviderBuilder;
+        volatile SdkTracerProvider sdkTracerProvider;
+        volatile Resource resource = Resource.getDefault();
+
+        private TenantPipeline(AmpTenant tenant, PipelineConfig config) {
+            this.tenant = tenant;
+            SpanExporter exporter;
+            if (UnixDomainSocketSpanExporter.isUnixDomainSocketEndpoint(config.otelEndpoint)) {
+                reporterEndpoint = config.otelEndpoint;
+                UnixDomainSocketSpanExporter.Builder builder = UnixDomainSocketSpanExporter
+                        .builder(config.otelEndpoint)
+                        .setTimeout(config.reporterFlushInterval, TimeUnit.MILLISECONDS);
+                if (!tenant.getApiKey().isEmpty()) {
+                    builder.addHeader("Authorization", "Bearer " + tenant.getApiKey());
+                }
+                exporter = builder.build();
+            } else {
+                reporterEndpoint = config.otelEndpoint + "/v1/traces";
+                OtlpHttpSpanExporterBuilder builder = OtlpHttpSpanExporter.builder()
+                        .setEndpoint(reporterEndpoint);
+                if (!tenant.getApiKey().isEmpty()) {
+                    builder.addHeader("Authorization", "Bearer " + tenant.getApiKey());
+                }
+                exporter = builder.build();
+            }
+            if (exportScheduler != null) {
+                exporter = exportScheduler.register(tenant.getName(), tenant.getWeight(), exporter);
+            }
+            // The limit waits on the worker of the span processor, in front of the shared export threads, so that a
+            // tenant which waits for bytes holds back its own batches only
+            rateLimitedExporter = config.exportByteLimiter != null ? new ByteRateLimitingSpanExporter(exporter,
+                    config.exportByteLimiter, config.exportByteRatePolicy) : null;
+            if (rateLimitedExporter != null) {
+                exporter = rateLimitedExporter;
+            }
+
+            AmpBatchSpanProcessor.Builder spanProcessorBuilder = AmpBatchSpanProcessor.builder(exporter)
+                    .setMaxPendingExports(exportScheduler != null
+                            ? FairExportScheduler.PENDING_BATCHES : AmpBatchSpanProcessor.DEFAULT_MAX_PENDING_EXPORTS)
+                    .setMaxExportBatchSize(config.reporterBufferSize)
+                    .setExporterTimeout(config.reporterFlushInterval, TimeUnit.MILLISECONDS)
+                    .setPriorityQueueSize(config.priorityQueueSize)
+                    .setPriorityAttribute(config.prioritySpanAttribute);
+            // The profiler comes first, so that it sees the end of every span which it saw start
+            if (slowSpanProfiler != null) {
+                spanProcessorBuilder.addStage(slowSpanProfiler);
+            }
+            if (spanFilterStage != null) {
+                spanProcessorBuilder.addStage(spanFilterStage);
+            }
+            // Each pipeline holds back the children of its own spans, so that they are passed to its own queue
+            if (spanVerbosity != SpanVerbosity.FULL) {
+                spanProcessorBuilder.addStage(new VerbosityStage(spanVerbosity));
+            }
+            // Names are templated after the filters, so the filters without attributes match the names as they are
+            if (spanNameStage != null) {
+                spanProcessorBuilder.addStage(spanNameStage);
+            }
+            // Durations are recorded before the summaries, which replace the spans of a run
+            SpanDurationStage spanDurationStage = AmpMetricReporter.getSpanDurationStage();
+            if (spanDurationStage != null) {
+                spanProcessorBuilder.addStage(spanDurationStage);
+            }
+            // Each pipeline holds back the spans of its own services, so that a flush passes them to its own queue
+            spanSummaryStage = config.summarizeSpans ? new SpanSummaryStage(config.spanSummaryMinRunLength,
+                    config.spanSummaryExemplars, propagatedSpans) : null;
+            if (spanSummaryStage != null) {
+                spanProcessorBuilder.addStage(spanSummaryStage);
+            }
+            // The recorder comes last, so that it records the spans as they are exported
+            if (spanRecorder != null) {
+                spanProcessorBuilder.addStage(spanRecorder);
+            }
+            spanProcessor = spanProcessorBuilder.build();
+
+            tracerProviderBuilder = SdkTracerProvider.builder()
+                    .setIdGenerator(config.timePrefixedTraceIds
+                            ? AmpIdGenerator.timePrefixed() : AmpIdGenerator.random())
+                    .setClock(clock)
+                    .addSpanProcessor(spanProcessor);
+
+            Sampler sampler = new LoadSheddingSampler(selectSampler(config.samplerType, config.samplerParam),
+                    spanProcessor);
+            // The flight recorder keeps every span, so the spans which are not sampled are still recorded
+            flightRecorder = config.flightRecorderSize > 0
+                    ? new SpanFlightRecorder(config.flightRecorderSize, clock) : null;
+            if (flightRecorder != null) {
+                tracerProviderBuilder.addSpanProcessor(flightRecorder);
+                sampler = new RecordingSampler(sampler);
+            }
+            tracerProviderBuilder.setSampler(sampler);
+        }
+
+        private Tracer getTracer(String serviceName) {
+            AttributesBuilder builder = Attributes.builder();
+            if (!tenant.getServiceName().isEmpty()) {
+                builder.put(SERVICE_NAME, tenant.getServiceName());
+            } else {
+                builder.put(SERVICE_NAME, serviceName);
+            }
+            if (!tenant.getOrgUid().isEmpty()) {
+                builder.put(AmpResourceAttributes.ORG_UID, tenant.getOrgUid());
+            }
+            if (!tenant.getProjectUid().isEmpty()) {
+                builder.put(AmpResourceAttributes.PROJECT_UID, tenant.getProjectUid());
+            }
+            if (!tenant.getComponentUid().isEmpty()) {
+                builder.put(AmpResourceAttributes.COMPONENT_UID, tenant.getComponentUid());
+            }
+            if (!tenant.getEnvironmentUid().isEmpty()) {
+                builder.put(AmpResourceAttributes.ENVIRONMENT_UID, tenant.getEnvironmentUid());
+            }
+            synchronized (tracerProviderBuilder) {
+                resource = Resource.create(builder.build());
+                sdkTracerProvider = tracerProviderBuilder
+                        .setResource(resource)
+                        .build();
+            }
+            return sdkTracerProvider.get(TRACER_NAME);
+        }
+
+        private void collectMetrics(MetricSource.Recorder recorder) {
+            Attributes attributes = Attributes.of(TENANT, tenant.getName());
+            recorder.counter(DROPPED_SPANS_METRIC, "Spans dropped from the span queue", SPAN_UNIT,
+                    attributes.toBuilder().put(QUEUE_LANE, "priority").build(),
+                    spanProcessor.getDroppedPrioritySpans());
+            recorder.counter(DROPPED_SPANS_METRIC, "Spans dropped from the span queue", SPAN_UNIT,
+                    attributes.toBuilder().put(QUEUE_LANE, "normal").build(), spanProcessor.getDroppedNormalSpans());
+            if (rateLimitedExporter != null) {
+                recorder.counter(THROTTLED_TIME_METRIC, "Time for which exports waited for the export byte rate",
+                        "ns", attributes, rateLimitedExporter.getThrottledTime(TimeUnit.NANOSECONDS));
+                recorder.counter(THROTTLED_EXPORTS_METRIC, "Exports which waited for the export byte rate",
+                        EXPORT_UNIT, attributes, rateLimitedExporter.getThrottledExports());
+                recorder.counter(DOWNSAMPLED_SPANS_METRIC, "Spans dropped to fit the export byte rate", SPAN_UNIT,
+                        attributes, rateLimitedExporter.getDownsampledSpans());
+            }
+        }
+
+        private CompletableResultCode shutdown() {
+            CompletableResultCode result = sdkTracerProvider != null
+                    ? sdkTracerProvider.shutdown() : spanProcessor.shutdown();
+            long droppedPrioritySpans = spanProcessor.getDroppedPrioritySpans();
+            long droppedNormalSpans = spanProcessor.getDroppedNormalSpans();
+            if (droppedPrioritySpans > 0 || droppedNormalSpans > 0) {
+                String queue = this == defaultPipeline ? "Amp span queue" : "Amp span queue of tenant "
+                        + tenant.getName();
+                console.println("ballerina: " + queue + " dropped " + droppedPrioritySpans + " priority spans and "
+                        + droppedNormalSpans + " normal spans");
+            }
+            return result;
         }
     }
 }
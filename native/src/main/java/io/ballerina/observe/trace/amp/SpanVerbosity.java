@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+
+import java.util.Locale;
+
+/**
+ * Levels of detail of the traces, by the roles of the spans which are kept.
+ * <p>
+ * Ballerina creates the spans in which requests enter the program with the {@link SpanKind#SERVER} kind, and all
+ * other spans, including those of local functions, with the {@link SpanKind#CLIENT} kind. The role of a span is
+ * therefore told by the attributes which Ballerina sets: {@code src.client.remote} on the calls to other programs,
+ * and {@code src.service.resource} or {@code src.entry_point.resource} on the entry spans. Ballerina sets the
+ * attributes when the span ends, so the spans which may be kept are created, and the level is decided once they
+ * end, see {@link VerbosityTracer} and {@link VerbosityStage}.
+ */
+public enum SpanVerbosity {
+    /**
+     * Only the spans in which requests enter the program.
+     */
+    ENTRY,
+    /**
+     * The entry spans and the spans of calls to other programs.
+     */
+    REMOTE,
+    /**
+     * All spans.
+     */
+    FULL;
+
+    private static final AttributeKey<String> CLIENT_REMOTE = AttributeKey.stringKey("src.client.remote");
+    private static final AttributeKey<String> SERVICE_RESOURCE = AttributeKey.stringKey("src.service.resource");
+    private static final AttributeKey<String> ENTRY_POINT_RESOURCE =
+            AttributeKey.stringKey("src.entry_point.resource");
+    private static final String TRUE = "true";
+
+    /**
+     * Get the level with the given name.
+     *
+     * @param name the name of the level, in any case
+     * @return the level
+     */
+    public static SpanVerbosity of(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Check whether a span of a kind may be kept at this level, before its attributes are set. Only the entry
+     * level can tell from the kind, since only entry spans are server or consumer spans.
+     *
+     * @param kind the kind of the span
+     * @return false if the span is not kept whatever its attributes are
+     */
+    public boolean mayKeep(SpanKind kind) {
+        return this != ENTRY || isEntry(kind);
+    }
+
+    /**
+     * Check whether a span is kept at this level.
+     *
+     * @param kind       the kind of the span
+     * @param attributes the attributes of the span
+     * @return true if the span is kept
+     */
+    public boolean keeps(SpanKind kind, Attributes attributes) {
+        if (this == FULL || isEntry(kind) || TRUE.equals(attributes.get(SERVICE_RESOURCE))
+                || TRUE.equals(attributes.get(ENTRY_POINT_RESOURCE))) {
+            return true;
+        }
+        return this == REMOTE && TRUE.equals(attributes.get(CLIENT_REMOTE));
+    }
+
+    private static boolean isEntry(SpanKind kind) {
+        return kind == SpanKind.SERVER || kind == SpanKind.CONSUMER;
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import io.ballerina.observe.trace.amp.processor.SpanStage;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.data.DelegatingSpanData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Stage which drops the spans below a verbosity level once they end, when the attributes which tell the role of
+ * the span are set, see {@link SpanVerbosity#keeps(io.opentelemetry.api.trace.SpanKind, Attributes)}.
+ * <p>
+ * The children of a span which may be dropped usually end before it, so they are held back until it ends. When it is
+ * dropped, they are re-parented to its parent, and held back again if that may be dropped as well, so that the trace
+ * stays connected. A span without a parent is always kept. The dropped spans are remembered for a while for the
+ * children which end after them. When too many spans are held back, or the processor is flushed, the held back spans
+ * are passed on with the parent which they have at the time. Each tenant pipeline has a stage of its own, so a span
+ * whose parent is reported to another tenant is passed on as it is.
+ */
+final class VerbosityStage implements SpanStage {
+    // Number of spans held back for their running parents above which ended spans are passed on right away
+    private static final int MAX_HELD_SPANS = 4096;
+    // Number of remembered dropped spans above which the old ones are evicted
+    private static final int MAX_DROPPED_SPANS = 8192;
+    // How long a dropped span is remembered for the children which end after it
+    private static final long DROPPED_SPAN_RETENTION_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final SpanVerbosity verbosity;
+    // Running spans which may be dropped, with the ended children which they hold back
+    private final ConcurrentHashMap<String, RunningSpan> runningSpans = new ConcurrentHashMap<>();
+    // Parents of the dropped spans, by the dropped span ID
+    private final ConcurrentHashMap<String, DroppedSpan> droppedSpans = new ConcurrentHashMap<>();
+    private final AtomicInteger heldSpans = new AtomicInteger();
+
+    VerbosityStage(SpanVerbosity verbosity) {
+        this.verbosity = verbosity;
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+        // Ballerina sets the attributes at the end, so the span may be dropped unless its kind is kept anyway
+        if (span.getParentSpanContext().isValid() && !verbosity.keeps(span.getKind(), Attributes.empty())) {
+            runningSpans.put(span.getSpanContext().getSpanId(), new RunningSpan());
+        }
+    }
+
+    @Override
+    public void onEnd(SpanData span, Consumer<SpanData> next) {
+        RunningSpan running = runningSpans.isEmpty() ? null : runningSpans.get(span.getSpanId());
+        if (running == null) {
+            pass(span, next);
+            return;
+        }
+        // The decision is recorded before the span leaves the running spans, so that a child which ends meanwhile
+        // either is held back by it or finds it dropped
+        boolean keep = verbosity.keeps(span.getKind(), span.getAttributes());
+        if (!keep) {
+            remember(span.getSpanId(), span.getParentSpanContext());
+        }
+        List<SpanData> children = running.end();
+        runningSpans.remove(span.getSpanId());
+        heldSpans.addAndGet(-children.size());
+        if (keep) {
+            pass(span, next);
+            children.forEach(next);
+        } else {
+            for (SpanData child : children) {
+                pass(new ReparentedSpanData(child, span.getParentSpanContext()), next);
+            }
+        }
+    }
+
+    @Override
+    public void flush(Consumer<SpanData> next) {
+        for (RunningSpan running : runningSpans.values()) {
+            List<SpanData> children = running.takeChildren();
+            heldSpans.addAndGet(-children.size());
+            children.forEach(next);
+        }
+    }
+
+    /**
+     * Pass on a kept span with its nearest kept ancestor as the parent, or hold it back while that may be dropped.
+     */
+    private void pass(SpanData span, Consumer<SpanData> next) {
+        while (true) {
+            SpanContext parent = span.getParentSpanContext();
+            if (!parent.isValid()) {
+                next.accept(span);
+                return;
+            }
+            SpanContext keptParent = droppedSpans.isEmpty() ? parent : findKeptAncestor(parent);
+            if (keptParent != parent) {
+                span = new ReparentedSpanData(span, keptParent);
+            }
+            RunningSpan running = keptParent.isValid() ? runningSpans.get(keptParent.getSpanId()) : null;
+            if (running == null || heldSpans.get() >= MAX_HELD_SPANS) {
+                next.accept(span);
+                return;
+            }
+            if (running.hold(span)) {
+                heldSpans.incrementAndGet();
+                return;
+            }
+            if (!droppedSpans.containsKey(keptParent.getSpanId())) {
+                // The parent ended and was kept meanwhile
+                next.accept(span);
+                return;
+            }
+        }
+    }
+
+    private SpanContext findKeptAncestor(SpanContext parent) {
+        SpanContext ancestor = parent;
+        DroppedSpan dropped;
+        while (ancestor.isValid() && (dropped = droppedSpans.get(ancestor.getSpanId())) != null) {
+            ancestor = dropped.parent;
+        }
+        return ancestor;
+    }
+
+    private void remember(String spanId, SpanContext parent) {
+        if (droppedSpans.size() >= MAX_DROPPED_SPANS) {
+            long now = System.nanoTime();
+            droppedSpans.values().removeIf(dropped -> now - dropped.endNanos > DROPPED_SPAN_RETENTION_NANOS);
+            if (droppedSpans.size() >= MAX_DROPPED_SPANS) {
+                // Too many spans are dropped to remember them for the full retention
+                droppedSpans.clear();
+            }
+        }
+        droppedSpans.put(spanId, new DroppedSpan(parent, System.nanoTime()));
+    }
+
+    @Override
+    public String toString() {
+        return "VerbosityStage{verbosity=" + verbosity + '}';
+    }
+
+    /**
+     * A running span which may be dropped, holding back the children which ended before it.
+     */
+    private static final class RunningSpan {
+        private List<SpanData> children;
+        private boolean ended;
+
+        private synchronized boolean hold(SpanData child) {
+            if (ended) {
+                return false;
+            }
+            if (children == null) {
+                children = new ArrayList<>();
+            }
+            children.add(child);
+            return true;
+        }
+
+        private synchronized List<SpanData> takeChildren() {
+            List<SpanData> taken = children != null ? children : Collections.emptyList();
+            children = null;
+            return taken;
+        }
+
+        private synchronized List<SpanData> end() {
+            ended = true;
+            return takeChildren();
+        }
+    }
+
+    private static final class DroppedSpan {
+        private final SpanContext parent;
+        private final long endNanos;
+
+        private DroppedSpan(SpanContext parent, long endNanos) {
+            this.parent = parent;
+            this.endNanos = endNanos;
+        }
+    }
+
+    /**
+     * A kept span with its parent replaced by the nearest kept ancestor.
+     */
+    private static final class ReparentedSpanData extends DelegatingSpanData {
+        private final SpanContext parentSpanContext;
+
+        private ReparentedSpanData(SpanData delegate, SpanContext parentSpanContext) {
+            super(delegate);
+            this.parentSpanContext = parentSpanContext;
+        }
+
+        @Override
+        public SpanContext getParentSpanContext() {
+            return parentSpanContext;
+        }
+
+        @Override
+        public String getParentSpanId() {
+            return parentSpanContext.getSpanId();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracer decorator which does not create the spans which are below a verbosity level whatever their attributes
+ * are, see {@link SpanVerbosity#mayKeep(SpanKind)}. The other spans are decided when they end, by the
+ * {@link VerbosityStage}.
+ * <p>
+ * In place of a span which is not created, the span builder returns a span which is not recording and carries
+ * the span context of the parent. Its children therefore become children of the nearest kept ancestor, and the
+ * context propagated to other programs refers to a span which is exported. A span without a parent is always
+ * created, so that each trace keeps its root.
+ */
+final class VerbosityTracer implements Tracer {
+    private final Tracer delegate;
+    private final SpanVerbosity verbosity;
+
+    VerbosityTracer(Tracer delegate, SpanVerbosity verbosity) {
+        this.delegate = delegate;
+        this.verbosity = verbosity;
+    }
+
+    @Override
+    public SpanBuilder spanBuilder(String spanName) {
+        return new VerbositySpanBuilder(delegate.spanBuilder(spanName), verbosity);
+    }
+
+    /**
+     * Span builder which tracks the parent and the kind of the span, to decide whether to create it.
+     */
+    private static final class VerbositySpanBuilder implements SpanBuilder {
+        private final SpanBuilder delegate;
+        private final SpanVerbosity verbosity;
+        private SpanKind kind = SpanKind.INTERNAL;
+        // The current context is used when no parent is set
+        private Context parent;
+        private boolean noParent;
+
+        private VerbositySpanBuilder(SpanBuilder delegate, SpanVerbosity verbosity) {
+            this.delegate = delegate;
+            this.verbosity = verbosity;
+        }
+
+        @Override
+        public SpanBuilder setParent(Context context) {
+            if (context != null) {
+                parent = context;
+                noParent = false;
+            }
+            delegate.setParent(context);
+            return this;
+        }
+
+        @Override
+        public SpanBuilder setNoParent() {
+            parent = null;
+            noParent = true;
+            delegate.setNoParent();
+            return this;
+        }
+
+        @Override
+        public SpanBuilder addLink(SpanContext spanContext) {
+            delegate.addLink(spanContext);
+            return this;
+        }
+
+        @Override
+        public SpanBuilder addLink(SpanContext spanContext, Attributes attributes) {
+            delegate.addLink(spanContext, attributes);
+            return this;
+        }
+
+        @Override
+        public SpanBuilder setAttribute(String key, String value) {
+            delegate.setAttribute(key, value);
+            return this;
+        }
+
+        @Override
+        public SpanBuilder setAttribute(String key, long value) {
+            delegate.setAttribute(key, value);
+            return this;
+        }
+
+        @Override
+        public SpanBuilder setAttribute(String key, double value) {
+            delegate.setAttribute(key, value);
+            return this;
+        }
+
+        @Override
+        public SpanBuilder setAttribute(String key, boolean value) {
+            delegate.setAttribute(key, value);
+            return this;
+        }
+
+        @Override
+        public <T> SpanBuilder setAttribute(AttributeKey<T> key, T value) {
+            delegate.setAttribute(key, value);
+            return this;
+        }
+
+        @Override
+        public SpanBuilder setSpanKind(SpanKind spanKind) {
+            if (spanKind != null) {
+                kind = spanKind;
+            }
+            delegate.setSpanKind(spanKind);
+            return this;
+        }
+
+        @Override
+        public SpanBuilder setStartTimestamp(long startTimestamp, TimeUnit unit) {
+            delegate.setStartTimestamp(startTimestamp, unit);
+            return this;
+        }
+
+        @Override
+        public Span startSpan() {
+            if (!noParent && !verbosity.mayKeep(kind)) {
+                Span parentSpan = Span.fromContext(parent != null ? parent : Context.current());
+                if (parentSpan.getSpanContext().isValid()) {
+                    return Span.wrap(parentSpan.getSpanContext());
+                }
+            }
+            return delegate.startSpan();
+        }
+    }
+}
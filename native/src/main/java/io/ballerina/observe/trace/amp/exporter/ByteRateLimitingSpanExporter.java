@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.exporter;
+
+import io.ballerina.observe.trace.amp.sampler.AdjustedCount;
+import io.ballerina.observe.trace.amp.sampler.RateLimiter;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.exporter.internal.otlp.traces.TraceRequestMarshaler;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.DelegatingSpanData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Span exporter which caps the number of bytes per second which its delegate sends, so that bursts of spans, such
+ * as after a GC pause, do not saturate the link which they share with the traffic of the program.
+ * <p>
+ * The size of each batch is the size of its OTLP request body. The bytes are taken from a {@link RateLimiter}, which
+ * may be shared by the exporters of several tenants to cap their total bandwidth. A batch which exceeds the
+ * available bytes is handled according to the {@link Policy}.
+ */
+public final class ByteRateLimitingSpanExporter implements SpanExporter {
+    // Trace IDs are picked by their last 56 bits, which are random for W3C trace IDs
+    private static final int RANDOM_BITS_OFFSET = 18;
+    private static final double RANDOM_BITS_BOUND = 0x1p56;
+
+    private final SpanExporter delegate;
+    private final RateLimiter limiter;
+    private final Policy policy;
+    private final CountDownLatch shutdownLatch = new CountDownLatch(1);
+    private final LongAdder throttledNanos = new LongAdder();
+    private final LongAdder throttledExports = new LongAdder();
+    private final LongAdder downsampledSpans = new LongAdder();
+
+    /**
+     * What happens to a batch which exceeds the available bytes.
+     */
+    public enum Policy {
+        /**
+         * The export waits until the bytes of the batch are available. Meanwhile, the spans which end stay in the
+         * span queue, which drops spans once it is full, keeping the priority lane.
+         */
+        QUEUE,
+        /**
+         * The batch is exported right away without the spans of some of its traces, so that it fits the available
+         * bytes. Spans with an error status are always kept, and the adjusted count of the other kept spans is
+         * increased by the inverse of the share of the traces which were kept.
+         */
+        DOWNSAMPLE;
+
+        /**
+         * Get the policy with the given name.
+         *
+         * @param name the name of the policy, in any case
+         * @return the policy
+         */
+        public static Policy of(String name) {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Create an exporter which takes the bytes of its batches from the given limiter.
+     *
+     * @param delegate the exporter which sends the batches
+     * @param limiter  the limiter, whose credits are bytes
+     * @param policy   what happens to a batch which exceeds the available bytes
+     */
+    public ByteRateLimitingSpanExporter(SpanExporter delegate, RateLimiter limiter, Policy policy) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+        this.policy = policy;
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        if (spans.isEmpty()) {
+            return delegate.export(spans);
+        }
+        int size = TraceRequestMarshaler.create(spans).getBinarySerializedSize();
+        if (policy == Policy.DOWNSAMPLE && !limiter.checkCredit(size)) {
+            return exportDownsampled(spans, size);
+        }
+        long waitNanos = limiter.reserveCredit(size);
+        if (waitNanos > 0) {
+            throttledExports.increment();
+            long start = System.nanoTime();
+            try {
+                // Stop waiting on shutdown, so that the remaining spans are flushed in time
+                shutdownLatch.await(waitNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return CompletableResultCode.ofFailure();
+            } finally {
+                throttledNanos.add(System.nanoTime() - start);
+            }
+        }
+        return delegate.export(spans);
+    }
+
+    /**
+     * Export the spans of the traces which fit the available bytes, and the spans with an error status.
+     */
+    private CompletableResultCode exportDownsampled(Collection<SpanData> spans, int size) {
+        double keepProbability = Math.max(limiter.getBalance(), 0) / size;
+        long keepBound = (long) (keepProbability * RANDOM_BITS_BOUND);
+        List<SpanData> kept = new ArrayList<>(spans.size());
+        for (SpanData span : spans) {
+            if (span.getStatus().getStatusCode() == StatusCode.ERROR) {
+                kept.add(span);
+            } else if (Long.parseUnsignedLong(span.getTraceId(), RANDOM_BITS_OFFSET, span.getTraceId().length(),
+                    16) < keepBound) {
+                kept.add(new DownsampledSpanData(span, keepProbability));
+            }
+        }
+        downsampledSpans.add(spans.size() - kept.size());
+        if (kept.isEmpty()) {
+            return CompletableResultCode.ofSuccess();
+        }
+        // The size of the kept spans is estimated, since the spans of different traces differ little in size
+        limiter.reserveCredit((double) size * kept.size() / spans.size());
+        return delegate.export(kept);
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return delegate.flush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        shutdownLatch.countDown();
+        return delegate.shutdown();
+    }
+
+    /**
+     * Get the time for which exports waited for the bytes of their batches.
+     *
+     * @param unit the unit of the returned time
+     * @return the total throttling time
+     */
+    public long getThrottledTime(TimeUnit unit) {
+        return unit.convert(throttledNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the number of exports which waited for the bytes of their batches.
+     *
+     * @return the number of throttled exports
+     */
+    public long getThrottledExports() {
+        return throttledExports.sum();
+    }
+
+    /**
+     * Get the number of spans which were dropped from batches exceeding the available bytes.
+     *
+     * @return the number of downsampled spans
+     */
+    public long getDownsampledSpans() {
+        return downsampledSpans.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ByteRateLimitingSpanExporter{delegate=" + delegate + ", policy=" + policy + '}';
+    }
+
+    /**
+     * A span of a downsampled batch, whose adjusted count includes the traces which were dropped.
+     */
+    private static final class DownsampledSpanData extends DelegatingSpanData {
+        private final Attributes attributes;
+        private final int totalAttributeCount;
+
+        private DownsampledSpanData(SpanData delegate, double keepProbability) {
+            super(delegate);
+            Double count = delegate.getAttributes().get(AdjustedCount.KEY);
+            this.attributes = delegate.getAttributes().toBuilder()
+                    .put(AdjustedCount.KEY, (count != null ? count : 1.0) / keepProbability)
+                    .build();
+            this.totalAttributeCount = delegate.getTotalAttributeCount() + (count != null ? 0 : 1);
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public int getTotalAttributeCount() {
+            return totalAttributeCount;
+        }
+    }
+}
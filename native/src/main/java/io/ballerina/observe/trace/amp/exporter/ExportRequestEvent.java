@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.exporter;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for an export request which the {@link UnixDomainSocketSpanExporter} sends to the
+ * collector. The duration of the event covers writing the request and reading the response.
+ * <p>
+ * The event is disabled by default, and can be enabled in a recording settings file. Callers create the event
+ * only when {@link #isRecording()}, so that nothing is allocated when it is disabled.
+ */
+@Name("ballerinax.amp.ExportRequest")
+@Label("Amp Export Request")
+@Category({"Ballerina", "Amp"})
+@Description("OTLP export request sent to the collector")
+@Enabled(false)
+@StackTrace(false)
+final class ExportRequestEvent extends Event {
+
+    @Label("Spans")
+    int spans;
+
+    @Label("Request Size")
+    @Description("Size of the serialized request body")
+    @DataAmount
+    long requestSize;
+
+    @Label("Success")
+    boolean success;
+
+    /**
+     * Check whether the event is enabled in a running recording.
+     *
+     * @return true if the event should be created
+     */
+    static boolean isRecording() {
+        return FlightRecorder.isInitialized() && EventTypeHolder.EVENT_TYPE.isEnabled();
+    }
+
+    /**
+     * Holder which registers the event type only once the flight recorder is in use.
+     */
+    private static final class EventTypeHolder {
+        private static final EventType EVENT_TYPE = EventType.getEventType(ExportRequestEvent.class);
+    }
+}
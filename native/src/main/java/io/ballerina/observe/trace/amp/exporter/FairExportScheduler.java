@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.exporter;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool of export threads shared by the span pipelines of several tenants, which shares the export bandwidth
+ * between the tenants in proportion to their weights.
+ * <p>
+ * Each tenant registers its exporter and gets an exporter which queues the batches with the scheduler. The batches
+ * are picked with start time fair queuing, where the cost of a batch is its number of spans divided by the weight
+ * of its tenant. A tenant which exports a lot therefore waits behind the tenants which have exported less, and
+ * cannot starve them, while a tenant which is idle does not build up credit.
+ * <p>
+ * An export completes when the delegate has exported the batch, so that the span processor of the tenant sees its
+ * failures. The span processor of each tenant keeps up to {@link #PENDING_BATCHES} exports pending, so that the
+ * tenant has a backlog to be scheduled from. Beyond that, the span processor waits, so the span queue of a busy
+ * tenant fills up and drops its own spans instead of the spans of other tenants.
+ * <p>
+ * The export threads are shared, so the exporters of the tenants must not wait before they send a batch. Waits of
+ * a tenant, such as for the bytes of a byte rate limit, belong in front of the exporter returned by
+ * {@link #register(String, int, SpanExporter)}, on the thread of the span processor of the tenant.
+ */
+public final class FairExportScheduler {
+    public static final int DEFAULT_WORKERS = 2;
+    // Number of exports which the span processor of a tenant keeps pending
+    public static final int PENDING_BATCHES = 2;
+
+    private static final String WORKER_THREAD_NAME = "amp-fair-export-scheduler-";
+
+    private final long exportTimeoutNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchQueued = lock.newCondition();
+    private final List<TenantExporter> tenants = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicBoolean isShutdown = new AtomicBoolean(false);
+    // Start tag of the batch which was picked last, guarded by the lock
+    private double virtualTime;
+
+    /**
+     * Create a scheduler and start its export threads.
+     *
+     * @param workers           the number of export threads
+     * @param exportTimeout     how long an export thread waits for an export to complete
+     * @param exportTimeoutUnit the unit of the export timeout
+     */
+    public FairExportScheduler(int workers, long exportTimeout, TimeUnit exportTimeoutUnit) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("workers must be positive.");
+        }
+        this.exportTimeoutNanos = exportTimeoutUnit.toNanos(exportTimeout);
+        for (int i = 0; i < workers; i++) {
+            Thread worker = new Thread(this::runWorker, WORKER_THREAD_NAME + i);
+            worker.setDaemon(true);
+            worker.start();
+            this.workers.add(worker);
+        }
+    }
+
+    /**
+     * Register the exporter of a tenant.
+     *
+     * @param tenant   the name of the tenant, used in {@link Object#toString()} only
+     * @param weight   the share of the export bandwidth of the tenant relative to the other tenants
+     * @param delegate the exporter of the tenant
+     * @return an exporter which exports with the delegate on the threads of this scheduler
+     */
+    public SpanExporter register(String tenant, int weight, SpanExporter delegate) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("weight must be positive.");
+        }
+        TenantExporter exporter = new TenantExporter(tenant, weight, delegate);
+        lock.lock();
+        try {
+            tenants.add(exporter);
+        } finally {
+            lock.unlock();
+        }
+        return exporter;
+    }
+
+    /**
+     * Stop the export threads. Batches which are still queued fail, and the exporters of the tenants are shut down
+     * separately when their pipelines are shut down.
+     */
+    public void shutdown() {
+        if (isShutdown.getAndSet(true)) {
+            return;
+        }
+        workers.forEach(Thread::interrupt);
+        List<TenantExporter> remaining;
+        lock.lock();
+        try {
+            remaining = new ArrayList<>(tenants);
+        } finally {
+            lock.unlock();
+        }
+        remaining.forEach(TenantExporter::failQueuedBatches);
+    }
+
+    private void runWorker() {
+        while (!isShutdown.get()) {
+            Batch batch;
+            try {
+                batch = takeBatch();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            CompletableResultCode result;
+            try {
+                result = batch.tenant.delegate.export(batch.spans);
+                result.join(exportTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (RuntimeException e) {
+                // Exporter failures are reported by the exporter itself, keep the worker alive.
+                result = CompletableResultCode.ofFailure();
+            }
+            if (result.isSuccess()) {
+                batch.tenant.exportedSpans.add(batch.spans.size());
+                batch.result.succeed();
+            } else {
+                batch.result.fail();
+            }
+            batch.tenant.batchCompleted();
+        }
+    }
+
+    /**
+     * Wait for a batch and take the one with the smallest start tag.
+     */
+    private Batch takeBatch() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                TenantExporter next = null;
+                for (TenantExporter tenant : tenants) {
+                    Batch head = tenant.batches.peek();
+                    if (head != null && (next == null || head.startTag < next.batches.peek().startTag)) {
+                        next = tenant;
+                    }
+                }
+                if (next != null) {
+                    Batch batch = next.batches.poll();
+                    next.runningBatches++;
+                    virtualTime = batch.startTag;
+                    return batch;
+                }
+                batchQueued.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FairExportScheduler{workers=" + workers.size() + ", tenants=" + tenants + '}';
+    }
+
+    private static final class Batch {
+        private final TenantExporter tenant;
+        private final List<SpanData> spans;
+        private final double startTag;
+        private final CompletableResultCode result = new CompletableResultCode();
+
+        private Batch(TenantExporter tenant, List<SpanData> spans, double startTag) {
+            this.tenant = tenant;
+            this.spans = spans;
+            this.startTag = startTag;
+        }
+    }
+
+    /**
+     * The exporter of a tenant, which queues its batches with the scheduler.
+     */
+    private final class TenantExporter implements SpanExporter {
+        private final String name;
+        private final int weight;
+        private final SpanExporter delegate;
+        private final LongAdder exportedSpans = new LongAdder();
+        // The following fields are guarded by the lock of the scheduler
+        private final ArrayDeque<Batch> batches = new ArrayDeque<>();
+        private final List<CompletableResultCode> drainResults = new ArrayList<>();
+        private int runningBatches;
+        // Finish tag of the last queued batch
+        private double finishTag;
+        private boolean isShutdown;
+
+        private TenantExporter(String name, int weight, SpanExporter delegate) {
+            this.name = name;
+            this.weight = weight;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            // The caller may reuse the collection once the export returns
+            List<SpanData> copy = new ArrayList<>(spans);
+            lock.lock();
+            try {
+                if (isShutdown || FairExportScheduler.this.isShutdown.get()) {
+                    return CompletableResultCode.ofFailure();
+                }
+                double startTag = Math.max(virtualTime, finishTag);
+                finishTag = startTag + (double) copy.size() / weight;
+                Batch batch = new Batch(this, copy, startTag);
+                batches.add(batch);
+                batchQueued.signal();
+                return batch.result;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            CompletableResultCode result = new CompletableResultCode();
+            drained().whenComplete(() -> delegate.flush().whenComplete(result::succeed));
+            return result;
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            lock.lock();
+            try {
+                isShutdown = true;
+            } finally {
+                lock.unlock();
+            }
+            CompletableResultCode result = new CompletableResultCode();
+            drained().whenComplete(() -> {
+                lock.lock();
+                try {
+                    tenants.remove(this);
+                } finally {
+                    lock.unlock();
+                }
+                CompletableResultCode shutdownResult = delegate.shutdown();
+                shutdownResult.whenComplete(() -> {
+                    if (shutdownResult.isSuccess()) {
+                        result.succeed();
+                    } else {
+                        result.fail();
+                    }
+                });
+            });
+            return result;
+        }
+
+        /**
+         * Get a result which completes when all queued batches of the tenant are exported.
+         */
+        private CompletableResultCode drained() {
+            lock.lock();
+            try {
+                if (batches.isEmpty() && runningBatches == 0) {
+                    return CompletableResultCode.ofSuccess();
+                }
+                CompletableResultCode result = new CompletableResultCode();
+                drainResults.add(result);
+                return result;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void batchCompleted() {
+            List<CompletableResultCode> completed = null;
+            lock.lock();
+            try {
+                runningBatches--;
+                if (batches.isEmpty() && runningBatches == 0 && !drainResults.isEmpty()) {
+                    completed = new ArrayList<>(drainResults);
+                    drainResults.clear();
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (completed != null) {
+                completed.forEach(CompletableResultCode::succeed);
+            }
+        }
+
+        private void failQueuedBatches() {
+            List<CompletableResultCode> completed;
+            lock.lock();
+            try {
+                Batch batch;
+                while ((batch = batches.poll()) != null) {
+                    batch.result.fail();
+                }
+                completed = new ArrayList<>(drainResults);
+                drainResults.clear();
+            } finally {
+                lock.unlock();
+            }
+            completed.forEach(CompletableResultCode::succeed);
+        }
+
+        @Override
+        public String toString() {
+            return "TenantExporter{name=" + name + ", weight=" + weight + ", exportedSpans=" + exportedSpans.sum()
+                    + '}';
+        }
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.exporter;
+
+import io.opentelemetry.exporter.internal.otlp.traces.TraceRequestMarshaler;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Span exporter which sends OTLP/HTTP protobuf requests to a node local collector over a Unix domain socket.
+ * <p>
+ * The requests are plain HTTP/1.1 and the connection is kept open between exports, so a collector listening on
+ * a Unix socket with its OTLP/HTTP receiver accepts them as is. Exports are written by a single daemon thread,
+ * and an export which does not complete within the timeout closes the connection, which is opened again on the
+ * next export. An export which times out while it waits for the exports before it is not sent.
+ */
+public final class UnixDomainSocketSpanExporter implements SpanExporter {
+    public static final String ENDPOINT_SCHEME = "unix://";
+    public static final String DEFAULT_TRACES_PATH = "/v1/traces";
+    public static final long DEFAULT_TIMEOUT_MILLIS = 10000;
+
+    private static final String EXPORTER_THREAD_NAME = "amp-uds-span-exporter";
+    private static final int WRITE_BUFFER_SIZE = 8192;
+    private static final int READ_BUFFER_SIZE = 4096;
+    private static final String HEADER_TERMINATOR = "\r\n\r\n";
+
+    private final UnixDomainSocketAddress address;
+    private final byte[] requestHeadPrefix;
+    private final long timeoutNanos;
+    private final ExecutorService executor;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private final AtomicBoolean isShutdown = new AtomicBoolean(false);
+    private volatile SocketChannel channel;
+
+    private UnixDomainSocketSpanExporter(Path socketPath, String tracesPath, Map<String, String> headers,
+                                         long timeoutNanos) {
+        this.address = UnixDomainSocketAddress.of(socketPath);
+        this.timeoutNanos = timeoutNanos;
+        StringBuilder head = new StringBuilder(128)
+                .append("POST ").append(tracesPath).append(" HTTP/1.1\r\n")
+                .append("Host: localhost\r\n")
+                .append("Content-Type: application/x-protobuf\r\n");
+        headers.forEach((name, value) -> head.append(name).append(": ").append(value).append("\r\n"));
+        head.append("Content-Length: ");
+        this.requestHeadPrefix = head.toString().getBytes(StandardCharsets.ISO_8859_1);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, EXPORTER_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Check whether an endpoint refers to a Unix domain socket.
+     *
+     * @param endpoint the configured endpoint
+     * @return true if the endpoint starts with {@value #ENDPOINT_SCHEME}
+     */
+    public static boolean isUnixDomainSocketEndpoint(String endpoint) {
+        return endpoint.startsWith(ENDPOINT_SCHEME);
+    }
+
+    /**
+     * Create a builder for an exporter which connects to the socket of the given endpoint.
+     *
+     * @param endpoint an endpoint of the form {@code unix:///path/to/socket}
+     * @return a new builder
+     */
+    public static Builder builder(String endpoint) {
+        if (!isUnixDomainSocketEndpoint(endpoint) || endpoint.length() == ENDPOINT_SCHEME.length()) {
+            throw new IllegalArgumentException("invalid Unix domain socket endpoint: " + endpoint);
+        }
+        return new Builder(Path.of(endpoint.substring(ENDPOINT_SCHEME.length())));
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        if (isShutdown.get()) {
+            return CompletableResultCode.ofFailure();
+        }
+        TraceRequestMarshaler marshaler = TraceRequestMarshaler.create(spans);
+        int spanCount = spans.size();
+        long deadlineNanos = System.nanoTime() + timeoutNanos;
+        CompletableResultCode result = new CompletableResultCode();
+        CompletableFuture.runAsync(() -> send(marshaler, spanCount, deadlineNanos), executor)
+                .orTimeout(timeoutNanos, TimeUnit.NANOSECONDS)
+                .whenComplete((ignored, throwable) -> {
+                    if (throwable == null) {
+                        result.succeed();
+                    } else {
+                        // Unblocks the exporter thread if it is still waiting on the collector
+                        closeChannel();
+                        result.fail();
+                    }
+                });
+        return result;
+    }
+
+    private void send(TraceRequestMarshaler marshaler, int spanCount, long deadlineNanos) {
+        if (System.nanoTime() - deadlineNanos >= 0) {
+            // The export timed out while it waited for the exports before it, so it is failed without sending it
+            throw new ExportException("export timed out before it was sent", null);
+        }
+        ExportRequestEvent event = null;
+        if (ExportRequestEvent.isRecording()) {
+            event = new ExportRequestEvent();
+            event.begin();
+        }
+        int contentLength = marshaler.getBinarySerializedSize();
+        boolean success = false;
+        try {
+            SocketChannel socketChannel = getChannel();
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(socketChannel), WRITE_BUFFER_SIZE);
+            out.write(requestHeadPrefix);
+            out.write(Integer.toString(contentLength).getBytes(StandardCharsets.ISO_8859_1));
+            out.write(HEADER_TERMINATOR.getBytes(StandardCharsets.ISO_8859_1));
+            marshaler.writeBinaryTo(out);
+            // The stream is not closed, since that would close the channel
+            out.flush();
+            readResponse(socketChannel);
+            success = true;
+        } catch (IOException e) {
+            closeChannel();
+            throw new ExportException(e.getMessage(), e);
+        } finally {
+            if (event != null && event.shouldCommit()) {
+                event.spans = spanCount;
+                event.requestSize = contentLength;
+                event.success = success;
+                event.commit();
+            }
+        }
+    }
+
+    private SocketChannel getChannel() throws IOException {
+        SocketChannel socketChannel = channel;
+        if (socketChannel == null || !socketChannel.isOpen()) {
+            socketChannel = SocketChannel.open(StandardProtocolFamily.UNIX);
+            try {
+                socketChannel.connect(address);
+            } catch (IOException e) {
+                socketChannel.close();
+                throw e;
+            }
+            channel = socketChannel;
+        }
+        return socketChannel;
+    }
+
+    /**
+     * Read the response to an export request, leaving the connection ready for the next request.
+     * <p>
+     * Only the status line and the {@code Content-Length} and {@code Connection} headers are interpreted. If the
+     * body length is not known, the connection is closed after the headers.
+     */
+    private void readResponse(SocketChannel socketChannel) throws IOException {
+        readBuffer.clear();
+        int headerEnd;
+        while ((headerEnd = indexOfHeaderTerminator(readBuffer)) < 0) {
+            if (!readBuffer.hasRemaining()) {
+                throw new IOException("response headers too large");
+            }
+            if (socketChannel.read(readBuffer) < 0) {
+                throw new IOException("connection closed by the collector");
+            }
+        }
+        String head = new String(readBuffer.array(), 0, headerEnd, StandardCharsets.ISO_8859_1);
+        int statusCode = parseStatusCode(head);
+        long contentLength = -1;
+        boolean keepAlive = true;
+        for (String line : head.split("\r\n")) {
+            int separator = line.indexOf(':');
+            if (separator < 0) {
+                continue;
+            }
+            String name = line.substring(0, separator).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(separator + 1).trim();
+            if (name.equals("content-length")) {
+                contentLength = Long.parseLong(value);
+            } else if (name.equals("connection") && value.equalsIgnoreCase("close")) {
+                keepAlive = false;
+            }
+        }
+
+        if (contentLength < 0 || !keepAlive) {
+            closeChannel();
+        } else {
+            long remaining = contentLength - (readBuffer.position() - headerEnd - HEADER_TERMINATOR.length());
+            while (remaining > 0) {
+                readBuffer.clear();
+                readBuffer.limit((int) Math.min(readBuffer.capacity(), remaining));
+                int read = socketChannel.read(readBuffer);
+                if (read < 0) {
+                    throw new IOException("connection closed by the collector");
+                }
+                remaining -= read;
+            }
+        }
+        if (statusCode < 200 || statusCode >= 300) {
+            throw new IOException("collector responded with status " + statusCode);
+        }
+    }
+
+    private static int indexOfHeaderTerminator(ByteBuffer buffer) {
+        byte[] bytes = buffer.array();
+        for (int i = 3; i < buffer.position(); i++) {
+            if (bytes[i] == '\n' && bytes[i - 1] == '\r' && bytes[i - 2] == '\n' && bytes[i - 3] == '\r') {
+                return i - 3;
+            }
+        }
+        return -1;
+    }
+
+    private static int parseStatusCode(String head) throws IOException {
+        // HTTP/1.1 200 OK
+        int start = head.indexOf(' ');
+        if (start < 0 || head.length() < start + 4) {
+            throw new IOException("malformed response status line");
+        }
+        try {
+            return Integer.parseInt(head.substring(start + 1, start + 4));
+        } catch (NumberFormatException e) {
+            throw new IOException("malformed response status line", e);
+        }
+    }
+
+    private void closeChannel() {
+        SocketChannel socketChannel = channel;
+        channel = null;
+        if (socketChannel != null) {
+            try {
+                socketChannel.close();
+            } catch (IOException ignored) {
+                // The connection is discarded either way
+            }
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        if (isShutdown.getAndSet(true)) {
+            return CompletableResultCode.ofSuccess();
+        }
+        executor.shutdown();
+        closeChannel();
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public String toString() {
+        return "UnixDomainSocketSpanExporter{address=" + address + "}";
+    }
+
+    private static final class ExportException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private ExportException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * Builder for {@link UnixDomainSocketSpanExporter}.
+     */
+    public static final class Builder {
+        private final Path socketPath;
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private String tracesPath = DEFAULT_TRACES_PATH;
+        private long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_TIMEOUT_MILLIS);
+
+        private Builder(Path socketPath) {
+            this.socketPath = socketPath;
+        }
+
+        public Builder setTracesPath(String tracesPath) {
+            this.tracesPath = tracesPath;
+            return this;
+        }
+
+        public Builder addHeader(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        public Builder setTimeout(long timeout, TimeUnit unit) {
+            if (timeout <= 0) {
+                throw new IllegalArgumentException("timeout must be positive.");
+            }
+            this.timeoutNanos = unit.toNanos(timeout);
+            return this;
+        }
+
+        public UnixDomainSocketSpanExporter build() {
+            return new UnixDomainSocketSpanExporter(socketPath, tracesPath, headers, timeoutNanos);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Aggregator of non-negative measurements into a base-2 exponential histogram with delta temporality.
+ * <p>
+ * Bucket {@code i} at scale {@code s} holds the values in {@code (2^(i/2^s), 2^((i+1)/2^s)]}. Each stripe starts at
+ * the finest scale, {@value #MAX_SCALE}, and halves its resolution whenever the recorded values span more than
+ * {@value #MAX_BUCKETS} buckets, so that the histogram has a relative error of about {@code 2^(2^-s) - 1} in a fixed
+ * amount of memory. The counts are kept in primitive arrays, and the recording threads are spread over a number of
+ * stripes, each with its own lock, so that they rarely contend. {@link #collect()} merges the stripes into one
+ * histogram at their coarsest scale and resets them, so that each collection covers the measurements recorded since
+ * the previous one.
+ */
+public final class ExponentialHistogramAggregator {
+    static final int MAX_SCALE = 20;
+    static final int MAX_BUCKETS = 160;
+    private static final int MAX_STRIPES = 16;
+    private static final double INV_LN2 = 1 / Math.log(2);
+    private static final long SIGNIFICAND_MASK = 0xFFFFFFFFFFFFFL;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    /**
+     * Create an aggregator with a stripe for each processor, up to {@value #MAX_STRIPES}.
+     */
+    public ExponentialHistogramAggregator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    ExponentialHistogramAggregator(int concurrency) {
+        int size = 1;
+        while (size < Math.min(concurrency, MAX_STRIPES)) {
+            size <<= 1;
+        }
+        stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        stripeMask = size - 1;
+    }
+
+    /**
+     * Record a measurement a number of times.
+     *
+     * @param value  the measurement, where negative values are ignored
+     * @param weight the number of times the measurement is recorded
+     */
+    public void record(double value, long weight) {
+        if (!(value >= 0) || weight <= 0 || Double.isInfinite(value)) {
+            return;
+        }
+        Stripe stripe = stripes[(int) Thread.currentThread().getId() & stripeMask];
+        synchronized (stripe) {
+            stripe.record(value, weight);
+        }
+    }
+
+    /**
+     * Get the measurements recorded since the previous collection, and start a new collection.
+     *
+     * @return the histogram of the measurements, or null if nothing was recorded
+     */
+    public ExponentialHistogramPoint collect() {
+        Stripe merged = new Stripe();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                merged.merge(stripe);
+                stripe.reset();
+            }
+        }
+        if (merged.count == 0) {
+            return null;
+        }
+        return new ExponentialHistogramPoint(merged.scale, merged.zeroCount, merged.count, merged.sum, merged.min,
+                merged.max, merged.offset, Arrays.copyOf(merged.counts, merged.length));
+    }
+
+    /**
+     * Get the index of the bucket which holds a positive value.
+     */
+    static int index(double value, int scale) {
+        int exponent = Math.getExponent(value);
+        if ((Double.doubleToRawLongBits(value) & SIGNIFICAND_MASK) == 0 && exponent >= Double.MIN_EXPONENT) {
+            // Powers of two are the upper bounds of their buckets
+            return scale >= 0 ? (exponent << scale) - 1 : (exponent - 1) >> -scale;
+        }
+        if (scale <= 0) {
+            return exponent >> -scale;
+        }
+        return (int) Math.ceil(Math.log(value) * Math.scalb(INV_LN2, scale)) - 1;
+    }
+
+    /**
+     * The histogram of the threads which record into one stripe, guarded by the stripe.
+     */
+    private static final class Stripe {
+        private final long[] counts = new long[MAX_BUCKETS];
+        private int scale = MAX_SCALE;
+        // Bucket index of the first count, and the number of counts in use
+        private int offset;
+        private int length;
+        private long zeroCount;
+        private long count;
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        private void record(double value, long weight) {
+            count += weight;
+            sum += value * weight;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            if (value < Double.MIN_NORMAL) {
+                zeroCount += weight;
+                return;
+            }
+            add(index(value, scale), weight);
+        }
+
+        /**
+         * Add to the count of a bucket at the current scale, lowering the scale if the bucket does not fit.
+         */
+        private void add(int index, long weight) {
+            if (length == 0) {
+                offset = index;
+                length = 1;
+                counts[0] = weight;
+                return;
+            }
+            if (index < offset || index >= offset + length) {
+                int low = Math.min(offset, index);
+                int high = Math.max(offset + length - 1, index);
+                int change = 0;
+                while (high - low >= MAX_BUCKETS) {
+                    low >>= 1;
+                    high >>= 1;
+                    change++;
+                }
+                if (change > 0) {
+                    downscale(change);
+                    index >>= change;
+                }
+                if (index < offset) {
+                    int shift = offset - index;
+                    System.arraycopy(counts, 0, counts, shift, length);
+                    Arrays.fill(counts, 0, shift, 0);
+                    offset = index;
+                    length += shift;
+                } else if (index >= offset + length) {
+                    length = index - offset + 1;
+                }
+            }
+            counts[index - offset] += weight;
+        }
+
+        /**
+         * Merge each run of {@code 2^change} buckets into one.
+         */
+        private void downscale(int change) {
+            int newOffset = offset >> change;
+            for (int i = 0; i < length; i++) {
+                int target = ((offset + i) >> change) - newOffset;
+                if (target != i) {
+                    counts[target] += counts[i];
+                    counts[i] = 0;
+                }
+            }
+            length = ((offset + length - 1) >> change) - newOffset + 1;
+            offset = newOffset;
+            scale -= change;
+        }
+
+        private void merge(Stripe other) {
+            if (other.count == 0) {
+                return;
+            }
+            count += other.count;
+            sum += other.sum;
+            zeroCount += other.zeroCount;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            if (other.length == 0) {
+                return;
+            }
+            if (other.scale < scale) {
+                if (length > 0) {
+                    downscale(scale - other.scale);
+                } else {
+                    scale = other.scale;
+                }
+            }
+            for (int i = 0; i < other.length; i++) {
+                if (other.counts[i] != 0) {
+                    // The scale of this histogram may drop while the buckets are added
+                    add((other.offset + i) >> (other.scale - scale), other.counts[i]);
+                }
+            }
+        }
+
+        private void reset() {
+            Arrays.fill(counts, 0, length, 0);
+            scale = MAX_SCALE;
+            offset = 0;
+            length = 0;
+            zeroCount = 0;
+            count = 0;
+            sum = 0;
+            min = Double.POSITIVE_INFINITY;
+            max = Double.NEGATIVE_INFINITY;
+        }
+    }
+}
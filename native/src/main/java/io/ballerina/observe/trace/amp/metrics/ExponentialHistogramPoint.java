@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.metrics;
+
+/**
+ * The measurements which an {@link ExponentialHistogramAggregator} collected over one interval.
+ */
+public final class ExponentialHistogramPoint {
+    private final int scale;
+    private final long zeroCount;
+    private final long count;
+    private final double sum;
+    private final double min;
+    private final double max;
+    private final int offset;
+    private final long[] bucketCounts;
+
+    ExponentialHistogramPoint(int scale, long zeroCount, long count, double sum, double min, double max, int offset,
+                              long[] bucketCounts) {
+        this.scale = scale;
+        this.zeroCount = zeroCount;
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        this.offset = offset;
+        this.bucketCounts = bucketCounts;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public long getZeroCount() {
+        return zeroCount;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Get the index of the bucket of the first count.
+     *
+     * @return the bucket offset
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Get the counts of the consecutive buckets from the offset.
+     *
+     * @return the bucket counts
+     */
+    public long[] getBucketCounts() {
+        return bucketCounts.clone();
+    }
+}
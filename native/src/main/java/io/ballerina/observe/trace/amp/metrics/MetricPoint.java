@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.metrics;
+
+import io.opentelemetry.api.common.Attributes;
+
+/**
+ * One data point of a metric series over one report interval, with its value in primitive fields.
+ */
+final class MetricPoint {
+    /**
+     * The kinds of data points, which match the OTLP metric types.
+     */
+    enum Type {
+        /**
+         * A monotonic sum of the increments in the interval.
+         */
+        LONG_SUM,
+        /**
+         * The last value.
+         */
+        DOUBLE_GAUGE,
+        /**
+         * The number and sum of the measurements in the interval, as a histogram with a single bucket.
+         */
+        HISTOGRAM,
+        /**
+         * The distribution of the measurements in the interval.
+         */
+        EXPONENTIAL_HISTOGRAM
+    }
+
+    final String name;
+    final String description;
+    final String unit;
+    final Type type;
+    final Attributes attributes;
+    final long startEpochNanos;
+    final long epochNanos;
+    final long longValue;
+    final double doubleValue;
+    final ExponentialHistogramPoint histogram;
+
+    private MetricPoint(String name, String description, String unit, Type type, Attributes attributes,
+                        long startEpochNanos, long epochNanos, long longValue, double doubleValue,
+                        ExponentialHistogramPoint histogram) {
+        this.name = name;
+        this.description = description;
+        this.unit = unit;
+        this.type = type;
+        this.attributes = attributes;
+        this.startEpochNanos = startEpochNanos;
+        this.epochNanos = epochNanos;
+        this.longValue = longValue;
+        this.doubleValue = doubleValue;
+        this.histogram = histogram;
+    }
+
+    static MetricPoint longSum(String name, String description, Attributes attributes, long startEpochNanos,
+                               long epochNanos, long increment) {
+        return longSum(name, description, "", attributes, startEpochNanos, epochNanos, increment);
+    }
+
+    static MetricPoint longSum(String name, String description, String unit, Attributes attributes,
+                               long startEpochNanos, long epochNanos, long increment) {
+        return new MetricPoint(name, description, unit, Type.LONG_SUM, attributes, startEpochNanos, epochNanos,
+                increment, 0, null);
+    }
+
+    static MetricPoint doubleGauge(String name, String description, Attributes attributes, long epochNanos,
+                                   double value) {
+        return doubleGauge(name, description, "", attributes, epochNanos, value);
+    }
+
+    static MetricPoint doubleGauge(String name, String description, String unit, Attributes attributes,
+                                   long epochNanos, double value) {
+        return new MetricPoint(name, description, unit, Type.DOUBLE_GAUGE, attributes, epochNanos, epochNanos, 0,
+                value, null);
+    }
+
+    static MetricPoint histogram(String name, String description, Attributes attributes, long startEpochNanos,
+                                 long epochNanos, long count, double sum) {
+        return new MetricPoint(name, description, "", Type.HISTOGRAM, attributes, startEpochNanos, epochNanos,
+                count, sum, null);
+    }
+
+    static MetricPoint exponentialHistogram(String name, String description, String unit, Attributes attributes,
+                                            long startEpochNanos, long epochNanos,
+                                            ExponentialHistogramPoint histogram) {
+        return new MetricPoint(name, description, unit, Type.EXPONENTIAL_HISTOGRAM, attributes, startEpochNanos,
+                epochNanos, 0, 0, histogram);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.metrics;
+
+import io.opentelemetry.api.common.Attributes;
+
+/**
+ * Source of the metrics of the extension itself, such as the spans dropped by its pipelines, which
+ * {@link OtlpMetricsReporter} reads at each report.
+ * <p>
+ * Sources keep their counts in their own primitive fields, and hand the current values to the reporter, which
+ * exports the changes since the previous report with delta temporality.
+ */
+@FunctionalInterface
+public interface MetricSource {
+    /**
+     * Record the current values of the metrics of this source.
+     *
+     * @param recorder the recorder of the values
+     */
+    void collect(Recorder recorder);
+
+    /**
+     * Receives the current values of the metrics of a source.
+     */
+    interface Recorder {
+        /**
+         * Record the cumulative value of a monotonic counter. The increase since the previous report is exported.
+         * A value lower than the previous one is taken as a counter which started again from zero.
+         *
+         * @param name        the metric name
+         * @param description the metric description
+         * @param unit        the unit of the values
+         * @param attributes  the attributes of the series
+         * @param value       the cumulative value
+         */
+        void counter(String name, String description, String unit, Attributes attributes, long value);
+
+        /**
+         * Record the current value of a gauge. The value is exported when it changed since the previous report.
+         *
+         * @param name        the metric name
+         * @param description the metric description
+         * @param unit        the unit of the value
+         * @param attributes  the attributes of the series
+         * @param value       the current value
+         */
+        void gauge(String name, String description, String unit, Attributes attributes, double value);
+    }
+}
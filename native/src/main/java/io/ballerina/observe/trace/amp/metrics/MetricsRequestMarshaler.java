@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.metrics;
+
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.exporter.internal.marshal.MarshalerUtil;
+import io.opentelemetry.exporter.internal.marshal.MarshalerWithSize;
+import io.opentelemetry.exporter.internal.marshal.ProtoEnumInfo;
+import io.opentelemetry.exporter.internal.marshal.ProtoFieldInfo;
+import io.opentelemetry.exporter.internal.marshal.Serializer;
+import io.opentelemetry.exporter.internal.otlp.InstrumentationScopeMarshaller;
+import io.opentelemetry.exporter.internal.otlp.KeyValueMarshaler;
+import io.opentelemetry.exporter.internal.otlp.ResourceMarshaler;
+import io.opentelemetry.proto.collector.metrics.v1.internal.ExportMetricsServiceRequest;
+import io.opentelemetry.proto.metrics.v1.internal.AggregationTemporality;
+import io.opentelemetry.proto.metrics.v1.internal.ExponentialHistogram;
+import io.opentelemetry.proto.metrics.v1.internal.ExponentialHistogramDataPoint;
+import io.opentelemetry.proto.metrics.v1.internal.Gauge;
+import io.opentelemetry.proto.metrics.v1.internal.Histogram;
+import io.opentelemetry.proto.metrics.v1.internal.HistogramDataPoint;
+import io.opentelemetry.proto.metrics.v1.internal.Metric;
+import io.opentelemetry.proto.metrics.v1.internal.NumberDataPoint;
+import io.opentelemetry.proto.metrics.v1.internal.ResourceMetrics;
+import io.opentelemetry.proto.metrics.v1.internal.ScopeMetrics;
+import io.opentelemetry.proto.metrics.v1.internal.Sum;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.resources.Resource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Marshaler of an OTLP export metrics request with the data points of one report.
+ * <p>
+ * The metrics SDK is not used, so the request is marshaled from the {@link MetricPoint}s with the protobuf
+ * marshalers of the OTLP exporter, which the span exporter uses as well. The points are grouped into metrics by
+ * name, in the order in which the names first occur.
+ */
+final class MetricsRequestMarshaler extends MarshalerWithSize {
+    private static final InstrumentationScopeInfo SCOPE = InstrumentationScopeInfo.create("amp");
+
+    private final ResourceMetricsMarshaler resourceMetrics;
+
+    private MetricsRequestMarshaler(ResourceMetricsMarshaler resourceMetrics) {
+        super(MarshalerUtil.sizeMessage(ExportMetricsServiceRequest.RESOURCE_METRICS, resourceMetrics));
+        this.resourceMetrics = resourceMetrics;
+    }
+
+    /**
+     * Create the request for the data points of a report.
+     *
+     * @param resource the resource of the program
+     * @param points   the data points
+     * @return the request marshaler
+     */
+    static MetricsRequestMarshaler create(Resource resource, List<MetricPoint> points) {
+        Map<String, List<MetricPoint>> metrics = new LinkedHashMap<>();
+        for (MetricPoint point : points) {
+            metrics.computeIfAbsent(point.name, name -> new ArrayList<>()).add(point);
+        }
+        List<MetricMarshaler> metricMarshalers = new ArrayList<>(metrics.size());
+        for (List<MetricPoint> series : metrics.values()) {
+            metricMarshalers.add(MetricMarshaler.create(series));
+        }
+        ScopeMetricsMarshaler scopeMetrics = new ScopeMetricsMarshaler(InstrumentationScopeMarshaller.create(SCOPE),
+                metricMarshalers);
+        return new MetricsRequestMarshaler(new ResourceMetricsMarshaler(ResourceMarshaler.create(resource),
+                scopeMetrics));
+    }
+
+    @Override
+    protected void writeTo(Serializer output) throws IOException {
+        output.serializeMessage(ExportMetricsServiceRequest.RESOURCE_METRICS, resourceMetrics);
+    }
+
+    private static final class ResourceMetricsMarshaler extends MarshalerWithSize {
+        private final ResourceMarshaler resource;
+        private final ScopeMetricsMarshaler scopeMetrics;
+
+        private ResourceMetricsMarshaler(ResourceMarshaler resource, ScopeMetricsMarshaler scopeMetrics) {
+            super(MarshalerUtil.sizeMessage(ResourceMetrics.RESOURCE, resource)
+                    + MarshalerUtil.sizeMessage(ResourceMetrics.SCOPE_METRICS, scopeMetrics));
+            this.resource = resource;
+            this.scopeMetrics = scopeMetrics;
+        }
+
+        @Override
+        protected void writeTo(Serializer output) throws IOException {
+            output.serializeMessage(ResourceMetrics.RESOURCE, resource);
+            output.serializeMessage(ResourceMetrics.SCOPE_METRICS, scopeMetrics);
+        }
+    }
+
+    private static final class ScopeMetricsMarshaler extends MarshalerWithSize {
+        private final InstrumentationScopeMarshaller scope;
+        private final List<MetricMarshaler> metrics;
+
+        private ScopeMetricsMarshaler(InstrumentationScopeMarshaller scope, List<MetricMarshaler> metrics) {
+            super(MarshalerUtil.sizeMessage(ScopeMetrics.SCOPE, scope)
+                    + MarshalerUtil.sizeRepeatedMessage(ScopeMetrics.METRICS, metrics));
+            this.scope = scope;
+            this.metrics = metrics;
+        }
+
+        @Override
+        protected void writeTo(Serializer output) throws IOException {
+            output.serializeMessage(ScopeMetrics.SCOPE, scope);
+            output.serializeRepeatedMessage(ScopeMetrics.METRICS, metrics);
+        }
+    }
+
+    private static final class MetricMarshaler extends MarshalerWithSize {
+        private final byte[] name;
+        private final byte[] description;
+        private final byte[] unit;
+        private final ProtoFieldInfo dataField;
+        private final Marshaler data;
+
+        private MetricMarshaler(byte[] name, byte[] description, byte[] unit, ProtoFieldInfo dataField,
+                                Marshaler data) {
+            super(MarshalerUtil.sizeBytes(Metric.NAME, name)
+                    + MarshalerUtil.sizeBytes(Metric.DESCRIPTION, description)
+                    + MarshalerUtil.sizeBytes(Metric.UNIT, unit)
+                    + MarshalerUtil.sizeMessage(dataField, data));
+            this.name = name;
+            this.description = description;
+            this.unit = unit;
+            this.dataField = dataField;
+            this.data = data;
+        }
+
+        /**
+         * Create the metric of the data points of one series, which have the same name and type.
+         */
+        private static MetricMarshaler create(List<MetricPoint> series) {
+            MetricPoint first = series.get(0);
+            List<Marshaler> points = new ArrayList<>(series.size());
+            ProtoFieldInfo dataField;
+            Marshaler data;
+            switch (first.type) {
+                case LONG_SUM:
+                    series.forEach(point -> points.add(new NumberDataPointMarshaler(point)));
+                    dataField = Metric.SUM;
+                    data = new DataMarshaler(Sum.DATA_POINTS, points, Sum.AGGREGATION_TEMPORALITY, Sum.IS_MONOTONIC);
+                    break;
+                case DOUBLE_GAUGE:
+                    series.forEach(point -> points.add(new NumberDataPointMarshaler(point)));
+                    dataField = Metric.GAUGE;
+                    data = new DataMarshaler(Gauge.DATA_POINTS, points, null, null);
+                    break;
+                case HISTOGRAM:
+                    series.forEach(point -> points.add(new HistogramDataPointMarshaler(point)));
+                    dataField = Metric.HISTOGRAM;
+                    data = new DataMarshaler(Histogram.DATA_POINTS, points, Histogram.AGGREGATION_TEMPORALITY, null);
+                    break;
+                default:
+                    series.forEach(point -> points.add(new ExponentialHistogramDataPointMarshaler(point)));
+                    dataField = Metric.EXPONENTIAL_HISTOGRAM;
+                    data = new DataMarshaler(ExponentialHistogram.DATA_POINTS, points,
+                            ExponentialHistogram.AGGREGATION_TEMPORALITY, null);
+                    break;
+            }
+            return new MetricMarshaler(MarshalerUtil.toBytes(first.name), MarshalerUtil.toBytes(first.description),
+                    MarshalerUtil.toBytes(first.unit), dataField, data);
+        }
+
+        @Override
+        protected void writeTo(Serializer output) throws IOException {
+            output.serializeString(Metric.NAME, name);
+            output.serializeString(Metric.DESCRIPTION, description);
+            output.serializeString(Metric.UNIT, unit);
+            output.serializeMessage(dataField, data);
+        }
+    }
+
+    /**
+     * The data of a metric, which are its data points and, except for gauges, the delta temporality.
+     */
+    private static final class DataMarshaler extends MarshalerWithSize {
+        private static final ProtoEnumInfo TEMPORALITY = AggregationTemporality.AGGREGATION_TEMPORALITY_DELTA;
+
+        private final ProtoFieldInfo pointsField;
+        private final List<Marshaler> points;
+        private final ProtoFieldInfo temporalityField;
+        private final ProtoFieldInfo monotonicField;
+
+        private DataMarshaler(ProtoFieldInfo pointsField, List<Marshaler> points, ProtoFieldInfo temporalityField,
+                              ProtoFieldInfo monotonicField) {
+            super(MarshalerUtil.sizeRepeatedMessage(pointsField, points)
+                    + (temporalityField != null ? MarshalerUtil.sizeEnum(temporalityField, TEMPORALITY) : 0)
+                    + (monotonicField != null ? MarshalerUtil.sizeBool(monotonicField, true) : 0));
+            this.pointsField = pointsField;
+            this.points = points;
+            this.temporalityField = temporalityField;
+            this.monotonicField = monotonicField;
+        }
+
+        @Override
+        protected void writeTo(Serializer output) throws IOException {
+            output.serializeRepeatedMessage(pointsField, points);
+            if (temporalityField != null) {
+                output.serializeEnum(temporalityField, TEMPORALITY);
+            }
+            if (monotonicField != null) {
+                output.serializeBool(monotonicField, true);
+            }
+        }
+    }
+
+    private static final class NumberDataPointMarshaler extends MarshalerWithSize {
+        private final MetricPoint point;
+        private final KeyValueMarshaler[] attributes;
+
+        private NumberDataPointMarshaler(MetricPoint point) {
+            this(point, KeyValueMarshaler.createRepeated(point.attributes));
+        }
+
+        private NumberDataPointMarshaler(MetricPoint point, KeyValueMarshaler[] attributes) {
+            super(MarshalerUtil.sizeFixed64(NumberDataPoint.START_TIME_UNIX_NANO, point.startEpochNanos)
+                    + MarshalerUtil.sizeFixed64(NumberDataPoint.TIME_UNIX_NANO, point.epochNanos)
+                    + (point.type == MetricPoint.Type.LONG_SUM
+                    ? MarshalerUtil.sizeFixed64Optional(NumberDataPoint.AS_INT, point.longValue)
+                    : MarshalerUtil.sizeDoubleOptional(NumberDataPoint.AS_DOUBLE, point.doubleValue))
+                    + MarshalerUtil.sizeRepeatedMessage(NumberDataPoint.ATTRIBUTES, attributes));
+            this.point = point;
+            this.attributes = attributes;
+        }
+
+        @Override
+        protected void writeTo(Serializer output) throws IOException {
+            output.serializeFixed64(NumberDataPoint.START_TIME_UNIX_NANO, point.startEpochNanos);
+            output.serializeFixed64(NumberDataPoint.TIME_UNIX_NANO, point.epochNanos);
+            // The value is one of two fields, so it is written even when it is zero
+            if (point.type == MetricPoint.Type.LONG_SUM) {
+                output.serializeFixed64Optional(NumberDataPoint.AS_INT, point.longValue);
+            } else {
+                output.serializeDoubleOptional(NumberDataPoint.AS_DOUBLE, point.doubleValue);
+            }
+            output.serializeRepeatedMessage(NumberDataPoint.ATTRIBUTES, attributes);
+        }
+    }
+
+    private static final class HistogramDataPointMarshaler extends MarshalerWithSize {
+        private final MetricPoint point;
+        private final KeyValueMarshaler[] attributes;
+        // All measurements are in the single bucket of a histogram without bounds
+        private final List<Long> bucketCounts;
+
+        private HistogramDataPointMarshaler(MetricPoint point) {
+            this(point, KeyValueMarshaler.createRepeated(point.attributes),
+                    Collections.singletonList(point.longValue));
+        }
+
+        private HistogramDataPointMarshaler(MetricPoint point, KeyValueMarshaler[] attributes,
+                                            List<Long> bucketCounts) {
+            super(MarshalerUtil.sizeFixed64(HistogramDataPoint.START_TIME_UNIX_NANO, point.startEpochNanos)
+                    + MarshalerUtil.sizeFixed64(HistogramDataPoint.TIME_UNIX_NANO, point.epochNanos)
+                    + MarshalerUtil.sizeFixed64(HistogramDataPoint.COUNT, point.longValue)
+                    + MarshalerUtil.sizeDoubleOptional(HistogramDataPoint.SUM, point.doubleValue)
+                    + MarshalerUtil.sizeRepeatedFixed64(HistogramDataPoint.BUCKET_COUNTS, bucketCounts)
+                    + MarshalerUtil.sizeRepeatedMessage(HistogramDataPoint.ATTRIBUTES, attributes));
+            this.point = point;
+            this.attributes = attributes;
+            this.bucketCounts = bucketCounts;
+        }
+
+        @Override
+        protected void writeTo(Serializer output) throws IOException {
+            output.serializeFixed64(HistogramDataPoint.START_TIME_UNIX_NANO, point.startEpochNanos);
+            output.serializeFixed64(HistogramDataPoint.TIME_UNIX_NANO, point.epochNanos);
+            output.serializeFixed64(HistogramDataPoint.COUNT, point.longValue);
+            output.serializeDoubleOptional(HistogramDataPoint.SUM, point.doubleValue);
+            output.serializeRepeatedFixed64(HistogramDataPoint.BUCKET_COUNTS, bucketCounts);
+            output.serializeRepeatedMessage(HistogramDataPoint.ATTRIBUTES, attributes);
+        }
+    }
+
+    private static final class ExponentialHistogramDataPointMarshaler extends MarshalerWithSize {
+        private final MetricPoint point;
+        private final KeyValueMarshaler[] attributes;
+        private final BucketsMarshaler positive;
+
+        private ExponentialHistogramDataPointMarshaler(MetricPoint point) {
+            this(point, KeyValueMarshaler.createRepeated(point.attributes), new BucketsMarshaler(
+                    point.histogram.getOffset(), point.histogram.getBucketCounts()));
+        }
+
+        private ExponentialHistogramDataPointMarshaler(MetricPoint point, KeyValueMarshaler[] attributes,
+                                                       BucketsMarshaler positive) {
+            super(MarshalerUtil.sizeRepeatedMessage(ExponentialHistogramDataPoint.ATTRIBUTES, attributes)
+                    + MarshalerUtil.sizeFixed64(ExponentialHistogramDataPoint.START_TIME_UNIX_NANO,
+                    point.startEpochNanos)
+                    + MarshalerUtil.sizeFixed64(ExponentialHistogramDataPoint.TIME_UNIX_NANO, point.epochNanos)
+                    + MarshalerUtil.sizeFixed64(ExponentialHistogramDataPoint.COUNT, point.histogram.getCount())
+                    + MarshalerUtil.sizeDoubleOptional(ExponentialHistogramDataPoint.SUM, point.histogram.getSum())
+                    + MarshalerUtil.sizeSInt32(ExponentialHistogramDataPoint.SCALE, point.histogram.getScale())
+                    + MarshalerUtil.sizeFixed64(ExponentialHistogramDataPoint.ZERO_COUNT,
+                    point.histogram.getZeroCount())
+                    + MarshalerUtil.sizeMessage(ExponentialHistogramDataPoint.POSITIVE, positive));
+            this.point = point;
+            this.attributes = attributes;
+            this.positive = positive;
+        }
+
+        @Override
+        protected void writeTo(Serializer output) throws IOException {
+            output.serializeRepeatedMessage(ExponentialHistogramDataPoint.ATTRIBUTES, attributes);
+            output.serializeFixed64(ExponentialHistogramDataPoint.START_TIME_UNIX_NANO, point.startEpochNanos);
+            output.serializeFixed64(ExponentialHistogramDataPoint.TIME_UNIX_NANO, point.epochNanos);
+            output.serializeFixed64(ExponentialHistogramDataPoint.COUNT, point.histogram.getCount());
+            output.serializeDoubleOptional(ExponentialHistogramDataPoint.SUM, point.histogram.getSum());
+            output.serializeSInt32(ExponentialHistogramDataPoint.SCALE, point.histogram.getScale());
+            output.serializeFixed64(ExponentialHistogramDataPoint.ZERO_COUNT, point.histogram.getZeroCount());
+            output.serializeMessage(ExponentialHistogramDataPoint.POSITIVE, positive);
+        }
+    }
+
+    private static final class BucketsMarshaler extends MarshalerWithSize {
+        private final int offset;
+        private final long[] bucketCounts;
+
+        private BucketsMarshaler(int offset, long[] bucketCounts) {
+            super(MarshalerUtil.sizeSInt32(ExponentialHistogramDataPoint.Buckets.OFFSET, offset)
+                    + MarshalerUtil.sizeRepeatedUInt64(ExponentialHistogramDataPoint.Buckets.BUCKET_COUNTS,
+                    bucketCounts));
+            this.offset = offset;
+            this.bucketCounts = bucketCounts;
+        }
+
+        @Override
+        protected void writeTo(Serializer output) throws IOException {
+            output.serializeSInt32(ExponentialHistogramDataPoint.Buckets.OFFSET, offset);
+            output.serializeRepeatedUInt64(ExponentialHistogramDataPoint.Buckets.BUCKET_COUNTS, bucketCounts);
+        }
+    }
+}
@@ -0,0 +1,449 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.metrics;
+
+import io.ballerina.runtime.observability.metrics.Counter;
+import io.ballerina.runtime.observability.metrics.DefaultMetricRegistry;
+import io.ballerina.runtime.observability.metrics.Gauge;
+import io.ballerina.runtime.observability.metrics.Metric;
+import io.ballerina.runtime.observability.metrics.MetricId;
+import io.ballerina.runtime.observability.metrics.PercentileValue;
+import io.ballerina.runtime.observability.metrics.PolledGauge;
+import io.ballerina.runtime.observability.metrics.Snapshot;
+import io.ballerina.runtime.observability.metrics.Tag;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.exporter.internal.okhttp.OkHttpExporter;
+import io.opentelemetry.exporter.internal.okhttp.OkHttpExporterBuilder;
+import io.opentelemetry.sdk.common.Clock;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.resources.Resource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reporter which periodically exports the metrics of the Ballerina runtime, and the span durations recorded by a
+ * {@link SpanDurationStage}, and the metrics of the extension read from {@link MetricSource}s, to an OTLP/HTTP
+ * endpoint with delta temporality.
+ * <p>
+ * The counters of the metric registry are cumulative, so the reporter keeps the last value of each series in
+ * primitive fields and exports the increments since the previous report. Gauges with statistics, which Ballerina
+ * uses for timings, are exported as exponential histograms of the measurements since the previous report, estimated
+ * from the percentiles of the statistics, and the other gauges as gauges. Series which did not change since the
+ * previous report are not exported, which keeps the requests small for programs with many series that are mostly
+ * idle.
+ */
+public final class OtlpMetricsReporter {
+    public static final String DEFAULT_METRICS_PATH = "/v1/metrics";
+
+    private static final String REPORTER_THREAD_NAME = "amp-metric-reporter";
+
+    private final OkHttpExporter<Marshaler> exporter;
+    private final Resource resource;
+    private final SpanDurationStage spanDurations;
+    private final List<MetricSource> sources;
+    private final Clock clock;
+    private final ScheduledExecutorService executor;
+    // Guarded by this reporter, which reports on one thread at a time
+    private final Map<MetricId, Series> series = new HashMap<>();
+    private final Map<SourceSeriesKey, Series> sourceSeries = new HashMap<>();
+    private long lastReportEpochNanos;
+
+    private OtlpMetricsReporter(OkHttpExporter<Marshaler> exporter, Resource resource,
+                                SpanDurationStage spanDurations, List<MetricSource> sources, Clock clock) {
+        this.exporter = exporter;
+        this.resource = resource;
+        this.spanDurations = spanDurations;
+        this.sources = sources;
+        this.clock = clock;
+        this.lastReportEpochNanos = clock.now();
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, REPORTER_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Create a builder for a reporter which exports to the given endpoint.
+     *
+     * @param endpoint the URL of the OTLP/HTTP metrics endpoint
+     * @return a new builder
+     */
+    public static Builder builder(String endpoint) {
+        return new Builder(endpoint);
+    }
+
+    /**
+     * Start reporting at a fixed interval.
+     *
+     * @param interval the report interval
+     * @param unit     the unit of the interval
+     */
+    public void start(long interval, TimeUnit unit) {
+        executor.scheduleAtFixedRate(this::report, interval, interval, unit);
+    }
+
+    /**
+     * Export the metrics which changed since the previous report.
+     *
+     * @return the result of the export
+     */
+    public synchronized CompletableResultCode report() {
+        List<MetricPoint> points = collect(clock.now());
+        if (points.isEmpty()) {
+            return CompletableResultCode.ofSuccess();
+        }
+        try {
+            return exporter.export(MetricsRequestMarshaler.create(resource, points), points.size());
+        } catch (RuntimeException e) {
+            // The next report is still made
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    /**
+     * Stop reporting, after a last report of the metrics which changed since the previous one.
+     *
+     * @return the result of the last export and of shutting down the exporter
+     */
+    public CompletableResultCode shutdown() {
+        executor.shutdownNow();
+        CompletableResultCode reported = report();
+        CompletableResultCode result = new CompletableResultCode();
+        reported.whenComplete(() -> {
+            CompletableResultCode shutdown = exporter.shutdown();
+            shutdown.whenComplete(() -> {
+                if (reported.isSuccess() && shutdown.isSuccess()) {
+                    result.succeed();
+                } else {
+                    result.fail();
+                }
+            });
+        });
+        return result;
+    }
+
+    /**
+     * Get the data points of the metrics which changed since the previous collection.
+     */
+    synchronized List<MetricPoint> collect(long epochNanos) {
+        List<MetricPoint> points = new ArrayList<>();
+        collectRegistry(epochNanos, points);
+        collectSources(epochNanos, points);
+        if (spanDurations != null) {
+            long start = lastReportEpochNanos;
+            spanDurations.forEachSeries((attributes, aggregator) -> {
+                ExponentialHistogramPoint histogram = aggregator.collect();
+                if (histogram != null) {
+                    points.add(MetricPoint.exponentialHistogram(SpanDurationStage.METRIC_NAME,
+                            SpanDurationStage.METRIC_DESCRIPTION, SpanDurationStage.METRIC_UNIT, attributes, start,
+                            epochNanos, histogram));
+                }
+            });
+        }
+        lastReportEpochNanos = epochNanos;
+        return points;
+    }
+
+    private void collectRegistry(long epochNanos, List<MetricPoint> points) {
+        Metric[] metrics = DefaultMetricRegistry.getInstance().getAllMetrics();
+        Set<MetricId> seen = new HashSet<>(metrics.length * 2);
+        for (Metric metric : metrics) {
+            MetricId id = metric.getId();
+            seen.add(id);
+            Series current = series.get(id);
+            if (current == null) {
+                current = new Series(toAttributes(id.getTags()), lastReportEpochNanos);
+                series.put(id, current);
+            }
+            String description = id.getDescription() != null ? id.getDescription() : "";
+            if (metric instanceof Counter) {
+                long value = ((Counter) metric).getValue();
+                // A counter which was reset starts again from zero
+                long increment = value >= current.count ? value - current.count : value;
+                if (increment != 0) {
+                    points.add(MetricPoint.longSum(id.getName(), description, current.attributes,
+                            current.startEpochNanos, epochNanos, increment));
+                }
+                current.count = value;
+            } else if (metric instanceof Gauge) {
+                Gauge gauge = (Gauge) metric;
+                Snapshot[] snapshots = gauge.getSnapshots();
+                if (snapshots != null && snapshots.length > 0) {
+                    long count = gauge.getCount();
+                    double sum = gauge.getSum();
+                    ExponentialHistogramPoint histogram = count > current.count
+                            ? toExponentialHistogram(snapshots, count - current.count, sum - current.sum) : null;
+                    if (histogram != null) {
+                        points.add(MetricPoint.exponentialHistogram(id.getName(), description, "",
+                                current.attributes, current.startEpochNanos, epochNanos, histogram));
+                    }
+                    current.count = count;
+                    current.sum = sum;
+                } else {
+                    double value = gauge.getValue();
+                    if (current.updateGauge(value)) {
+                        points.add(MetricPoint.doubleGauge(id.getName(), description, current.attributes,
+                                epochNanos, value));
+                    }
+                }
+            } else if (metric instanceof PolledGauge) {
+                double value = ((PolledGauge) metric).getValue();
+                if (current.updateGauge(value)) {
+                    points.add(MetricPoint.doubleGauge(id.getName(), description, current.attributes, epochNanos,
+                            value));
+                }
+            }
+            current.startEpochNanos = epochNanos;
+        }
+        series.keySet().retainAll(seen);
+    }
+
+    /**
+     * Spread the measurements of a gauge since the previous report over the percentiles of its snapshot with the
+     * shortest time window, since Ballerina keeps statistics of the measurements rather than the measurements.
+     * <p>
+     * The smallest measurement is placed at the minimum, the largest at the maximum, and the others at the lowest
+     * percentile value above them, so the bucket counts are an estimate while the count and sum are exact.
+     *
+     * @return the histogram, or null if no measurement could be placed
+     */
+    static ExponentialHistogramPoint toExponentialHistogram(Snapshot[] snapshots, long count, double sum) {
+        Snapshot snapshot = snapshots[0];
+        for (Snapshot candidate : snapshots) {
+            if (candidate.getTimeWindow().compareTo(snapshot.getTimeWindow()) < 0) {
+                snapshot = candidate;
+            }
+        }
+        ExponentialHistogramAggregator aggregator = new ExponentialHistogramAggregator(1);
+        aggregator.record(count == 1 ? sum : snapshot.getMin(), 1);
+        long placed = 1;
+        PercentileValue[] percentiles = snapshot.getPercentileValues();
+        if (percentiles != null) {
+            for (PercentileValue percentile : percentiles) {
+                long below = Math.min(Math.round(count * percentile.getPercentile()), count - 1);
+                if (below > placed) {
+                    aggregator.record(percentile.getValue(), below - placed);
+                    placed = below;
+                }
+            }
+        }
+        if (count > placed) {
+            aggregator.record(snapshot.getMax(), count - placed);
+        }
+        ExponentialHistogramPoint histogram = aggregator.collect();
+        if (histogram == null) {
+            return null;
+        }
+        return new ExponentialHistogramPoint(histogram.getScale(), histogram.getZeroCount(), histogram.getCount(),
+                sum, histogram.getMin(), histogram.getMax(), histogram.getOffset(), histogram.getBucketCounts());
+    }
+
+    private void collectSources(long epochNanos, List<MetricPoint> points) {
+        if (sources.isEmpty()) {
+            return;
+        }
+        Set<SourceSeriesKey> seen = new HashSet<>();
+        MetricSource.Recorder recorder = new MetricSource.Recorder() {
+            @Override
+            public void counter(String name, String description, String unit, Attributes attributes, long value) {
+                Series current = getSourceSeries(name, attributes, seen);
+                long increment = value >= current.count ? value - current.count : value;
+                if (increment != 0) {
+                    points.add(MetricPoint.longSum(name, description, unit, attributes, current.startEpochNanos,
+                            epochNanos, increment));
+                }
+                current.count = value;
+                current.startEpochNanos = epochNanos;
+            }
+
+            @Override
+            public void gauge(String name, String description, String unit, Attributes attributes, double value) {
+                Series current = getSourceSeries(name, attributes, seen);
+                if (current.updateGauge(value)) {
+                    points.add(MetricPoint.doubleGauge(name, description, unit, attributes, epochNanos, value));
+                }
+            }
+        };
+        for (MetricSource source : sources) {
+            source.collect(recorder);
+        }
+        sourceSeries.keySet().retainAll(seen);
+    }
+
+    private Series getSourceSeries(String name, Attributes attributes, Set<SourceSeriesKey> seen) {
+        SourceSeriesKey key = new SourceSeriesKey(name, attributes);
+        seen.add(key);
+        return sourceSeries.computeIfAbsent(key, ignored -> new Series(attributes, lastReportEpochNanos));
+    }
+
+    private static Attributes toAttributes(Set<Tag> tags) {
+        AttributesBuilder builder = Attributes.builder();
+        if (tags != null) {
+            for (Tag tag : tags) {
+                builder.put(tag.getKey(), tag.getValue());
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String toString() {
+        return "OtlpMetricsReporter{exporter=" + exporter + ", series=" + series.size() + '}';
+    }
+
+    /**
+     * The state of a series of the metric registry between reports, whose last cumulative count and sum, or last
+     * gauge value, are kept in primitive fields.
+     */
+    private static final class Series {
+        private final Attributes attributes;
+        private long startEpochNanos;
+        private long count;
+        private double sum;
+
+        private Series(Attributes attributes, long startEpochNanos) {
+            this.attributes = attributes;
+            this.startEpochNanos = startEpochNanos;
+        }
+
+        /**
+         * Keep the value of a gauge.
+         *
+         * @return true if the gauge is new or its value changed, so that it is reported
+         */
+        private boolean updateGauge(double value) {
+            boolean changed = count == 0 || Double.compare(value, sum) != 0;
+            // The count marks a gauge which was reported at least once
+            count = 1;
+            sum = value;
+            return changed;
+        }
+    }
+
+    /**
+     * The name and attributes of a series of a {@link MetricSource}.
+     */
+    private static final class SourceSeriesKey {
+        private final String name;
+        private final Attributes attributes;
+
+        private SourceSeriesKey(String name, Attributes attributes) {
+            this.name = name;
+            this.attributes = attributes;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SourceSeriesKey)) {
+                return false;
+            }
+            SourceSeriesKey other = (SourceSeriesKey) o;
+            return name.equals(other.name) && attributes.equals(other.attributes);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + attributes.hashCode();
+        }
+    }
+
+    /**
+     * Builder of {@link OtlpMetricsReporter}.
+     */
+    public static final class Builder {
+        private final String endpoint;
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private final List<MetricSource> sources = new ArrayList<>();
+        private long timeoutNanos = TimeUnit.SECONDS.toNanos(OkHttpExporterBuilder.DEFAULT_TIMEOUT_SECS);
+        private Resource resource = Resource.getDefault();
+        private SpanDurationStage spanDurations;
+        private Clock clock = Clock.getDefault();
+
+        private Builder(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        public Builder addHeader(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        public Builder setTimeout(long timeout, TimeUnit unit) {
+            if (timeout < 0) {
+                throw new IllegalArgumentException("timeout must be non-negative.");
+            }
+            this.timeoutNanos = unit.toNanos(timeout);
+            return this;
+        }
+
+        public Builder setResource(Resource resource) {
+            this.resource = resource;
+            return this;
+        }
+
+        /**
+         * Set the stage whose span durations are reported.
+         *
+         * @param spanDurations the stage
+         * @return this builder
+         */
+        public Builder setSpanDurations(SpanDurationStage spanDurations) {
+            this.spanDurations = spanDurations;
+            return this;
+        }
+
+        /**
+         * Add a source of metrics of the extension, which is read at each report.
+         *
+         * @param source the source
+         * @return this builder
+         */
+        public Builder addSource(MetricSource source) {
+            sources.add(source);
+            return this;
+        }
+
+        public Builder setClock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public OtlpMetricsReporter build() {
+            OkHttpExporterBuilder<Marshaler> builder = new OkHttpExporterBuilder<Marshaler>("metric", endpoint)
+                    .setTimeout(timeoutNanos, TimeUnit.NANOSECONDS);
+            headers.forEach(builder::addHeader);
+            return new OtlpMetricsReporter(builder.build(), resource, spanDurations, new ArrayList<>(sources),
+                    clock);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.metrics;
+
+import io.ballerina.observe.trace.amp.processor.SpanStage;
+import io.ballerina.observe.trace.amp.sampler.AdjustedCount;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.trace.data.SpanData;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+import static io.opentelemetry.semconv.ResourceAttributes.SERVICE_NAME;
+
+/**
+ * Stage which records the durations of the spans in which requests enter the program, of the
+ * {@link SpanKind#SERVER} and {@link SpanKind#CONSUMER} kinds, into an exponential histogram for each service and
+ * span name, and passes all spans on.
+ * <p>
+ * Each span is recorded as many times as its adjusted count, so that the histograms include the spans which were
+ * not sampled. At most {@value #MAX_SERIES} histograms are kept, and the spans of further names are not recorded.
+ */
+public final class SpanDurationStage implements SpanStage {
+    static final String METRIC_NAME = "amp.span.duration";
+    static final String METRIC_DESCRIPTION = "Duration of the spans in which requests enter the program";
+    static final String METRIC_UNIT = "s";
+    static final AttributeKey<String> SPAN_NAME = stringKey("span.name");
+    static final AttributeKey<String> SPAN_KIND = stringKey("span.kind");
+    public static final int MAX_SERIES = 1000;
+
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Series>> services = new ConcurrentHashMap<>();
+    private final AtomicInteger seriesCount = new AtomicInteger();
+    private final LongAdder unrecordedSpans = new LongAdder();
+
+    @Override
+    public void onEnd(SpanData span, Consumer<SpanData> next) {
+        SpanKind kind = span.getKind();
+        if (kind == SpanKind.SERVER || kind == SpanKind.CONSUMER) {
+            record(span, kind);
+        }
+        next.accept(span);
+    }
+
+    private void record(SpanData span, SpanKind kind) {
+        String resourceService = span.getResource().getAttribute(SERVICE_NAME);
+        String service = resourceService != null ? resourceService : "";
+        Map<String, Series> names = services.computeIfAbsent(service, key -> new ConcurrentHashMap<>());
+        Series series = names.get(span.getName());
+        if (series == null) {
+            if (seriesCount.get() >= MAX_SERIES) {
+                unrecordedSpans.increment();
+                return;
+            }
+            series = names.computeIfAbsent(span.getName(), name -> {
+                seriesCount.incrementAndGet();
+                return new Series(Attributes.of(SERVICE_NAME, service, SPAN_NAME, name, SPAN_KIND,
+                        kind.name().toLowerCase(Locale.ROOT)));
+            });
+        }
+        Double adjustedCount = span.getAttributes().get(AdjustedCount.KEY);
+        long weight = adjustedCount != null ? Math.max(1, Math.round(adjustedCount)) : 1;
+        series.histogram.record((span.getEndEpochNanos() - span.getStartEpochNanos()) / 1e9, weight);
+    }
+
+    /**
+     * Call the action with the attributes and the histogram of each series.
+     *
+     * @param action the action
+     */
+    void forEachSeries(BiConsumer<Attributes, ExponentialHistogramAggregator> action) {
+        for (Map<String, Series> names : services.values()) {
+            for (Series series : names.values()) {
+                action.accept(series.attributes, series.histogram);
+            }
+        }
+    }
+
+    /**
+     * Get the number of spans which were not recorded since there were too many series.
+     *
+     * @return the number of unrecorded spans
+     */
+    public long getUnrecordedSpans() {
+        return unrecordedSpans.sum();
+    }
+
+    private static final class Series {
+        private final Attributes attributes;
+        private final ExponentialHistogramAggregator histogram = new ExponentialHistogramAggregator();
+
+        private Series(Attributes attributes) {
+            this.attributes = attributes;
+        }
+    }
+}
@@ -0,0 +1,606 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static io.opentelemetry.api.common.AttributeKey.booleanArrayKey;
+import static io.opentelemetry.api.common.AttributeKey.booleanKey;
+import static io.opentelemetry.api.common.AttributeKey.doubleArrayKey;
+import static io.opentelemetry.api.common.AttributeKey.doubleKey;
+import static io.opentelemetry.api.common.AttributeKey.longArrayKey;
+import static io.opentelemetry.api.common.AttributeKey.longKey;
+import static io.opentelemetry.api.common.AttributeKey.stringArrayKey;
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+
+/**
+ * Batching span processor used by the Amp extension.
+ * <p>
+ * This follows the design of the OpenTelemetry SDK {@code BatchSpanProcessor}, but keeps two queues. Spans with
+ * an error status, or with the configured priority attribute, go to a reserved priority lane which is always
+ * drained first. When the priority lane is full, the oldest normal span is evicted to make room, so normal spans
+ * are always dropped before priority spans. Dropped spans are counted separately for each lane.
+ * <p>
+ * The processor also reports its queue occupancy and the recent export failure rate as
+ * {@link SpanPipelinePressure}, so that samplers can shed load before spans are created. By default, the worker
+ * waits for each export to complete before it builds the next batch. An exporter which schedules the batches of
+ * several pipelines can be given a few pending exports, and their results still count towards the failure rate
+ * when they complete.
+ * <p>
+ * Ended spans pass through the configured {@link SpanStage}s in order before they are queued, so that spans which
+ * are dropped by a stage never take up room in the queue.
+ */
+public final class AmpBatchSpanProcessor implements SpanProcessor, SpanPipelinePressure {
+    private static final String WORKER_THREAD_NAME = "amp-batch-span-processor";
+    // Weight of the latest export result in the export failure rate
+    private static final double EXPORT_FAILURE_SMOOTHING = 0.25;
+
+    public static final long DEFAULT_SCHEDULE_DELAY_MILLIS = 5000;
+    public static final int DEFAULT_MAX_QUEUE_SIZE = 2048;
+    public static final int DEFAULT_PRIORITY_QUEUE_SIZE = 256;
+    public static final int DEFAULT_MAX_EXPORT_BATCH_SIZE = 512;
+    public static final long DEFAULT_EXPORT_TIMEOUT_MILLIS = 30000;
+    public static final int DEFAULT_MAX_PENDING_EXPORTS = 1;
+
+    private final Worker worker;
+    private final SpanStage[] stages;
+    // Entry points of each stage in the chain, followed by the queue
+    private final Consumer<SpanData>[] pipeline;
+    private final AtomicBoolean isShutdown = new AtomicBoolean(false);
+
+    private AmpBatchSpanProcessor(SpanExporter spanExporter, long scheduleDelayNanos, int maxQueueSize,
+                                  int priorityQueueSize, int maxExportBatchSize, long exporterTimeoutNanos,
+                                  int maxPendingExports, List<AttributeKey<?>> priorityAttributeKeys,
+                                  List<SpanStage> stages) {
+        this.worker = new Worker(spanExporter, scheduleDelayNanos, maxExportBatchSize, exporterTimeoutNanos,
+                maxPendingExports, new ArrayBlockingQueue<>(maxQueueSize), new ArrayBlockingQueue<>(priorityQueueSize),
+                maxQueueSize + priorityQueueSize, priorityAttributeKeys);
+        this.stages = stages.toArray(new SpanStage[0]);
+        // Generic arrays cannot be created, and the array is only filled with consumers of spans
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Consumer<SpanData>[] pipeline = new Consumer[this.stages.length + 1];
+        pipeline[this.stages.length] = worker::addSpan;
+        for (int i = this.stages.length - 1; i >= 0; i--) {
+            SpanStage stage = this.stages[i];
+            Consumer<SpanData> next = pipeline[i + 1];
+            pipeline[i] = span -> stage.onEnd(span, next);
+        }
+        this.pipeline = pipeline;
+        Thread workerThread = new Thread(worker, WORKER_THREAD_NAME);
+        workerThread.setDaemon(true);
+        workerThread.start();
+    }
+
+    /**
+     * Create a builder for a batch span processor which exports to the given exporter.
+     *
+     * @param spanExporter the exporter to which the batches are sent
+     * @return a new builder
+     */
+    public static Builder builder(SpanExporter spanExporter) {
+        return new Builder(spanExporter);
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+        if (!span.getSpanContext().isSampled()) {
+            // Recorded only for the flight recorder, and never reaches the stages at the end
+            return;
+        }
+        for (SpanStage stage : stages) {
+            stage.onStart(parentContext, span);
+        }
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return stages.length > 0;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        if (span == null || !span.getSpanContext().isSampled()) {
+            return;
+        }
+        pipeline[0].accept(span.toSpanData());
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        if (isShutdown.getAndSet(true)) {
+            return CompletableResultCode.ofSuccess();
+        }
+        flushStages();
+        return worker.shutdown();
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        flushStages();
+        return worker.forceFlush();
+    }
+
+    /**
+     * Queue spans for export without passing them through the stages, such as the spans promoted from the flight
+     * recorder, which were already recorded as they ended.
+     *
+     * @param spans the spans to export
+     */
+    public void export(List<SpanData> spans) {
+        if (isShutdown.get()) {
+            return;
+        }
+        for (SpanData span : spans) {
+            worker.addSpan(span);
+        }
+    }
+
+    private void flushStages() {
+        for (int i = 0; i < stages.length; i++) {
+            stages[i].flush(pipeline[i + 1]);
+        }
+    }
+
+    /**
+     * Get the number of spans dropped from the priority lane.
+     *
+     * @return the number of dropped priority spans
+     */
+    public long getDroppedPrioritySpans() {
+        return worker.droppedPrioritySpans.sum();
+    }
+
+    /**
+     * Get the number of spans dropped from the normal lane, including spans evicted in favour of priority spans.
+     *
+     * @return the number of dropped normal spans
+     */
+    public long getDroppedNormalSpans() {
+        return worker.droppedNormalSpans.sum();
+    }
+
+    @Override
+    public double getPressure() {
+        double occupancy = (double) worker.queuedSpans.get() / worker.capacity;
+        return Math.min(1.0, Math.max(occupancy, worker.exportFailureRate));
+    }
+
+    @Override
+    public String toString() {
+        return "AmpBatchSpanProcessor{spanExporter=" + worker.spanExporter
+                + ", scheduleDelayNanos=" + worker.scheduleDelayNanos
+                + ", maxExportBatchSize=" + worker.maxExportBatchSize
+                + ", exporterTimeoutNanos=" + worker.exporterTimeoutNanos + '}';
+    }
+
+    /**
+     * The worker thread which drains both lanes and exports the batches.
+     */
+    private static final class Worker implements Runnable {
+        private final SpanExporter spanExporter;
+        private final long scheduleDelayNanos;
+        private final int maxExportBatchSize;
+        private final long exporterTimeoutNanos;
+        private final int maxPendingExports;
+        private final BlockingQueue<SpanData> normalQueue;
+        private final BlockingQueue<SpanData> priorityQueue;
+        private final int capacity;
+        private final List<AttributeKey<?>> priorityAttributeKeys;
+        // Number of spans in both lanes, kept separately so that readers do not contend on the queue locks
+        private final AtomicInteger queuedSpans = new AtomicInteger();
+        // Exponentially weighted ratio of failed exports, only written by the worker thread
+        private volatile double exportFailureRate;
+
+        private final LongAdder droppedNormalSpans = new LongAdder();
+        private final LongAdder droppedPrioritySpans = new LongAdder();
+
+        // When waiting on the spans queue, exporter thread sets this atomic to the number of more spans it needs
+        // before doing an export. Writer threads check this value before signalling the worker.
+        private final AtomicInteger spansNeeded = new AtomicInteger(Integer.MAX_VALUE);
+        private final BlockingQueue<Boolean> signal = new ArrayBlockingQueue<>(1);
+        private final AtomicReference<CompletableResultCode> flushRequested = new AtomicReference<>();
+        private final ArrayList<SpanData> batch;
+        // Exports which did not complete yet, oldest first, only used by the worker thread
+        private final ArrayDeque<PendingExport> pendingExports = new ArrayDeque<>();
+        private volatile boolean continueWork = true;
+        private long nextExportTime;
+
+        private Worker(SpanExporter spanExporter, long scheduleDelayNanos, int maxExportBatchSize,
+                       long exporterTimeoutNanos, int maxPendingExports, BlockingQueue<SpanData> normalQueue,
+                       BlockingQueue<SpanData> priorityQueue, int capacity,
+                       List<AttributeKey<?>> priorityAttributeKeys) {
+            this.spanExporter = spanExporter;
+            this.scheduleDelayNanos = scheduleDelayNanos;
+            this.maxExportBatchSize = maxExportBatchSize;
+            this.exporterTimeoutNanos = exporterTimeoutNanos;
+            this.maxPendingExports = maxPendingExports;
+            this.normalQueue = normalQueue;
+            this.priorityQueue = priorityQueue;
+            this.capacity = capacity;
+            this.priorityAttributeKeys = priorityAttributeKeys;
+            this.batch = new ArrayList<>(maxExportBatchSize);
+        }
+
+        private void addSpan(SpanData span) {
+            SpanEnqueueEvent event = null;
+            if (SpanEnqueueEvent.isRecording()) {
+                event = new SpanEnqueueEvent();
+                event.begin();
+            }
+            boolean priority = isPriority(span);
+            String outcome = SpanEnqueueEvent.QUEUED;
+            int queued;
+            if (priority) {
+                if (priorityQueue.offer(span)) {
+                    queued = queuedSpans.incrementAndGet();
+                } else {
+                    // Priority lane is full, so make room for this span in the normal lane by evicting
+                    // the oldest normal span.
+                    SpanData evicted = normalQueue.poll();
+                    boolean added = evicted != null && normalQueue.offer(span);
+                    if (evicted != null) {
+                        if (isPriority(evicted)) {
+                            droppedPrioritySpans.increment();
+                        } else {
+                            droppedNormalSpans.increment();
+                        }
+                    }
+                    if (!added) {
+                        droppedPrioritySpans.increment();
+                    }
+                    outcome = added ? SpanEnqueueEvent.EVICTED : SpanEnqueueEvent.DROPPED;
+                    queued = evicted != null && !added ? queuedSpans.decrementAndGet() : queuedSpans.get();
+                }
+            } else if (normalQueue.offer(span)) {
+                queued = queuedSpans.incrementAndGet();
+            } else {
+                droppedNormalSpans.increment();
+                outcome = SpanEnqueueEvent.DROPPED;
+                queued = queuedSpans.get();
+            }
+            if (event != null && event.shouldCommit()) {
+                event.priority = priority;
+                event.outcome = outcome;
+                event.queuedSpans = queued;
+                event.capacity = capacity;
+                event.commit();
+            }
+            if (queued >= spansNeeded.get()) {
+                signal.offer(true);
+            }
+        }
+
+        private boolean isPriority(SpanData span) {
+            if (span.getStatus().getStatusCode() == StatusCode.ERROR) {
+                return true;
+            }
+            Attributes attributes = span.getAttributes();
+            for (int i = 0; i < priorityAttributeKeys.size(); i++) {
+                if (attributes.get(priorityAttributeKeys.get(i)) != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void run() {
+            updateNextExportTime();
+            while (continueWork) {
+                if (flushRequested.get() != null) {
+                    flush();
+                    // A flush requested by shutdown stops the worker, which must not export again after that
+                    continue;
+                }
+                drain(maxExportBatchSize - batch.size());
+                if (batch.size() >= maxExportBatchSize || System.nanoTime() >= nextExportTime) {
+                    exportCurrentBatch(batch.size() >= maxExportBatchSize
+                            ? SpanBatchExportEvent.FULL : SpanBatchExportEvent.SCHEDULED);
+                    updateNextExportTime();
+                }
+                if (queuedSpans.get() == 0) {
+                    try {
+                        long pollWaitTime = nextExportTime - System.nanoTime();
+                        if (pollWaitTime > 0) {
+                            spansNeeded.set(maxExportBatchSize - batch.size());
+                            signal.poll(pollWaitTime, TimeUnit.NANOSECONDS);
+                            spansNeeded.set(Integer.MAX_VALUE);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Move up to the given number of spans into the current batch, taking priority spans first.
+         */
+        private void drain(int limit) {
+            int drained = priorityQueue.drainTo(batch, limit);
+            if (drained < limit) {
+                drained += normalQueue.drainTo(batch, limit - drained);
+            }
+            if (drained > 0) {
+                queuedSpans.addAndGet(-drained);
+            }
+        }
+
+        private void flush() {
+            int spansToFlush = queuedSpans.get();
+            while (spansToFlush > 0) {
+                int drained = batch.size();
+                drain(Math.min(spansToFlush, maxExportBatchSize - batch.size()));
+                drained = batch.size() - drained;
+                if (drained == 0) {
+                    break;
+                }
+                spansToFlush -= drained;
+                if (batch.size() >= maxExportBatchSize) {
+                    exportCurrentBatch(SpanBatchExportEvent.FLUSH);
+                }
+            }
+            exportCurrentBatch(SpanBatchExportEvent.FLUSH);
+            completePendingExports(0);
+            CompletableResultCode flushResult = flushRequested.get();
+            if (flushResult != null) {
+                flushResult.succeed();
+                flushRequested.set(null);
+            }
+        }
+
+        private void updateNextExportTime() {
+            nextExportTime = System.nanoTime() + scheduleDelayNanos;
+        }
+
+        private CompletableResultCode shutdown() {
+            CompletableResultCode result = new CompletableResultCode();
+            CompletableResultCode flushResult = forceFlush();
+            flushResult.whenComplete(() -> {
+                continueWork = false;
+                CompletableResultCode shutdownResult = spanExporter.shutdown();
+                shutdownResult.whenComplete(() -> {
+                    if (!flushResult.isSuccess() || !shutdownResult.isSuccess()) {
+                        result.fail();
+                    } else {
+                        result.succeed();
+                    }
+                });
+            });
+            return result;
+        }
+
+        private CompletableResultCode forceFlush() {
+            CompletableResultCode flushResult = new CompletableResultCode();
+            // we set the atomic here to trigger the worker loop to do a flush of the entire queue.
+            if (flushRequested.compareAndSet(null, flushResult)) {
+                signal.offer(true);
+            }
+            CompletableResultCode possibleResult = flushRequested.get();
+            // there's a race here where the flush happening in the worker loop could complete before we
+            // get what's in the atomic. In that case, just return success, since we know it succeeded in the interim.
+            return possibleResult == null ? CompletableResultCode.ofSuccess() : possibleResult;
+        }
+
+        private void exportCurrentBatch(String trigger) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            SpanBatchExportEvent event = null;
+            if (SpanBatchExportEvent.isRecording()) {
+                event = new SpanBatchExportEvent();
+                event.begin();
+            }
+            CompletableResultCode result;
+            try {
+                // A pending export gets a copy, since the batch is reused before the export completes
+                result = spanExporter.export(maxPendingExports > 1
+                        ? new ArrayList<>(batch) : Collections.unmodifiableList(batch));
+            } catch (RuntimeException e) {
+                // Exporter failures are reported by the exporter itself, keep the worker alive.
+                result = CompletableResultCode.ofFailure();
+            }
+            // The timeout starts once the export returns, since an exporter may wait before it sends the batch
+            pendingExports.add(new PendingExport(result, System.nanoTime() + exporterTimeoutNanos, event, trigger,
+                    batch.size(), queuedSpans.get()));
+            completePendingExports(maxPendingExports - 1);
+            batch.clear();
+        }
+
+        /**
+         * Wait for the oldest exports until no more than the given number are pending, and take the results of the
+         * exports which completed meanwhile.
+         */
+        private void completePendingExports(int limit) {
+            PendingExport export;
+            while ((export = pendingExports.peek()) != null
+                    && (pendingExports.size() > limit || export.result.isDone())) {
+                pendingExports.poll();
+                export.result.join(Math.max(0, export.deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+                boolean success = export.result.isSuccess();
+                if (export.event != null && export.event.shouldCommit()) {
+                    export.event.trigger = export.trigger;
+                    export.event.spans = export.spans;
+                    export.event.remainingSpans = export.remainingSpans;
+                    export.event.success = success;
+                    export.event.commit();
+                }
+                exportFailureRate = exportFailureRate * (1 - EXPORT_FAILURE_SMOOTHING)
+                        + (success ? 0 : EXPORT_FAILURE_SMOOTHING);
+            }
+        }
+    }
+
+    /**
+     * An export which was handed to the exporter, with what is recorded once it completes.
+     */
+    private static final class PendingExport {
+        private final CompletableResultCode result;
+        private final long deadlineNanos;
+        private final SpanBatchExportEvent event;
+        private final String trigger;
+        private final int spans;
+        private final int remainingSpans;
+
+        private PendingExport(CompletableResultCode result, long deadlineNanos, SpanBatchExportEvent event,
+                              String trigger, int spans, int remainingSpans) {
+            this.result = result;
+            this.deadlineNanos = deadlineNanos;
+            this.event = event;
+            this.trigger = trigger;
+            this.spans = spans;
+            this.remainingSpans = remainingSpans;
+        }
+    }
+
+    /**
+     * Builder for {@link AmpBatchSpanProcessor}.
+     */
+    public static final class Builder {
+        private final SpanExporter spanExporter;
+        private long scheduleDelayNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_SCHEDULE_DELAY_MILLIS);
+        private int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+        private int priorityQueueSize = DEFAULT_PRIORITY_QUEUE_SIZE;
+        private int maxExportBatchSize = DEFAULT_MAX_EXPORT_BATCH_SIZE;
+        private long exporterTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_EXPORT_TIMEOUT_MILLIS);
+        private int maxPendingExports = DEFAULT_MAX_PENDING_EXPORTS;
+        private List<AttributeKey<?>> priorityAttributeKeys = Collections.emptyList();
+        private final List<SpanStage> stages = new ArrayList<>();
+
+        private Builder(SpanExporter spanExporter) {
+            if (spanExporter == null) {
+                throw new IllegalArgumentException("span exporter cannot be null");
+            }
+            this.spanExporter = spanExporter;
+        }
+
+        public Builder setScheduleDelay(long delay, TimeUnit unit) {
+            this.scheduleDelayNanos = unit.toNanos(delay);
+            return this;
+        }
+
+        public Builder setExporterTimeout(long timeout, TimeUnit unit) {
+            this.exporterTimeoutNanos = unit.toNanos(timeout);
+            return this;
+        }
+
+        public Builder setMaxQueueSize(int maxQueueSize) {
+            if (maxQueueSize <= 0) {
+                throw new IllegalArgumentException("maxQueueSize must be positive.");
+            }
+            this.maxQueueSize = maxQueueSize;
+            return this;
+        }
+
+        public Builder setPriorityQueueSize(int priorityQueueSize) {
+            if (priorityQueueSize <= 0) {
+                throw new IllegalArgumentException("priorityQueueSize must be positive.");
+            }
+            this.priorityQueueSize = priorityQueueSize;
+            return this;
+        }
+
+        public Builder setMaxExportBatchSize(int maxExportBatchSize) {
+            if (maxExportBatchSize <= 0) {
+                throw new IllegalArgumentException("maxExportBatchSize must be positive.");
+            }
+            this.maxExportBatchSize = maxExportBatchSize;
+            return this;
+        }
+
+        /**
+         * Set the number of exports which may be pending while the worker builds the next batch. The worker waits
+         * for the oldest export once there are more.
+         *
+         * @param maxPendingExports the maximum number of pending exports, 1 to wait for each export
+         * @return this builder
+         */
+        public Builder setMaxPendingExports(int maxPendingExports) {
+            if (maxPendingExports <= 0) {
+                throw new IllegalArgumentException("maxPendingExports must be positive.");
+            }
+            this.maxPendingExports = maxPendingExports;
+            return this;
+        }
+
+        /**
+         * Set the attribute which marks a span as a priority span regardless of its status. The attribute marks the
+         * span whatever the type of its value.
+         *
+         * @param attributeName the attribute name, or an empty string to only prioritize error spans
+         * @return this builder
+         */
+        public Builder setPriorityAttribute(String attributeName) {
+            this.priorityAttributeKeys = attributeName == null || attributeName.isEmpty()
+                    ? Collections.emptyList()
+                    : List.of(stringKey(attributeName), booleanKey(attributeName), longKey(attributeName),
+                    doubleKey(attributeName), stringArrayKey(attributeName), booleanArrayKey(attributeName),
+                    longArrayKey(attributeName), doubleArrayKey(attributeName));
+            return this;
+        }
+
+        /**
+         * Add a stage through which the ended spans pass before they are queued, after the stages added before.
+         *
+         * @param stage the span stage
+         * @return this builder
+         */
+        public Builder addStage(SpanStage stage) {
+            if (stage == null) {
+                throw new IllegalArgumentException("span stage cannot be null");
+            }
+            this.stages.add(stage);
+            return this;
+        }
+
+        public AmpBatchSpanProcessor build() {
+            // A batch larger than the queue would never fill, so that every batch would wait for the schedule delay
+            return new AmpBatchSpanProcessor(spanExporter, scheduleDelayNanos, maxQueueSize, priorityQueueSize,
+                    Math.min(maxExportBatchSize, maxQueueSize), exporterTimeoutNanos, maxPendingExports,
+                    priorityAttributeKeys, stages);
+        }
+    }
+}
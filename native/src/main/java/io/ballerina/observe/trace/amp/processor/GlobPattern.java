@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles patterns in which {@code *} matches any sequence of characters.
+ * <p>
+ * The common shapes of exact, prefix, suffix and infix patterns are compiled to plain string comparisons, and only
+ * patterns with wildcards in the middle fall back to a regular expression.
+ */
+final class GlobPattern {
+    private static final char WILDCARD = '*';
+
+    private GlobPattern() {
+    }
+
+    /**
+     * Compile a pattern.
+     *
+     * @param pattern the pattern, where an empty pattern matches any value
+     * @return the matcher of the pattern
+     */
+    static Predicate<String> compile(String pattern) {
+        if (pattern.isEmpty() || pattern.chars().allMatch(c -> c == WILDCARD)) {
+            return value -> true;
+        }
+        int first = pattern.indexOf(WILDCARD);
+        if (first < 0) {
+            return pattern::equals;
+        }
+        int last = pattern.lastIndexOf(WILDCARD);
+        if (first == last && last == pattern.length() - 1) {
+            String prefix = pattern.substring(0, last);
+            return value -> value.startsWith(prefix);
+        }
+        if (first == last && first == 0) {
+            String suffix = pattern.substring(1);
+            return value -> value.endsWith(suffix);
+        }
+        if (first == 0 && last == pattern.length() - 1 && pattern.indexOf(WILDCARD, 1) == last) {
+            String infix = pattern.substring(1, last);
+            return value -> value.contains(infix);
+        }
+        StringBuilder regex = new StringBuilder();
+        int start = 0;
+        for (int i = first; i >= 0; i = pattern.indexOf(WILDCARD, start)) {
+            if (i > start) {
+                regex.append(Pattern.quote(pattern.substring(start, i)));
+            }
+            regex.append(".*");
+            start = i + 1;
+        }
+        if (start < pattern.length()) {
+            regex.append(Pattern.quote(pattern.substring(start)));
+        }
+        Pattern compiled = Pattern.compile(regex.toString(), Pattern.DOTALL);
+        return value -> compiled.matcher(value).matches();
+    }
+}
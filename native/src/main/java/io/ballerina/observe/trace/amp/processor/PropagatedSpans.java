@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.context.propagation.TextMapSetter;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The sampled spans whose context was injected into an outgoing request, so that the stages which would drop them,
+ * such as the {@link SpanSummaryStage}, keep them for their children in other services.
+ * <p>
+ * A span is forgotten when a stage takes it once it ends. Spans which are not taken, such as those of pipelines
+ * without such a stage, are forgotten when more than {@value #MAX_SPANS} spans are remembered.
+ */
+public final class PropagatedSpans {
+    private static final int MAX_SPANS = 16384;
+
+    private final Set<String> spanIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Remember a span whose context was injected.
+     *
+     * @param spanContext the context of the span
+     */
+    public void add(SpanContext spanContext) {
+        if (!spanContext.isSampled()) {
+            return;
+        }
+        if (spanIds.size() >= MAX_SPANS) {
+            spanIds.clear();
+        }
+        spanIds.add(spanContext.getSpanId());
+    }
+
+    /**
+     * Forget an ended span.
+     *
+     * @param spanId the ID of the span
+     * @return true if the context of the span was injected
+     */
+    boolean take(String spanId) {
+        return !spanIds.isEmpty() && spanIds.remove(spanId);
+    }
+
+    /**
+     * Get a propagator which remembers the spans whose context the given propagator injects.
+     *
+     * @param propagator the propagator
+     * @return the remembering propagator
+     */
+    public TextMapPropagator track(TextMapPropagator propagator) {
+        return new TrackingPropagator(propagator);
+    }
+
+    private final class TrackingPropagator implements TextMapPropagator {
+        private final TextMapPropagator delegate;
+
+        private TrackingPropagator(TextMapPropagator delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Collection<String> fields() {
+            return delegate.fields();
+        }
+
+        @Override
+        public <C> void inject(Context context, C carrier, TextMapSetter<C> setter) {
+            add(Span.fromContext(context).getSpanContext());
+            delegate.inject(context, carrier, setter);
+        }
+
+        @Override
+        public <C> Context extract(Context context, C carrier, TextMapGetter<C> getter) {
+            return delegate.extract(context, carrier, getter);
+        }
+
+        @Override
+        public String toString() {
+            return "TrackingPropagator{delegate=" + delegate + '}';
+        }
+    }
+}
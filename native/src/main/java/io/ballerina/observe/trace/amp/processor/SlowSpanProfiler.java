@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.data.DelegatingSpanData;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import static io.opentelemetry.api.common.AttributeKey.booleanKey;
+import static io.opentelemetry.api.common.AttributeKey.longKey;
+import static io.opentelemetry.api.common.AttributeKey.stringArrayKey;
+
+/**
+ * Stage which samples the stack of the thread which started a span while the span runs longer than a threshold, and
+ * adds the sampled stacks to the span as an {@value #EVENT_NAME} event when it ends, so that a slow span shows
+ * where its time went.
+ * <p>
+ * Started spans are tracked in a fixed table of {@value #MAX_TRACKED_SPANS} slots, which a span claims and releases
+ * with a compare and set, so that tracking does not allocate or lock, and the spans started while the table is full
+ * are not tracked. A watchdog thread looks through the table at each sample interval, and takes the stack of the
+ * thread of each span past the threshold, up to {@value #MAX_SAMPLES_PER_SPAN} samples for a span and
+ * {@value #MAX_SAMPLES_PER_TICK} samples for all spans at each interval. The samples are aggregated into folded
+ * stacks, each the frames from the root to the top of the stack, up to {@value #MAX_FRAMES} frames, separated by
+ * {@code ;} and followed by the number of samples, and the most frequent stacks are kept up to
+ * {@value #MAX_PAYLOAD_LENGTH} characters.
+ * <p>
+ * A span which continues on another thread than the one which started it, such as a span of a strand which yields,
+ * is sampled on the thread which started it, which may be running other work.
+ */
+public final class SlowSpanProfiler implements SpanStage, AutoCloseable {
+    public static final String EVENT_NAME = "amp.profile";
+    public static final AttributeKey<Long> SAMPLES = longKey("amp.profile.samples");
+    public static final AttributeKey<Long> INTERVAL_MILLIS = longKey("amp.profile.interval_ms");
+    public static final AttributeKey<List<String>> STACKS = stringArrayKey("amp.profile.stacks");
+    public static final AttributeKey<Boolean> TRUNCATED = booleanKey("amp.profile.truncated");
+    static final int MAX_TRACKED_SPANS = 1024;
+    static final int MAX_SAMPLES_PER_SPAN = 32;
+    static final int MAX_SAMPLES_PER_TICK = 16;
+    static final int MAX_FRAMES = 32;
+    static final int MAX_PAYLOAD_LENGTH = 8192;
+    private static final int MAX_PROBES = 8;
+    private static final int FREE = 0;
+    private static final int CLAIMED = 1;
+    private static final int ACTIVE = 2;
+    private static final String WATCHDOG_THREAD_NAME = "amp-slow-span-profiler";
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(Slot.class, "state", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final long thresholdNanos;
+    private final long intervalNanos;
+    private final LongSupplier nanoTime;
+    private final Slot[] slots;
+    private final int slotMask;
+    private final LongAdder untrackedSpans = new LongAdder();
+    private final LongAdder profiledSpans = new LongAdder();
+    private ScheduledExecutorService watchdog;
+
+    /**
+     * Create a profiler.
+     *
+     * @param threshold the duration after which a span is sampled
+     * @param interval  the interval between samples
+     * @param unit      the unit of the threshold and the interval
+     */
+    public SlowSpanProfiler(long threshold, long interval, TimeUnit unit) {
+        this(unit.toNanos(threshold), unit.toNanos(interval), MAX_TRACKED_SPANS, System::nanoTime);
+    }
+
+    SlowSpanProfiler(long thresholdNanos, long intervalNanos, int capacity, LongSupplier nanoTime) {
+        if (thresholdNanos <= 0) {
+            throw new IllegalArgumentException("threshold must be positive.");
+        }
+        if (intervalNanos <= 0) {
+            throw new IllegalArgumentException("interval must be positive.");
+        }
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two.");
+        }
+        this.thresholdNanos = thresholdNanos;
+        this.intervalNanos = intervalNanos;
+        this.nanoTime = nanoTime;
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+        }
+        this.slotMask = capacity - 1;
+    }
+
+    /**
+     * Start the watchdog thread which samples the slow spans.
+     */
+    public synchronized void start() {
+        if (watchdog != null) {
+            return;
+        }
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, WATCHDOG_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.scheduleWithFixedDelay(() -> sample(nanoTime.getAsLong()), intervalNanos, intervalNanos,
+                TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+            watchdog = null;
+        }
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+        SpanContext spanContext = span.getSpanContext();
+        int start = spanContext.getSpanId().hashCode();
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            Slot slot = slots[(start + probe) & slotMask];
+            if (STATE.compareAndSet(slot, FREE, CLAIMED)) {
+                slot.spanContext = spanContext;
+                slot.span = span;
+                slot.thread = Thread.currentThread();
+                slot.startNanos = nanoTime.getAsLong();
+                // Publishes the fields to the watchdog
+                STATE.setRelease(slot, ACTIVE);
+                return;
+            }
+        }
+        untrackedSpans.increment();
+    }
+
+    @Override
+    public void onEnd(SpanData span, Consumer<SpanData> next) {
+        SpanContext spanContext = span.getSpanContext();
+        int start = spanContext.getSpanId().hashCode();
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            Slot slot = slots[(start + probe) & slotMask];
+            if ((int) STATE.getAcquire(slot) == ACTIVE && slot.spanContext == spanContext) {
+                Map<String, Integer> stacks = release(slot, spanContext);
+                if (stacks != null) {
+                    profiledSpans.increment();
+                    next.accept(new ProfiledSpanData(span, createEvent(span.getEndEpochNanos(), stacks)));
+                    return;
+                }
+                break;
+            }
+        }
+        next.accept(span);
+    }
+
+    /**
+     * Take a stack sample of the spans which run longer than the threshold, and release the slots of the spans
+     * which ended without reaching this stage.
+     *
+     * @param now the current {@link System#nanoTime()}
+     */
+    void sample(long now) {
+        int samples = 0;
+        for (Slot slot : slots) {
+            if ((int) STATE.getAcquire(slot) != ACTIVE) {
+                continue;
+            }
+            SpanContext spanContext = slot.spanContext;
+            ReadWriteSpan span = slot.span;
+            Thread thread = slot.thread;
+            if (span == null || thread == null) {
+                // Released while it was read
+                continue;
+            }
+            if (span.hasEnded()) {
+                // A span which ended without reaching this stage, such as when the processor was shut down, is
+                // released at the next interval, so that a span which is passing through the stages keeps its slot
+                synchronized (slot) {
+                    if (slot.ended) {
+                        release(slot, spanContext);
+                    } else if (slot.spanContext == spanContext) {
+                        slot.ended = true;
+                    }
+                }
+                continue;
+            }
+            if (samples >= MAX_SAMPLES_PER_TICK || now - slot.startNanos < thresholdNanos
+                    || slot.sampleCount >= MAX_SAMPLES_PER_SPAN) {
+                continue;
+            }
+            StackTraceElement[] stack = thread.getStackTrace();
+            samples++;
+            synchronized (slot) {
+                // The span may have ended, and the slot been claimed by another span, while the stack was taken
+                if ((int) STATE.get(slot) == ACTIVE && slot.spanContext == spanContext && stack.length > 0) {
+                    slot.addSample(fold(stack));
+                }
+            }
+        }
+    }
+
+    /**
+     * Release the slot of a span, unless it was released already.
+     *
+     * @return the stack samples of the span, or null if there are none
+     */
+    private static Map<String, Integer> release(Slot slot, SpanContext spanContext) {
+        synchronized (slot) {
+            if ((int) STATE.get(slot) != ACTIVE || slot.spanContext != spanContext) {
+                return null;
+            }
+            Map<String, Integer> stacks = slot.stacks;
+            slot.spanContext = null;
+            slot.span = null;
+            slot.thread = null;
+            slot.stacks = null;
+            slot.sampleCount = 0;
+            slot.ended = false;
+            STATE.setRelease(slot, FREE);
+            return stacks;
+        }
+    }
+
+    /**
+     * Fold a stack into its frames from the root, separated by {@code ;}.
+     */
+    static String fold(StackTraceElement[] stack) {
+        int frames = Math.min(stack.length, MAX_FRAMES);
+        StringBuilder builder = new StringBuilder(frames * 48);
+        for (int i = frames - 1; i >= 0; i--) {
+            StackTraceElement frame = stack[i];
+            builder.append(frame.getClassName()).append('.').append(frame.getMethodName());
+            if (i > 0) {
+                builder.append(';');
+            }
+        }
+        return builder.toString();
+    }
+
+    private EventData createEvent(long epochNanos, Map<String, Integer> stacks) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(stacks.entrySet());
+        entries.sort(Collections.reverseOrder(Map.Entry.comparingByValue()));
+        List<String> folded = new ArrayList<>(entries.size());
+        long samples = 0;
+        int length = 0;
+        boolean truncated = false;
+        for (Map.Entry<String, Integer> entry : entries) {
+            samples += entry.getValue();
+            String stack = entry.getKey() + ' ' + entry.getValue();
+            if (length + stack.length() > MAX_PAYLOAD_LENGTH) {
+                truncated = true;
+                continue;
+            }
+            length += stack.length();
+            folded.add(stack);
+        }
+        Attributes attributes = Attributes.builder()
+                .put(SAMPLES, samples)
+                .put(INTERVAL_MILLIS, TimeUnit.NANOSECONDS.toMillis(intervalNanos))
+                .put(STACKS, folded)
+                .put(TRUNCATED, truncated)
+                .build();
+        return EventData.create(epochNanos, EVENT_NAME, attributes);
+    }
+
+    /**
+     * Get the number of spans which were not tracked since the table was full.
+     *
+     * @return the number of untracked spans
+     */
+    public long getUntrackedSpans() {
+        return untrackedSpans.sum();
+    }
+
+    /**
+     * Get the number of spans to which stack samples were added.
+     *
+     * @return the number of profiled spans
+     */
+    public long getProfiledSpans() {
+        return profiledSpans.sum();
+    }
+
+    /**
+     * A slot of the table of started spans. The state is set with a compare and set when the slot is claimed, and
+     * the other fields are written before it is activated, so that the watchdog reads them after it reads the state.
+     * The samples are guarded by the slot.
+     */
+    private static final class Slot {
+        @SuppressWarnings("unused")
+        private volatile int state;
+        private SpanContext spanContext;
+        private ReadWriteSpan span;
+        private Thread thread;
+        private long startNanos;
+        private Map<String, Integer> stacks;
+        private int sampleCount;
+        // Whether the watchdog saw the span ended at an earlier interval
+        private boolean ended;
+
+        private void addSample(String stack) {
+            if (stacks == null) {
+                stacks = new HashMap<>();
+            }
+            stacks.merge(stack, 1, Integer::sum);
+            sampleCount++;
+        }
+    }
+
+    /**
+     * A span with the event of its stack samples.
+     */
+    private static final class ProfiledSpanData extends DelegatingSpanData {
+        private final List<EventData> events;
+
+        private ProfiledSpanData(SpanData delegate, EventData event) {
+            super(delegate);
+            List<EventData> events = new ArrayList<>(delegate.getEvents().size() + 1);
+            events.addAll(delegate.getEvents());
+            events.add(event);
+            this.events = Collections.unmodifiableList(events);
+        }
+
+        @Override
+        public List<EventData> getEvents() {
+            return events;
+        }
+
+        @Override
+        public int getTotalRecordedEvents() {
+            return super.getTotalRecordedEvents() + 1;
+        }
+    }
+}
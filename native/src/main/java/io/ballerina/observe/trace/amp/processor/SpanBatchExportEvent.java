@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a batch which an {@link AmpBatchSpanProcessor} forms and exports. The duration of
+ * the event is the time spent waiting for the exporter.
+ * <p>
+ * The event is disabled by default, and can be enabled in a recording settings file. Callers create the event
+ * only when {@link #isRecording()}, so that nothing is allocated when it is disabled.
+ */
+@Name("ballerinax.amp.SpanBatchExport")
+@Label("Amp Span Batch Export")
+@Category({"Ballerina", "Amp"})
+@Description("Batch of spans taken from the span queue and exported")
+@Enabled(false)
+@StackTrace(false)
+final class SpanBatchExportEvent extends Event {
+    static final String FULL = "full";
+    static final String SCHEDULED = "scheduled";
+    static final String FLUSH = "flush";
+
+    @Label("Trigger")
+    @Description("full when the batch reached the maximum size, scheduled when the schedule delay passed, "
+            + "or flush")
+    String trigger;
+
+    @Label("Spans")
+    int spans;
+
+    @Label("Remaining Spans")
+    @Description("Number of spans left in the span queue")
+    int remainingSpans;
+
+    @Label("Success")
+    boolean success;
+
+    /**
+     * Check whether the event is enabled in a running recording.
+     *
+     * @return true if the event should be created
+     */
+    static boolean isRecording() {
+        return FlightRecorder.isInitialized() && EventTypeHolder.EVENT_TYPE.isEnabled();
+    }
+
+    /**
+     * Holder which registers the event type only once the flight recorder is in use.
+     */
+    private static final class EventTypeHolder {
+        private static final EventType EVENT_TYPE = EventType.getEventType(SpanBatchExportEvent.class);
+    }
+}
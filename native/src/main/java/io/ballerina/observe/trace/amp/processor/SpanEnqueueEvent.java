@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a span which is added to, or dropped from, the queue of an
+ * {@link AmpBatchSpanProcessor}.
+ * <p>
+ * The event is disabled by default, and can be enabled in a recording settings file. Callers create the event
+ * only when {@link #isRecording()}, so that nothing is allocated when it is disabled.
+ */
+@Name("ballerinax.amp.SpanEnqueue")
+@Label("Amp Span Enqueue")
+@Category({"Ballerina", "Amp"})
+@Description("Ended span added to the span queue, or dropped when the queue is full")
+@Enabled(false)
+@StackTrace(false)
+final class SpanEnqueueEvent extends Event {
+    static final String QUEUED = "queued";
+    static final String DROPPED = "dropped";
+    static final String EVICTED = "evicted";
+
+    @Label("Priority")
+    @Description("Whether the span is queued in the priority lane")
+    boolean priority;
+
+    @Label("Outcome")
+    @Description("queued, dropped, or evicted when a normal span made room for the span")
+    String outcome;
+
+    @Label("Queued Spans")
+    @Description("Number of spans in both lanes after the span was added")
+    int queuedSpans;
+
+    @Label("Capacity")
+    int capacity;
+
+    /**
+     * Check whether the event is enabled in a running recording.
+     *
+     * @return true if the event should be created
+     */
+    static boolean isRecording() {
+        return FlightRecorder.isInitialized() && EventTypeHolder.EVENT_TYPE.isEnabled();
+    }
+
+    /**
+     * Holder which registers the event type only once the flight recorder is in use.
+     */
+    private static final class EventTypeHolder {
+        private static final EventType EVENT_TYPE = EventType.getEventType(SpanEnqueueEvent.class);
+    }
+}
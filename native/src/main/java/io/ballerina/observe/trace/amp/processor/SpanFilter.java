@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+
+/**
+ * A rule which matches the spans to be dropped by the {@link SpanFilterStage}.
+ * <p>
+ * A span matches when its name matches the name pattern, its kind is the given kind, and each of the given string
+ * attributes matches its pattern. Patterns are compiled when the rule is built, and {@code *} in a pattern matches
+ * any sequence of characters. Conditions which are not set match any span.
+ */
+public final class SpanFilter {
+    private final String namePattern;
+    private final Predicate<String> nameMatcher;
+    private final SpanKind kind;
+    private final Map<String, String> attributePatterns;
+    private final List<AttributeKey<String>> attributeKeys;
+    private final List<Predicate<String>> attributeMatchers;
+
+    private SpanFilter(String namePattern, SpanKind kind, Map<String, String> attributePatterns) {
+        this.namePattern = namePattern;
+        this.nameMatcher = GlobPattern.compile(namePattern);
+        this.kind = kind;
+        this.attributePatterns = attributePatterns;
+        this.attributeKeys = new ArrayList<>(attributePatterns.size());
+        this.attributeMatchers = new ArrayList<>(attributePatterns.size());
+        for (Map.Entry<String, String> attribute : attributePatterns.entrySet()) {
+            attributeKeys.add(stringKey(attribute.getKey()));
+            attributeMatchers.add(GlobPattern.compile(attribute.getValue()));
+        }
+    }
+
+    /**
+     * Create a builder for a span filter which matches any span until conditions are added.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Whether the filter has attribute conditions, which can only be checked when the span ends.
+     */
+    boolean hasAttributeConditions() {
+        return !attributeKeys.isEmpty();
+    }
+
+    /**
+     * Check the name and kind conditions of the filter.
+     */
+    boolean matches(String name, SpanKind kind) {
+        return (this.kind == null || this.kind == kind) && nameMatcher.test(name);
+    }
+
+    /**
+     * Check all conditions of the filter.
+     */
+    boolean matches(String name, SpanKind kind, Attributes attributes) {
+        if (!matches(name, kind)) {
+            return false;
+        }
+        for (int i = 0; i < attributeKeys.size(); i++) {
+            String value = attributes.get(attributeKeys.get(i));
+            if (value == null || !attributeMatchers.get(i).test(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "SpanFilter{name=" + namePattern + ", kind=" + kind + ", attributes=" + attributePatterns + '}';
+    }
+
+    /**
+     * Builder for {@link SpanFilter}.
+     */
+    public static final class Builder {
+        private String namePattern = "";
+        private SpanKind kind;
+        private final Map<String, String> attributePatterns = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder setName(String namePattern) {
+            if (namePattern == null) {
+                throw new IllegalArgumentException("name pattern cannot be null");
+            }
+            this.namePattern = namePattern;
+            return this;
+        }
+
+        public Builder setKind(SpanKind kind) {
+            this.kind = kind;
+            return this;
+        }
+
+        public Builder addAttribute(String key, String valuePattern) {
+            if (key == null || key.isEmpty() || valuePattern == null) {
+                throw new IllegalArgumentException("attribute key and value pattern cannot be empty");
+            }
+            this.attributePatterns.put(key, valuePattern);
+            return this;
+        }
+
+        public SpanFilter build() {
+            return new SpanFilter(namePattern, kind, new LinkedHashMap<>(attributePatterns));
+        }
+    }
+}
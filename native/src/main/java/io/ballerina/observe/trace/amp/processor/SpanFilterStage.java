@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.data.DelegatingSpanData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Stage which drops the spans matched by any of the given {@link SpanFilter}s, such as health checks, before they
+ * are queued.
+ * <p>
+ * Filters on the name and kind only are checked when the span starts, and filters with attribute conditions are
+ * checked when the span ends, since Ballerina adds the span attributes at the end. The dropped spans are remembered
+ * for a while, so that the children of a dropped span are re-parented to its nearest kept ancestor and the trace
+ * stays connected. When a dropped span has no kept ancestor in the process, its descendants are dropped as well.
+ * <p>
+ * The children of a span which an attribute filter may drop usually end before it, so they are held back until it
+ * ends, and re-parented when it is dropped. A span may be dropped when its name, or its name with the dynamic
+ * segments templated as by {@link SpanNameStage}, matches the name and kind conditions of an attribute filter when
+ * it starts. When too many spans are held back, or the processor is flushed, the held back spans are passed on with
+ * the parent which they have at the time.
+ */
+public final class SpanFilterStage implements SpanStage {
+    // Number of remembered dropped spans above which the ended ones are evicted
+    private static final int MAX_DROPPED_SPANS = 8192;
+    // How long an ended dropped span is remembered for the children which end after it
+    private static final long DROPPED_SPAN_RETENTION_NANOS = TimeUnit.SECONDS.toNanos(60);
+    // Number of spans held back for their running parents above which ended spans are passed on right away
+    private static final int MAX_HELD_SPANS = 4096;
+
+    private final SpanFilter[] startFilters;
+    private final SpanFilter[] endFilters;
+    private final ConcurrentHashMap<String, DroppedSpan> droppedSpans = new ConcurrentHashMap<>();
+    // Running spans which an attribute filter may drop, with the ended children which they hold back
+    private final ConcurrentHashMap<String, RunningSpan> runningSpans = new ConcurrentHashMap<>();
+    private final AtomicInteger heldSpans = new AtomicInteger();
+    private final LongAdder filteredSpans = new LongAdder();
+
+    /**
+     * Create a stage which drops the spans matched by any of the given filters.
+     *
+     * @param filters the span filters
+     */
+    public SpanFilterStage(List<SpanFilter> filters) {
+        this.startFilters = filters.stream().filter(filter -> !filter.hasAttributeConditions())
+                .toArray(SpanFilter[]::new);
+        this.endFilters = filters.stream().filter(SpanFilter::hasAttributeConditions)
+                .toArray(SpanFilter[]::new);
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+        SpanContext parent = span.getParentSpanContext();
+        if (startFilters.length == 0 && endFilters.length == 0) {
+            return;
+        }
+        // The name of a running span is read under a lock, so read it only once
+        String name = span.getName();
+        SpanKind kind = span.getKind();
+        for (SpanFilter filter : startFilters) {
+            if (filter.matches(name, kind)) {
+                remember(span.getSpanContext().getSpanId(), parent, 0);
+                return;
+            }
+        }
+        if (parent.isValid() && !droppedSpans.isEmpty() && !findKeptAncestor(parent).isValid()) {
+            // The root of this span is dropped, so the span is dropped with its whole subtree
+            remember(span.getSpanContext().getSpanId(), SpanContext.getInvalid(), 0);
+            return;
+        }
+        if (mayMatchEndFilter(name, kind)) {
+            runningSpans.put(span.getSpanContext().getSpanId(), new RunningSpan());
+        }
+    }
+
+    @Override
+    public void onEnd(SpanData span, Consumer<SpanData> next) {
+        if (!droppedSpans.isEmpty()) {
+            DroppedSpan dropped = droppedSpans.get(span.getSpanId());
+            if (dropped != null) {
+                dropped.endNanos = System.nanoTime();
+                filteredSpans.increment();
+                return;
+            }
+        }
+        RunningSpan running = runningSpans.isEmpty() ? null : runningSpans.get(span.getSpanId());
+        // The decision is recorded before the span leaves the running spans, so that a child which ends meanwhile
+        // either is held back by it or finds it dropped
+        boolean drop = endFilters.length > 0 && matchesEndFilter(span);
+        if (drop) {
+            remember(span.getSpanId(), span.getParentSpanContext(), System.nanoTime());
+            filteredSpans.increment();
+        }
+        if (running == null) {
+            if (!drop) {
+                pass(span, next);
+            }
+            return;
+        }
+        List<SpanData> children = running.end();
+        runningSpans.remove(span.getSpanId());
+        heldSpans.addAndGet(-children.size());
+        if (!drop) {
+            pass(span, next);
+        }
+        for (SpanData child : children) {
+            pass(child, next);
+        }
+    }
+
+    @Override
+    public void flush(Consumer<SpanData> next) {
+        for (RunningSpan running : runningSpans.values()) {
+            List<SpanData> children = running.takeChildren();
+            heldSpans.addAndGet(-children.size());
+            children.forEach(next);
+        }
+    }
+
+    /**
+     * Pass on a kept span with its nearest kept ancestor as the parent, or hold it back while that may be dropped.
+     */
+    private void pass(SpanData span, Consumer<SpanData> next) {
+        while (true) {
+            SpanContext parent = span.getParentSpanContext();
+            if (!parent.isValid()) {
+                next.accept(span);
+                return;
+            }
+            SpanContext keptParent = droppedSpans.isEmpty() ? parent : findKeptAncestor(parent);
+            if (!keptParent.isValid()) {
+                // The root of this span was dropped
+                filteredSpans.increment();
+                return;
+            }
+            if (keptParent != parent) {
+                span = new ReparentedSpanData(span, keptParent);
+            }
+            RunningSpan running = runningSpans.isEmpty() ? null : runningSpans.get(keptParent.getSpanId());
+            if (running == null || heldSpans.get() >= MAX_HELD_SPANS) {
+                next.accept(span);
+                return;
+            }
+            if (running.hold(span)) {
+                heldSpans.incrementAndGet();
+                return;
+            }
+            if (!droppedSpans.containsKey(keptParent.getSpanId())) {
+                // The parent ended and was kept meanwhile
+                next.accept(span);
+                return;
+            }
+        }
+    }
+
+    private boolean matchesEndFilter(SpanData span) {
+        for (SpanFilter filter : endFilters) {
+            if (filter.matches(span.getName(), span.getKind(), span.getAttributes())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean mayMatchEndFilter(String name, SpanKind kind) {
+        String templated = null;
+        for (SpanFilter filter : endFilters) {
+            if (filter.matches(name, kind)) {
+                return true;
+            }
+            if (templated == null) {
+                templated = SpanNameStage.template(name);
+            }
+            if (templated != name && filter.matches(templated, kind)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of spans dropped by the filters, including the descendants of dropped root spans.
+     *
+     * @return the number of dropped spans
+     */
+    public long getFilteredSpans() {
+        return filteredSpans.sum();
+    }
+
+    private SpanContext findKeptAncestor(SpanContext parent) {
+        SpanContext ancestor = parent;
+        DroppedSpan dropped;
+        while (ancestor.isValid() && (dropped = droppedSpans.get(ancestor.getSpanId())) != null) {
+            ancestor = dropped.parent;
+        }
+        return ancestor;
+    }
+
+    private void remember(String spanId, SpanContext parent, long endNanos) {
+        if (droppedSpans.size() >= MAX_DROPPED_SPANS) {
+            evictEndedSpans();
+        }
+        DroppedSpan dropped = new DroppedSpan(parent);
+        dropped.endNanos = endNanos;
+        droppedSpans.put(spanId, dropped);
+    }
+
+    private void evictEndedSpans() {
+        long now = System.nanoTime();
+        droppedSpans.values().removeIf(dropped -> dropped.endNanos != 0
+                && now - dropped.endNanos > DROPPED_SPAN_RETENTION_NANOS);
+        if (droppedSpans.size() >= MAX_DROPPED_SPANS) {
+            // Too many spans are dropped to remember them for the full retention, so only keep the running ones
+            droppedSpans.values().removeIf(dropped -> dropped.endNanos != 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SpanFilterStage{startFilters=" + startFilters.length + ", endFilters=" + endFilters.length + '}';
+    }
+
+    /**
+     * A running span which an attribute filter may drop, holding back the children which ended before it.
+     */
+    private static final class RunningSpan {
+        private List<SpanData> children;
+        private boolean ended;
+
+        private synchronized boolean hold(SpanData child) {
+            if (ended) {
+                return false;
+            }
+            if (children == null) {
+                children = new ArrayList<>();
+            }
+            children.add(child);
+            return true;
+        }
+
+        private synchronized List<SpanData> takeChildren() {
+            List<SpanData> taken = children != null ? children : Collections.emptyList();
+            children = null;
+            return taken;
+        }
+
+        private synchronized List<SpanData> end() {
+            ended = true;
+            return takeChildren();
+        }
+    }
+
+    private static final class DroppedSpan {
+        private final SpanContext parent;
+        // Time at which the span ended, or zero while it is running
+        private volatile long endNanos;
+
+        private DroppedSpan(SpanContext parent) {
+            this.parent = parent;
+        }
+    }
+
+    /**
+     * A kept span with its parent replaced by the nearest kept ancestor.
+     */
+    private static final class ReparentedSpanData extends DelegatingSpanData {
+        private final SpanContext parentSpanContext;
+
+        private ReparentedSpanData(SpanData delegate, SpanContext parentSpanContext) {
+            super(delegate);
+            this.parentSpanContext = parentSpanContext;
+        }
+
+        @Override
+        public SpanContext getParentSpanContext() {
+            return parentSpanContext;
+        }
+
+        @Override
+        public String getParentSpanId() {
+            return parentSpanContext.getSpanId();
+        }
+    }
+}
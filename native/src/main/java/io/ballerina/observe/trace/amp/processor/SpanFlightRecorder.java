@@ -0,0 +1,513 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.internal.OtelEncodingUtils;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.Clock;
+import io.opentelemetry.sdk.common.InstrumentationLibraryInfo;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.opentelemetry.api.common.AttributeKey.booleanKey;
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+
+/**
+ * Span processor which records a compact record of every ended span, sampled or not, in a fixed size ring buffer
+ * outside the heap, so that recent traces can be looked at, or exported after the fact, when they turn out to be
+ * interesting.
+ * <p>
+ * Each record holds the trace, span and parent span IDs, the first {@value #MAX_NAME_LENGTH} characters of the name,
+ * the start and end time, the kind, whether the span was sampled and whether it failed. Writing a record does not
+ * allocate, and the buffer takes {@value #RECORD_SIZE} bytes per record regardless of the load, with the oldest
+ * records overwritten first. Since the SDK does not expose the status of a span without copying it, a span is
+ * recorded as failed when it has the {@code error} tag which Ballerina adds to failed operations.
+ * <p>
+ * Spans which are not sampled only reach span processors when they are recording, so the sampler of the tracer
+ * provider is expected to record the spans it drops, see
+ * {@link io.ballerina.observe.trace.amp.sampler.RecordingSampler}.
+ * <p>
+ * Each record starts with a sequence number, which is negated while the record is written, so that readers, which
+ * may run concurrently with the writers, skip the records which are being overwritten. A writer which stalls for a
+ * whole lap of the ring can still leave a mixed record behind, which is accepted for a diagnostic aid.
+ */
+public final class SpanFlightRecorder implements SpanProcessor {
+    public static final AttributeKey<Boolean> PROMOTED = booleanKey("amp.flight_recorder.promoted");
+    // Tag which Ballerina adds to the spans of failed operations
+    private static final AttributeKey<String> ERROR_TAG = stringKey("error");
+    private static final String ERROR_TAG_VALUE = "true";
+    private static final InstrumentationScopeInfo SCOPE = InstrumentationScopeInfo.create("amp-flight-recorder");
+
+    static final int RECORD_SIZE = 128;
+    static final int MAX_NAME_LENGTH = RECORD_SIZE - 62;
+
+    private static final int SEQUENCE_OFFSET = 0;
+    private static final int TRACE_ID_HIGH_OFFSET = 8;
+    private static final int TRACE_ID_LOW_OFFSET = 16;
+    private static final int SPAN_ID_OFFSET = 24;
+    private static final int PARENT_SPAN_ID_OFFSET = 32;
+    private static final int START_OFFSET = 40;
+    private static final int END_OFFSET = 48;
+    private static final int FLAGS_OFFSET = 56;
+    private static final int NAME_LENGTH_OFFSET = 60;
+    private static final int NAME_OFFSET = 62;
+
+    private static final int SAMPLED_FLAG = 1;
+    private static final int ERROR_FLAG = 2;
+    private static final int KIND_SHIFT = 4;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+            ByteOrder.nativeOrder());
+    private static final SpanKind[] KINDS = SpanKind.values();
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final Clock clock;
+    private final long epochNanosBase;
+    private final long nanoTimeBase;
+    private final AtomicLong nextSequence = new AtomicLong(1);
+
+    /**
+     * Create a flight recorder.
+     *
+     * @param capacity the number of records kept
+     * @param clock    the clock from which the end time of the spans is read. The epoch time is read once, and
+     *                 the end times are measured from it with the monotonic time of the clock, as the SDK does
+     *                 for the timestamps of the spans of a trace, since reading the epoch time allocates
+     */
+    public SpanFlightRecorder(int capacity, Clock clock) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive.");
+        }
+        this.capacity = capacity;
+        this.clock = clock;
+        this.epochNanosBase = clock.now();
+        this.nanoTimeBase = clock.nanoTime();
+        this.buffer = ByteBuffer.allocateDirect(Math.multiplyExact(capacity, RECORD_SIZE))
+                .order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        if (span == null) {
+            return;
+        }
+        long endEpochNanos = epochNanosBase + (clock.nanoTime() - nanoTimeBase);
+        long startEpochNanos = endEpochNanos - span.getLatencyNanos();
+        SpanContext spanContext = span.getSpanContext();
+        SpanContext parent = span.getParentSpanContext();
+        int flags = span.getKind().ordinal() << KIND_SHIFT;
+        if (spanContext.isSampled()) {
+            flags |= SAMPLED_FLAG;
+        }
+        if (ERROR_TAG_VALUE.equals(span.getAttribute(ERROR_TAG))) {
+            flags |= ERROR_FLAG;
+        }
+        String traceId = spanContext.getTraceId();
+        String name = span.getName();
+
+        long sequence = nextSequence.getAndIncrement();
+        int offset = (int) ((sequence - 1) % capacity) * RECORD_SIZE;
+        // Readers skip the record while the sequence is negative, or when it changed while they read it
+        LONGS.setOpaque(buffer, offset + SEQUENCE_OFFSET, -sequence);
+        VarHandle.storeStoreFence();
+        buffer.putLong(offset + TRACE_ID_HIGH_OFFSET, OtelEncodingUtils.longFromBase16String(traceId, 0));
+        buffer.putLong(offset + TRACE_ID_LOW_OFFSET,
+                OtelEncodingUtils.longFromBase16String(traceId, SpanId.getLength()));
+        buffer.putLong(offset + SPAN_ID_OFFSET, OtelEncodingUtils.longFromBase16String(spanContext.getSpanId(), 0));
+        buffer.putLong(offset + PARENT_SPAN_ID_OFFSET, parent.isValid()
+                ? OtelEncodingUtils.longFromBase16String(parent.getSpanId(), 0) : 0);
+        buffer.putLong(offset + START_OFFSET, startEpochNanos);
+        buffer.putLong(offset + END_OFFSET, endEpochNanos);
+        buffer.putInt(offset + FLAGS_OFFSET, flags);
+        int nameLength = Math.min(name.length(), MAX_NAME_LENGTH);
+        buffer.putShort(offset + NAME_LENGTH_OFFSET, (short) nameLength);
+        for (int i = 0; i < nameLength; i++) {
+            char c = name.charAt(i);
+            buffer.put(offset + NAME_OFFSET + i, c < 0x80 ? (byte) c : (byte) '?');
+        }
+        LONGS.setRelease(buffer, offset + SEQUENCE_OFFSET, sequence);
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    /**
+     * Get the recorded spans of a trace.
+     *
+     * @param traceId the trace ID
+     * @return the recorded spans, oldest first
+     */
+    public List<RecordedSpan> getTrace(String traceId) {
+        if (traceId.length() != 2 * SpanId.getLength() || !OtelEncodingUtils.isValidBase16String(traceId)) {
+            return Collections.emptyList();
+        }
+        long traceIdHigh = OtelEncodingUtils.longFromBase16String(traceId, 0);
+        long traceIdLow = OtelEncodingUtils.longFromBase16String(traceId, SpanId.getLength());
+        List<RecordedSpan> spans = new ArrayList<>();
+        for (RecordedSpan span : readAll()) {
+            if (span.traceIdHigh == traceIdHigh && span.traceIdLow == traceIdLow) {
+                spans.add(span);
+            }
+        }
+        return spans;
+    }
+
+    /**
+     * Get the recorded spans of the traces which have a failed span that ended within a time window.
+     *
+     * @param fromEpochNanos the start of the window
+     * @param toEpochNanos   the end of the window
+     * @return the recorded spans, oldest first
+     */
+    public List<RecordedSpan> getFailedTraces(long fromEpochNanos, long toEpochNanos) {
+        List<RecordedSpan> all = readAll();
+        Set<String> failedTraces = new HashSet<>();
+        for (RecordedSpan span : all) {
+            if (span.isFailed() && span.endEpochNanos >= fromEpochNanos && span.endEpochNanos <= toEpochNanos) {
+                failedTraces.add(span.getTraceId());
+            }
+        }
+        List<RecordedSpan> spans = new ArrayList<>();
+        for (RecordedSpan span : all) {
+            if (failedTraces.contains(span.getTraceId())) {
+                spans.add(span);
+            }
+        }
+        return spans;
+    }
+
+    /**
+     * Convert the recorded spans which were not sampled into spans which can be exported.
+     *
+     * @param spans    the recorded spans
+     * @param resource the resource of the exported spans
+     * @return the spans to export, marked with the {@link #PROMOTED} attribute
+     */
+    public static List<SpanData> promote(List<RecordedSpan> spans, Resource resource) {
+        List<SpanData> promoted = new ArrayList<>();
+        for (RecordedSpan span : spans) {
+            if (!span.isSampled()) {
+                promoted.add(new PromotedSpanData(span, resource));
+            }
+        }
+        return promoted;
+    }
+
+    /**
+     * Write the recorded spans as a JSON array.
+     *
+     * @param spans the recorded spans
+     * @return the JSON text
+     */
+    public static String toJson(List<RecordedSpan> spans) {
+        StringBuilder json = new StringBuilder(spans.size() * 256 + 2).append('[');
+        for (int i = 0; i < spans.size(); i++) {
+            RecordedSpan span = spans.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"traceId\":\"").append(span.getTraceId())
+                    .append("\",\"spanId\":\"").append(span.getSpanId())
+                    .append("\",\"parentSpanId\":\"").append(span.getParentSpanId())
+                    .append("\",\"name\":\"");
+            appendEscaped(json, span.getName());
+            json.append("\",\"kind\":\"").append(span.getKind().name())
+                    .append("\",\"startEpochNanos\":").append(span.getStartEpochNanos())
+                    .append(",\"endEpochNanos\":").append(span.getEndEpochNanos())
+                    .append(",\"sampled\":").append(span.isSampled())
+                    .append(",\"failed\":").append(span.isFailed())
+                    .append('}');
+        }
+        return json.append(']').toString();
+    }
+
+    private static void appendEscaped(StringBuilder json, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+    }
+
+    /**
+     * Read the complete records, oldest first.
+     */
+    private List<RecordedSpan> readAll() {
+        long last = nextSequence.get() - 1;
+        long first = Math.max(1, last - capacity + 1);
+        List<RecordedSpan> spans = new ArrayList<>((int) (last - first + 1));
+        byte[] name = new byte[MAX_NAME_LENGTH];
+        for (long sequence = first; sequence <= last; sequence++) {
+            int offset = (int) ((sequence - 1) % capacity) * RECORD_SIZE;
+            if ((long) LONGS.getAcquire(buffer, offset + SEQUENCE_OFFSET) != sequence) {
+                continue;
+            }
+            long traceIdHigh = buffer.getLong(offset + TRACE_ID_HIGH_OFFSET);
+            long traceIdLow = buffer.getLong(offset + TRACE_ID_LOW_OFFSET);
+            long spanId = buffer.getLong(offset + SPAN_ID_OFFSET);
+            long parentSpanId = buffer.getLong(offset + PARENT_SPAN_ID_OFFSET);
+            long start = buffer.getLong(offset + START_OFFSET);
+            long end = buffer.getLong(offset + END_OFFSET);
+            int flags = buffer.getInt(offset + FLAGS_OFFSET);
+            int nameLength = Math.min(buffer.getShort(offset + NAME_LENGTH_OFFSET), MAX_NAME_LENGTH);
+            buffer.get(offset + NAME_OFFSET, name, 0, nameLength);
+            VarHandle.acquireFence();
+            if ((long) LONGS.getVolatile(buffer, offset + SEQUENCE_OFFSET) != sequence) {
+                // Overwritten while it was read
+                continue;
+            }
+            spans.add(new RecordedSpan(traceIdHigh, traceIdLow, spanId, parentSpanId,
+                    new String(name, 0, nameLength, StandardCharsets.US_ASCII), start, end, flags));
+        }
+        return spans;
+    }
+
+    @Override
+    public String toString() {
+        return "SpanFlightRecorder{capacity=" + capacity + '}';
+    }
+
+    /**
+     * A span read from the flight recorder.
+     */
+    public static final class RecordedSpan {
+        private final long traceIdHigh;
+        private final long traceIdLow;
+        private final long spanId;
+        private final long parentSpanId;
+        private final String name;
+        private final long startEpochNanos;
+        private final long endEpochNanos;
+        private final int flags;
+
+        private RecordedSpan(long traceIdHigh, long traceIdLow, long spanId, long parentSpanId, String name,
+                             long startEpochNanos, long endEpochNanos, int flags) {
+            this.traceIdHigh = traceIdHigh;
+            this.traceIdLow = traceIdLow;
+            this.spanId = spanId;
+            this.parentSpanId = parentSpanId;
+            this.name = name;
+            this.startEpochNanos = startEpochNanos;
+            this.endEpochNanos = endEpochNanos;
+            this.flags = flags;
+        }
+
+        public String getTraceId() {
+            char[] chars = new char[2 * SpanId.getLength()];
+            OtelEncodingUtils.longToBase16String(traceIdHigh, chars, 0);
+            OtelEncodingUtils.longToBase16String(traceIdLow, chars, SpanId.getLength());
+            return new String(chars);
+        }
+
+        public String getSpanId() {
+            return toSpanId(spanId);
+        }
+
+        public String getParentSpanId() {
+            return parentSpanId == 0 ? SpanId.getInvalid() : toSpanId(parentSpanId);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public SpanKind getKind() {
+            int kind = flags >>> KIND_SHIFT;
+            return kind < KINDS.length ? KINDS[kind] : SpanKind.INTERNAL;
+        }
+
+        public long getStartEpochNanos() {
+            return startEpochNanos;
+        }
+
+        public long getEndEpochNanos() {
+            return endEpochNanos;
+        }
+
+        public boolean isSampled() {
+            return (flags & SAMPLED_FLAG) != 0;
+        }
+
+        public boolean isFailed() {
+            return (flags & ERROR_FLAG) != 0;
+        }
+
+        private static String toSpanId(long id) {
+            char[] chars = new char[SpanId.getLength()];
+            OtelEncodingUtils.longToBase16String(id, chars, 0);
+            return new String(chars);
+        }
+
+        @Override
+        public String toString() {
+            return "RecordedSpan{traceId=" + getTraceId() + ", spanId=" + getSpanId() + ", name=" + name + '}';
+        }
+    }
+
+    /**
+     * A recorded span which is exported after the fact.
+     */
+    private static final class PromotedSpanData implements SpanData {
+        private static final Attributes ATTRIBUTES = Attributes.of(PROMOTED, true);
+
+        private final RecordedSpan span;
+        private final Resource resource;
+        private final SpanContext spanContext;
+        private final SpanContext parentSpanContext;
+
+        private PromotedSpanData(RecordedSpan span, Resource resource) {
+            this.span = span;
+            this.resource = resource;
+            String traceId = span.getTraceId();
+            this.spanContext = SpanContext.create(traceId, span.getSpanId(), TraceFlags.getSampled(),
+                    TraceState.getDefault());
+            this.parentSpanContext = span.parentSpanId == 0 ? SpanContext.getInvalid()
+                    : SpanContext.create(traceId, span.getParentSpanId(), TraceFlags.getSampled(),
+                    TraceState.getDefault());
+        }
+
+        @Override
+        public String getName() {
+            return span.getName();
+        }
+
+        @Override
+        public SpanKind getKind() {
+            return span.getKind();
+        }
+
+        @Override
+        public SpanContext getSpanContext() {
+            return spanContext;
+        }
+
+        @Override
+        public SpanContext getParentSpanContext() {
+            return parentSpanContext;
+        }
+
+        @Override
+        public StatusData getStatus() {
+            return span.isFailed() ? StatusData.error() : StatusData.unset();
+        }
+
+        @Override
+        public long getStartEpochNanos() {
+            return span.getStartEpochNanos();
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            return ATTRIBUTES;
+        }
+
+        @Override
+        public List<EventData> getEvents() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<LinkData> getLinks() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public long getEndEpochNanos() {
+            return span.getEndEpochNanos();
+        }
+
+        @Override
+        public boolean hasEnded() {
+            return true;
+        }
+
+        @Override
+        public int getTotalRecordedEvents() {
+            return 0;
+        }
+
+        @Override
+        public int getTotalRecordedLinks() {
+            return 0;
+        }
+
+        @Override
+        public int getTotalAttributeCount() {
+            return ATTRIBUTES.size();
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public InstrumentationLibraryInfo getInstrumentationLibraryInfo() {
+            return InstrumentationLibraryInfo.create(SCOPE.getName(), null);
+        }
+
+        @Override
+        public InstrumentationScopeInfo getInstrumentationScopeInfo() {
+            return SCOPE;
+        }
+
+        @Override
+        public Resource getResource() {
+            return resource;
+        }
+    }
+}
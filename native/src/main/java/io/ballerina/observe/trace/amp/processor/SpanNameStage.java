@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.data.SpanData;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Stage which bounds the number of distinct span names, such as names which contain the IDs of a URL path, by
+ * replacing their dynamic segments with templates once there are too many of them.
+ * <p>
+ * The stage keeps up to the given number of distinct names in a concurrent map, which spans with a known name read
+ * without locking. While the distinct names fit in the map, the names are kept as they are. Once a new name does not
+ * fit, the stage starts templating: from then on, the segments between slashes which are numbers, UUIDs or
+ * hexadecimal IDs are replaced with {@value #NUMBER}, {@value #UUID} and {@value #HEX} in the names of all spans, and
+ * the map holds the templated names of the recently used names. When it is full, a name is evicted with the CLOCK
+ * approximation of least recently used eviction: a hit marks the name as referenced, and a new name replaces the
+ * first name after the hand of the clock which was not referenced since the hand last passed it, so that names which
+ * are used often stay in the map. The names are normalized when the spans start, so names which are changed later
+ * are kept as they are.
+ */
+public final class SpanNameStage implements SpanStage {
+    static final String NUMBER = "{num}";
+    static final String UUID = "{uuid}";
+    static final String HEX = "{hex}";
+    // Hexadecimal segments shorter than this are more likely to be words
+    private static final int MIN_HEX_LENGTH = 8;
+    private static final int UUID_LENGTH = 36;
+
+    private final int maxNames;
+    private final Map<String, Entry> names;
+    // Keys of the map in the order of the clock, guarded by this stage
+    private final String[] clock;
+    private int clockSize;
+    private int hand;
+    private volatile boolean templating;
+    private final LongAdder templatedSpans = new LongAdder();
+    private final LongAdder distinctNames = new LongAdder();
+
+    /**
+     * Create a stage which templates the span names once there are more distinct names than the given limit.
+     *
+     * @param maxNames the number of distinct names which are kept as they are
+     */
+    public SpanNameStage(int maxNames) {
+        if (maxNames <= 0) {
+            throw new IllegalArgumentException("maxNames must be positive.");
+        }
+        this.maxNames = maxNames;
+        this.names = new ConcurrentHashMap<>();
+        this.clock = new String[maxNames];
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+        // The name of a running span is read under a lock, so read it only once
+        String name = span.getName();
+        String normalized = normalize(name);
+        if (!normalized.equals(name)) {
+            span.updateName(normalized);
+            templatedSpans.increment();
+        }
+    }
+
+    @Override
+    public void onEnd(SpanData span, Consumer<SpanData> next) {
+        next.accept(span);
+    }
+
+    /**
+     * Get the name under which a span with the given name is reported.
+     *
+     * @param name the span name
+     * @return the normalized span name
+     */
+    String normalize(String name) {
+        Entry entry = names.get(name);
+        if (entry != null) {
+            entry.reference();
+            return entry.normalized;
+        }
+        // Only new names take the lock, so that the switch to templating and the evictions do not race
+        synchronized (this) {
+            entry = names.get(name);
+            if (entry != null) {
+                return entry.normalized;
+            }
+            if (!templating && clockSize == maxNames) {
+                // The names seen so far are dropped, since they are reported as they are while templating
+                templating = true;
+                names.clear();
+                Arrays.fill(clock, null);
+                clockSize = 0;
+                hand = 0;
+            }
+            int slot = clockSize < maxNames ? clockSize++ : evict();
+            entry = new Entry(templating ? template(name) : name);
+            clock[slot] = name;
+            names.put(name, entry);
+            if (!templating) {
+                distinctNames.increment();
+            }
+            return entry.normalized;
+        }
+    }
+
+    /**
+     * Evict the first name after the hand which was not referenced since the hand last passed it.
+     *
+     * @return the slot of the evicted name
+     */
+    private int evict() {
+        while (true) {
+            int slot = hand;
+            hand = hand + 1 == maxNames ? 0 : hand + 1;
+            Entry entry = names.get(clock[slot]);
+            if (entry.referenced) {
+                entry.referenced = false;
+            } else {
+                // Evicted names are templated again when they are seen again, which gives the same name
+                names.remove(clock[slot]);
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Check whether the map holds a name, so that spans with the name do not take the lock.
+     */
+    boolean isKnown(String name) {
+        return names.containsKey(name);
+    }
+
+    /**
+     * Replace the dynamic segments of a name with templates.
+     *
+     * @param name the span name
+     * @return the templated name, which is the given name when it has no dynamic segments
+     */
+    static String template(String name) {
+        StringBuilder templated = null;
+        int start = 0;
+        while (start <= name.length()) {
+            int end = name.indexOf('/', start);
+            if (end < 0) {
+                end = name.length();
+            }
+            String placeholder = placeholder(name, start, end);
+            if (placeholder != null && templated == null) {
+                templated = new StringBuilder(name.length()).append(name, 0, start);
+            }
+            if (templated != null) {
+                if (placeholder != null) {
+                    templated.append(placeholder);
+                } else {
+                    templated.append(name, start, end);
+                }
+                if (end < name.length()) {
+                    templated.append('/');
+                }
+            }
+            start = end + 1;
+        }
+        return templated != null ? templated.toString() : name;
+    }
+
+    /**
+     * Get the template of a dynamic segment.
+     *
+     * @return the template, or null when the segment is not dynamic
+     */
+    private static String placeholder(String name, int start, int end) {
+        int length = end - start;
+        if (length == 0) {
+            return null;
+        }
+        if (length == UUID_LENGTH && isUuid(name, start)) {
+            return UUID;
+        }
+        boolean digitsOnly = true;
+        for (int i = start; i < end; i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                if (!isHexLetter(c)) {
+                    return null;
+                }
+                digitsOnly = false;
+            }
+        }
+        if (digitsOnly) {
+            return NUMBER;
+        }
+        return length >= MIN_HEX_LENGTH && hasDigit(name, start, end) ? HEX : null;
+    }
+
+    private static boolean isUuid(String name, int start) {
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            char c = name.charAt(start + i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if ((c < '0' || c > '9') && !isHexLetter(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHexLetter(char c) {
+        return c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F';
+    }
+
+    private static boolean hasDigit(String name, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (name.charAt(i) >= '0' && name.charAt(i) <= '9') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of distinct span names which were reported as they are, before templating started.
+     *
+     * @return the number of distinct span names
+     */
+    public long getDistinctNames() {
+        return distinctNames.sum();
+    }
+
+    /**
+     * Get the number of spans whose name was replaced with a template.
+     *
+     * @return the number of templated spans
+     */
+    public long getTemplatedSpans() {
+        return templatedSpans.sum();
+    }
+
+    /**
+     * Check whether the number of distinct names passed the limit, so that the names are templated.
+     *
+     * @return true if the names are templated
+     */
+    public boolean isTemplating() {
+        return templating;
+    }
+
+    /**
+     * The normalized name of a name in the map, with the reference bit of the clock.
+     */
+    private static final class Entry {
+        private final String normalized;
+        private volatile boolean referenced;
+
+        private Entry(String normalized) {
+            this.normalized = normalized;
+        }
+
+        private void reference() {
+            // Read first, so that hits on a referenced name do not write to memory shared by the threads
+            if (!referenced) {
+                referenced = true;
+            }
+        }
+    }
+}
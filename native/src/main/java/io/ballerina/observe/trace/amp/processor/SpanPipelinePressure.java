@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+/**
+ * Source of back pressure signals from the span export pipeline.
+ */
+public interface SpanPipelinePressure {
+
+    /**
+     * Get the current pressure on the export pipeline.
+     * <p>
+     * This is called on the sampling hot path, so implementations must not block or allocate.
+     *
+     * @return a value between 0 (idle) and 1 (saturated or failing)
+     */
+    double getPressure();
+}
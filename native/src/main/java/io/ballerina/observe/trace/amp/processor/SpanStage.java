@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.data.SpanData;
+
+import java.util.function.Consumer;
+
+/**
+ * A stage which processes the ended spans in the {@link AmpBatchSpanProcessor} before they are queued.
+ * <p>
+ * Stages are chained in the order in which they are added to the processor. Each stage passes the spans which it
+ * keeps on to the next stage, either as they are or replaced with a modified copy, and does not pass on the spans
+ * which it drops. A stage may also hold spans back and pass them on later, or when the processor is flushed.
+ * Stages are called on the threads which start and end the spans, so they must be thread safe and must not block.
+ */
+public interface SpanStage {
+
+    /**
+     * Called when a span is started.
+     *
+     * @param parentContext the parent context of the span
+     * @param span          the started span
+     */
+    default void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    /**
+     * Called when a sampled span is ended.
+     *
+     * @param span the ended span
+     * @param next the next stage, to which the kept spans are passed
+     */
+    void onEnd(SpanData span, Consumer<SpanData> next);
+
+    /**
+     * Called when the processor is flushed or shut down, to pass on the spans which the stage holds back.
+     *
+     * @param next the next stage
+     */
+    default void flush(Consumer<SpanData> next) {
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.sdk.trace.data.DelegatingSpanData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static io.opentelemetry.api.common.AttributeKey.booleanKey;
+import static io.opentelemetry.api.common.AttributeKey.longKey;
+
+/**
+ * Stage which collapses runs of sibling spans with the same name, kind and status, such as the client calls made
+ * in a loop, into a single summary span.
+ * <p>
+ * Ended spans are held back per parent until the parent ends. When a parent has at least the minimum run length of
+ * children with the same name, kind and status, they are replaced by a summary span and the slowest of them, which
+ * are kept as exemplars. The summary span is the first span of the run, stretched to cover the whole run, with the
+ * number of spans and their total, minimum and maximum duration as attributes. Shorter runs are passed on as they
+ * are. Spans which have children in this process are never summarized, so that none of them loses its parent.
+ * Client and producer spans may also have children in other services, which the summary would leave without their
+ * parent, so spans whose context was injected into an outgoing request, as remembered by the given
+ * {@link PropagatedSpans}, are passed on as they are as well.
+ * <p>
+ * Memory use is bounded by the number of parents with held back children, the number of distinct runs of each
+ * parent, and the minimum run length and number of exemplars of each run. Spans which do not fit are passed on
+ * without being summarized, and children whose parent does not end in this process, or ends after a while, are
+ * passed on after a timeout. The recently ended spans are remembered, so that children which end after their parent
+ * are passed on right away without being summarized.
+ */
+public final class SpanSummaryStage implements SpanStage {
+    public static final AttributeKey<Long> SUMMARY_COUNT = longKey("amp.summary.count");
+    public static final AttributeKey<Long> SUMMARY_DURATION_TOTAL = longKey("amp.summary.duration.total_ns");
+    public static final AttributeKey<Long> SUMMARY_DURATION_MIN = longKey("amp.summary.duration.min_ns");
+    public static final AttributeKey<Long> SUMMARY_DURATION_MAX = longKey("amp.summary.duration.max_ns");
+    public static final AttributeKey<Boolean> SUMMARY_EXEMPLAR = booleanKey("amp.summary.exemplar");
+
+    public static final int DEFAULT_MIN_RUN_LENGTH = 10;
+    public static final int DEFAULT_EXEMPLARS = 1;
+
+    // Number of parents with held back children above which spans are passed on without being summarized
+    private static final int MAX_OPEN_PARENTS = 4096;
+    // Number of distinct runs of a parent above which spans are passed on without being summarized
+    private static final int MAX_RUNS_PER_PARENT = 64;
+    private static final long MAX_HOLD_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    // Number of remembered ended spans above which the old ones are evicted
+    private static final int MAX_ENDED_SPANS = 16384;
+
+    private final int minRunLength;
+    private final int exemplars;
+    private final PropagatedSpans propagatedSpans;
+    private final ConcurrentHashMap<String, Siblings> openParents = new ConcurrentHashMap<>();
+    // End times of the recently ended spans, for their children which end after them
+    private final ConcurrentHashMap<String, Long> endedSpans = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepNanos = new AtomicLong(System.nanoTime() + SWEEP_INTERVAL_NANOS);
+    private final LongAdder summarizedSpans = new LongAdder();
+
+    /**
+     * Create a stage which summarizes runs of sibling spans.
+     *
+     * @param minRunLength the number of spans from which a run is summarized, at least two
+     * @param exemplars    the number of the slowest spans of a run which are kept besides the summary span
+     */
+    public SpanSummaryStage(int minRunLength, int exemplars) {
+        this(minRunLength, exemplars, null);
+    }
+
+    /**
+     * Create a stage which summarizes runs of sibling spans, and passes on the spans whose context was injected.
+     *
+     * @param minRunLength    the number of spans from which a run is summarized, at least two
+     * @param exemplars       the number of the slowest spans of a run which are kept besides the summary span
+     * @param propagatedSpans the spans whose context was injected, or null if they are not tracked
+     */
+    public SpanSummaryStage(int minRunLength, int exemplars, PropagatedSpans propagatedSpans) {
+        if (minRunLength < 2) {
+            throw new IllegalArgumentException("minRunLength must be at least 2.");
+        }
+        if (exemplars < 0) {
+            throw new IllegalArgumentException("exemplars cannot be negative.");
+        }
+        this.minRunLength = minRunLength;
+        this.exemplars = exemplars;
+        this.propagatedSpans = propagatedSpans;
+    }
+
+    @Override
+    public void onEnd(SpanData span, Consumer<SpanData> next) {
+        long now = System.nanoTime();
+        sweep(now, next);
+        // The end is recorded before the held back children are taken, so that a child which ends meanwhile either
+        // is taken with them or finds the span ended
+        rememberEnd(span.getSpanId(), now);
+        boolean propagated = propagatedSpans != null && propagatedSpans.take(span.getSpanId());
+        Siblings children = openParents.remove(span.getSpanId());
+        if (children != null) {
+            // The span is a parent, so pass on its children and the span itself
+            children.close(next);
+            next.accept(span);
+            return;
+        }
+        SpanContext parent = span.getParentSpanContext();
+        if (propagated || !parent.isValid() || endedSpans.containsKey(parent.getSpanId())) {
+            next.accept(span);
+            return;
+        }
+        Siblings siblings = openParents.get(parent.getSpanId());
+        if (siblings == null) {
+            if (openParents.size() >= MAX_OPEN_PARENTS) {
+                next.accept(span);
+                return;
+            }
+            siblings = openParents.computeIfAbsent(parent.getSpanId(), id -> new Siblings(now));
+        }
+        if (!siblings.add(span)) {
+            next.accept(span);
+        } else if (endedSpans.containsKey(parent.getSpanId()) && openParents.remove(parent.getSpanId(), siblings)) {
+            // The parent ended while the span was added
+            siblings.close(next);
+        }
+    }
+
+    private void rememberEnd(String spanId, long now) {
+        if (endedSpans.size() >= MAX_ENDED_SPANS) {
+            endedSpans.values().removeIf(endNanos -> now - endNanos > MAX_HOLD_NANOS);
+            if (endedSpans.size() >= MAX_ENDED_SPANS) {
+                // Too many spans end to remember them for the full hold time
+                endedSpans.clear();
+            }
+        }
+        endedSpans.put(spanId, now);
+    }
+
+    @Override
+    public void flush(Consumer<SpanData> next) {
+        for (String parentSpanId : openParents.keySet()) {
+            Siblings siblings = openParents.remove(parentSpanId);
+            if (siblings != null) {
+                siblings.close(next);
+            }
+        }
+    }
+
+    /**
+     * Get the number of spans which were replaced by summary spans.
+     *
+     * @return the number of summarized spans
+     */
+    public long getSummarizedSpans() {
+        return summarizedSpans.sum();
+    }
+
+    /**
+     * Pass on the children of the parents which did not end within the hold time.
+     */
+    private void sweep(long now, Consumer<SpanData> next) {
+        long nextSweep = nextSweepNanos.get();
+        if (now - nextSweep < 0 || !nextSweepNanos.compareAndSet(nextSweep, now + SWEEP_INTERVAL_NANOS)) {
+            return;
+        }
+        for (Map.Entry<String, Siblings> entry : openParents.entrySet()) {
+            if (now - entry.getValue().createdNanos > MAX_HOLD_NANOS
+                    && openParents.remove(entry.getKey(), entry.getValue())) {
+                entry.getValue().close(next);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SpanSummaryStage{minRunLength=" + minRunLength + ", exemplars=" + exemplars + '}';
+    }
+
+    /**
+     * The held back children of a parent.
+     */
+    private final class Siblings {
+        private final long createdNanos;
+        private final List<Run> runs = new ArrayList<>(2);
+        private boolean closed;
+
+        private Siblings(long createdNanos) {
+            this.createdNanos = createdNanos;
+        }
+
+        /**
+         * Hold back a child, or return false if the child should be passed on right away.
+         */
+        private synchronized boolean add(SpanData span) {
+            if (closed) {
+                return false;
+            }
+            for (Run run : runs) {
+                if (run.matches(span)) {
+                    run.add(span);
+                    return true;
+                }
+            }
+            if (runs.size() >= MAX_RUNS_PER_PARENT) {
+                return false;
+            }
+            Run run = new Run(span);
+            run.add(span);
+            runs.add(run);
+            return true;
+        }
+
+        private void close(Consumer<SpanData> next) {
+            List<Run> closedRuns;
+            synchronized (this) {
+                closed = true;
+                closedRuns = new ArrayList<>(runs);
+                runs.clear();
+            }
+            for (Run run : closedRuns) {
+                run.emit(next);
+            }
+        }
+    }
+
+    /**
+     * The children of a parent with the same name, kind and status.
+     */
+    private final class Run {
+        private final SpanData first;
+        // Spans of the run until it reaches the minimum run length
+        private final List<SpanData> spans = new ArrayList<>();
+        // The slowest spans of the run besides the first one, once it reaches the minimum run length
+        private PriorityQueue<SpanData> slowest;
+        private long count;
+        private long totalDuration;
+        private long minDuration = Long.MAX_VALUE;
+        private long maxDuration;
+        private long startEpochNanos;
+        private long endEpochNanos;
+
+        private Run(SpanData first) {
+            this.first = first;
+            this.startEpochNanos = first.getStartEpochNanos();
+            this.endEpochNanos = first.getEndEpochNanos();
+        }
+
+        private boolean matches(SpanData span) {
+            return first.getKind() == span.getKind()
+                    && first.getStatus().getStatusCode() == span.getStatus().getStatusCode()
+                    && first.getName().equals(span.getName());
+        }
+
+        private void add(SpanData span) {
+            long duration = span.getEndEpochNanos() - span.getStartEpochNanos();
+            count++;
+            totalDuration += duration;
+            minDuration = Math.min(minDuration, duration);
+            maxDuration = Math.max(maxDuration, duration);
+            startEpochNanos = Math.min(startEpochNanos, span.getStartEpochNanos());
+            endEpochNanos = Math.max(endEpochNanos, span.getEndEpochNanos());
+            if (slowest == null) {
+                spans.add(span);
+                if (spans.size() >= minRunLength) {
+                    slowest = new PriorityQueue<>(exemplars + 1, Comparator.comparingLong(Run::duration));
+                    for (SpanData held : spans) {
+                        keepIfSlowest(held);
+                    }
+                    spans.clear();
+                }
+            } else {
+                keepIfSlowest(span);
+            }
+        }
+
+        private void keepIfSlowest(SpanData span) {
+            if (span == first || exemplars == 0) {
+                return;
+            }
+            slowest.add(span);
+            if (slowest.size() > exemplars) {
+                slowest.poll();
+            }
+        }
+
+        private void emit(Consumer<SpanData> next) {
+            if (slowest == null) {
+                spans.forEach(next);
+                return;
+            }
+            next.accept(new SummarySpanData(first, Attributes.builder()
+                    .putAll(first.getAttributes())
+                    .put(SUMMARY_COUNT, count)
+                    .put(SUMMARY_DURATION_TOTAL, totalDuration)
+                    .put(SUMMARY_DURATION_MIN, minDuration)
+                    .put(SUMMARY_DURATION_MAX, maxDuration)
+                    .build(), startEpochNanos, endEpochNanos));
+            for (SpanData exemplar : slowest) {
+                next.accept(new SummarySpanData(exemplar, exemplar.getAttributes().toBuilder()
+                        .put(SUMMARY_EXEMPLAR, true)
+                        .build(), exemplar.getStartEpochNanos(), exemplar.getEndEpochNanos()));
+            }
+            summarizedSpans.add(count - 1 - slowest.size());
+        }
+
+        private static long duration(SpanData span) {
+            return span.getEndEpochNanos() - span.getStartEpochNanos();
+        }
+    }
+
+    /**
+     * A span with replaced attributes and times.
+     */
+    private static final class SummarySpanData extends DelegatingSpanData {
+        private final Attributes attributes;
+        private final long startEpochNanos;
+        private final long endEpochNanos;
+
+        private SummarySpanData(SpanData delegate, Attributes attributes, long startEpochNanos,
+                                long endEpochNanos) {
+            super(delegate);
+            this.attributes = attributes;
+            this.startEpochNanos = startEpochNanos;
+            this.endEpochNanos = endEpochNanos;
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public int getTotalAttributeCount() {
+            return super.getTotalAttributeCount() - super.getAttributes().size() + attributes.size();
+        }
+
+        @Override
+        public long getStartEpochNanos() {
+            return startEpochNanos;
+        }
+
+        @Override
+        public long getEndEpochNanos() {
+            return endEpochNanos;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.propagation;
+
+import io.opentelemetry.api.baggage.propagation.W3CBaggagePropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.extension.trace.propagation.B3Propagator;
+import io.opentelemetry.extension.trace.propagation.JaegerPropagator;
+import io.opentelemetry.extension.trace.propagation.OtTracePropagator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Factory for the context propagators used by the Amp extension.
+ * <p>
+ * Propagators are named as in the OpenTelemetry {@code OTEL_PROPAGATORS} setting. On extraction, a header
+ * found by a later propagator in the list takes precedence over one found by an earlier propagator.
+ */
+public final class AmpPropagators {
+    public static final String TRACE_CONTEXT = "tracecontext";
+    public static final String BAGGAGE = "baggage";
+    public static final String B3 = "b3";
+    public static final String B3_MULTI = "b3multi";
+    public static final String JAEGER = "jaeger";
+    public static final String OT_TRACE = "ottrace";
+
+    private static final ContextPropagators DEFAULT_PROPAGATORS =
+            ContextPropagators.create(AmpW3CTraceContextPropagator.getInstance());
+
+    private AmpPropagators() {
+    }
+
+    /**
+     * Get the propagators used when no propagators have been configured.
+     *
+     * @return the W3C trace context propagators
+     */
+    public static ContextPropagators getDefault() {
+        return DEFAULT_PROPAGATORS;
+    }
+
+    /**
+     * Create the composite propagators for the given propagator names.
+     *
+     * @param names the names of the propagators, in order
+     * @return the context propagators
+     */
+    public static ContextPropagators create(String... names) {
+        if (names.length == 1 && TRACE_CONTEXT.equals(names[0])) {
+            return DEFAULT_PROPAGATORS;
+        }
+        List<TextMapPropagator> propagators = new ArrayList<>(names.length);
+        for (String name : names) {
+            propagators.add(getPropagator(name));
+        }
+        return ContextPropagators.create(TextMapPropagator.composite(propagators));
+    }
+
+    private static TextMapPropagator getPropagator(String name) {
+        switch (name) {
+            case TRACE_CONTEXT:
+                return AmpW3CTraceContextPropagator.getInstance();
+            case BAGGAGE:
+                return W3CBaggagePropagator.getInstance();
+            case B3:
+                return B3Propagator.injectingSingleHeader();
+            case B3_MULTI:
+                return B3Propagator.injectingMultiHeaders();
+            case JAEGER:
+                return JaegerPropagator.getInstance();
+            case OT_TRACE:
+                return OtTracePropagator.getInstance();
+            default:
+                throw new IllegalArgumentException("Unknown propagator " + name);
+        }
+    }
+}
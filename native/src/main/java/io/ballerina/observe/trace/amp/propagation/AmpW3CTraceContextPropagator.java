@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.propagation;
+
+import io.opentelemetry.api.internal.OtelEncodingUtils;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceId;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.TraceStateBuilder;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.context.propagation.TextMapSetter;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * W3C trace context propagator with an allocation free fast path for the {@code traceparent} header.
+ * <p>
+ * The header is validated in place without splitting it, and injected through a per thread character buffer.
+ * The only allocations left on the fast path are the header string itself and the trace and span IDs and the
+ * span context required by the OpenTelemetry API. The {@code tracestate} header is only parsed or built when
+ * it is present.
+ */
+public final class AmpW3CTraceContextPropagator implements TextMapPropagator {
+    static final String TRACE_PARENT = "traceparent";
+    static final String TRACE_STATE = "tracestate";
+    private static final List<String> FIELDS = List.of(TRACE_PARENT, TRACE_STATE);
+
+    private static final String VERSION_00 = "00";
+    private static final char DELIMITER = '-';
+    private static final int VERSION_SIZE = 2;
+    private static final int TRACE_ID_OFFSET = VERSION_SIZE + 1;
+    private static final int SPAN_ID_OFFSET = TRACE_ID_OFFSET + TraceId.getLength() + 1;
+    private static final int TRACE_FLAGS_OFFSET = SPAN_ID_OFFSET + SpanId.getLength() + 1;
+    private static final int TRACE_PARENT_SIZE = TRACE_FLAGS_OFFSET + 2;
+
+    private static final int TRACE_STATE_MAX_MEMBERS = 32;
+    private static final char TRACE_STATE_MEMBER_DELIMITER = ',';
+    private static final char TRACE_STATE_KEY_VALUE_DELIMITER = '=';
+
+    private static final ThreadLocal<char[]> TRACE_PARENT_BUFFER = ThreadLocal.withInitial(() -> {
+        char[] chars = new char[TRACE_PARENT_SIZE];
+        VERSION_00.getChars(0, VERSION_SIZE, chars, 0);
+        chars[TRACE_ID_OFFSET - 1] = DELIMITER;
+        chars[SPAN_ID_OFFSET - 1] = DELIMITER;
+        chars[TRACE_FLAGS_OFFSET - 1] = DELIMITER;
+        return chars;
+    });
+
+    private static final AmpW3CTraceContextPropagator INSTANCE = new AmpW3CTraceContextPropagator();
+
+    private AmpW3CTraceContextPropagator() {
+    }
+
+    public static AmpW3CTraceContextPropagator getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public Collection<String> fields() {
+        return FIELDS;
+    }
+
+    @Override
+    public <C> void inject(Context context, C carrier, TextMapSetter<C> setter) {
+        if (context == null || setter == null) {
+            return;
+        }
+        SpanContext spanContext = Span.fromContext(context).getSpanContext();
+        if (!spanContext.isValid()) {
+            return;
+        }
+        char[] chars = TRACE_PARENT_BUFFER.get();
+        spanContext.getTraceId().getChars(0, TraceId.getLength(), chars, TRACE_ID_OFFSET);
+        spanContext.getSpanId().getChars(0, SpanId.getLength(), chars, SPAN_ID_OFFSET);
+        OtelEncodingUtils.byteToBase16(spanContext.getTraceFlags().asByte(), chars, TRACE_FLAGS_OFFSET);
+        setter.set(carrier, TRACE_PARENT, new String(chars, 0, TRACE_PARENT_SIZE));
+
+        TraceState traceState = spanContext.getTraceState();
+        if (!traceState.isEmpty()) {
+            setter.set(carrier, TRACE_STATE, encodeTraceState(traceState));
+        }
+    }
+
+    @Override
+    public <C> Context extract(Context context, C carrier, TextMapGetter<C> getter) {
+        if (context == null) {
+            return Context.root();
+        }
+        if (getter == null) {
+            return context;
+        }
+        String traceParent = getter.get(carrier, TRACE_PARENT);
+        if (traceParent == null || !isValidTraceParent(traceParent)) {
+            return context;
+        }
+        String traceId = traceParent.substring(TRACE_ID_OFFSET, TRACE_ID_OFFSET + TraceId.getLength());
+        String spanId = traceParent.substring(SPAN_ID_OFFSET, SPAN_ID_OFFSET + SpanId.getLength());
+        if (!TraceId.isValid(traceId) || !SpanId.isValid(spanId)) {
+            return context;
+        }
+        TraceFlags traceFlags = TraceFlags.fromByte(OtelEncodingUtils.byteFromBase16(
+                traceParent.charAt(TRACE_FLAGS_OFFSET), traceParent.charAt(TRACE_FLAGS_OFFSET + 1)));
+
+        String traceStateHeader = getter.get(carrier, TRACE_STATE);
+        TraceState traceState = traceStateHeader == null || traceStateHeader.isEmpty()
+                ? TraceState.getDefault() : decodeTraceState(traceStateHeader);
+        SpanContext spanContext = SpanContext.createFromRemoteParent(traceId, spanId, traceFlags, traceState);
+        return context.with(Span.wrap(spanContext));
+    }
+
+    /**
+     * Validate the structure of a {@code traceparent} header without allocating.
+     * <p>
+     * Version 00 headers must have the exact size, while future versions may carry additional fields after
+     * the trace flags. Version ff is invalid.
+     */
+    static boolean isValidTraceParent(CharSequence traceParent) {
+        int length = traceParent.length();
+        if (length < TRACE_PARENT_SIZE) {
+            return false;
+        }
+        char version0 = traceParent.charAt(0);
+        char version1 = traceParent.charAt(1);
+        if (!isLowerBase16(version0) || !isLowerBase16(version1) || (version0 == 'f' && version1 == 'f')) {
+            return false;
+        }
+        boolean isVersion00 = version0 == '0' && version1 == '0';
+        if (length > TRACE_PARENT_SIZE && (isVersion00 || traceParent.charAt(TRACE_PARENT_SIZE) != DELIMITER)) {
+            return false;
+        }
+        if (traceParent.charAt(TRACE_ID_OFFSET - 1) != DELIMITER
+                || traceParent.charAt(SPAN_ID_OFFSET - 1) != DELIMITER
+                || traceParent.charAt(TRACE_FLAGS_OFFSET - 1) != DELIMITER) {
+            return false;
+        }
+        for (int i = TRACE_ID_OFFSET; i < TRACE_PARENT_SIZE; i++) {
+            if (i != SPAN_ID_OFFSET - 1 && i != TRACE_FLAGS_OFFSET - 1 && !isLowerBase16(traceParent.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLowerBase16(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f');
+    }
+
+    private static String encodeTraceState(TraceState traceState) {
+        StringBuilder builder = new StringBuilder(64);
+        traceState.forEach((key, value) -> {
+            if (builder.length() != 0) {
+                builder.append(TRACE_STATE_MEMBER_DELIMITER);
+            }
+            builder.append(key).append(TRACE_STATE_KEY_VALUE_DELIMITER).append(value);
+        });
+        return builder.toString();
+    }
+
+    /**
+     * Decode a {@code tracestate} header. Members which are not valid are skipped, and a header with more than
+     * {@value #TRACE_STATE_MAX_MEMBERS} members is ignored, as required by the W3C specification.
+     */
+    private static TraceState decodeTraceState(String header) {
+        TraceStateBuilder builder = TraceState.builder();
+        int members = 0;
+        int end = header.length();
+        // Iterate in reverse order since the builder adds each member to the front of the list
+        while (end > 0) {
+            int start = header.lastIndexOf(TRACE_STATE_MEMBER_DELIMITER, end - 1) + 1;
+            if (++members > TRACE_STATE_MAX_MEMBERS) {
+                return TraceState.getDefault();
+            }
+            int separator = header.indexOf(TRACE_STATE_KEY_VALUE_DELIMITER, start);
+            if (separator > start && separator < end) {
+                String key = header.substring(start, separator).trim();
+                String value = header.substring(separator + 1, end).trim();
+                if (!key.isEmpty() && !value.isEmpty()) {
+                    builder.put(key, value);
+                }
+            }
+            end = start - 1;
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String toString() {
+        return "AmpW3CTraceContextPropagator";
+    }
+}
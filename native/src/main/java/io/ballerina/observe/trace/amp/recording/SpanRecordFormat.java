@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.recording;
+
+/**
+ * Constants of the binary format of span recordings, which {@link SpanRecordWriter} writes and
+ * {@link SpanRecordReader} reads.
+ * <p>
+ * A recording starts with the magic bytes {@code AMPR} and a version byte, followed by records which each start with
+ * a type byte. Resources and instrumentation scopes are written once, in a record which gives them an ID, and spans
+ * refer to them by the ID. Strings are written once as well: a reference of 0 is followed by the length and the
+ * UTF-8 bytes of a new string, which takes the next ID, and any other reference is the ID of a string written
+ * before. Up to {@value #MAX_STRINGS} strings get an ID, and later new strings are written in full each time.
+ * Integers are written as variable length quantities, with signed integers zigzag encoded.
+ * <p>
+ * Span records are written in the order in which the spans end. The end time of a span is written as the
+ * difference from the end time of the previous span, and the start time as the duration of the span, so that most
+ * times take a few bytes.
+ */
+final class SpanRecordFormat {
+    static final byte[] MAGIC = {'A', 'M', 'P', 'R'};
+    static final int VERSION = 1;
+    static final int RESOURCE = 1;
+    static final int SCOPE = 2;
+    static final int SPAN = 3;
+    static final int MAX_STRINGS = 1 << 16;
+    static final int NEW_STRING = 0;
+    // Attribute value types
+    static final int STRING = 0;
+    static final int BOOLEAN = 1;
+    static final int LONG = 2;
+    static final int DOUBLE = 3;
+    static final int STRING_ARRAY = 4;
+    static final int BOOLEAN_ARRAY = 5;
+    static final int LONG_ARRAY = 6;
+    static final int DOUBLE_ARRAY = 7;
+
+    private SpanRecordFormat() {
+    }
+}
@@ -0,0 +1,472 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.recording;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.TraceStateBuilder;
+import io.opentelemetry.sdk.common.InstrumentationLibraryInfo;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reader of span recordings in the format described by {@link SpanRecordFormat}.
+ * <p>
+ * A recording whose last record was cut short, such as when the recorded program was killed, is read up to the last
+ * complete span. The reader is not thread safe.
+ */
+public final class SpanRecordReader implements Closeable {
+    private static final SpanKind[] KINDS = SpanKind.values();
+    private static final StatusCode[] STATUS_CODES = StatusCode.values();
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final DataInputStream in;
+    private final List<String> strings = new ArrayList<>();
+    private final List<Resource> resources = new ArrayList<>();
+    private final List<InstrumentationScopeInfo> scopes = new ArrayList<>();
+    private long previousEndEpochNanos;
+    private boolean truncated;
+
+    /**
+     * Create a reader which reads the header of a recording from the stream.
+     *
+     * @param in the stream, which the reader buffers
+     * @throws IOException if the stream does not hold a recording
+     */
+    public SpanRecordReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        byte[] magic = new byte[SpanRecordFormat.MAGIC.length];
+        try {
+            this.in.readFully(magic);
+            if (!Arrays.equals(magic, SpanRecordFormat.MAGIC)) {
+                throw new IOException("not a span recording");
+            }
+            int version = this.in.readUnsignedByte();
+            if (version != SpanRecordFormat.VERSION) {
+                throw new IOException("unsupported span recording version " + version);
+            }
+        } catch (EOFException e) {
+            throw new IOException("not a span recording", e);
+        }
+    }
+
+    /**
+     * Read the next span.
+     *
+     * @return the span, or null at the end of the recording
+     * @throws IOException if the recording cannot be read
+     */
+    public SpanData read() throws IOException {
+        if (truncated) {
+            return null;
+        }
+        try {
+            while (true) {
+                int type = in.read();
+                switch (type) {
+                    case -1:
+                        return null;
+                    case SpanRecordFormat.RESOURCE:
+                        readResource();
+                        break;
+                    case SpanRecordFormat.SCOPE:
+                        readScope();
+                        break;
+                    case SpanRecordFormat.SPAN:
+                        return readSpan();
+                    default:
+                        throw new IOException("unknown span recording record type " + type);
+                }
+            }
+        } catch (EOFException e) {
+            truncated = true;
+            return null;
+        }
+    }
+
+    /**
+     * Check whether the last record of the recording was cut short.
+     *
+     * @return true if the recording ended within a record
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void readResource() throws IOException {
+        int id = readVarInt();
+        String schemaUrl = readString();
+        Attributes attributes = readAttributes();
+        setAt(resources, id, Resource.create(attributes, schemaUrl.isEmpty() ? null : schemaUrl));
+    }
+
+    private void readScope() throws IOException {
+        int id = readVarInt();
+        String name = readString();
+        String version = readString();
+        String schemaUrl = readString();
+        InstrumentationScopeInfo scope = InstrumentationScopeInfo.builder(name)
+                .setVersion(version.isEmpty() ? null : version)
+                .setSchemaUrl(schemaUrl.isEmpty() ? null : schemaUrl)
+                .build();
+        setAt(scopes, id, scope);
+    }
+
+    private SpanData readSpan() throws IOException {
+        Resource resource = getAt(resources, readVarInt(), "resource");
+        InstrumentationScopeInfo scope = getAt(scopes, readVarInt(), "scope");
+        String traceId = readHex(16);
+        String spanId = readHex(8);
+        TraceFlags traceFlags = TraceFlags.fromByte(in.readByte());
+        TraceState traceState = readTraceState();
+        SpanContext spanContext = SpanContext.create(traceId, spanId, traceFlags, traceState);
+        SpanContext parentSpanContext = SpanContext.getInvalid();
+        if (in.readBoolean()) {
+            String parentSpanId = readHex(8);
+            parentSpanContext = in.readBoolean()
+                    ? SpanContext.createFromRemoteParent(traceId, parentSpanId, traceFlags, traceState)
+                    : SpanContext.create(traceId, parentSpanId, traceFlags, traceState);
+        }
+        String name = readString();
+        SpanKind kind = KINDS[in.readUnsignedByte()];
+        long endEpochNanos = previousEndEpochNanos + unzigzag(readVarLong());
+        long startEpochNanos = endEpochNanos - unzigzag(readVarLong());
+        previousEndEpochNanos = endEpochNanos;
+        StatusCode statusCode = STATUS_CODES[in.readUnsignedByte()];
+        StatusData status = StatusData.create(statusCode, readString());
+        Attributes attributes = readAttributes();
+        int totalAttributeCount = readVarInt();
+
+        int eventCount = readVarInt();
+        List<EventData> events = eventCount == 0 ? Collections.emptyList() : new ArrayList<>(eventCount);
+        for (int i = 0; i < eventCount; i++) {
+            String eventName = readString();
+            long epochNanos = startEpochNanos + unzigzag(readVarLong());
+            Attributes eventAttributes = readAttributes();
+            events.add(EventData.create(epochNanos, eventName, eventAttributes, readVarInt()));
+        }
+        int totalRecordedEvents = readVarInt();
+
+        int linkCount = readVarInt();
+        List<LinkData> links = linkCount == 0 ? Collections.emptyList() : new ArrayList<>(linkCount);
+        for (int i = 0; i < linkCount; i++) {
+            String linkedTraceId = readHex(16);
+            String linkedSpanId = readHex(8);
+            TraceFlags linkedFlags = TraceFlags.fromByte(in.readByte());
+            SpanContext linked = SpanContext.create(linkedTraceId, linkedSpanId, linkedFlags, readTraceState());
+            Attributes linkAttributes = readAttributes();
+            links.add(LinkData.create(linked, linkAttributes, readVarInt()));
+        }
+        int totalRecordedLinks = readVarInt();
+
+        return new RecordedSpanData(name, kind, spanContext, parentSpanContext, status, startEpochNanos,
+                endEpochNanos, attributes, totalAttributeCount, events, totalRecordedEvents, links,
+                totalRecordedLinks, scope, resource);
+    }
+
+    private TraceState readTraceState() throws IOException {
+        int size = readVarInt();
+        if (size == 0) {
+            return TraceState.getDefault();
+        }
+        TraceStateBuilder builder = TraceState.builder();
+        for (int i = 0; i < size; i++) {
+            builder.put(readString(), readString());
+        }
+        return builder.build();
+    }
+
+    private Attributes readAttributes() throws IOException {
+        int size = readVarInt();
+        if (size == 0) {
+            return Attributes.empty();
+        }
+        AttributesBuilder builder = Attributes.builder();
+        for (int i = 0; i < size; i++) {
+            String key = readString();
+            int type = in.readUnsignedByte();
+            switch (type) {
+                case SpanRecordFormat.STRING:
+                    builder.put(key, readString());
+                    break;
+                case SpanRecordFormat.BOOLEAN:
+                    builder.put(key, in.readBoolean());
+                    break;
+                case SpanRecordFormat.LONG:
+                    builder.put(key, unzigzag(readVarLong()));
+                    break;
+                case SpanRecordFormat.DOUBLE:
+                    builder.put(key, in.readDouble());
+                    break;
+                case SpanRecordFormat.STRING_ARRAY: {
+                    List<String> values = new ArrayList<>();
+                    for (int j = readVarInt(); j > 0; j--) {
+                        values.add(readString());
+                    }
+                    builder.put(AttributeKey.stringArrayKey(key), values);
+                    break;
+                }
+                case SpanRecordFormat.BOOLEAN_ARRAY: {
+                    List<Boolean> values = new ArrayList<>();
+                    for (int j = readVarInt(); j > 0; j--) {
+                        values.add(in.readBoolean());
+                    }
+                    builder.put(AttributeKey.booleanArrayKey(key), values);
+                    break;
+                }
+                case SpanRecordFormat.LONG_ARRAY: {
+                    List<Long> values = new ArrayList<>();
+                    for (int j = readVarInt(); j > 0; j--) {
+                        values.add(unzigzag(readVarLong()));
+                    }
+                    builder.put(AttributeKey.longArrayKey(key), values);
+                    break;
+                }
+                case SpanRecordFormat.DOUBLE_ARRAY: {
+                    List<Double> values = new ArrayList<>();
+                    for (int j = readVarInt(); j > 0; j--) {
+                        values.add(in.readDouble());
+                    }
+                    builder.put(AttributeKey.doubleArrayKey(key), values);
+                    break;
+                }
+                default:
+                    throw new IOException("unknown span recording attribute type " + type);
+            }
+        }
+        return builder.build();
+    }
+
+    private String readString() throws IOException {
+        int id = readVarInt();
+        if (id != SpanRecordFormat.NEW_STRING) {
+            return getAt(strings, id - 1, "string");
+        }
+        byte[] bytes = new byte[readVarInt()];
+        in.readFully(bytes);
+        String string = new String(bytes, StandardCharsets.UTF_8);
+        if (strings.size() < SpanRecordFormat.MAX_STRINGS) {
+            strings.add(string);
+        }
+        return string;
+    }
+
+    private String readHex(int length) throws IOException {
+        char[] chars = new char[length * 2];
+        for (int i = 0; i < length; i++) {
+            int value = in.readUnsignedByte();
+            chars[i * 2] = HEX[value >>> 4];
+            chars[i * 2 + 1] = HEX[value & 0xF];
+        }
+        return new String(chars);
+    }
+
+    private int readVarInt() throws IOException {
+        long value = readVarLong();
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IOException("invalid span recording length " + value);
+        }
+        return (int) value;
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("invalid span recording integer");
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static <T> void setAt(List<T> list, int id, T value) throws IOException {
+        if (id != list.size()) {
+            throw new IOException("unexpected span recording ID " + id);
+        }
+        list.add(value);
+    }
+
+    private static <T> T getAt(List<T> list, int id, String kind) throws IOException {
+        if (id < 0 || id >= list.size()) {
+            throw new IOException("unknown span recording " + kind + " " + id);
+        }
+        return list.get(id);
+    }
+
+    /**
+     * A span read from a recording.
+     */
+    private static final class RecordedSpanData implements SpanData {
+        private final String name;
+        private final SpanKind kind;
+        private final SpanContext spanContext;
+        private final SpanContext parentSpanContext;
+        private final StatusData status;
+        private final long startEpochNanos;
+        private final long endEpochNanos;
+        private final Attributes attributes;
+        private final int totalAttributeCount;
+        private final List<EventData> events;
+        private final int totalRecordedEvents;
+        private final List<LinkData> links;
+        private final int totalRecordedLinks;
+        private final InstrumentationScopeInfo scope;
+        private final Resource resource;
+
+        private RecordedSpanData(String name, SpanKind kind, SpanContext spanContext, SpanContext parentSpanContext,
+                                 StatusData status, long startEpochNanos, long endEpochNanos, Attributes attributes,
+                                 int totalAttributeCount, List<EventData> events, int totalRecordedEvents,
+                                 List<LinkData> links, int totalRecordedLinks, InstrumentationScopeInfo scope,
+                                 Resource resource) {
+            this.name = name;
+            this.kind = kind;
+            this.spanContext = spanContext;
+            this.parentSpanContext = parentSpanContext;
+            this.status = status;
+            this.startEpochNanos = startEpochNanos;
+            this.endEpochNanos = endEpochNanos;
+            this.attributes = attributes;
+            this.totalAttributeCount = totalAttributeCount;
+            this.events = events;
+            this.totalRecordedEvents = totalRecordedEvents;
+            this.links = links;
+            this.totalRecordedLinks = totalRecordedLinks;
+            this.scope = scope;
+            this.resource = resource;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public SpanKind getKind() {
+            return kind;
+        }
+
+        @Override
+        public SpanContext getSpanContext() {
+            return spanContext;
+        }
+
+        @Override
+        public SpanContext getParentSpanContext() {
+            return parentSpanContext;
+        }
+
+        @Override
+        public StatusData getStatus() {
+            return status;
+        }
+
+        @Override
+        public long getStartEpochNanos() {
+            return startEpochNanos;
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public List<EventData> getEvents() {
+            return events;
+        }
+
+        @Override
+        public List<LinkData> getLinks() {
+            return links;
+        }
+
+        @Override
+        public long getEndEpochNanos() {
+            return endEpochNanos;
+        }
+
+        @Override
+        public boolean hasEnded() {
+            return true;
+        }
+
+        @Override
+        public int getTotalRecordedEvents() {
+            return totalRecordedEvents;
+        }
+
+        @Override
+        public int getTotalRecordedLinks() {
+            return totalRecordedLinks;
+        }
+
+        @Override
+        public int getTotalAttributeCount() {
+            return totalAttributeCount;
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public InstrumentationLibraryInfo getInstrumentationLibraryInfo() {
+            return InstrumentationLibraryInfo.create(scope.getName(), scope.getVersion(), scope.getSchemaUrl());
+        }
+
+        @Override
+        public InstrumentationScopeInfo getInstrumentationScopeInfo() {
+            return scope;
+        }
+
+        @Override
+        public Resource getResource() {
+            return resource;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.recording;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writer of span recordings in the format described by {@link SpanRecordFormat}.
+ * <p>
+ * The writer is not thread safe.
+ */
+public final class SpanRecordWriter implements Closeable {
+    private final DataOutputStream out;
+    private final Map<String, Integer> strings = new HashMap<>();
+    private final Map<Resource, Integer> resources = new HashMap<>();
+    private final Map<InstrumentationScopeInfo, Integer> scopes = new HashMap<>();
+    private long previousEndEpochNanos;
+
+    /**
+     * Create a writer which writes the header of a recording to the stream.
+     *
+     * @param out the stream, which the writer buffers
+     * @throws IOException if the header cannot be written
+     */
+    public SpanRecordWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.out.write(SpanRecordFormat.MAGIC);
+        this.out.writeByte(SpanRecordFormat.VERSION);
+    }
+
+    /**
+     * Write a span, and the resource and the instrumentation scope of the span if they were not written before.
+     *
+     * @param span the ended span
+     * @throws IOException if the span cannot be written
+     */
+    public void write(SpanData span) throws IOException {
+        int resourceId = writeResource(span.getResource());
+        int scopeId = writeScope(span.getInstrumentationScopeInfo());
+        out.writeByte(SpanRecordFormat.SPAN);
+        writeVarInt(resourceId);
+        writeVarInt(scopeId);
+        SpanContext spanContext = span.getSpanContext();
+        writeHex(spanContext.getTraceId());
+        writeHex(spanContext.getSpanId());
+        out.writeByte(spanContext.getTraceFlags().asByte());
+        writeTraceState(spanContext.getTraceState());
+        SpanContext parent = span.getParentSpanContext();
+        out.writeBoolean(parent.isValid());
+        if (parent.isValid()) {
+            writeHex(parent.getSpanId());
+            out.writeBoolean(parent.isRemote());
+        }
+        writeString(span.getName());
+        out.writeByte(span.getKind().ordinal());
+        long endEpochNanos = span.getEndEpochNanos();
+        writeVarLong(zigzag(endEpochNanos - previousEndEpochNanos));
+        writeVarLong(zigzag(endEpochNanos - span.getStartEpochNanos()));
+        previousEndEpochNanos = endEpochNanos;
+        out.writeByte(span.getStatus().getStatusCode().ordinal());
+        writeString(span.getStatus().getDescription());
+        writeAttributes(span.getAttributes());
+        writeVarInt(span.getTotalAttributeCount());
+
+        List<EventData> events = span.getEvents();
+        writeVarInt(events.size());
+        for (EventData event : events) {
+            writeString(event.getName());
+            writeVarLong(zigzag(event.getEpochNanos() - span.getStartEpochNanos()));
+            writeAttributes(event.getAttributes());
+            writeVarInt(event.getTotalAttributeCount());
+        }
+        writeVarInt(span.getTotalRecordedEvents());
+
+        List<LinkData> links = span.getLinks();
+        writeVarInt(links.size());
+        for (LinkData link : links) {
+            SpanContext linked = link.getSpanContext();
+            writeHex(linked.getTraceId());
+            writeHex(linked.getSpanId());
+            out.writeByte(linked.getTraceFlags().asByte());
+            writeTraceState(linked.getTraceState());
+            writeAttributes(link.getAttributes());
+            writeVarInt(link.getTotalAttributeCount());
+        }
+        writeVarInt(span.getTotalRecordedLinks());
+    }
+
+    /**
+     * Write the buffered records to the stream.
+     *
+     * @throws IOException if the records cannot be written
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private int writeResource(Resource resource) throws IOException {
+        Integer id = resources.get(resource);
+        if (id != null) {
+            return id;
+        }
+        id = resources.size();
+        resources.put(resource, id);
+        out.writeByte(SpanRecordFormat.RESOURCE);
+        writeVarInt(id);
+        writeString(resource.getSchemaUrl());
+        writeAttributes(resource.getAttributes());
+        return id;
+    }
+
+    private int writeScope(InstrumentationScopeInfo scope) throws IOException {
+        Integer id = scopes.get(scope);
+        if (id != null) {
+            return id;
+        }
+        id = scopes.size();
+        scopes.put(scope, id);
+        out.writeByte(SpanRecordFormat.SCOPE);
+        writeVarInt(id);
+        writeString(scope.getName());
+        writeString(scope.getVersion());
+        writeString(scope.getSchemaUrl());
+        return id;
+    }
+
+    private void writeTraceState(TraceState traceState) throws IOException {
+        writeVarInt(traceState.size());
+        for (Map.Entry<String, String> entry : traceState.asMap().entrySet()) {
+            writeString(entry.getKey());
+            writeString(entry.getValue());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeAttributes(Attributes attributes) throws IOException {
+        writeVarInt(attributes.size());
+        for (Map.Entry<AttributeKey<?>, Object> entry : attributes.asMap().entrySet()) {
+            AttributeKey<?> key = entry.getKey();
+            Object value = entry.getValue();
+            writeString(key.getKey());
+            switch (key.getType()) {
+                case STRING:
+                    out.writeByte(SpanRecordFormat.STRING);
+                    writeString((String) value);
+                    break;
+                case BOOLEAN:
+                    out.writeByte(SpanRecordFormat.BOOLEAN);
+                    out.writeBoolean((Boolean) value);
+                    break;
+                case LONG:
+                    out.writeByte(SpanRecordFormat.LONG);
+                    writeVarLong(zigzag((Long) value));
+                    break;
+                case DOUBLE:
+                    out.writeByte(SpanRecordFormat.DOUBLE);
+                    out.writeDouble((Double) value);
+                    break;
+                case STRING_ARRAY:
+                    out.writeByte(SpanRecordFormat.STRING_ARRAY);
+                    writeVarInt(((List<String>) value).size());
+                    for (String element : (List<String>) value) {
+                        writeString(element);
+                    }
+                    break;
+                case BOOLEAN_ARRAY:
+                    out.writeByte(SpanRecordFormat.BOOLEAN_ARRAY);
+                    writeVarInt(((List<Boolean>) value).size());
+                    for (Boolean element : (List<Boolean>) value) {
+                        out.writeBoolean(element);
+                    }
+                    break;
+                case LONG_ARRAY:
+                    out.writeByte(SpanRecordFormat.LONG_ARRAY);
+                    writeVarInt(((List<Long>) value).size());
+                    for (Long element : (List<Long>) value) {
+                        writeVarLong(zigzag(element));
+                    }
+                    break;
+                case DOUBLE_ARRAY:
+                    out.writeByte(SpanRecordFormat.DOUBLE_ARRAY);
+                    writeVarInt(((List<Double>) value).size());
+                    for (Double element : (List<Double>) value) {
+                        out.writeDouble(element);
+                    }
+                    break;
+                default:
+                    throw new IOException("unsupported attribute type " + key.getType());
+            }
+        }
+    }
+
+    /**
+     * Write a reference to a string, and the string itself if it has no ID yet. A null string is written as empty.
+     */
+    private void writeString(String value) throws IOException {
+        String string = value != null ? value : "";
+        Integer id = strings.get(string);
+        if (id != null) {
+            writeVarInt(id);
+            return;
+        }
+        if (strings.size() < SpanRecordFormat.MAX_STRINGS) {
+            strings.put(string, strings.size() + 1);
+        }
+        writeVarInt(SpanRecordFormat.NEW_STRING);
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Write an ID given as lowercase hexadecimal characters as raw bytes.
+     */
+    private void writeHex(String hex) throws IOException {
+        for (int i = 0; i < hex.length(); i += 2) {
+            out.writeByte(Character.digit(hex.charAt(i), 16) << 4 | Character.digit(hex.charAt(i + 1), 16));
+        }
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            out.writeByte((int) (remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte((int) remaining);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.recording;
+
+import io.ballerina.observe.trace.amp.processor.SpanStage;
+import io.opentelemetry.sdk.trace.data.SpanData;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Stage which records the spans which pass through it to a file, in the format described by
+ * {@link SpanRecordFormat}, and passes all spans on.
+ * <p>
+ * Placed after the other stages, it records the spans as they are queued for export, so that the recording can be
+ * replayed through the export pipeline to measure it with the spans of a real program. The spans are written by a
+ * background thread, and the spans which arrive while {@value #MAX_PENDING_SPANS} spans wait to be written are not
+ * recorded, so that recording does not hold up the program.
+ */
+public final class SpanRecorder implements SpanStage, AutoCloseable {
+    static final int MAX_PENDING_SPANS = 8192;
+    private static final int WRITE_BATCH_SIZE = 512;
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+    private static final String RECORDER_THREAD_NAME = "amp-span-recorder";
+    private static final PrintStream console = System.out;
+
+    private final Path file;
+    private final SpanRecordWriter writer;
+    private final BlockingQueue<SpanData> pending = new ArrayBlockingQueue<>(MAX_PENDING_SPANS);
+    private final LongAdder recordedSpans = new LongAdder();
+    private final LongAdder droppedSpans = new LongAdder();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * Create a recorder which writes to a file, replacing the file if it exists.
+     *
+     * @param file the file of the recording
+     * @throws IOException if the file cannot be created
+     */
+    public SpanRecorder(Path file) throws IOException {
+        this.file = file;
+        this.writer = new SpanRecordWriter(Files.newOutputStream(file));
+        this.thread = new Thread(this::run, RECORDER_THREAD_NAME);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public void onEnd(SpanData span, Consumer<SpanData> next) {
+        if (closed || !pending.offer(span)) {
+            droppedSpans.increment();
+        }
+        next.accept(span);
+    }
+
+    private void run() {
+        List<SpanData> batch = new ArrayList<>(WRITE_BATCH_SIZE);
+        try {
+            while (!closed || !pending.isEmpty()) {
+                SpanData span = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (span == null) {
+                    continue;
+                }
+                batch.add(span);
+                pending.drainTo(batch, WRITE_BATCH_SIZE - 1);
+                for (SpanData recorded : batch) {
+                    writer.write(recorded);
+                }
+                recordedSpans.add(batch.size());
+                batch.clear();
+                if (pending.isEmpty()) {
+                    writer.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            closed = true;
+            console.println("ballerina: Amp span recording to " + file + " failed: " + e.getMessage());
+        } finally {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                console.println("ballerina: Amp span recording to " + file + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Write the spans which wait to be written and close the file.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(CLOSE_TIMEOUT_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Get the number of spans written to the file.
+     *
+     * @return the number of recorded spans
+     */
+    public long getRecordedSpans() {
+        return recordedSpans.sum();
+    }
+
+    /**
+     * Get the number of spans which were not recorded since too many spans waited to be written.
+     *
+     * @return the number of dropped spans
+     */
+    public long getDroppedSpans() {
+        return droppedSpans.sum();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.sampler;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+import static io.opentelemetry.api.common.AttributeKey.doubleKey;
+
+/**
+ * The adjusted count of a sampled span, which is the number of spans that it stands for, so that the backend can
+ * extrapolate the number of requests from the sampled spans.
+ * <p>
+ * Each sampler records the inverse of the probability with which it kept the span, and a sampler decorator which
+ * drops more spans multiplies the adjusted count of its delegate.
+ */
+public final class AdjustedCount {
+    public static final AttributeKey<Double> KEY = doubleKey("sampler.adjusted_count");
+
+    // The latest result and its adjusted copy, since the same few results are returned for most spans
+    private volatile Entry latest;
+
+    /**
+     * Get the adjusted count of a sampling result.
+     *
+     * @param result the sampling result
+     * @return the adjusted count, which is 1 when the sampler did not record it
+     */
+    public static double of(SamplingResult result) {
+        Double count = result.getAttributes().get(KEY);
+        return count != null ? count : 1.0;
+    }
+
+    /**
+     * Get a sampling result which is the given one with the adjusted count set, which is reused while the same
+     * result is adjusted to the same count.
+     *
+     * @param result the sampling result
+     * @param count  the adjusted count
+     * @return the adjusted sampling result
+     */
+    SamplingResult adjust(SamplingResult result, double count) {
+        Entry entry = latest;
+        if (entry == null || entry.result != result || entry.count != count) {
+            entry = new Entry(result, count, new AdjustedResult(result,
+                    result.getAttributes().toBuilder().put(KEY, count).build()));
+            latest = entry;
+        }
+        return entry.adjusted;
+    }
+
+    private static final class Entry {
+        private final SamplingResult result;
+        private final double count;
+        private final SamplingResult adjusted;
+
+        private Entry(SamplingResult result, double count, SamplingResult adjusted) {
+            this.result = result;
+            this.count = count;
+            this.adjusted = adjusted;
+        }
+    }
+
+    /**
+     * Result with the decision and trace state of another result, and other attributes.
+     */
+    private static final class AdjustedResult implements SamplingResult {
+        private final SamplingResult result;
+        private final Attributes attributes;
+
+        private AdjustedResult(SamplingResult result, Attributes attributes) {
+            this.result = result;
+            this.attributes = attributes;
+        }
+
+        @Override
+        public SamplingDecision getDecision() {
+            return result.getDecision();
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public TraceState getUpdatedTraceState(TraceState parentTraceState) {
+            return result.getUpdatedTraceState(parentTraceState);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.sampler;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static io.opentelemetry.api.common.AttributeKey.doubleKey;
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+
+/**
+ * Probability sampler which makes the same decision for a trace in every service, following the OpenTelemetry
+ * consistent probability sampling of the {@code ot} trace state entry.
+ * <p>
+ * The root span of a trace draws a random r-value, the number of leading zeros of a random 62 bit number, and
+ * propagates it in the trace state as {@code ot=r:<r>}. Each service samples a span when its p-value, where the
+ * sampling probability is 2<sup>-p</sup>, is at most the r-value, and records its p-value in the trace state of the
+ * sampled spans. Services which sample with the same probability therefore keep or drop the same traces, and a
+ * service with a higher probability keeps a superset of them. A probability which is not a power of two is met
+ * on average by choosing between the two nearest p-values for each trace, by the random bits at the end of its
+ * trace ID, so that all services which sample with the same probability choose the same p-value for a trace. The
+ * sampled spans carry 2<sup>p</sup> as their {@link AdjustedCount}.
+ * <p>
+ * A span with a local parent follows the decision of its parent, so that a trace is not broken within the
+ * program. A span whose remote parent does not carry an r-value, such as a span called from a service which does
+ * not sample consistently, follows the sampled flag of its parent as well.
+ */
+public class ConsistentProbabilitySampler implements Sampler {
+    public static final String TYPE = "consistent";
+    static final String OT_KEY = "ot";
+    static final int MAX_R = 62;
+    // P-value of a zero probability
+    static final int MAX_P = 63;
+    private static final AttributeKey<String> SAMPLER_TYPE = stringKey("sampler.type");
+    private static final AttributeKey<Double> SAMPLER_PARAM = doubleKey("sampler.param");
+    // The p-value is chosen by the last 56 bits of the trace ID, which are random for W3C trace IDs
+    private static final int RANDOM_BITS_OFFSET = 18;
+    private static final double RANDOM_BITS_BOUND = 0x1p56;
+
+    private final int lowerP;
+    private final int upperP;
+    // Bound of the random bits of the trace ID below which the lower p-value, of the higher probability, is chosen
+    private final long lowerPBound;
+    private final Attributes attributes;
+    // Attributes of the spans sampled with the lower and the upper p-value, with the adjusted count of each
+    private final Attributes lowerPAttributes;
+    private final Attributes upperPAttributes;
+    private final String description;
+
+    /**
+     * Creates a consistent probability sampler.
+     *
+     * @param samplingProbability the probability of sampling a trace, between 0 and 1
+     */
+    public ConsistentProbabilitySampler(double samplingProbability) {
+        if (!(samplingProbability >= 0.0 && samplingProbability <= 1.0)) {
+            throw new IllegalArgumentException("samplingProbability must be between 0 and 1.");
+        }
+        // The largest p-value with a sampling probability of at least the given one
+        int p = samplingProbability == 0.0 ? MAX_P : Math.min(MAX_P, -Math.getExponent(samplingProbability));
+        if (probability(p) < samplingProbability) {
+            p--;
+        }
+        lowerP = p;
+        upperP = Math.min(MAX_P, lowerP + 1);
+        double lowerProbability = probability(lowerP);
+        double upperProbability = probability(upperP);
+        double lowerPProbability = lowerP == upperP || lowerProbability == samplingProbability ? 1.0
+                : (samplingProbability - upperProbability) / (lowerProbability - upperProbability);
+        lowerPBound = lowerPProbability == 1.0 ? Long.MAX_VALUE : (long) (lowerPProbability * RANDOM_BITS_BOUND);
+        attributes = Attributes.of(SAMPLER_TYPE, TYPE, SAMPLER_PARAM, samplingProbability);
+        lowerPAttributes = attributes.toBuilder().put(AdjustedCount.KEY, 1.0 / lowerProbability).build();
+        upperPAttributes = attributes.toBuilder().put(AdjustedCount.KEY, 1.0 / upperProbability).build();
+        description = "ConsistentProbabilitySampler{" + samplingProbability + "}";
+    }
+
+    @Override
+    public SamplingResult shouldSample(
+            Context parentContext,
+            String traceId,
+            String name,
+            SpanKind spanKind,
+            Attributes attributes,
+            List<LinkData> parentLinks) {
+        SpanContext parent = Span.fromContext(parentContext).getSpanContext();
+        String otValue = parent.isValid() ? parent.getTraceState().get(OT_KEY) : null;
+        if (parent.isValid() && !parent.isRemote()) {
+            return followLocalParent(parent, otValue);
+        }
+        int r = otValue != null ? parseValue(otValue, 'r', MAX_R) : -1;
+        if (r < 0) {
+            if (parent.isValid()) {
+                // The trace is not sampled consistently upstream
+                return parent.isSampled() ? SamplingResult.recordAndSample() : SamplingResult.drop();
+            }
+            r = Long.numberOfLeadingZeros(ThreadLocalRandom.current().nextLong() | 3L);
+        }
+        int p = lowerPBound == Long.MAX_VALUE || Long.parseUnsignedLong(traceId, RANDOM_BITS_OFFSET,
+                traceId.length(), 16) < lowerPBound ? lowerP : upperP;
+        if (p > r) {
+            return new ConsistentSamplingResult(SamplingDecision.DROP, this.attributes, updateOtValue(otValue, -1, r));
+        }
+        return new ConsistentSamplingResult(SamplingDecision.RECORD_AND_SAMPLE,
+                p == lowerP ? lowerPAttributes : upperPAttributes, updateOtValue(otValue, p, r));
+    }
+
+    /**
+     * Keep the decision and the p-value of a parent in the same program.
+     */
+    private SamplingResult followLocalParent(SpanContext parent, String otValue) {
+        if (!parent.isSampled()) {
+            return SamplingResult.drop();
+        }
+        if (otValue == null) {
+            return SamplingResult.recordAndSample();
+        }
+        int p = parseValue(otValue, 'p', MAX_P);
+        Attributes sampledAttributes;
+        if (p == lowerP) {
+            sampledAttributes = lowerPAttributes;
+        } else if (p == upperP) {
+            sampledAttributes = upperPAttributes;
+        } else if (p >= 0 && p < MAX_P) {
+            // Sampled by the sampler of another tenant, with another probability
+            sampledAttributes = attributes.toBuilder().put(AdjustedCount.KEY, 1.0 / probability(p)).build();
+        } else {
+            sampledAttributes = attributes;
+        }
+        return new ConsistentSamplingResult(SamplingDecision.RECORD_AND_SAMPLE, sampledAttributes, otValue);
+    }
+
+    /**
+     * Get the value of a sub-key of the {@code ot} trace state entry.
+     *
+     * @param otValue the value of the entry
+     * @param key     the sub-key
+     * @param max     the largest valid value
+     * @return the value, or -1 when it is missing or invalid
+     */
+    static int parseValue(String otValue, char key, int max) {
+        int start = 0;
+        while (start < otValue.length()) {
+            int end = otValue.indexOf(';', start);
+            if (end < 0) {
+                end = otValue.length();
+            }
+            if (end - start > 2 && otValue.charAt(start) == key && otValue.charAt(start + 1) == ':') {
+                int value = 0;
+                for (int i = start + 2; i < end; i++) {
+                    char c = otValue.charAt(i);
+                    if (c < '0' || c > '9' || value > max) {
+                        return -1;
+                    }
+                    value = value * 10 + (c - '0');
+                }
+                return value <= max ? value : -1;
+            }
+            start = end + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Set the p-value and r-value of the {@code ot} trace state entry, keeping its other sub-keys.
+     *
+     * @param otValue the current value of the entry, or null
+     * @param p       the p-value, or -1 to remove it
+     * @param r       the r-value
+     * @return the new value of the entry
+     */
+    static String updateOtValue(String otValue, int p, int r) {
+        StringBuilder value = new StringBuilder();
+        if (p >= 0) {
+            value.append("p:").append(p).append(';');
+        }
+        value.append("r:").append(r);
+        if (otValue != null) {
+            int start = 0;
+            while (start < otValue.length()) {
+                int end = otValue.indexOf(';', start);
+                if (end < 0) {
+                    end = otValue.length();
+                }
+                if (!otValue.startsWith("p:", start) && !otValue.startsWith("r:", start) && end > start) {
+                    value.append(';').append(otValue, start, end);
+                }
+                start = end + 1;
+            }
+        }
+        return value.toString();
+    }
+
+    /**
+     * Remove the p-value of the {@code ot} trace state entry, keeping its other sub-keys.
+     *
+     * @param otValue the current value of the entry
+     * @return the new value of the entry, which is empty when the p-value was its only sub-key
+     */
+    static String removePValue(String otValue) {
+        StringBuilder value = new StringBuilder(otValue.length());
+        int start = 0;
+        while (start < otValue.length()) {
+            int end = otValue.indexOf(';', start);
+            if (end < 0) {
+                end = otValue.length();
+            }
+            if (!otValue.startsWith("p:", start) && end > start) {
+                if (value.length() > 0) {
+                    value.append(';');
+                }
+                value.append(otValue, start, end);
+            }
+            start = end + 1;
+        }
+        return value.toString();
+    }
+
+    private static double probability(int p) {
+        return p >= MAX_P ? 0.0 : Math.scalb(1.0, -p);
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String toString() {
+        return getDescription();
+    }
+
+    /**
+     * Sampling result which sets the {@code ot} entry of the trace state.
+     */
+    private static final class ConsistentSamplingResult implements SamplingResult {
+        private final SamplingDecision decision;
+        private final Attributes attributes;
+        private final String otValue;
+
+        private ConsistentSamplingResult(SamplingDecision decision, Attributes attributes, String otValue) {
+            this.decision = decision;
+            this.attributes = attributes;
+            this.otValue = otValue;
+        }
+
+        @Override
+        public SamplingDecision getDecision() {
+            return decision;
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public TraceState getUpdatedTraceState(TraceState parentTraceState) {
+            return parentTraceState.toBuilder().put(OT_KEY, otValue).build();
+        }
+    }
+}
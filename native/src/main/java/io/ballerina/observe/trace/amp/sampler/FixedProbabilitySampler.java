@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.sampler;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+import java.util.List;
+
+/**
+ * Sampler decorator which records the {@link AdjustedCount} of a delegate that samples with a fixed probability,
+ * such as the trace ID ratio based sampler.
+ */
+public class FixedProbabilitySampler implements Sampler {
+    private final Sampler delegate;
+    private final double adjustedCount;
+    private final AdjustedCount adjustedResults = new AdjustedCount();
+
+    /**
+     * Creates a fixed probability sampler.
+     *
+     * @param delegate            the sampler which makes the decision
+     * @param samplingProbability the probability with which the delegate samples a span, above 0
+     */
+    public FixedProbabilitySampler(Sampler delegate, double samplingProbability) {
+        if (!(samplingProbability > 0.0 && samplingProbability <= 1.0)) {
+            throw new IllegalArgumentException("samplingProbability must be above 0 and at most 1.");
+        }
+        this.delegate = delegate;
+        this.adjustedCount = 1.0 / samplingProbability;
+    }
+
+    @Override
+    public SamplingResult shouldSample(
+            Context parentContext,
+            String traceId,
+            String name,
+            SpanKind spanKind,
+            Attributes attributes,
+            List<LinkData> parentLinks) {
+        SamplingResult result = delegate.shouldSample(parentContext, traceId, name, spanKind, attributes,
+                parentLinks);
+        if (result.getDecision() != SamplingDecision.RECORD_AND_SAMPLE) {
+            return result;
+        }
+        return adjustedResults.adjust(result, adjustedCount);
+    }
+
+    @Override
+    public String getDescription() {
+        return delegate.getDescription();
+    }
+
+    @Override
+    public String toString() {
+        return getDescription();
+    }
+}
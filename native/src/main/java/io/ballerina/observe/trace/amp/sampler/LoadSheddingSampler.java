@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.sampler;
+
+import io.ballerina.observe.trace.amp.processor.SpanPipelinePressure;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.internal.OtelEncodingUtils;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.TraceStateBuilder;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+import java.util.List;
+
+/**
+ * Sampler decorator which sheds load when the span export pipeline is under pressure.
+ * <p>
+ * While the pipeline pressure stays below the low watermark, the decision of the delegate is returned as is.
+ * Above it, the probability of keeping a sampled span is lowered smoothly, down to a small floor when the
+ * pipeline is saturated, so that a few spans keep probing the exporter. The decision is derived from bits 32 to
+ * 63 of the trace ID, which keeps all spans of a trace together and does not correlate with the lower half used
+ * by the trace ID ratio based sampler. These bits are also random in time prefixed trace IDs.
+ * <p>
+ * The spans kept under pressure carry the {@link AdjustedCount} of the delegate divided by the keep probability.
+ * The spans which are shed keep the trace state of the delegate, such as the {@code ot} entry of the
+ * {@link ConsistentProbabilitySampler}, so that it still reaches the services called by the span. Only the p-value
+ * is removed from the entry, since a span which is not sampled has no sampling probability.
+ */
+public class LoadSheddingSampler implements Sampler {
+    static final double LOW_WATERMARK = 0.75;
+    static final double MIN_KEEP_PROBABILITY = 0.01;
+    private static final long RANDOMNESS_MASK = 0xFFFFFFFFL;
+    private static final double RANDOMNESS_BOUND = 0x1p32;
+    // Steps of the keep probability, so that the adjusted results can be reused while the pressure is stable
+    private static final double KEEP_PROBABILITY_STEPS = 1024;
+
+    private final Sampler delegate;
+    private final SpanPipelinePressure pressure;
+    private final AdjustedCount adjustedResults = new AdjustedCount();
+    private final String description;
+
+    /**
+     * Creates a load shedding sampler.
+     *
+     * @param delegate the sampler which makes the decision when the pipeline is not under pressure
+     * @param pressure the source of the export pipeline pressure
+     */
+    public LoadSheddingSampler(Sampler delegate, SpanPipelinePressure pressure) {
+        this.delegate = delegate;
+        this.pressure = pressure;
+        this.description = "LoadSheddingSampler{" + delegate.getDescription() + "}";
+    }
+
+    @Override
+    public SamplingResult shouldSample(
+            Context parentContext,
+            String traceId,
+            String name,
+            SpanKind spanKind,
+            Attributes attributes,
+            List<LinkData> parentLinks) {
+        SpanSamplingEvent event = null;
+        if (SpanSamplingEvent.isRecording()) {
+            event = new SpanSamplingEvent();
+            event.begin();
+        }
+        SamplingResult result = delegate.shouldSample(parentContext, traceId, name, spanKind, attributes,
+                parentLinks);
+        boolean delegateSampled = result.getDecision() == SamplingDecision.RECORD_AND_SAMPLE;
+        double keepProbability = delegateSampled ? keepProbability(pressure.getPressure()) : 1.0;
+        if (keepProbability < 1.0) {
+            long traceIdRandomness = OtelEncodingUtils.longFromBase16String(traceId, 0) & RANDOMNESS_MASK;
+            if (traceIdRandomness >= (long) (keepProbability * RANDOMNESS_BOUND)) {
+                result = new ShedResult(result);
+            } else {
+                result = adjustedResults.adjust(result, AdjustedCount.of(result) / keepProbability);
+            }
+        }
+        if (event != null && event.shouldCommit()) {
+            event.spanName = name;
+            event.spanKind = spanKind.name();
+            event.delegateSampled = delegateSampled;
+            event.sampled = result.getDecision() == SamplingDecision.RECORD_AND_SAMPLE;
+            event.keepProbability = keepProbability;
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Map the pipeline pressure to the probability of keeping a sampled span.
+     *
+     * @param pressure the pipeline pressure between 0 and 1
+     * @return the keep probability between {@link #MIN_KEEP_PROBABILITY} and 1
+     */
+    static double keepProbability(double pressure) {
+        if (pressure <= LOW_WATERMARK) {
+            return 1.0;
+        }
+        double x = Math.min(1.0, (pressure - LOW_WATERMARK) / (1.0 - LOW_WATERMARK));
+        double shed = x * x * (3 - 2 * x);  // smoothstep, so that the probability has no sudden jumps
+        return Math.ceil((1.0 - (1.0 - MIN_KEEP_PROBABILITY) * shed) * KEEP_PROBABILITY_STEPS)
+                / KEEP_PROBABILITY_STEPS;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Drop decision which keeps the trace state of the sampled result of the delegate, without its p-value.
+     */
+    private static final class ShedResult implements SamplingResult {
+        private final SamplingResult delegateResult;
+
+        private ShedResult(SamplingResult delegateResult) {
+            this.delegateResult = delegateResult;
+        }
+
+        @Override
+        public SamplingDecision getDecision() {
+            return SamplingDecision.DROP;
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            return Attributes.empty();
+        }
+
+        @Override
+        public TraceState getUpdatedTraceState(TraceState parentTraceState) {
+            TraceState traceState = delegateResult.getUpdatedTraceState(parentTraceState);
+            String otValue = traceState.get(ConsistentProbabilitySampler.OT_KEY);
+            if (otValue == null) {
+                return traceState;
+            }
+            String shedValue = ConsistentProbabilitySampler.removePValue(otValue);
+            if (shedValue.equals(otValue)) {
+                return traceState;
+            }
+            TraceStateBuilder builder = traceState.toBuilder();
+            return (shedValue.isEmpty() ? builder.remove(ConsistentProbabilitySampler.OT_KEY)
+                    : builder.put(ConsistentProbabilitySampler.OT_KEY, shedValue)).build();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getDescription();
+    }
+}
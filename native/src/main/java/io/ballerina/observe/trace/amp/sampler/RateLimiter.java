@@ -10,15 +10,17 @@ import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class is copied from https://github.com/open-telemetry/opentelemetry-java/blob/v1.0.0/sdk-extensions/
- * amp-remote-sampler/src/main/java/io/opentelemetry/sdk/extension/trace/amp/sampler/RateLimiter.java.
+ * amp-remote-sampler/src/main/java/io/opentelemetry/sdk/extension/trace/amp/sampler/RateLimiter.java, with
+ * {@link #reserveCredit(double)} and {@link #getBalance()} added for callers which wait for their credit, and
+ * {@link #checkCredit(double, long)} for callers which already read the clock.
  */
-class RateLimiter {
+public final class RateLimiter {
     private final Clock clock;
     private final double creditsPerNanosecond;
     private final long maxBalance; // max balance in nano ticks
     private final AtomicLong debit; // last op nano time less remaining balance
 
-    RateLimiter(double creditsPerSecond, double maxBalance, Clock clock) {
+    public RateLimiter(double creditsPerSecond, double maxBalance, Clock clock) {
         this.clock = clock;
         this.creditsPerNanosecond = creditsPerSecond / 1.0e9;
         this.maxBalance = (long) (maxBalance / creditsPerNanosecond);
@@ -26,13 +28,23 @@ class RateLimiter {
     }
 
     public boolean checkCredit(double itemCost) {
+        return checkCredit(itemCost, clock.nanoTime());
+    }
+
+    /**
+     * Take credit for an item if the balance at the given time covers it, for callers which read the clock anyway.
+     *
+     * @param itemCost the credit taken for the item
+     * @param nanoTime the current time of the clock of this rate limiter
+     * @return true if the balance covered the item
+     */
+    public boolean checkCredit(double itemCost, long nanoTime) {
         long cost = (long) (itemCost / creditsPerNanosecond);
-        long credit;
+        long credit = nanoTime;
         long currentDebit;
         long balance;
         do {
             currentDebit = debit.get();
-            credit = clock.nanoTime();
             balance = credit - currentDebit;
             if (balance > maxBalance) {
                 balance = maxBalance;
@@ -44,4 +56,37 @@ class RateLimiter {
         } while (!debit.compareAndSet(currentDebit, credit - balance));
         return true;
     }
+
+    /**
+     * Take credit for an item whether or not the balance covers it, so that the balance may become negative.
+     *
+     * @param itemCost the credit taken for the item
+     * @return the time in nanoseconds until the balance is no longer negative, which is 0 if it covered the item
+     */
+    public long reserveCredit(double itemCost) {
+        long cost = (long) (itemCost / creditsPerNanosecond);
+        long credit;
+        long currentDebit;
+        long balance;
+        do {
+            currentDebit = debit.get();
+            credit = clock.nanoTime();
+            balance = credit - currentDebit;
+            if (balance > maxBalance) {
+                balance = maxBalance;
+            }
+            balance -= cost;
+        } while (!debit.compareAndSet(currentDebit, credit - balance));
+        return balance < 0 ? -balance : 0;
+    }
+
+    /**
+     * Get the credit which is available now.
+     *
+     * @return the balance, which is negative while credit reserved ahead of time is paid back
+     */
+    public double getBalance() {
+        long balance = clock.nanoTime() - debit.get();
+        return Math.min(balance, maxBalance) * creditsPerNanosecond;
+    }
 }
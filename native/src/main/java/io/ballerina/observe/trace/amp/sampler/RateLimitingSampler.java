@@ -9,7 +9,6 @@ import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.trace.SpanKind;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.sdk.common.Clock;
-import io.opentelemetry.sdk.internal.RateLimiter;
 import io.opentelemetry.sdk.trace.data.LinkData;
 import io.opentelemetry.sdk.trace.samplers.Sampler;
 import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
@@ -18,6 +17,9 @@ import io.opentelemetry.sdk.trace.samplers.SamplingResult;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import static io.opentelemetry.api.common.AttributeKey.doubleKey;
 import static io.opentelemetry.api.common.AttributeKey.stringKey;
@@ -26,14 +28,23 @@ import static io.opentelemetry.api.common.AttributeKey.stringKey;
  * This class is copied from https://github.com/open-telemetry/opentelemetry-java/blob/v1.32.0/sdk-extensions/
  * amp-remote-sampler/src/main/java/io/opentelemetry/sdk/extension/trace/amp/sampler/RateLimitingSampler.java.
  * This sampler uses a leaky bucket rate limiter to ensure that traces are sampled with a certain constant rate.
+ * The sampled spans carry the ratio of the seen to the sampled traces of the previous second as their
+ * {@link AdjustedCount}.
  */
 public class RateLimitingSampler implements Sampler {
     public static final String TYPE = "ratelimiting";
     private static final AttributeKey<String> SAMPLER_TYPE = stringKey("sampler.type");
     private static final AttributeKey<Double> SAMPLER_PARAM = doubleKey("sampler.param");
 
+    private static final long ADJUSTED_COUNT_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
     private final RateLimiter rateLimiter;
-    private final SamplingResult onSamplingResult;
+    private final Clock clock;
+    private final double maxTracesPerSecond;
+    private final LongAdder seenTraces = new LongAdder();
+    private final LongAdder sampledTraces = new LongAdder();
+    private final AtomicLong windowStart;
+    private volatile SamplingResult onSamplingResult;
     private final SamplingResult offSamplingResult;
     private final String description;
 
@@ -43,11 +54,24 @@ public class RateLimitingSampler implements Sampler {
      * @param maxTracesPerSecond the maximum number of sampled traces per second.
      */
     public RateLimitingSampler(int maxTracesPerSecond) {
+        this(maxTracesPerSecond, Clock.getDefault());
+    }
+
+    /**
+     * Creates rate limiting sampler which reads the time from the given clock.
+     *
+     * @param maxTracesPerSecond the maximum number of sampled traces per second.
+     * @param clock              the clock of the rate limiter.
+     */
+    public RateLimitingSampler(int maxTracesPerSecond, Clock clock) {
         double maxBalance = maxTracesPerSecond < 1.0 ? 1.0 : maxTracesPerSecond;
-        this.rateLimiter = new RateLimiter(maxTracesPerSecond, maxBalance, Clock.getDefault());
+        this.rateLimiter = new RateLimiter(maxTracesPerSecond, maxBalance, clock);
+        this.clock = clock;
+        this.maxTracesPerSecond = maxTracesPerSecond;
+        this.windowStart = new AtomicLong(clock.nanoTime());
         Attributes attributes =
                 Attributes.of(SAMPLER_TYPE, TYPE, SAMPLER_PARAM, (double) maxTracesPerSecond);
-        this.onSamplingResult = SamplingResult.create(SamplingDecision.RECORD_AND_SAMPLE, attributes);
+        this.onSamplingResult = createOnSamplingResult(1.0);
         this.offSamplingResult = SamplingResult.create(SamplingDecision.DROP, attributes);
         description = "RateLimitingSampler{" + decimalFormat(maxTracesPerSecond) + "}";
     }
@@ -60,7 +84,27 @@ public class RateLimitingSampler implements Sampler {
             SpanKind spanKind,
             Attributes attributes,
             List<LinkData> parentLinks) {
-        return this.rateLimiter.trySpend(1.0) ? onSamplingResult : offSamplingResult;
+        // The clock is read once for both the credit and the adjusted count window
+        long now = clock.nanoTime();
+        boolean sampled = this.rateLimiter.checkCredit(1.0, now);
+        seenTraces.increment();
+        if (sampled) {
+            sampledTraces.increment();
+        }
+        long start = windowStart.get();
+        if (now - start >= ADJUSTED_COUNT_WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            long seen = seenTraces.sumThenReset();
+            long kept = sampledTraces.sumThenReset();
+            if (kept > 0) {
+                onSamplingResult = createOnSamplingResult((double) seen / kept);
+            }
+        }
+        return sampled ? onSamplingResult : offSamplingResult;
+    }
+
+    private SamplingResult createOnSamplingResult(double adjustedCount) {
+        return SamplingResult.create(SamplingDecision.RECORD_AND_SAMPLE, Attributes.of(SAMPLER_TYPE, TYPE,
+                SAMPLER_PARAM, maxTracesPerSecond, AdjustedCount.KEY, adjustedCount));
     }
 
     @Override
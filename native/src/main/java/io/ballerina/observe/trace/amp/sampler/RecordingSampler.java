@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.sampler;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+import java.util.List;
+
+/**
+ * Sampler decorator which records the spans that the delegate drops, without sampling them, so that span processors
+ * such as the flight recorder see every span while only the sampled spans are exported.
+ */
+public class RecordingSampler implements Sampler {
+    private final Sampler delegate;
+    private final String description;
+
+    /**
+     * Creates a recording sampler.
+     *
+     * @param delegate the sampler which decides which spans are sampled
+     */
+    public RecordingSampler(Sampler delegate) {
+        this.delegate = delegate;
+        this.description = "RecordingSampler{" + delegate.getDescription() + "}";
+    }
+
+    @Override
+    public SamplingResult shouldSample(
+            Context parentContext,
+            String traceId,
+            String name,
+            SpanKind spanKind,
+            Attributes attributes,
+            List<LinkData> parentLinks) {
+        SamplingResult result = delegate.shouldSample(parentContext, traceId, name, spanKind, attributes,
+                parentLinks);
+        if (result.getDecision() != SamplingDecision.DROP) {
+            return result;
+        }
+        return new RecordOnlyResult(result);
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String toString() {
+        return getDescription();
+    }
+
+    /**
+     * Result which records the span, with the attributes and trace state of the dropping result.
+     */
+    private static final class RecordOnlyResult implements SamplingResult {
+        private final SamplingResult dropResult;
+
+        private RecordOnlyResult(SamplingResult dropResult) {
+            this.dropResult = dropResult;
+        }
+
+        @Override
+        public SamplingDecision getDecision() {
+            return SamplingDecision.RECORD_ONLY;
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            return dropResult.getAttributes();
+        }
+
+        @Override
+        public TraceState getUpdatedTraceState(TraceState parentTraceState) {
+            return dropResult.getUpdatedTraceState(parentTraceState);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.sampler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a sampling decision of the {@link LoadSheddingSampler}.
+ * <p>
+ * The event is disabled by default, and can be enabled in a recording settings file. Callers create the event
+ * only when {@link #isRecording()}, so that nothing is allocated when it is disabled.
+ */
+@Name("ballerinax.amp.SpanSampling")
+@Label("Amp Span Sampling")
+@Category({"Ballerina", "Amp"})
+@Description("Sampling decision for a new span, and the load shedding applied to it")
+@Enabled(false)
+@StackTrace(false)
+final class SpanSamplingEvent extends Event {
+
+    @Label("Span Name")
+    String spanName;
+
+    @Label("Span Kind")
+    String spanKind;
+
+    @Label("Sampled by Delegate")
+    @Description("Whether the configured sampler sampled the span")
+    boolean delegateSampled;
+
+    @Label("Sampled")
+    @Description("Whether the span is sampled after load shedding")
+    boolean sampled;
+
+    @Label("Keep Probability")
+    @Description("Probability of keeping a span which the configured sampler sampled")
+    double keepProbability;
+
+    /**
+     * Check whether the event is enabled in a running recording.
+     *
+     * @return true if the event should be created
+     */
+    static boolean isRecording() {
+        return FlightRecorder.isInitialized() && EventTypeHolder.EVENT_TYPE.isEnabled();
+    }
+
+    /**
+     * Holder which registers the event type only once the flight recorder is in use.
+     */
+    private static final class EventTypeHolder {
+        private static final EventType EVENT_TYPE = EventType.getEventType(SpanSamplingEvent.class);
+    }
+}
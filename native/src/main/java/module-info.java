@@ -7,7 +7,9 @@ module io.ballerina.observe.trace.extension.amp {
     requires io.opentelemetry.extension.trace.propagation;
     requires io.opentelemetry.semconv;
     requires io.opentelemetry.exporter.otlp;
+    requires io.opentelemetry.exporter.otlp.internal;
     requires io.opentelemetry.exporter.otlp.http.trace;
+    requires jdk.jfr;
 
     provides io.ballerina.runtime.observability.tracer.spi.TracerProvider
             with io.ballerina.observe.trace.amp.AmpTracerProvider;
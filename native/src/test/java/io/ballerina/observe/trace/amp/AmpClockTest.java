@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import io.ballerina.observe.trace.amp.sampler.RateLimitingSampler;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.Clock;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link AmpClock}.
+ */
+public class AmpClockTest {
+
+    @Test
+    public void testFollowsSystemClock() throws InterruptedException {
+        try (AmpClock clock = AmpClock.create(1, TimeUnit.MILLISECONDS)) {
+            long previous = clock.nanoTime();
+            for (int i = 0; i < 20; i++) {
+                Thread.sleep(5);
+                long nanoTime = clock.nanoTime();
+                Assert.assertTrue(nanoTime >= previous, "clock went backwards");
+                previous = nanoTime;
+                // Allow for the resolution and for the ticker being scheduled late on a busy machine
+                long lag = System.nanoTime() - nanoTime;
+                Assert.assertTrue(lag >= 0 && lag < TimeUnit.MILLISECONDS.toNanos(50), "lag " + lag);
+                long epochError = Math.abs(Clock.getDefault().now() - clock.now());
+                Assert.assertTrue(epochError < TimeUnit.MILLISECONDS.toNanos(50), "epoch error " + epochError);
+            }
+        }
+    }
+
+    @Test
+    public void testReadsSystemClockWhenClosed() {
+        AmpClock clock = AmpClock.create(1, TimeUnit.HOURS);
+        long cached = clock.nanoTime();
+        clock.close();
+        Assert.assertTrue(clock.nanoTime() > cached);
+    }
+
+    @Test
+    public void testRateLimitingSamplerUsesClock() throws InterruptedException {
+        try (AmpClock clock = AmpClock.create(1, TimeUnit.MILLISECONDS)) {
+            RateLimitingSampler sampler = new RateLimitingSampler(1, clock);
+            Assert.assertEquals(shouldSample(sampler), SamplingDecision.RECORD_AND_SAMPLE);
+            Assert.assertEquals(shouldSample(sampler), SamplingDecision.DROP);
+            Thread.sleep(1100);
+            Assert.assertEquals(shouldSample(sampler), SamplingDecision.RECORD_AND_SAMPLE);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidResolution() {
+        AmpClock.create(0, TimeUnit.MILLISECONDS);
+    }
+
+    private static SamplingDecision shouldSample(RateLimitingSampler sampler) {
+        return sampler.shouldSample(Context.root(), "0af7651916cd43dd8448eb211c80319c", "span", SpanKind.INTERNAL,
+                Attributes.empty(), Collections.emptyList()).getDecision();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import io.ballerina.observe.trace.amp.exporter.UnixDomainSocketReceiver;
+import io.ballerina.observe.trace.amp.exporter.UnixDomainSocketSpanExporter;
+import io.ballerina.observe.trace.amp.processor.AmpBatchSpanProcessor;
+import io.ballerina.observe.trace.amp.sampler.LoadSheddingSampler;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for the flight recorder events of the span lifecycle.
+ */
+public class AmpFlightRecorderEventsTest {
+    private static final String SAMPLING_EVENT = "ballerinax.amp.SpanSampling";
+    private static final String ENQUEUE_EVENT = "ballerinax.amp.SpanEnqueue";
+    private static final String BATCH_EXPORT_EVENT = "ballerinax.amp.SpanBatchExport";
+    private static final String EXPORT_REQUEST_EVENT = "ballerinax.amp.ExportRequest";
+
+    private Path tempDir;
+    private UnixDomainSocketReceiver receiver;
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        tempDir = Files.createTempDirectory("amp-jfr");
+        receiver = new UnixDomainSocketReceiver(tempDir.resolve("otlp.sock"), false);
+        AmpBatchSpanProcessor processor = AmpBatchSpanProcessor.builder(
+                        UnixDomainSocketSpanExporter.builder(receiver.getEndpoint()).build())
+                .setMaxQueueSize(8)
+                .setPriorityQueueSize(8)
+                .setMaxExportBatchSize(4)
+                .build();
+        tracerProvider = SdkTracerProvider.builder()
+                .setSampler(new LoadSheddingSampler(Sampler.alwaysOn(), processor))
+                .addSpanProcessor(processor)
+                .build();
+        tracer = tracerProvider.get("test");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void cleanUp() throws IOException {
+        tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+        receiver.close();
+        Files.deleteIfExists(tempDir.resolve("otlp.sock"));
+        Files.deleteIfExists(tempDir);
+    }
+
+    @Test
+    public void testRecordsSpanLifecycle() throws IOException {
+        Path recordingFile = tempDir.resolve("amp.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(SAMPLING_EVENT);
+            recording.enable(ENQUEUE_EVENT);
+            recording.enable(BATCH_EXPORT_EVENT);
+            recording.enable(EXPORT_REQUEST_EVENT);
+            recording.start();
+            for (int i = 0; i < 100; i++) {
+                tracer.spanBuilder("get /orders").startSpan().end();
+            }
+            tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        Map<String, List<RecordedEvent>> events;
+        try {
+            events = RecordingFile.readAllEvents(recordingFile).stream()
+                    .collect(Collectors.groupingBy(event -> event.getEventType().getName(),
+                            Collectors.mapping(Function.identity(), Collectors.toList())));
+        } finally {
+            Files.deleteIfExists(recordingFile);
+        }
+
+        List<RecordedEvent> sampling = events.get(SAMPLING_EVENT);
+        Assert.assertEquals(sampling.size(), 100);
+        Assert.assertEquals(sampling.get(0).getString("spanName"), "get /orders");
+        Assert.assertTrue(sampling.get(0).getBoolean("sampled"));
+
+        List<RecordedEvent> enqueued = events.get(ENQUEUE_EVENT);
+        Assert.assertEquals(enqueued.size(), 100);
+        long dropped = enqueued.stream().filter(event -> event.getString("outcome").equals("dropped")).count();
+        Assert.assertTrue(dropped > 0, "the span queue of 8 spans did not overflow");
+
+        List<RecordedEvent> batches = events.get(BATCH_EXPORT_EVENT);
+        Assert.assertEquals(batches.stream().mapToInt(event -> event.getInt("spans")).sum(), 100 - dropped);
+        Assert.assertTrue(batches.stream().allMatch(event -> event.getBoolean("success")));
+
+        List<RecordedEvent> requests = events.get(EXPORT_REQUEST_EVENT);
+        Assert.assertEquals(requests.size(), batches.size());
+        Assert.assertTrue(requests.stream().allMatch(event -> event.getLong("requestSize") > 0));
+    }
+}
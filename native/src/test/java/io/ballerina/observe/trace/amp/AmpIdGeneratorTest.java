@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.api.trace.TraceId;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link AmpIdGenerator}.
+ */
+public class AmpIdGeneratorTest {
+
+    @Test
+    public void testIdsAreValid() {
+        for (AmpIdGenerator generator : new AmpIdGenerator[]{AmpIdGenerator.random(), AmpIdGenerator.timePrefixed()}) {
+            for (int i = 0; i < 10000; i++) {
+                String traceId = generator.generateTraceId();
+                String spanId = generator.generateSpanId();
+                Assert.assertTrue(TraceId.isValid(traceId), traceId);
+                Assert.assertTrue(SpanId.isValid(spanId), spanId);
+            }
+        }
+    }
+
+    @Test
+    public void testTimePrefix() {
+        long before = System.currentTimeMillis() / 1000;
+        String traceId = AmpIdGenerator.timePrefixed().generateTraceId();
+        long after = System.currentTimeMillis() / 1000;
+
+        long prefix = Long.parseLong(traceId.substring(0, 8), 16);
+        Assert.assertTrue(prefix >= before && prefix <= after, traceId);
+    }
+
+    @Test
+    public void testRandomIdsDoNotShareTimePrefix() {
+        Set<String> prefixes = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            prefixes.add(AmpIdGenerator.random().generateTraceId().substring(0, 8));
+        }
+        Assert.assertTrue(prefixes.size() > 90);
+    }
+
+    @Test
+    public void testIdsAreUniqueAcrossThreads() throws InterruptedException {
+        Set<String> traceIds = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int idsPerThread = 20000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < idsPerThread; i++) {
+                    traceIds.add(AmpIdGenerator.timePrefixed().generateTraceId());
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        Assert.assertEquals(traceIds.size(), threads * idsPerThread);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import io.ballerina.observe.trace.amp.exporter.UnixDomainSocketReceiver;
+import io.ballerina.observe.trace.amp.metrics.MetricSource;
+import io.ballerina.observe.trace.amp.processor.SpanFilter;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Tracer;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for the metrics of the span pipelines which {@link AmpTracerProvider} hands to the metric reporter.
+ */
+public class AmpPipelineMetricsTest {
+    private Path tempDir;
+    private UnixDomainSocketReceiver receiver;
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        tempDir = Files.createTempDirectory("amp-pipeline-metrics");
+        receiver = new UnixDomainSocketReceiver(tempDir.resolve("otlp.sock"), false);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void cleanUp() throws IOException {
+        AmpTracerProvider.shutdown();
+        receiver.close();
+        Files.deleteIfExists(tempDir.resolve("otlp.sock"));
+        Files.deleteIfExists(tempDir);
+    }
+
+    @Test
+    public void testRecordsDroppedSpansOfEachTenant() {
+        AmpTenant orders = AmpTenant.builder("orders").addService("orders").build();
+        AmpTracerProvider.initializeConfigurationsForInternal(receiver.getEndpoint(), "const", 1, 1000, 512, 256,
+                "", new String[]{"tracecontext"}, false, 0, "full", Collections.emptyList(), 0, false, 10, 1,
+                0, 0, 10, 0, "queue", "", List.of(orders), "", "", "", "", "", "");
+
+        Map<Attributes, Number> dropped = collect(AmpTracerProvider.DROPPED_SPANS_METRIC);
+        Assert.assertEquals(dropped.size(), 4);
+        for (String tenant : new String[]{"default", "orders"}) {
+            for (String lane : new String[]{"priority", "normal"}) {
+                Assert.assertEquals(dropped.get(Attributes.of(AmpTracerProvider.TENANT, tenant,
+                        AmpTracerProvider.QUEUE_LANE, lane)), 0L, tenant + " " + lane);
+            }
+        }
+    }
+
+    @Test
+    public void testRecordsThrottlingOfEachTenant() {
+        AmpTenant orders = AmpTenant.builder("orders").addService("orders").build();
+        AmpTracerProvider.initializeConfigurationsForInternal(receiver.getEndpoint(), "const", 1, 1000, 512, 256,
+                "", new String[]{"tracecontext"}, false, 0, "full", Collections.emptyList(), 0, false, 10, 1,
+                0, 0, 10, 1000000, "queue", "", List.of(orders), "", "", "", "", "", "");
+
+        for (String metric : new String[]{AmpTracerProvider.THROTTLED_TIME_METRIC,
+                AmpTracerProvider.THROTTLED_EXPORTS_METRIC, AmpTracerProvider.DOWNSAMPLED_SPANS_METRIC}) {
+            Map<Attributes, Number> values = collect(metric);
+            Assert.assertEquals(values.size(), 2, metric);
+            for (String tenant : new String[]{"default", "orders"}) {
+                Assert.assertEquals(values.get(Attributes.of(AmpTracerProvider.TENANT, tenant)), 0L,
+                        metric + " " + tenant);
+            }
+        }
+    }
+
+    @Test
+    public void testLeavesOutThrottlingWithoutByteRate() {
+        AmpTracerProvider.initializeConfigurationsForInternal(receiver.getEndpoint(), "const", 1, 1000, 512, 256,
+                "", new String[]{"tracecontext"}, false, 0, "full", Collections.emptyList(), 0, false, 10, 1,
+                0, 0, 10, 0, "queue", "", Collections.emptyList(), "", "", "", "", "", "");
+
+        Assert.assertTrue(collect(AmpTracerProvider.THROTTLED_TIME_METRIC).isEmpty());
+        Assert.assertTrue(collect(AmpTracerProvider.THROTTLED_EXPORTS_METRIC).isEmpty());
+    }
+
+    @Test
+    public void testRecordsFilteredSpans() {
+        SpanFilter health = SpanFilter.builder().setName("get /health").build();
+        AmpTracerProvider.initializeConfigurationsForInternal(receiver.getEndpoint(), "const", 1, 1000, 512, 256,
+                "", new String[]{"tracecontext"}, false, 0, "full", List.of(health), 0, false, 10, 1,
+                0, 0, 10, 0, "queue", "", Collections.emptyList(), "", "", "", "", "", "");
+        Tracer tracer = new AmpTracerProvider().getTracer("metrics-test");
+        for (int i = 0; i < 3; i++) {
+            tracer.spanBuilder("get /health").startSpan().end();
+        }
+        tracer.spanBuilder("get /sum").startSpan().end();
+
+        Assert.assertEquals(collect(AmpTracerProvider.FILTERED_SPANS_METRIC),
+                Collections.singletonMap(Attributes.empty(), 3L));
+    }
+
+    @Test
+    public void testLeavesOutFilteredSpansWithoutFilters() {
+        AmpTracerProvider.initializeConfigurationsForInternal(receiver.getEndpoint(), "const", 1, 1000, 512, 256,
+                "", new String[]{"tracecontext"}, false, 0, "full", Collections.emptyList(), 0, false, 10, 1,
+                0, 0, 10, 0, "queue", "", Collections.emptyList(), "", "", "", "", "", "");
+
+        Assert.assertTrue(collect(AmpTracerProvider.FILTERED_SPANS_METRIC).isEmpty());
+    }
+
+    @Test
+    public void testRecordsTemplatedSpanNames() {
+        AmpTracerProvider.initializeConfigurationsForInternal(receiver.getEndpoint(), "const", 1, 1000, 512, 256,
+                "", new String[]{"tracecontext"}, false, 0, "full", Collections.emptyList(), 2, false, 10, 1,
+                0, 0, 10, 0, "queue", "", Collections.emptyList(), "", "", "", "", "", "");
+        Tracer tracer = new AmpTracerProvider().getTracer("metrics-test");
+        for (int i = 1; i <= 4; i++) {
+            tracer.spanBuilder("get /orders/" + i).startSpan().end();
+        }
+
+        Assert.assertEquals(collect(AmpTracerProvider.DISTINCT_NAMES_METRIC),
+                Collections.singletonMap(Attributes.empty(), 2L));
+        Assert.assertEquals(collect(AmpTracerProvider.TEMPLATED_SPANS_METRIC),
+                Collections.singletonMap(Attributes.empty(), 2L));
+    }
+
+    @Test
+    public void testLeavesOutSpanNamesWithoutLimit() {
+        AmpTracerProvider.initializeConfigurationsForInternal(receiver.getEndpoint(), "const", 1, 1000, 512, 256,
+                "", new String[]{"tracecontext"}, false, 0, "full", Collections.emptyList(), 0, false, 10, 1,
+                0, 0, 10, 0, "queue", "", Collections.emptyList(), "", "", "", "", "", "");
+
+        Assert.assertTrue(collect(AmpTracerProvider.TEMPLATED_SPANS_METRIC).isEmpty());
+        Assert.assertTrue(collect(AmpTracerProvider.DISTINCT_NAMES_METRIC).isEmpty());
+    }
+
+    /**
+     * Get the values of the series of a metric, by their attributes.
+     */
+    static Map<Attributes, Number> collect(String name) {
+        Map<Attributes, Number> values = new HashMap<>();
+        AmpTracerProvider.collectMetrics(new MetricSource.Recorder() {
+            @Override
+            public void counter(String metric, String description, String unit, Attributes attributes,
+                                long value) {
+                if (metric.equals(name)) {
+                    values.put(attributes, value);
+                }
+            }
+
+            @Override
+            public void gauge(String metric, String description, String unit, Attributes attributes,
+                              double value) {
+                if (metric.equals(name)) {
+                    values.put(attributes, value);
+                }
+            }
+        });
+        return values;
+    }
+}
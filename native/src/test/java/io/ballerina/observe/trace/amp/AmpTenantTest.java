@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import io.ballerina.observe.trace.amp.exporter.UnixDomainSocketReceiver;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for reporting the spans of services to their {@link AmpTenant}.
+ */
+public class AmpTenantTest {
+    private Path tempDir;
+    private UnixDomainSocketReceiver receiver;
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        tempDir = Files.createTempDirectory("amp-tenant");
+        receiver = new UnixDomainSocketReceiver(tempDir.resolve("otlp.sock"), true);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void cleanUp() throws IOException {
+        AmpTracerProvider.shutdown();
+        receiver.close();
+        Files.deleteIfExists(tempDir.resolve("otlp.sock"));
+        Files.deleteIfExists(tempDir);
+    }
+
+    @Test
+    public void testServicesReportToTheirTenant() {
+        AmpTenant orders = AmpTenant.builder("orders")
+                .addService("orders")
+                .setApiKey("orders-key")
+                .setOrgUid("orders-org")
+                .setComponentUid("orders-component")
+                .setWeight(2)
+                .build();
+        AmpTracerProvider.initializeConfigurationsForInternal(receiver.getEndpoint(), "const", 1, 1000, 512, 256,
+                "", new String[]{"tracecontext"}, false, 0, "full", Collections.emptyList(), 0, false, 10, 1,
+                0, 0, 10, 0, "queue", "", List.of(orders), "default-key", "", "default-org", "",
+                "default-component", "");
+        AmpTracerProvider provider = new AmpTracerProvider();
+
+        provider.getTracer("orders").spanBuilder("get /orders").startSpan().end();
+        provider.getTracer("billing").spanBuilder("get /invoices").startSpan().end();
+        AmpTracerProvider.shutdown();
+
+        List<String> heads = receiver.getRequestHeads();
+        List<byte[]> bodies = receiver.getRequestBodies();
+        Assert.assertEquals(bodies.size(), 2);
+        for (int i = 0; i < bodies.size(); i++) {
+            String body = new String(bodies.get(i), StandardCharsets.ISO_8859_1);
+            if (heads.get(i).contains("Authorization: Bearer orders-key\r\n")) {
+                Assert.assertTrue(body.contains("get /orders") && body.contains("orders-component"), body);
+                Assert.assertFalse(body.contains("get /invoices") || body.contains("default-org"), body);
+            } else {
+                Assert.assertTrue(heads.get(i).contains("Authorization: Bearer default-key\r\n"), heads.get(i));
+                Assert.assertTrue(body.contains("get /invoices") && body.contains("default-component"), body);
+                Assert.assertFalse(body.contains("get /orders") || body.contains("orders-org"), body);
+            }
+        }
+    }
+
+    @Test
+    public void testHeldSpansStayWithTheirTenant() {
+        AmpTenant orders = AmpTenant.builder("orders").addService("orders").setApiKey("orders-key").build();
+        AmpTracerProvider.initializeConfigurationsForInternal(receiver.getEndpoint(), "const", 1, 1000, 512, 256,
+                "", new String[]{"tracecontext"}, false, 0, "remote", Collections.emptyList(), 0, false, 10, 1,
+                0, 0, 10, 0, "queue", "", List.of(orders), "default-key", "", "", "", "", "");
+        AmpTracerProvider provider = new AmpTracerProvider();
+        Tracer ordersTracer = provider.getTracer("orders");
+        Tracer billingTracer = provider.getTracer("billing");
+
+        // The internal spans may be dropped at the remote verbosity, so their remote calls are held back until they end
+        Span root = ordersTracer.spanBuilder("get /orders").setSpanKind(SpanKind.SERVER).startSpan();
+        Span released = ordersTracer.spanBuilder("orders:process").setParent(Context.root().with(root))
+                .startSpan();
+        Span flushed = ordersTracer.spanBuilder("orders:validate").setParent(Context.root().with(root))
+                .startSpan();
+        billingTracer.spanBuilder("billing:charge").setSpanKind(SpanKind.CLIENT)
+                .setParent(Context.root().with(released)).setAttribute("src.client.remote", "true")
+                .startSpan().end();
+        ordersTracer.spanBuilder("orders:check").setSpanKind(SpanKind.CLIENT)
+                .setParent(Context.root().with(flushed)).setAttribute("src.client.remote", "true")
+                .startSpan().end();
+        released.end();
+        root.end();
+        AmpTracerProvider.shutdown();
+
+        List<String> heads = receiver.getRequestHeads();
+        List<byte[]> bodies = receiver.getRequestBodies();
+        Assert.assertFalse(bodies.isEmpty());
+        for (int i = 0; i < bodies.size(); i++) {
+            String body = new String(bodies.get(i), StandardCharsets.ISO_8859_1);
+            if (heads.get(i).contains("Authorization: Bearer orders-key\r\n")) {
+                Assert.assertFalse(body.contains("billing:charge"), body);
+            } else {
+                Assert.assertFalse(body.contains("get /orders") || body.contains("orders:check"), body);
+            }
+        }
+        String all = bodies.stream().map(body -> new String(body, StandardCharsets.ISO_8859_1))
+                .reduce("", String::concat);
+        Assert.assertTrue(all.contains("billing:charge") && all.contains("orders:check"), all);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidWeight() {
+        AmpTenant.builder("orders").setWeight(0);
+    }
+}
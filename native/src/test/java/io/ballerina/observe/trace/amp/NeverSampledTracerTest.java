@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the no-op tracer of {@link AmpTracerProvider} when the configured sampler never samples.
+ */
+public class NeverSampledTracerTest {
+    private static final String TRACE_PARENT = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01";
+    private static final TextMapGetter<Map<String, String>> GETTER = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(Map<String, String> carrier) {
+            return carrier.keySet();
+        }
+
+        @Override
+        public String get(Map<String, String> carrier, String key) {
+            return carrier == null ? null : carrier.get(key);
+        }
+    };
+
+    @AfterMethod(alwaysRun = true)
+    public void cleanUp() {
+        AmpTracerProvider.shutdown();
+    }
+
+    @Test
+    public void testCanSample() {
+        Assert.assertFalse(AmpTracerProvider.canSample("const", 0));
+        Assert.assertTrue(AmpTracerProvider.canSample("const", 1));
+        Assert.assertFalse(AmpTracerProvider.canSample("probabilistic", 0));
+        Assert.assertTrue(AmpTracerProvider.canSample("probabilistic", 0.001));
+        Assert.assertFalse(AmpTracerProvider.canSample("consistent", 0));
+        Assert.assertFalse(AmpTracerProvider.canSample("ratelimiting", 0.5));
+        Assert.assertTrue(AmpTracerProvider.canSample("ratelimiting", 1));
+    }
+
+    @Test
+    public void testNoPipelineIsBuilt() {
+        initialize("const", 0, 0);
+        Assert.assertNull(AmpTracerProvider.defaultPipeline);
+        Assert.assertTrue(AmpTracerProvider.tenantPipelines.isEmpty());
+
+        Span span = new AmpTracerProvider().getTracer("orders").spanBuilder("get /orders").startSpan();
+        Assert.assertFalse(span.isRecording());
+        span.end();
+    }
+
+    @Test
+    public void testContextIsPropagated() {
+        initialize("probabilistic", 0, 0);
+        AmpTracerProvider provider = new AmpTracerProvider();
+        Tracer tracer = provider.getTracer("orders");
+        TextMapPropagator propagator = provider.getPropagators().getTextMapPropagator();
+
+        Context parent = propagator.extract(Context.root(), Collections.singletonMap("traceparent", TRACE_PARENT),
+                GETTER);
+        Span server = tracer.spanBuilder("get /orders").setSpanKind(SpanKind.SERVER).setParent(parent).startSpan();
+        Span client = tracer.spanBuilder("ballerina/http/Client:get")
+                .setSpanKind(SpanKind.CLIENT)
+                .setParent(parent.with(server))
+                .startSpan();
+        Map<String, String> outbound = new HashMap<>();
+        propagator.inject(parent.with(client), outbound, Map::put);
+        client.end();
+        server.end();
+
+        Assert.assertEquals(outbound.get("traceparent"), TRACE_PARENT);
+    }
+
+    @Test
+    public void testFlightRecorderKeepsPipeline() {
+        initialize("const", 0, 16);
+        Assert.assertNotNull(AmpTracerProvider.defaultPipeline);
+        Span span = new AmpTracerProvider().getTracer("orders").spanBuilder("get /orders").startSpan();
+        Assert.assertTrue(span.isRecording());
+        Assert.assertFalse(span.getSpanContext().isSampled());
+        span.end();
+    }
+
+    @Test
+    public void testReconfigurationStopsThreads() throws IOException, InterruptedException {
+        Path recordingFile = Files.createTempFile("amp-spans", ".rec");
+        try {
+            initializeWithThreads(recordingFile);
+            initializeWithThreads(recordingFile);
+            Assert.assertEquals(waitForThreads(3), 3, "threads of the previous configuration are still running");
+
+            // The no-op configuration stops the threads of the configuration which it replaces
+            initialize("const", 0, 0);
+            Assert.assertEquals(waitForThreads(0), 0, "threads of the previous configuration are still running");
+        } finally {
+            AmpTracerProvider.shutdown();
+            Files.deleteIfExists(recordingFile);
+        }
+    }
+
+    /**
+     * Configure a clock ticker, a slow span profiler and a span recorder, each with a thread of its own.
+     */
+    private static void initializeWithThreads(Path recordingFile) {
+        AmpTracerProvider.initializeConfigurationsForInternal("http://localhost:21893", "const", 1, 1000, 512, 256,
+                "", new String[]{"tracecontext"}, false, 1000, "full", Collections.emptyList(), 0, false, 10, 1, 0,
+                100, 10, 0, "queue", recordingFile.toString(), Collections.emptyList(), "", "orders", "", "", "",
+                "");
+    }
+
+    /**
+     * Wait until the clock ticker, slow span profiler and span recorder threads number the expected count.
+     */
+    private static int waitForThreads(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        int threads;
+        while ((threads = countThreads()) != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return threads;
+    }
+
+    private static int countThreads() {
+        int threads = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            String name = thread.getName();
+            if (thread.isAlive() && (name.equals("amp-clock-ticker") || name.equals("amp-slow-span-profiler")
+                    || name.equals("amp-span-recorder"))) {
+                threads++;
+            }
+        }
+        return threads;
+    }
+
+    private static void initialize(String samplerType, double samplerParam, int flightRecorderSize) {
+        AmpTracerProvider.initializeConfigurationsForInternal("http://localhost:21893", samplerType, samplerParam,
+                1000, 512, 256, "", new String[]{"tracecontext"}, false, 0, "full", Collections.emptyList(), 0,
+                false, 10, 1, flightRecorderSize, 0, 10, 0, "queue", "", Collections.emptyList(), "", "orders", "",
+                "", "", "");
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import io.ballerina.observe.trace.amp.exporter.UnixDomainSocketReceiver;
+import io.ballerina.observe.trace.amp.processor.SpanFlightRecorder;
+import io.ballerina.observe.trace.amp.processor.SpanPipelinePressure;
+import io.ballerina.observe.trace.amp.sampler.LoadSheddingSampler;
+import io.ballerina.observe.trace.amp.sampler.RateLimitingSampler;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.sdk.common.Clock;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Guards the number of bytes allocated on the calling thread for each traced operation.
+ * <p>
+ * Each case is run until it is compiled, and then the allocations of the calling thread are measured over a
+ * number of iterations with {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}. The median of
+ * several rounds is compared with the budget recorded in {@code allocation-budgets.properties}, allowing the
+ * relative tolerance of the {@code amp.allocation.tolerance} system property (10% by default), so that the test
+ * fails when a change adds allocations to the hot path. Allocations of the export worker thread are not counted.
+ * <p>
+ * The measurement depends on the state of the JVM, so the test is in the {@code allocation} group, which the
+ * {@code test} task excludes. Run it in a JVM of its own with the {@code allocationTest} task. When a change
+ * reduces allocations, lower the budget to the new measurement.
+ */
+@Test(groups = "allocation")
+public class SpanAllocationTest {
+    private static final String BUDGETS_RESOURCE = "/allocation-budgets.properties";
+    private static final String TOLERANCE_PROPERTY = "amp.allocation.tolerance";
+    private static final double DEFAULT_TOLERANCE = 0.1;
+    private static final int WARMUP_ITERATIONS = 100000;
+    private static final int MEASURED_ITERATIONS = 10000;
+    private static final int ROUNDS = 11;
+    private static final String TRACE_PARENT = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01";
+    private static final TextMapGetter<Map<String, String>> GETTER = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(Map<String, String> carrier) {
+            return carrier.keySet();
+        }
+
+        @Override
+        public String get(Map<String, String> carrier, String key) {
+            return carrier == null ? null : carrier.get(key);
+        }
+    };
+
+    private final Properties budgets = new Properties();
+    private com.sun.management.ThreadMXBean threadMXBean;
+    private Path tempDir;
+    private UnixDomainSocketReceiver receiver;
+
+    @BeforeClass
+    public void setup() throws IOException {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            throw new SkipException("thread allocation measurement is not supported by this JVM");
+        }
+        threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threadMXBean.isThreadAllocatedMemorySupported()) {
+            throw new SkipException("thread allocation measurement is not supported by this JVM");
+        }
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        try (InputStream in = SpanAllocationTest.class.getResourceAsStream(BUDGETS_RESOURCE)) {
+            Assert.assertNotNull(in, "allocation budgets not found");
+            budgets.load(in);
+        }
+        tempDir = Files.createTempDirectory("amp-allocation");
+        receiver = new UnixDomainSocketReceiver(tempDir.resolve("otlp.sock"), false);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void cleanUp() throws IOException {
+        AmpTracerProvider.shutdown();
+        if (receiver != null) {
+            receiver.close();
+            Files.deleteIfExists(tempDir);
+        }
+    }
+
+    @Test
+    public void testSampledSpan() {
+        Tracer tracer = createTracer("const", 1);
+        assertWithinBudget("span.sampled", () -> runSpanLifecycle(tracer, Context.root()));
+    }
+
+    @Test
+    public void testSampledSpanWithIdleProfiler() {
+        Tracer tracer = createTracer("const", 1, 60000);
+        assertWithinBudget("span.sampled.profiled", () -> runSpanLifecycle(tracer, Context.root()));
+    }
+
+    @Test
+    public void testUnsampledSpan() {
+        Tracer tracer = createTracer("const", 0);
+        assertWithinBudget("span.unsampled", () -> runSpanLifecycle(tracer, Context.root()));
+    }
+
+    @Test
+    public void testPropagatedContextSpan() {
+        Tracer tracer = createTracer("const", 1);
+        TextMapPropagator propagator = new AmpTracerProvider().getPropagators().getTextMapPropagator();
+        Map<String, String> inbound = Collections.singletonMap("traceparent", TRACE_PARENT);
+        Map<String, String> outbound = new HashMap<>();
+        assertWithinBudget("span.propagated", () -> {
+            Context parent = propagator.extract(Context.root(), inbound, GETTER);
+            Span span = runSpanLifecycle(tracer, parent);
+            propagator.inject(parent.with(span), outbound, Map::put);
+        });
+    }
+
+    @Test
+    public void testRateLimitingSampler() {
+        Sampler sampler = new RateLimitingSampler(Integer.MAX_VALUE);
+        assertWithinBudget("sampler.ratelimiting", () -> shouldSample(sampler));
+    }
+
+    @Test
+    public void testLoadSheddingSampler() {
+        SpanPipelinePressure pressure = () -> 0.9;
+        Sampler sampler = new LoadSheddingSampler(Sampler.alwaysOn(), pressure);
+        assertWithinBudget("sampler.loadshedding", () -> shouldSample(sampler));
+    }
+
+    @Test
+    public void testFlightRecorderWrite() {
+        SpanFlightRecorder recorder = new SpanFlightRecorder(1024, Clock.getDefault());
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder().build();
+        ReadableSpan span = (ReadableSpan) runSpanLifecycle(tracerProvider.get("allocation-test"), Context.root());
+        assertWithinBudget("flightrecorder.write", () -> recorder.onEnd(span));
+        tracerProvider.shutdown();
+    }
+
+    private Tracer createTracer(String samplerType, double samplerParam) {
+        return createTracer(samplerType, samplerParam, 0);
+    }
+
+    private Tracer createTracer(String samplerType, double samplerParam, int slowSpanThreshold) {
+        AmpTracerProvider.shutdown();
+        AmpTracerProvider.initializeConfigurationsForInternal(receiver.getEndpoint(), samplerType, samplerParam,
+                1000, 512, 256, "", new String[]{"tracecontext"}, false, 0, "full", Collections.emptyList(), 0,
+                false, 10, 1, 0, slowSpanThreshold, 10, 0, "queue", "", Collections.emptyList(), "",
+                "allocation-test", "", "", "", "");
+        return new AmpTracerProvider().getTracer("allocation-test");
+    }
+
+    /**
+     * Run a span through the same calls which the Ballerina runtime makes for an observed function.
+     */
+    private static Span runSpanLifecycle(Tracer tracer, Context parent) {
+        Span span = tracer.spanBuilder("get /sum")
+                .setSpanKind(SpanKind.SERVER)
+                .setParent(parent)
+                .startSpan();
+        span.setAttribute("src.module", "$anon/.:0.0.0");
+        span.setAttribute("src.position", "01_http_svc_test.bal:22:5");
+        span.setAttribute("http.method", "GET");
+        span.setAttribute("http.url", "/test/sum");
+        span.setAttribute("http.status_code", "200");
+        span.setStatus(StatusCode.OK);
+        span.end();
+        return span;
+    }
+
+    private static void shouldSample(Sampler sampler) {
+        sampler.shouldSample(Context.root(), "0af7651916cd43dd8448eb211c80319c", "get /sum", SpanKind.SERVER,
+                Attributes.empty(), Collections.emptyList());
+    }
+
+    private void assertWithinBudget(String key, Runnable operation) {
+        String budget = budgets.getProperty(key);
+        Assert.assertNotNull(budget, "no allocation budget recorded for " + key);
+        double tolerance = Double.parseDouble(System.getProperty(TOLERANCE_PROPERTY,
+                String.valueOf(DEFAULT_TOLERANCE)));
+        long limit = (long) (Long.parseLong(budget) * (1 + tolerance));
+        long bytesPerOperation = measure(operation);
+        Assert.assertTrue(bytesPerOperation <= limit, key + " allocates " + bytesPerOperation
+                + " bytes per operation, which exceeds the budget of " + budget + " bytes with a tolerance of "
+                + tolerance);
+    }
+
+    private long measure(Runnable operation) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            operation.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long[] rounds = new long[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = threadMXBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                operation.run();
+            }
+            rounds[round] = (threadMXBean.getThreadAllocatedBytes(threadId) - before) / MEASURED_ITERATIONS;
+        }
+        Arrays.sort(rounds);
+        return rounds[ROUNDS / 2];
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import io.ballerina.observe.trace.amp.processor.AmpBatchSpanProcessor;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+
+/**
+ * Tests for {@link VerbosityTracer}, {@link VerbosityStage} and {@link SpanVerbosity}.
+ */
+public class VerbosityTracerTest {
+    private CollectingExporter exporter;
+    private AmpBatchSpanProcessor spanProcessor;
+    private SdkTracerProvider tracerProvider;
+
+    @BeforeMethod
+    public void setup() {
+        exporter = new CollectingExporter();
+    }
+
+    @AfterMethod
+    public void cleanUp() {
+        tracerProvider.shutdown();
+    }
+
+    @Test
+    public void testLevels() {
+        Attributes resource = Attributes.of(stringKey("src.service.resource"), "true");
+        Attributes main = Attributes.of(stringKey("src.entry_point.resource"), "true");
+        Attributes remote = Attributes.of(stringKey("src.client.remote"), "true");
+        Assert.assertTrue(SpanVerbosity.ENTRY.keeps(SpanKind.SERVER, resource));
+        Assert.assertTrue(SpanVerbosity.ENTRY.keeps(SpanKind.CLIENT, main));
+        Assert.assertFalse(SpanVerbosity.ENTRY.keeps(SpanKind.CLIENT, remote));
+        Assert.assertTrue(SpanVerbosity.REMOTE.keeps(SpanKind.CLIENT, remote));
+        Assert.assertFalse(SpanVerbosity.REMOTE.keeps(SpanKind.CLIENT, Attributes.empty()));
+        Assert.assertTrue(SpanVerbosity.FULL.keeps(SpanKind.CLIENT, Attributes.empty()));
+
+        Assert.assertTrue(SpanVerbosity.ENTRY.mayKeep(SpanKind.SERVER));
+        Assert.assertFalse(SpanVerbosity.ENTRY.mayKeep(SpanKind.CLIENT));
+        Assert.assertTrue(SpanVerbosity.REMOTE.mayKeep(SpanKind.CLIENT));
+        Assert.assertEquals(SpanVerbosity.of("remote"), SpanVerbosity.REMOTE);
+    }
+
+    @Test
+    public void testRemoteLevelDropsLocalFunctionSpans() {
+        Tracer tracer = createTracer(SpanVerbosity.REMOTE);
+        // Ballerina creates all spans but the entry spans as client spans, and sets the attributes at the end
+        Span resource = tracer.spanBuilder("get /sum").setSpanKind(SpanKind.SERVER).startSpan();
+        Span getSum = startChild(tracer, resource, "ObservableAdder:getSum");
+        Span add = startChild(tracer, getSum, "ObservableAdder:add");
+        Span call = startChild(tracer, add, "ballerina/http/Client:get");
+        end(call, "src.client.remote");
+        end(add, "src.object.name");
+        end(getSum, "src.object.name");
+        end(resource, "src.service.resource");
+
+        Map<String, SpanData> spans = exportedSpans();
+        Assert.assertEquals(spans.keySet(), Set.of("get /sum", "ballerina/http/Client:get"));
+        Assert.assertEquals(spans.get("ballerina/http/Client:get").getParentSpanId(),
+                resource.getSpanContext().getSpanId());
+    }
+
+    @Test
+    public void testRemoteLevelReparentsChildrenWhichEndLater() {
+        Tracer tracer = createTracer(SpanVerbosity.REMOTE);
+        Span resource = tracer.spanBuilder("get /sum").setSpanKind(SpanKind.SERVER).startSpan();
+        Span function = startChild(tracer, resource, "ObservableAdder:getSum");
+        Span call = startChild(tracer, function, "ballerina/http/Client:get");
+        // The function returns before the call, as a worker or an async call does
+        end(function, "src.object.name");
+        end(call, "src.client.remote");
+        end(resource, "src.service.resource");
+
+        Map<String, SpanData> spans = exportedSpans();
+        Assert.assertEquals(spans.keySet(), Set.of("get /sum", "ballerina/http/Client:get"));
+        Assert.assertEquals(spans.get("ballerina/http/Client:get").getParentSpanId(),
+                resource.getSpanContext().getSpanId());
+    }
+
+    @Test
+    public void testRemoteLevelKeepsChildrenOfRemoteCalls() {
+        Tracer tracer = createTracer(SpanVerbosity.REMOTE);
+        Span resource = tracer.spanBuilder("get /sum").setSpanKind(SpanKind.SERVER).startSpan();
+        Span call = startChild(tracer, resource, "ballerina/http/Client:get");
+        Span function = startChild(tracer, call, "ballerina/http/HttpClient:get");
+        Span nested = startChild(tracer, function, "ballerina/http/HttpClient:send");
+        end(nested, "src.client.remote");
+        end(function, "src.object.name");
+        end(call, "src.client.remote");
+        end(resource, "src.service.resource");
+
+        Map<String, SpanData> spans = exportedSpans();
+        Assert.assertEquals(spans.keySet(),
+                Set.of("get /sum", "ballerina/http/Client:get", "ballerina/http/HttpClient:send"));
+        Assert.assertEquals(spans.get("ballerina/http/HttpClient:send").getParentSpanId(),
+                call.getSpanContext().getSpanId());
+        Assert.assertEquals(spans.get("ballerina/http/Client:get").getParentSpanId(),
+                resource.getSpanContext().getSpanId());
+    }
+
+    @Test
+    public void testEntryLevelKeepsOnlyEntrySpans() {
+        Tracer tracer = createTracer(SpanVerbosity.ENTRY);
+        Span server = tracer.spanBuilder("get /orders").setSpanKind(SpanKind.SERVER).startSpan();
+        Span client;
+        try (Scope ignored = server.makeCurrent()) {
+            // The parent is taken from the current context when it is not set
+            client = tracer.spanBuilder("ballerina/http/Client:get").setSpanKind(SpanKind.CLIENT).startSpan();
+        }
+        client.end();
+        server.end();
+
+        Assert.assertEquals(exportedSpans().keySet(), Set.of("get /orders"));
+
+        // The context propagated for the call refers to the exported span
+        Map<String, String> headers = new HashMap<>();
+        W3CTraceContextPropagator.getInstance().inject(Context.root().with(client), headers, Map::put);
+        Assert.assertEquals(headers.get("traceparent"), "00-" + server.getSpanContext().getTraceId() + "-"
+                + server.getSpanContext().getSpanId() + "-01");
+    }
+
+    @Test
+    public void testKeepsRootSpans() {
+        Tracer tracer = createTracer(SpanVerbosity.ENTRY);
+        tracer.spanBuilder("scheduled job").startSpan().end();
+        Span server = tracer.spanBuilder("get /orders").setSpanKind(SpanKind.SERVER).startSpan();
+        tracer.spanBuilder("background task")
+                .setParent(Context.root().with(server))
+                .setNoParent()
+                .startSpan()
+                .end();
+        server.end();
+
+        Assert.assertEquals(exportedSpans().keySet(),
+                Set.of("scheduled job", "get /orders", "background task"));
+    }
+
+    private Tracer createTracer(SpanVerbosity verbosity) {
+        spanProcessor = AmpBatchSpanProcessor.builder(exporter)
+                .addStage(new VerbosityStage(verbosity))
+                .build();
+        tracerProvider = SdkTracerProvider.builder().addSpanProcessor(spanProcessor).build();
+        return new VerbosityTracer(tracerProvider.get("test"), verbosity);
+    }
+
+    private Map<String, SpanData> exportedSpans() {
+        spanProcessor.forceFlush().join(5, TimeUnit.SECONDS);
+        return exporter.spans.stream().collect(Collectors.toMap(SpanData::getName, span -> span));
+    }
+
+    private static Span startChild(Tracer tracer, Span parent, String name) {
+        return tracer.spanBuilder(name)
+                .setParent(Context.root().with(parent))
+                .setSpanKind(SpanKind.CLIENT)
+                .startSpan();
+    }
+
+    /**
+     * End a span as Ballerina does, setting the attribute with the role of the span first.
+     */
+    private static void end(Span span, String roleAttribute) {
+        span.setAttribute("src.module", "$anon/.:0.0.0");
+        span.setAttribute(roleAttribute, "true");
+        span.end();
+    }
+
+    private static final class CollectingExporter implements SpanExporter {
+        private final List<SpanData> spans = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            this.spans.addAll(spans);
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
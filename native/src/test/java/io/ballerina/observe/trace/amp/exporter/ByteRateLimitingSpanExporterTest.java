@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.exporter;
+
+import io.ballerina.observe.trace.amp.sampler.AdjustedCount;
+import io.ballerina.observe.trace.amp.sampler.RateLimiter;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.exporter.internal.otlp.traces.TraceRequestMarshaler;
+import io.opentelemetry.sdk.common.Clock;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.DelegatingSpanData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link ByteRateLimitingSpanExporter}.
+ */
+public class ByteRateLimitingSpanExporterTest {
+
+    @Test
+    public void testQueuePolicyWaitsForBytes() {
+        List<SpanData> spans = UnixDomainSocketSpanExporterTest.createSpans(5);
+        int size = size(spans);
+        CollectingExporter delegate = new CollectingExporter();
+        // Each batch takes 100 ms of bytes, and the first one is covered by the balance
+        ByteRateLimitingSpanExporter exporter = new ByteRateLimitingSpanExporter(delegate,
+                new RateLimiter(size * 10.0, size, Clock.getDefault()), ByteRateLimitingSpanExporter.Policy.QUEUE);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(exporter.export(spans).isSuccess());
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Assert.assertEquals(delegate.spans.size(), 15);
+        Assert.assertTrue(elapsedMillis >= 180, "exported in " + elapsedMillis + " ms");
+        Assert.assertTrue(exporter.getThrottledTime(TimeUnit.MILLISECONDS) >= 180);
+        Assert.assertEquals(exporter.getThrottledExports(), 2);
+        Assert.assertEquals(exporter.getDownsampledSpans(), 0);
+    }
+
+    @Test
+    public void testShutdownStopsWaiting() throws Exception {
+        List<SpanData> spans = UnixDomainSocketSpanExporterTest.createSpans(5);
+        CollectingExporter delegate = new CollectingExporter();
+        // The second batch would wait for about an hour
+        ByteRateLimitingSpanExporter exporter = new ByteRateLimitingSpanExporter(delegate,
+                new RateLimiter(size(spans) / 3600.0, size(spans), Clock.getDefault()),
+                ByteRateLimitingSpanExporter.Policy.QUEUE);
+        exporter.export(spans);
+        CompletableFuture<CompletableResultCode> result = CompletableFuture.supplyAsync(() -> exporter.export(spans));
+        Thread.sleep(100);
+        Assert.assertFalse(result.isDone());
+
+        exporter.shutdown();
+        Assert.assertTrue(result.get(5, TimeUnit.SECONDS).isSuccess());
+        Assert.assertEquals(delegate.spans.size(), 10);
+    }
+
+    @Test
+    public void testDownsamplePolicyDropsTraces() {
+        List<SpanData> spans = new ArrayList<>(UnixDomainSocketSpanExporterTest.createSpans(400));
+        SpanData failed = new FailedSpanData(spans.remove(0));
+        spans.add(failed);
+        int size = size(spans);
+        CollectingExporter delegate = new CollectingExporter();
+        // The clock does not advance, so the balance covers half of the batch and is not paid back
+        RateLimiter limiter = new RateLimiter(1000, size / 2.0, new FrozenClock());
+        ByteRateLimitingSpanExporter exporter = new ByteRateLimitingSpanExporter(delegate, limiter,
+                ByteRateLimitingSpanExporter.Policy.DOWNSAMPLE);
+
+        Assert.assertTrue(exporter.export(spans).isSuccess());
+        int kept = delegate.spans.size();
+        Assert.assertTrue(kept > 120 && kept < 280, "kept " + kept + " spans");
+        Assert.assertEquals(exporter.getDownsampledSpans(), spans.size() - kept);
+        for (SpanData span : delegate.spans) {
+            if (span.getSpanId().equals(failed.getSpanId())) {
+                Assert.assertNull(span.getAttributes().get(AdjustedCount.KEY));
+            } else {
+                Assert.assertEquals(span.getAttributes().get(AdjustedCount.KEY), 2.0, 0.01);
+                Assert.assertEquals(span.getTotalAttributeCount(), span.getAttributes().size());
+            }
+        }
+        Assert.assertTrue(delegate.spans.stream().anyMatch(span -> span.getSpanId().equals(failed.getSpanId())));
+
+        // Once the balance is spent, only the failed span is kept
+        limiter.reserveCredit(size);
+        delegate.spans.clear();
+        Assert.assertTrue(exporter.export(spans).isSuccess());
+        Assert.assertEquals(delegate.spans.size(), 1);
+        Assert.assertEquals(delegate.spans.get(0).getSpanId(), failed.getSpanId());
+    }
+
+    private static int size(Collection<SpanData> spans) {
+        return TraceRequestMarshaler.create(spans).getBinarySerializedSize();
+    }
+
+    private static final class FailedSpanData extends DelegatingSpanData {
+        private FailedSpanData(SpanData delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public StatusData getStatus() {
+            return StatusData.create(StatusCode.ERROR, "failed");
+        }
+    }
+
+    private static final class CollectingExporter implements SpanExporter {
+        private final List<SpanData> spans = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            this.spans.addAll(spans);
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+
+    private static final class FrozenClock implements Clock {
+        private final long nanoTime = TimeUnit.DAYS.toNanos(1);
+
+        @Override
+        public long now() {
+            return nanoTime;
+        }
+
+        @Override
+        public long nanoTime() {
+            return nanoTime;
+        }
+    }
+}
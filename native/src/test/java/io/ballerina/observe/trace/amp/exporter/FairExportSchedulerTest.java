@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.exporter;
+
+import io.ballerina.observe.trace.amp.processor.AmpBatchSpanProcessor;
+import io.ballerina.observe.trace.amp.sampler.RateLimiter;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.exporter.internal.otlp.traces.TraceRequestMarshaler;
+import io.opentelemetry.sdk.common.Clock;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tests for {@link FairExportScheduler}.
+ */
+public class FairExportSchedulerTest {
+    private FairExportScheduler scheduler;
+
+    @BeforeMethod
+    public void setup() {
+        scheduler = new FairExportScheduler(1, 5, TimeUnit.SECONDS);
+    }
+
+    @AfterMethod
+    public void cleanUp() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testSharesBandwidthByWeight() throws InterruptedException {
+        SlowExporter heavy = new SlowExporter(1);
+        SlowExporter light = new SlowExporter(1);
+        SpanExporter heavyExporter = scheduler.register("heavy", 3, heavy);
+        SpanExporter lightExporter = scheduler.register("light", 1, light);
+        List<SpanData> batch = UnixDomainSocketSpanExporterTest.createSpans(10);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> producers = new ArrayList<>();
+        for (SpanExporter exporter : new SpanExporter[]{heavyExporter, lightExporter}) {
+            // Keep as many batches pending as the span processor of a tenant does
+            for (int i = 0; i < FairExportScheduler.PENDING_BATCHES; i++) {
+                Thread producer = new Thread(() -> {
+                    while (running.get()) {
+                        exporter.export(batch).join(5, TimeUnit.SECONDS);
+                    }
+                });
+                producer.start();
+                producers.add(producer);
+            }
+        }
+        Thread.sleep(1000);
+        running.set(false);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        double ratio = (double) heavy.exportedSpans.sum() / light.exportedSpans.sum();
+        Assert.assertTrue(ratio > 2.5 && ratio < 3.5, "heavy to light export ratio " + ratio);
+    }
+
+    @Test
+    public void testBusyTenantDoesNotDelayQuietTenant() throws InterruptedException {
+        SpanExporter noisyExporter = scheduler.register("noisy", 1, new SlowExporter(2));
+        SpanExporter quietExporter = scheduler.register("quiet", 1, new SlowExporter(2));
+        List<SpanData> batch = UnixDomainSocketSpanExporterTest.createSpans(10);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> producers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread producer = new Thread(() -> {
+                while (running.get()) {
+                    noisyExporter.export(batch).join(5, TimeUnit.SECONDS);
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+        Thread.sleep(100);
+        AtomicLong slowestMillis = new AtomicLong();
+        for (int i = 0; i < 20; i++) {
+            long start = System.nanoTime();
+            CompletableResultCode first = quietExporter.export(batch);
+            CompletableResultCode second = quietExporter.export(batch);
+            CompletableResultCode third = quietExporter.export(batch);
+            CompletableResultCode.ofAll(List.of(first, second, third)).join(5, TimeUnit.SECONDS);
+            slowestMillis.accumulateAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), Math::max);
+        }
+        running.set(false);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        // Three quiet batches alternate with at most three noisy batches of 2 ms each
+        Assert.assertTrue(slowestMillis.get() < 100, "slowest quiet export took " + slowestMillis.get() + " ms");
+    }
+
+    @Test
+    public void testSkewedLoadIsolation() {
+        SlowExporter noisy = new SlowExporter(2);
+        SlowExporter quiet = new SlowExporter(2);
+        AmpBatchSpanProcessor noisyProcessor = createProcessor(scheduler.register("noisy", 1, noisy));
+        AmpBatchSpanProcessor quietProcessor = createProcessor(scheduler.register("quiet", 1, quiet));
+        SdkTracerProvider noisyProvider = SdkTracerProvider.builder().addSpanProcessor(noisyProcessor).build();
+        SdkTracerProvider quietProvider = SdkTracerProvider.builder().addSpanProcessor(quietProcessor).build();
+        Tracer noisyTracer = noisyProvider.get("noisy");
+        Tracer quietTracer = quietProvider.get("quiet");
+
+        for (int i = 0; i < 20000; i++) {
+            noisyTracer.spanBuilder("noisy").startSpan().end();
+            if (i % 400 == 0) {
+                quietTracer.spanBuilder("quiet").startSpan().end();
+            }
+        }
+        quietProvider.shutdown().join(10, TimeUnit.SECONDS);
+        noisyProvider.shutdown().join(10, TimeUnit.SECONDS);
+
+        Assert.assertTrue(noisyProcessor.getDroppedNormalSpans() > 0, "noisy tenant did not overflow its queue");
+        Assert.assertEquals(quietProcessor.getDroppedNormalSpans(), 0);
+        Assert.assertEquals(quiet.exportedSpans.sum(), 50);
+        Assert.assertEquals(noisy.exportedSpans.sum() + noisyProcessor.getDroppedNormalSpans(), 20000);
+    }
+
+    @Test
+    public void testShutdownExportsQueuedBatches() {
+        SlowExporter delegate = new SlowExporter(20);
+        SpanExporter exporter = scheduler.register("tenant", 1, delegate);
+        List<SpanData> batch = UnixDomainSocketSpanExporterTest.createSpans(5);
+        CompletableResultCode first = exporter.export(batch);
+        CompletableResultCode second = exporter.export(batch);
+
+        Assert.assertTrue(exporter.shutdown().join(5, TimeUnit.SECONDS).isSuccess());
+        Assert.assertTrue(first.isSuccess());
+        Assert.assertTrue(second.isSuccess());
+        Assert.assertEquals(delegate.exportedSpans.sum(), 10);
+        Assert.assertTrue(delegate.isShutdown.get());
+        Assert.assertFalse(exporter.export(batch).isSuccess());
+    }
+
+    @Test
+    public void testExportCompletesWithDelegate() {
+        CompletableResultCode delegateResult = new CompletableResultCode();
+        SpanExporter exporter = scheduler.register("tenant", 1, new PendingExporter(delegateResult));
+        List<SpanData> batch = UnixDomainSocketSpanExporterTest.createSpans(5);
+
+        CompletableResultCode result = exporter.export(batch);
+        Assert.assertFalse(result.join(100, TimeUnit.MILLISECONDS).isDone());
+        delegateResult.fail();
+        Assert.assertTrue(result.join(5, TimeUnit.SECONDS).isDone());
+        Assert.assertFalse(result.isSuccess());
+    }
+
+    @Test
+    public void testDelegateFailuresRaisePressure() {
+        AmpBatchSpanProcessor processor = createProcessor(scheduler.register("tenant", 1,
+                new PendingExporter(CompletableResultCode.ofFailure())));
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder().addSpanProcessor(processor).build();
+        Tracer tracer = tracerProvider.get("tenant");
+
+        // A flush may return before the worker picks it up, so spans are exported until the failures add up
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (processor.getPressure() <= 0.9 && System.nanoTime() < deadline) {
+            tracer.spanBuilder("failing").startSpan().end();
+            processor.forceFlush().join(5, TimeUnit.SECONDS);
+        }
+
+        Assert.assertTrue(processor.getPressure() > 0.9, "pressure " + processor.getPressure());
+        tracerProvider.shutdown().join(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testByteRateLimitDoesNotHoldExportThreads() {
+        SlowExporter limited = new SlowExporter(0);
+        SlowExporter other = new SlowExporter(0);
+        List<SpanData> batch = UnixDomainSocketSpanExporterTest.createSpans(5);
+        int size = TraceRequestMarshaler.create(batch).getBinarySerializedSize();
+        // The limit is in front of the scheduler, and the second batch waits for about an hour
+        SpanExporter limitedExporter = new ByteRateLimitingSpanExporter(scheduler.register("limited", 1, limited),
+                new RateLimiter(size / 3600.0, size, Clock.getDefault()), ByteRateLimitingSpanExporter.Policy.QUEUE);
+        SpanExporter otherExporter = scheduler.register("other", 1, other);
+        Assert.assertTrue(limitedExporter.export(batch).join(5, TimeUnit.SECONDS).isSuccess());
+        Thread waiting = new Thread(() -> limitedExporter.export(batch));
+        waiting.start();
+
+        try {
+            for (int i = 0; i < 10; i++) {
+                Assert.assertTrue(otherExporter.export(batch).join(5, TimeUnit.SECONDS).isSuccess());
+            }
+            Assert.assertEquals(other.exportedSpans.sum(), 50);
+        } finally {
+            limitedExporter.shutdown().join(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static AmpBatchSpanProcessor createProcessor(SpanExporter exporter) {
+        return AmpBatchSpanProcessor.builder(exporter)
+                .setMaxPendingExports(FairExportScheduler.PENDING_BATCHES)
+                .setMaxQueueSize(256)
+                .setMaxExportBatchSize(64)
+                .setScheduleDelay(10, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Exporter which returns the same result for each batch.
+     */
+    private static final class PendingExporter implements SpanExporter {
+        private final CompletableResultCode result;
+
+        private PendingExporter(CompletableResultCode result) {
+            this.result = result;
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            return result;
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+
+    /**
+     * Exporter which takes a fixed time for each batch.
+     */
+    private static final class SlowExporter implements SpanExporter {
+        private final long latencyMillis;
+        private final LongAdder exportedSpans = new LongAdder();
+        private final AtomicBoolean isShutdown = new AtomicBoolean();
+
+        private SlowExporter(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return CompletableResultCode.ofFailure();
+            }
+            exportedSpans.add(spans.size());
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            isShutdown.set(true);
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.exporter;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stand-in for a node local collector which accepts OTLP/HTTP requests on a Unix domain socket.
+ * <p>
+ * Every request body is recorded, and answered with the configured status code and an empty body.
+ */
+public class UnixDomainSocketReceiver implements AutoCloseable {
+    private final Path socketPath;
+    private final ServerSocketChannel serverChannel;
+    private final List<byte[]> requestBodies = new CopyOnWriteArrayList<>();
+    private final List<String> requestHeads = new CopyOnWriteArrayList<>();
+    private final AtomicInteger acceptedConnections = new AtomicInteger();
+    private final boolean recordBodies;
+    private volatile int responseStatus = 200;
+    private volatile boolean closeAfterResponse = false;
+    private volatile long responseDelayMillis = 0;
+
+    public UnixDomainSocketReceiver(Path socketPath, boolean recordBodies) throws IOException {
+        this.socketPath = socketPath;
+        this.recordBodies = recordBodies;
+        Files.deleteIfExists(socketPath);
+        serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        serverChannel.bind(UnixDomainSocketAddress.of(socketPath));
+        Thread acceptor = new Thread(this::acceptConnections, "uds-receiver-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public String getEndpoint() {
+        return UnixDomainSocketSpanExporter.ENDPOINT_SCHEME + socketPath;
+    }
+
+    public List<byte[]> getRequestBodies() {
+        return requestBodies;
+    }
+
+    public List<String> getRequestHeads() {
+        return requestHeads;
+    }
+
+    public int getAcceptedConnections() {
+        return acceptedConnections.get();
+    }
+
+    public void setResponseStatus(int responseStatus) {
+        this.responseStatus = responseStatus;
+    }
+
+    public void setCloseAfterResponse(boolean closeAfterResponse) {
+        this.closeAfterResponse = closeAfterResponse;
+    }
+
+    public void setResponseDelay(long responseDelayMillis) {
+        this.responseDelayMillis = responseDelayMillis;
+    }
+
+    private void acceptConnections() {
+        while (serverChannel.isOpen()) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                acceptedConnections.incrementAndGet();
+                Thread handler = new Thread(() -> handleConnection(channel), "uds-receiver-connection");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void handleConnection(SocketChannel channel) {
+        try (channel) {
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel));
+            OutputStream out = Channels.newOutputStream(channel);
+            String head;
+            while ((head = readHead(in)) != null) {
+                int contentLength = 0;
+                for (String line : head.split("\r\n")) {
+                    if (line.toLowerCase(Locale.ROOT).startsWith("content-length:")) {
+                        contentLength = Integer.parseInt(line.substring("content-length:".length()).trim());
+                    }
+                }
+                byte[] body = in.readNBytes(contentLength);
+                requestHeads.add(head);
+                requestBodies.add(recordBodies ? body : new byte[0]);
+                if (responseDelayMillis > 0) {
+                    Thread.sleep(responseDelayMillis);
+                }
+                boolean close = closeAfterResponse;
+                String response = "HTTP/1.1 " + responseStatus + " Status\r\nContent-Length: 0\r\n"
+                        + (close ? "Connection: close\r\n" : "") + "\r\n";
+                out.write(response.getBytes(StandardCharsets.ISO_8859_1));
+                out.flush();
+                if (close) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // Connection closed by the exporter
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String readHead(InputStream in) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        int matched = 0;
+        int b;
+        while ((b = in.read()) >= 0) {
+            head.write(b);
+            matched = (b == '\r' && (matched == 0 || matched == 2)) || (b == '\n' && (matched == 1 || matched == 3))
+                    ? matched + 1 : 0;
+            if (matched == 4) {
+                byte[] bytes = head.toByteArray();
+                return new String(bytes, 0, bytes.length - 4, StandardCharsets.ISO_8859_1);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverChannel.close();
+        Files.deleteIfExists(socketPath);
+    }
+}
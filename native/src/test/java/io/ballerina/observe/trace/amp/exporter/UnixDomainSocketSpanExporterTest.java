@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.exporter;
+
+import io.opentelemetry.exporter.internal.otlp.traces.TraceRequestMarshaler;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link UnixDomainSocketSpanExporter}.
+ */
+public class UnixDomainSocketSpanExporterTest {
+    private Path tempDir;
+    private UnixDomainSocketReceiver receiver;
+    private UnixDomainSocketSpanExporter exporter;
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        tempDir = Files.createTempDirectory("amp-uds");
+        receiver = new UnixDomainSocketReceiver(tempDir.resolve("otlp.sock"), true);
+        exporter = UnixDomainSocketSpanExporter.builder(receiver.getEndpoint())
+                .addHeader("Authorization", "Bearer test-key")
+                .setTimeout(5, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @AfterMethod
+    public void cleanUp() throws IOException {
+        exporter.shutdown();
+        receiver.close();
+        Files.deleteIfExists(tempDir.resolve("otlp.sock"));
+        Files.deleteIfExists(tempDir);
+    }
+
+    @Test
+    public void testExportSendsOtlpRequest() throws IOException {
+        List<SpanData> spans = createSpans(3);
+        CompletableResultCode result = exporter.export(spans).join(5, TimeUnit.SECONDS);
+
+        Assert.assertTrue(result.isSuccess());
+        Assert.assertEquals(receiver.getRequestBodies().size(), 1);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        TraceRequestMarshaler.create(spans).writeBinaryTo(expected);
+        Assert.assertEquals(receiver.getRequestBodies().get(0), expected.toByteArray());
+
+        String head = receiver.getRequestHeads().get(0);
+        Assert.assertTrue(head.startsWith("POST /v1/traces HTTP/1.1\r\n"), head);
+        Assert.assertTrue(head.contains("Content-Type: application/x-protobuf\r\n"), head);
+        Assert.assertTrue(head.contains("Authorization: Bearer test-key\r\n"), head);
+    }
+
+    @Test
+    public void testConnectionIsReused() {
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(exporter.export(createSpans(2)).join(5, TimeUnit.SECONDS).isSuccess());
+        }
+        Assert.assertEquals(receiver.getRequestBodies().size(), 5);
+        Assert.assertEquals(receiver.getAcceptedConnections(), 1);
+    }
+
+    @Test
+    public void testReconnectsAfterConnectionClose() {
+        receiver.setCloseAfterResponse(true);
+        Assert.assertTrue(exporter.export(createSpans(1)).join(5, TimeUnit.SECONDS).isSuccess());
+        Assert.assertTrue(exporter.export(createSpans(1)).join(5, TimeUnit.SECONDS).isSuccess());
+        Assert.assertEquals(receiver.getRequestBodies().size(), 2);
+        Assert.assertEquals(receiver.getAcceptedConnections(), 2);
+    }
+
+    @Test
+    public void testErrorStatusFailsExport() {
+        receiver.setResponseStatus(503);
+        Assert.assertFalse(exporter.export(createSpans(1)).join(5, TimeUnit.SECONDS).isSuccess());
+
+        receiver.setResponseStatus(200);
+        Assert.assertTrue(exporter.export(createSpans(1)).join(5, TimeUnit.SECONDS).isSuccess());
+    }
+
+    @Test
+    public void testTimedOutExportsAreNotSentLater() throws InterruptedException {
+        receiver.setResponseDelay(500);
+        UnixDomainSocketSpanExporter slow = UnixDomainSocketSpanExporter.builder(receiver.getEndpoint())
+                .setTimeout(200, TimeUnit.MILLISECONDS)
+                .build();
+        try {
+            List<CompletableResultCode> results = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                results.add(slow.export(createSpans(1)));
+            }
+            for (CompletableResultCode result : results) {
+                Assert.assertFalse(result.join(5, TimeUnit.SECONDS).isSuccess());
+            }
+            Thread.sleep(1000);
+            // The first export, and at most the one which started as it timed out, reached the collector
+            Assert.assertTrue(receiver.getRequestBodies().size() <= 2, receiver.getRequestBodies().size()
+                    + " requests sent");
+        } finally {
+            slow.shutdown();
+        }
+    }
+
+    @Test
+    public void testMissingSocketFailsExport() throws IOException {
+        UnixDomainSocketSpanExporter missing = UnixDomainSocketSpanExporter.builder(
+                UnixDomainSocketSpanExporter.ENDPOINT_SCHEME + tempDir.resolve("missing.sock")).build();
+        try {
+            Assert.assertFalse(missing.export(createSpans(1)).join(5, TimeUnit.SECONDS).isSuccess());
+        } finally {
+            missing.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidEndpoint() {
+        UnixDomainSocketSpanExporter.builder("http://localhost:4318");
+    }
+
+    @Test
+    public void testExportAfterShutdownFails() {
+        exporter.shutdown();
+        Assert.assertFalse(exporter.export(createSpans(1)).isSuccess());
+    }
+
+    static List<SpanData> createSpans(int count) {
+        List<SpanData> spans = new ArrayList<>(count);
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(new CollectingExporter(spans)))
+                .build();
+        for (int i = 0; i < count; i++) {
+            tracerProvider.get("test").spanBuilder("span-" + i)
+                    .setAttribute("index", i)
+                    .startSpan()
+                    .end();
+        }
+        tracerProvider.shutdown().join(5, TimeUnit.SECONDS);
+        return spans;
+    }
+
+    private static final class CollectingExporter implements SpanExporter {
+        private final List<SpanData> spans;
+
+        private CollectingExporter(List<SpanData> spans) {
+            this.spans = spans;
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            this.spans.addAll(spans);
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.metrics;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link ExponentialHistogramAggregator}.
+ */
+public class ExponentialHistogramAggregatorTest {
+
+    @Test
+    public void testIndexBoundaries() {
+        // At scale 0 the bucket of index i holds the values in (2^i, 2^(i+1)]
+        Assert.assertEquals(ExponentialHistogramAggregator.index(1, 0), -1);
+        Assert.assertEquals(ExponentialHistogramAggregator.index(1.5, 0), 0);
+        Assert.assertEquals(ExponentialHistogramAggregator.index(2, 0), 0);
+        Assert.assertEquals(ExponentialHistogramAggregator.index(2.5, 0), 1);
+        Assert.assertEquals(ExponentialHistogramAggregator.index(0.5, 0), -2);
+        // At scale 1 the buckets are split at the square roots of two
+        Assert.assertEquals(ExponentialHistogramAggregator.index(Math.sqrt(2) * 0.999, 1), 0);
+        Assert.assertEquals(ExponentialHistogramAggregator.index(2, 1), 1);
+        Assert.assertEquals(ExponentialHistogramAggregator.index(4, 1), 3);
+        // At scale -1 each bucket spans four times its lower bound
+        Assert.assertEquals(ExponentialHistogramAggregator.index(4, -1), 0);
+        Assert.assertEquals(ExponentialHistogramAggregator.index(5, -1), 1);
+    }
+
+    @Test
+    public void testRecordsAtMaxScale() {
+        ExponentialHistogramAggregator aggregator = new ExponentialHistogramAggregator(1);
+        aggregator.record(1.5, 1);
+        aggregator.record(1.5, 2);
+
+        ExponentialHistogramPoint point = aggregator.collect();
+        Assert.assertNotNull(point);
+        Assert.assertEquals(point.getScale(), ExponentialHistogramAggregator.MAX_SCALE);
+        Assert.assertEquals(point.getCount(), 3);
+        Assert.assertEquals(point.getSum(), 4.5);
+        Assert.assertEquals(point.getMin(), 1.5);
+        Assert.assertEquals(point.getMax(), 1.5);
+        Assert.assertEquals(point.getOffset(),
+                ExponentialHistogramAggregator.index(1.5, ExponentialHistogramAggregator.MAX_SCALE));
+        Assert.assertEquals(point.getBucketCounts(), new long[]{3});
+    }
+
+    @Test
+    public void testDownscalesToFitRange() {
+        ExponentialHistogramAggregator aggregator = new ExponentialHistogramAggregator(1);
+        double[] values = {0.001, 0.01, 0.1, 1, 10, 100, 1000};
+        for (double value : values) {
+            aggregator.record(value, 1);
+        }
+
+        ExponentialHistogramPoint point = aggregator.collect();
+        Assert.assertNotNull(point);
+        Assert.assertTrue(point.getScale() < ExponentialHistogramAggregator.MAX_SCALE);
+        Assert.assertTrue(point.getBucketCounts().length <= ExponentialHistogramAggregator.MAX_BUCKETS);
+        long total = 0;
+        for (long count : point.getBucketCounts()) {
+            total += count;
+        }
+        Assert.assertEquals(total, values.length);
+        // Each value falls in the bucket which its index gives at the final scale
+        for (double value : values) {
+            int bucket = ExponentialHistogramAggregator.index(value, point.getScale()) - point.getOffset();
+            Assert.assertTrue(point.getBucketCounts()[bucket] > 0, "no count for " + value);
+        }
+        Assert.assertEquals(point.getMin(), 0.001);
+        Assert.assertEquals(point.getMax(), 1000.0);
+    }
+
+    @Test
+    public void testCollectsDeltas() {
+        ExponentialHistogramAggregator aggregator = new ExponentialHistogramAggregator(1);
+        aggregator.record(2, 1);
+        Assert.assertEquals(aggregator.collect().getCount(), 1);
+        Assert.assertNull(aggregator.collect());
+
+        aggregator.record(3, 4);
+        ExponentialHistogramPoint point = aggregator.collect();
+        Assert.assertEquals(point.getCount(), 4);
+        Assert.assertEquals(point.getSum(), 12.0);
+        Assert.assertEquals(point.getScale(), ExponentialHistogramAggregator.MAX_SCALE);
+    }
+
+    @Test
+    public void testZeroAndInvalidValues() {
+        ExponentialHistogramAggregator aggregator = new ExponentialHistogramAggregator(1);
+        aggregator.record(0, 2);
+        aggregator.record(-1, 1);
+        aggregator.record(Double.NaN, 1);
+        aggregator.record(Double.POSITIVE_INFINITY, 1);
+        aggregator.record(1, 0);
+
+        ExponentialHistogramPoint point = aggregator.collect();
+        Assert.assertNotNull(point);
+        Assert.assertEquals(point.getCount(), 2);
+        Assert.assertEquals(point.getZeroCount(), 2);
+        Assert.assertEquals(point.getBucketCounts().length, 0);
+    }
+
+    @Test
+    public void testMergesStripes() throws InterruptedException {
+        int threads = 8;
+        int iterations = 10000;
+        ExponentialHistogramAggregator aggregator = new ExponentialHistogramAggregator(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            // Each thread records its own range, so that the stripes have different scales
+            double base = Math.pow(10, t - 4);
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 1; i <= iterations; i++) {
+                    aggregator.record(base * i, 1);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        ExponentialHistogramPoint point = aggregator.collect();
+        Assert.assertEquals(point.getCount(), (long) threads * iterations);
+        long total = 0;
+        for (long count : point.getBucketCounts()) {
+            total += count;
+        }
+        Assert.assertEquals(total, (long) threads * iterations);
+        Assert.assertTrue(point.getBucketCounts().length <= ExponentialHistogramAggregator.MAX_BUCKETS);
+        Assert.assertEquals(point.getMin(), 1e-4);
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+import io.ballerina.observe.trace.amp.processor.AmpBatchSpanProcessor;
+import io.ballerina.observe.trace.amp.sampler.AdjustedCount;
+import io.ballerina.runtime.observability.metrics.PercentileValue;
+import io.ballerina.runtime.observability.metrics.Snapshot;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static io.opentelemetry.semconv.ResourceAttributes.SERVICE_NAME;
+
+/**
+ * Tests for {@link OtlpMetricsReporter} and {@link SpanDurationStage}.
+ */
+public class OtlpMetricsReporterTest {
+    private HttpServer server;
+    private BlockingQueue<Request> requests;
+    private SpanDurationStage stage;
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+    private OtlpMetricsReporter reporter;
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        requests = new LinkedBlockingQueue<>();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                requests.add(new Request(exchange.getRequestURI().getPath(),
+                        exchange.getRequestHeaders().getFirst("Content-Type"),
+                        exchange.getRequestHeaders().getFirst("Authorization"), in.readAllBytes()));
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+
+        stage = new SpanDurationStage();
+        tracerProvider = SdkTracerProvider.builder()
+                .setResource(Resource.create(Attributes.of(SERVICE_NAME, "orders")))
+                .addSpanProcessor(AmpBatchSpanProcessor.builder(new NoopExporter()).addStage(stage).build())
+                .build();
+        tracer = tracerProvider.get("test");
+        reporter = OtlpMetricsReporter.builder("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/metrics")
+                .addHeader("Authorization", "Bearer test-key")
+                .setResource(Resource.create(Attributes.of(SERVICE_NAME, "orders")))
+                .setSpanDurations(stage)
+                .build();
+    }
+
+    @AfterMethod
+    public void cleanUp() {
+        reporter.shutdown().join(10, TimeUnit.SECONDS);
+        tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+        server.stop(0);
+    }
+
+    @Test
+    public void testRecordsEntrySpanDurations() {
+        endSpan("get /orders", SpanKind.SERVER, 250, 1);
+        endSpan("get /orders", SpanKind.SERVER, 750, 4);
+        endSpan("orders-topic", SpanKind.CONSUMER, 100, 1);
+        endSpan("select", SpanKind.CLIENT, 100, 1);
+        endSpan("compute", SpanKind.INTERNAL, 100, 1);
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+
+        List<MetricPoint> points = reporter.collect(System.currentTimeMillis() * 1_000_000);
+        Assert.assertEquals(points.size(), 2);
+        MetricPoint orders = points.stream().filter(point -> "get /orders".equals(
+                point.attributes.get(SpanDurationStage.SPAN_NAME))).findFirst().orElseThrow();
+        Assert.assertEquals(orders.type, MetricPoint.Type.EXPONENTIAL_HISTOGRAM);
+        Assert.assertEquals(orders.name, SpanDurationStage.METRIC_NAME);
+        Assert.assertEquals(orders.attributes.get(SERVICE_NAME), "orders");
+        Assert.assertEquals(orders.attributes.get(SpanDurationStage.SPAN_KIND), "server");
+        // The span with an adjusted count of 4 stands for four spans
+        Assert.assertEquals(orders.histogram.getCount(), 5);
+        Assert.assertEquals(orders.histogram.getSum(), 0.25 + 4 * 0.75, 1e-9);
+        Assert.assertEquals(orders.histogram.getMin(), 0.25, 1e-9);
+        Assert.assertEquals(orders.histogram.getMax(), 0.75, 1e-9);
+
+        // Delta temporality: a series without new spans is left out of the next report
+        Assert.assertTrue(reporter.collect(System.currentTimeMillis() * 1_000_000).isEmpty());
+    }
+
+    @Test
+    public void testReportsSourceChanges() {
+        long[] dropped = {0};
+        double[] names = {3};
+        Attributes attributes = Attributes.of(AttributeKey.stringKey("amp.tenant"), "default");
+        OtlpMetricsReporter sourceReporter = OtlpMetricsReporter.builder("http://127.0.0.1:1/v1/metrics")
+                .addSource(recorder -> {
+                    recorder.counter("amp.span_queue.dropped", "", "{span}", attributes, dropped[0]);
+                    recorder.gauge("amp.span_names.distinct", "", "{name}", attributes, names[0]);
+                })
+                .build();
+        try {
+            // A gauge is reported the first time, and a counter once it increased
+            List<MetricPoint> points = sourceReporter.collect(1);
+            Assert.assertEquals(points.size(), 1);
+            Assert.assertEquals(points.get(0).type, MetricPoint.Type.DOUBLE_GAUGE);
+            Assert.assertEquals(points.get(0).doubleValue, 3.0);
+            Assert.assertEquals(points.get(0).unit, "{name}");
+
+            dropped[0] = 5;
+            points = sourceReporter.collect(2);
+            Assert.assertEquals(points.size(), 1);
+            Assert.assertEquals(points.get(0).type, MetricPoint.Type.LONG_SUM);
+            Assert.assertEquals(points.get(0).longValue, 5);
+            Assert.assertEquals(points.get(0).attributes, attributes);
+
+            dropped[0] = 7;
+            names[0] = 4;
+            points = sourceReporter.collect(3);
+            Assert.assertEquals(points.size(), 2);
+            Assert.assertEquals(points.get(0).longValue, 2);
+            Assert.assertEquals(points.get(0).startEpochNanos, 2);
+            Assert.assertEquals(points.get(1).doubleValue, 4.0);
+
+            Assert.assertTrue(sourceReporter.collect(4).isEmpty());
+        } finally {
+            sourceReporter.shutdown();
+        }
+    }
+
+    @Test
+    public void testMarshalsAllTypes() throws IOException {
+        endSpan("get /orders", SpanKind.SERVER, 250, 1);
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+        List<MetricPoint> points = reporter.collect(System.currentTimeMillis() * 1_000_000);
+        points.add(MetricPoint.longSum("requests_total", "Requests", Attributes.empty(), 1, 2, 3));
+        points.add(MetricPoint.histogram("response_time", "", Attributes.empty(), 1, 2, 4, 1.5));
+        points.add(MetricPoint.doubleGauge("inprogress_requests", "", Attributes.empty(), 2, 7));
+
+        MetricsRequestMarshaler marshaler = MetricsRequestMarshaler.create(Resource.empty(), points);
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        marshaler.writeBinaryTo(binary);
+        Assert.assertEquals(binary.size(), marshaler.getBinarySerializedSize());
+
+        String request = binary.toString(StandardCharsets.ISO_8859_1);
+        for (String name : List.of(SpanDurationStage.METRIC_NAME, "requests_total", "response_time",
+                "inprogress_requests")) {
+            Assert.assertTrue(request.contains(name), name + " not marshaled");
+        }
+    }
+
+    @Test
+    public void testReportsToEndpoint() throws InterruptedException {
+        endSpan("get /orders", SpanKind.SERVER, 250, 1);
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+
+        CompletableResultCode result = reporter.report().join(10, TimeUnit.SECONDS);
+        Assert.assertTrue(result.isSuccess());
+        Request request = requests.poll(10, TimeUnit.SECONDS);
+        Assert.assertNotNull(request);
+        Assert.assertEquals(request.path, "/v1/metrics");
+        Assert.assertEquals(request.contentType, "application/x-protobuf");
+        Assert.assertEquals(request.authorization, "Bearer test-key");
+        Assert.assertTrue(new String(request.body, StandardCharsets.ISO_8859_1)
+                .contains(SpanDurationStage.METRIC_NAME));
+
+        // Nothing changed, so nothing is sent
+        Assert.assertTrue(reporter.report().join(10, TimeUnit.SECONDS).isSuccess());
+        Assert.assertNull(requests.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testEstimatesHistogramsFromSnapshots() {
+        PercentileValue[] minute = {new PercentileValue(0.5, 2), new PercentileValue(0.99, 8)};
+        PercentileValue[] hour = {new PercentileValue(0.5, 20), new PercentileValue(0.99, 80)};
+        Snapshot[] snapshots = {new Snapshot(Duration.ofHours(1), 1, 30, 5, 100, hour),
+                new Snapshot(Duration.ofMinutes(1), 0.5, 3, 1, 10, minute)};
+
+        ExponentialHistogramPoint histogram = OtlpMetricsReporter.toExponentialHistogram(snapshots, 100, 321.5);
+        Assert.assertNotNull(histogram);
+        // The count and sum are exact, and the buckets are spread over the statistics of the shortest window
+        Assert.assertEquals(histogram.getCount(), 100);
+        Assert.assertEquals(histogram.getSum(), 321.5);
+        Assert.assertEquals(histogram.getMin(), 0.5);
+        Assert.assertEquals(histogram.getMax(), 10.0);
+        Assert.assertEquals(histogram.getZeroCount() + Arrays.stream(histogram.getBucketCounts()).sum(), 100);
+    }
+
+    @Test
+    public void testShutdownFailsWhenLastReportFails() {
+        OtlpMetricsReporter unreachable = OtlpMetricsReporter.builder("http://127.0.0.1:1/v1/metrics")
+                .addSource(recorder -> recorder.counter("amp.span_queue.dropped", "", "{span}", Attributes.empty(),
+                        5))
+                .build();
+
+        CompletableResultCode result = unreachable.shutdown().join(10, TimeUnit.SECONDS);
+        Assert.assertTrue(result.isDone());
+        Assert.assertFalse(result.isSuccess());
+    }
+
+    private void endSpan(String name, SpanKind kind, long durationMillis, double adjustedCount) {
+        long start = System.currentTimeMillis();
+        SpanBuilder builder = tracer.spanBuilder(name)
+                .setSpanKind(kind)
+                .setStartTimestamp(start, TimeUnit.MILLISECONDS);
+        if (adjustedCount != 1) {
+            builder.setAttribute(AdjustedCount.KEY, adjustedCount);
+        }
+        builder.startSpan().end(start + durationMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static final class Request {
+        private final String path;
+        private final String contentType;
+        private final String authorization;
+        private final byte[] body;
+
+        private Request(String path, String contentType, String authorization, byte[] body) {
+            this.path = path;
+            this.contentType = contentType;
+            this.authorization = authorization;
+            this.body = body;
+        }
+    }
+
+    private static final class NoopExporter implements SpanExporter {
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency stress tests for the enqueue, drain, flush and shutdown paths of {@link AmpBatchSpanProcessor}.
+ * <p>
+ * Many threads end spans into a small queue while the worker drains it into an exporter which checks that it is
+ * never called concurrently, so that the accounting of queued, exported and dropped spans is exercised under
+ * contention.
+ */
+public class AmpBatchSpanProcessorStressTest {
+    private static final int THREADS = 32;
+    private static final int SPANS_PER_THREAD = 5000;
+
+    @Test
+    public void testEverySpanIsExportedOrCounted() throws InterruptedException {
+        CheckingExporter exporter = new CheckingExporter();
+        AmpBatchSpanProcessor processor = createProcessor(exporter);
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder().addSpanProcessor(processor).build();
+        Tracer tracer = tracerProvider.get("stress");
+
+        runThreads(() -> {
+            for (int i = 0; i < SPANS_PER_THREAD; i++) {
+                endSpan(tracer, i);
+            }
+        });
+        Assert.assertTrue(tracerProvider.shutdown().join(30, TimeUnit.SECONDS).isSuccess());
+
+        long produced = (long) THREADS * SPANS_PER_THREAD;
+        long dropped = processor.getDroppedNormalSpans() + processor.getDroppedPrioritySpans();
+        Assert.assertTrue(dropped > 0, "the span queue did not overflow");
+        Assert.assertEquals(exporter.exportedSpans.sum() + dropped, produced);
+        Assert.assertTrue(exporter.exportedPrioritySpans.sum() > 0);
+        exporter.assertConsistent();
+    }
+
+    @Test
+    public void testConcurrentFlushesComplete() throws InterruptedException {
+        CheckingExporter exporter = new CheckingExporter();
+        AmpBatchSpanProcessor processor = createProcessor(exporter);
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder().addSpanProcessor(processor).build();
+        Tracer tracer = tracerProvider.get("stress");
+        AtomicInteger incompleteFlushes = new AtomicInteger();
+
+        runThreads(() -> {
+            for (int i = 0; i < SPANS_PER_THREAD / 10; i++) {
+                endSpan(tracer, i);
+                if (i % 50 == 0 && !processor.forceFlush().join(10, TimeUnit.SECONDS).isDone()) {
+                    incompleteFlushes.incrementAndGet();
+                }
+            }
+        });
+        Assert.assertEquals(incompleteFlushes.get(), 0);
+        Assert.assertTrue(tracerProvider.shutdown().join(30, TimeUnit.SECONDS).isSuccess());
+        exporter.assertConsistent();
+    }
+
+    @Test
+    public void testShutdownWhileSpansEnd() throws InterruptedException {
+        CheckingExporter exporter = new CheckingExporter();
+        AmpBatchSpanProcessor processor = createProcessor(exporter);
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder().addSpanProcessor(processor).build();
+        Tracer tracer = tracerProvider.get("stress");
+        LongAdder produced = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<CompletableResultCode> shutdownResults = new ArrayList<>();
+
+        Thread shutdown = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // Racing shutdowns, of which only the first one shuts the exporter down
+            List<Thread> shutdowns = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                Thread thread = new Thread(() -> {
+                    CompletableResultCode result = processor.shutdown();
+                    synchronized (shutdownResults) {
+                        shutdownResults.add(result);
+                    }
+                });
+                thread.start();
+                shutdowns.add(thread);
+            }
+            for (Thread thread : shutdowns) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            running.set(false);
+        });
+        shutdown.start();
+        runThreads(() -> {
+            for (int i = 0; running.get(); i++) {
+                endSpan(tracer, i);
+                produced.increment();
+            }
+        });
+        shutdown.join();
+
+        Assert.assertTrue(CompletableResultCode.ofAll(shutdownResults).join(30, TimeUnit.SECONDS).isSuccess());
+        long exportedAtShutdown = exporter.exportedSpans.sum();
+        Thread.sleep(100);
+        Assert.assertEquals(exporter.exportedSpans.sum(), exportedAtShutdown, "spans exported after shutdown");
+        long dropped = processor.getDroppedNormalSpans() + processor.getDroppedPrioritySpans();
+        Assert.assertTrue(exportedAtShutdown + dropped <= produced.sum());
+        Assert.assertEquals(exporter.shutdowns.get(), 1);
+        exporter.assertConsistent();
+    }
+
+    private static AmpBatchSpanProcessor createProcessor(SpanExporter exporter) {
+        return AmpBatchSpanProcessor.builder(exporter)
+                .setMaxQueueSize(512)
+                .setPriorityQueueSize(64)
+                .setMaxExportBatchSize(128)
+                .setScheduleDelay(1, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    private static void endSpan(Tracer tracer, int i) {
+        Span span = tracer.spanBuilder("span").startSpan();
+        if (i % 20 == 0) {
+            span.setStatus(StatusCode.ERROR);
+        }
+        span.end();
+    }
+
+    /**
+     * Run the task on all threads, released together once all of them are running.
+     */
+    private static void runThreads(Runnable task) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(() -> {
+                ready.countDown();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                task.run();
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        ready.await();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(60));
+            Assert.assertFalse(thread.isAlive(), "stress thread did not finish");
+        }
+    }
+
+    /**
+     * Exporter which counts the exported spans and records calls which break the exporter contract.
+     */
+    private static final class CheckingExporter implements SpanExporter {
+        private final LongAdder exportedSpans = new LongAdder();
+        private final LongAdder exportedPrioritySpans = new LongAdder();
+        private final AtomicInteger activeExports = new AtomicInteger();
+        private final AtomicInteger concurrentExports = new AtomicInteger();
+        private final AtomicInteger exportsAfterShutdown = new AtomicInteger();
+        private final AtomicInteger shutdowns = new AtomicInteger();
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            if (activeExports.incrementAndGet() > 1) {
+                concurrentExports.incrementAndGet();
+            }
+            if (shutdowns.get() > 0) {
+                exportsAfterShutdown.incrementAndGet();
+            }
+            try {
+                // Slow enough for the queue to overflow under load
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exportedSpans.add(spans.size());
+            for (SpanData span : spans) {
+                if (span.getStatus().getStatusCode() == StatusCode.ERROR) {
+                    exportedPrioritySpans.increment();
+                }
+            }
+            activeExports.decrementAndGet();
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            shutdowns.incrementAndGet();
+            return CompletableResultCode.ofSuccess();
+        }
+
+        private void assertConsistent() {
+            Assert.assertEquals(concurrentExports.get(), 0, "concurrent exports");
+            Assert.assertEquals(exportsAfterShutdown.get(), 0, "exports after shutdown");
+            Assert.assertTrue(shutdowns.get() <= 1, "exporter shut down " + shutdowns.get() + " times");
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the priority lane and the batch size of {@link AmpBatchSpanProcessor}.
+ */
+public class AmpBatchSpanProcessorTest {
+
+    @Test
+    public void testPriorityAttributeOfAnyType() throws InterruptedException {
+        RecordingExporter exporter = new RecordingExporter(1);
+        AmpBatchSpanProcessor processor = AmpBatchSpanProcessor.builder(exporter)
+                .setScheduleDelay(1, TimeUnit.HOURS)
+                .setMaxQueueSize(1)
+                .setPriorityQueueSize(4)
+                .setMaxExportBatchSize(1)
+                .setPriorityAttribute("important")
+                .build();
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder().addSpanProcessor(processor).build();
+        Tracer tracer = tracerProvider.get("test");
+
+        // The worker waits in the export of the first span while the other spans are queued
+        exporter.blocked = new CountDownLatch(1);
+        tracer.spanBuilder("first").startSpan().end();
+        Assert.assertTrue(exporter.exported.await(10, TimeUnit.SECONDS), "first span was not exported");
+        tracer.spanBuilder("normal").startSpan().end();
+        tracer.spanBuilder("string").setAttribute("important", "yes").startSpan().end();
+        tracer.spanBuilder("boolean").setAttribute("important", true).startSpan().end();
+        tracer.spanBuilder("long").setAttribute("important", 1L).startSpan().end();
+        tracer.spanBuilder("double").setAttribute("important", 0.5).startSpan().end();
+        Assert.assertEquals(processor.getDroppedNormalSpans(), 0);
+        Assert.assertEquals(processor.getDroppedPrioritySpans(), 0);
+        exporter.blocked.countDown();
+        Assert.assertTrue(processor.forceFlush().join(10, TimeUnit.SECONDS).isSuccess());
+
+        // The priority lane is drained first, so that the normal span comes last
+        Assert.assertEquals(exporter.names(), List.of("first", "string", "boolean", "long", "double", "normal"));
+        tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testBatchSizeIsLimitedByQueueSize() throws InterruptedException {
+        RecordingExporter exporter = new RecordingExporter(1);
+        AmpBatchSpanProcessor processor = AmpBatchSpanProcessor.builder(exporter)
+                .setScheduleDelay(1, TimeUnit.HOURS)
+                .setMaxQueueSize(4)
+                .setMaxExportBatchSize(10000)
+                .build();
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder().addSpanProcessor(processor).build();
+        Tracer tracer = tracerProvider.get("test");
+
+        for (int i = 0; i < 4; i++) {
+            tracer.spanBuilder("span").startSpan().end();
+        }
+        // A full queue is exported without waiting for the schedule delay
+        Assert.assertTrue(exporter.exported.await(10, TimeUnit.SECONDS), "full batch was not exported");
+        Assert.assertEquals(exporter.names().size(), 4);
+        tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Exporter which records the names of the exported spans in the order in which they are exported, and which
+ * waits for a latch when one is set.
+     */
+    private static final class RecordingExporter implements SpanExporter {
+        private final List<String> names = new ArrayList<>();
+        private final CountDownLatch exported;
+        private volatile CountDownLatch blocked;
+
+        private RecordingExporter(int exports) {
+            this.exported = new CountDownLatch(exports);
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            synchronized (this) {
+                for (SpanData span : spans) {
+                    names.add(span.getName());
+                }
+            }
+            exported.countDown();
+            CountDownLatch latch = blocked;
+            if (latch != null) {
+                try {
+                    latch.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return CompletableResultCode.ofSuccess();
+        }
+
+        private synchronized List<String> names() {
+            return new ArrayList<>(names);
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests for {@link SlowSpanProfiler}.
+ */
+public class SlowSpanProfilerTest {
+    private static final long THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private CollectingExporter exporter;
+    private SlowSpanProfiler profiler;
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    private void setup(int capacity) {
+        exporter = new CollectingExporter();
+        profiler = new SlowSpanProfiler(THRESHOLD_NANOS, INTERVAL_NANOS, capacity, nanoTime::get);
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(AmpBatchSpanProcessor.builder(exporter).addStage(profiler).build())
+                .build();
+        tracer = tracerProvider.get("test");
+    }
+
+    @AfterMethod
+    public void cleanUp() {
+        tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+        profiler.close();
+    }
+
+    @Test
+    public void testSamplesSlowSpan() throws InterruptedException {
+        setup(16);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread worker = new Thread(() -> {
+            Span span = tracer.spanBuilder("get /orders").startSpan();
+            started.countDown();
+            waitInSlowCall(release);
+            span.end();
+        });
+        worker.start();
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+        awaitWaiting(worker);
+
+        // Not sampled before the threshold
+        profiler.sample(nanoTime.addAndGet(THRESHOLD_NANOS / 2));
+        for (int i = 0; i < 3; i++) {
+            profiler.sample(nanoTime.addAndGet(THRESHOLD_NANOS));
+        }
+        release.countDown();
+        worker.join(10000);
+
+        EventData event = flushOne().getEvents().get(0);
+        Assert.assertEquals(event.getName(), SlowSpanProfiler.EVENT_NAME);
+        Assert.assertEquals(event.getAttributes().get(SlowSpanProfiler.SAMPLES), Long.valueOf(3));
+        Assert.assertEquals(event.getAttributes().get(SlowSpanProfiler.INTERVAL_MILLIS), Long.valueOf(10));
+        Assert.assertEquals(event.getAttributes().get(SlowSpanProfiler.TRUNCATED), Boolean.FALSE);
+        List<String> stacks = event.getAttributes().get(SlowSpanProfiler.STACKS);
+        Assert.assertEquals(stacks.size(), 1, stacks.toString());
+        Assert.assertTrue(stacks.get(0).contains(SlowSpanProfilerTest.class.getName() + ".waitInSlowCall;"),
+                stacks.get(0));
+        Assert.assertTrue(stacks.get(0).endsWith(" 3"), stacks.get(0));
+        Assert.assertEquals(profiler.getProfiledSpans(), 1);
+    }
+
+    @Test
+    public void testCapsSamplesPerSpan() throws InterruptedException {
+        setup(16);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread worker = new Thread(() -> {
+            Span span = tracer.spanBuilder("get /orders").startSpan();
+            started.countDown();
+            waitInSlowCall(release);
+            span.end();
+        });
+        worker.start();
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+        awaitWaiting(worker);
+
+        for (int i = 0; i < SlowSpanProfiler.MAX_SAMPLES_PER_SPAN * 2; i++) {
+            profiler.sample(nanoTime.addAndGet(THRESHOLD_NANOS));
+        }
+        release.countDown();
+        worker.join(10000);
+
+        EventData event = flushOne().getEvents().get(0);
+        Assert.assertEquals(event.getAttributes().get(SlowSpanProfiler.SAMPLES),
+                Long.valueOf(SlowSpanProfiler.MAX_SAMPLES_PER_SPAN));
+    }
+
+    @Test
+    public void testLeavesFastSpanAsItIs() {
+        setup(16);
+        Span span = tracer.spanBuilder("get /sum").startSpan();
+        profiler.sample(nanoTime.addAndGet(THRESHOLD_NANOS / 2));
+        span.end();
+
+        Assert.assertTrue(flushOne().getEvents().isEmpty());
+        Assert.assertEquals(profiler.getProfiledSpans(), 0);
+    }
+
+    @Test
+    public void testLeavesSpansUntrackedWhenFull() {
+        setup(2);
+        Span first = tracer.spanBuilder("first").startSpan();
+        Span second = tracer.spanBuilder("second").startSpan();
+        Span third = tracer.spanBuilder("third").startSpan();
+        Assert.assertEquals(profiler.getUntrackedSpans(), 1);
+        third.end();
+        second.end();
+        first.end();
+
+        // The slots are released when the spans end
+        tracer.spanBuilder("fourth").startSpan().end();
+        tracer.spanBuilder("fifth").startSpan().end();
+        Assert.assertEquals(profiler.getUntrackedSpans(), 1);
+    }
+
+    @Test
+    public void testReleasesSpansEndedOutsideStages() {
+        setup(1);
+        // A span which starts in this profiler, but whose end reaches it only through another processor
+        SdkTracerProvider otherProvider = SdkTracerProvider.builder().build();
+        ReadWriteSpan span = (ReadWriteSpan) otherProvider.get("test").spanBuilder("lost").startSpan();
+        profiler.onStart(Context.root(), span);
+        span.end();
+        otherProvider.shutdown();
+
+        tracer.spanBuilder("blocked").startSpan().end();
+        Assert.assertEquals(profiler.getUntrackedSpans(), 1);
+
+        // Released at the second interval after it ended
+        profiler.sample(nanoTime.addAndGet(INTERVAL_NANOS));
+        profiler.sample(nanoTime.addAndGet(INTERVAL_NANOS));
+        tracer.spanBuilder("tracked").startSpan().end();
+        Assert.assertEquals(profiler.getUntrackedSpans(), 1);
+    }
+
+    @Test
+    public void testFoldKeepsTopFrames() {
+        StackTraceElement[] stack = new StackTraceElement[SlowSpanProfiler.MAX_FRAMES + 10];
+        for (int i = 0; i < stack.length; i++) {
+            stack[i] = new StackTraceElement("Frame", "method" + i, "Frame.java", i);
+        }
+
+        String folded = SlowSpanProfiler.fold(stack);
+        String[] frames = folded.split(";");
+        Assert.assertEquals(frames.length, SlowSpanProfiler.MAX_FRAMES);
+        Assert.assertEquals(frames[0], "Frame.method" + (SlowSpanProfiler.MAX_FRAMES - 1));
+        Assert.assertEquals(frames[frames.length - 1], "Frame.method0");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsNonPositiveThreshold() {
+        setup(16);
+        new SlowSpanProfiler(0, 10, TimeUnit.MILLISECONDS);
+    }
+
+    private static void waitInSlowCall(CountDownLatch release) {
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (thread.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private SpanData flushOne() {
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+        Assert.assertEquals(exporter.spans.size(), 1);
+        return exporter.spans.get(0);
+    }
+
+    private static final class CollectingExporter implements SpanExporter {
+        private final List<SpanData> spans = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            this.spans.addAll(spans);
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link SpanFilterStage}.
+ */
+public class SpanFilterStageTest {
+    private CollectingExporter exporter;
+    private SpanFilterStage stage;
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    @BeforeMethod
+    public void setup() {
+        exporter = new CollectingExporter();
+        stage = new SpanFilterStage(Arrays.asList(
+                SpanFilter.builder().setName("get /health*").setKind(SpanKind.SERVER).build(),
+                SpanFilter.builder().setName("ballerina/http/Caller:respond").build(),
+                SpanFilter.builder().addAttribute("http.url", "/readyz*").build()));
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(AmpBatchSpanProcessor.builder(exporter).addStage(stage).build())
+                .build();
+        tracer = tracerProvider.get("test");
+    }
+
+    @AfterMethod
+    public void cleanUp() {
+        tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testDropsSpansByNameAndKind() {
+        tracer.spanBuilder("get /health/live").setSpanKind(SpanKind.SERVER).startSpan().end();
+        tracer.spanBuilder("get /health/live").setSpanKind(SpanKind.CLIENT).startSpan().end();
+        tracer.spanBuilder("get /sum").setSpanKind(SpanKind.SERVER).startSpan().end();
+
+        Map<String, SpanData> spans = flush();
+        Assert.assertEquals(spans.size(), 2);
+        Assert.assertEquals(spans.get("get /health/live").getKind(), SpanKind.CLIENT);
+        Assert.assertTrue(spans.containsKey("get /sum"));
+        Assert.assertEquals(stage.getFilteredSpans(), 1);
+    }
+
+    @Test
+    public void testDropsSpansByAttributes() {
+        Span ready = tracer.spanBuilder("get /readyz").setSpanKind(SpanKind.SERVER).startSpan();
+        ready.setAttribute("http.url", "/readyz?verbose");
+        ready.end();
+        Span sum = tracer.spanBuilder("get /sum").setSpanKind(SpanKind.SERVER).startSpan();
+        sum.setAttribute("http.url", "/test/sum");
+        sum.end();
+
+        Map<String, SpanData> spans = flush();
+        Assert.assertEquals(spans.keySet(), Collections.singleton("get /sum"));
+    }
+
+    @Test
+    public void testReparentsChildrenOfDroppedSpan() {
+        Span root = tracer.spanBuilder("get /sum").setSpanKind(SpanKind.SERVER).startSpan();
+        Span respond = tracer.spanBuilder("ballerina/http/Caller:respond")
+                .setParent(Context.root().with(root)).startSpan();
+        Span child = tracer.spanBuilder("ballerina/log:printInfo")
+                .setParent(Context.root().with(respond)).startSpan();
+        Span grandchild = tracer.spanBuilder("ballerina/io:println")
+                .setParent(Context.root().with(child)).startSpan();
+        grandchild.end();
+        child.end();
+        respond.end();
+        root.end();
+
+        Map<String, SpanData> spans = flush();
+        Assert.assertEquals(spans.size(), 3);
+        Assert.assertEquals(spans.get("ballerina/log:printInfo").getParentSpanId(), root.getSpanContext().getSpanId());
+        Assert.assertEquals(spans.get("ballerina/log:printInfo").getParentSpanContext(), root.getSpanContext());
+        Assert.assertEquals(spans.get("ballerina/io:println").getParentSpanId(), child.getSpanContext().getSpanId());
+    }
+
+    @Test
+    public void testReparentsToNearestKeptAncestor() {
+        Span root = tracer.spanBuilder("get /sum").setSpanKind(SpanKind.SERVER).startSpan();
+        Span respond = tracer.spanBuilder("ballerina/http/Caller:respond")
+                .setParent(Context.root().with(root)).startSpan();
+        Span ready = tracer.spanBuilder("ballerina/http/Client:get")
+                .setParent(Context.root().with(respond)).startSpan();
+        ready.setAttribute("http.url", "/readyz");
+        ready.end();
+        respond.end();
+        // Ends after its parent and grandparent were dropped
+        Span child = tracer.spanBuilder("ballerina/log:printInfo")
+                .setParent(Context.root().with(ready)).startSpan();
+        child.end();
+        root.end();
+
+        Map<String, SpanData> spans = flush();
+        Assert.assertEquals(spans.size(), 2);
+        Assert.assertEquals(spans.get("ballerina/log:printInfo").getParentSpanId(), root.getSpanContext().getSpanId());
+    }
+
+    @Test
+    public void testReparentsChildrenWhichEndBeforeParentIsDropped() {
+        Span root = tracer.spanBuilder("get /sum").setSpanKind(SpanKind.SERVER).startSpan();
+        Span ready = tracer.spanBuilder("ballerina/http/Client:get")
+                .setParent(Context.root().with(root)).startSpan();
+        Span child = tracer.spanBuilder("ballerina/log:printInfo")
+                .setParent(Context.root().with(ready)).startSpan();
+        Span grandchild = tracer.spanBuilder("ballerina/io:println")
+                .setParent(Context.root().with(child)).startSpan();
+        grandchild.end();
+        child.end();
+        // Ballerina sets the attributes when the span ends, after its children ended
+        ready.setAttribute("http.url", "/readyz");
+        ready.end();
+        root.end();
+
+        Map<String, SpanData> spans = flush();
+        Assert.assertEquals(spans.keySet(), Set.of("get /sum", "ballerina/log:printInfo", "ballerina/io:println"));
+        Assert.assertEquals(spans.get("ballerina/log:printInfo").getParentSpanContext(), root.getSpanContext());
+        Assert.assertEquals(spans.get("ballerina/io:println").getParentSpanId(), child.getSpanContext().getSpanId());
+        Assert.assertEquals(stage.getFilteredSpans(), 1);
+    }
+
+    @Test
+    public void testDropsChildrenWhichEndBeforeRootIsDropped() {
+        Span ready = tracer.spanBuilder("get /readyz").setSpanKind(SpanKind.SERVER).startSpan();
+        tracer.spanBuilder("ballerina/log:printInfo").setParent(Context.root().with(ready)).startSpan().end();
+        ready.setAttribute("http.url", "/readyz");
+        ready.end();
+
+        Assert.assertTrue(flush().isEmpty());
+        Assert.assertEquals(stage.getFilteredSpans(), 2);
+    }
+
+    @Test
+    public void testReparentsToRemoteParent() {
+        SpanContext remote = SpanContext.createFromRemoteParent("0af7651916cd43dd8448eb211c80319c",
+                "b7ad6b7169203331", TraceFlags.getSampled(), TraceState.getDefault());
+        Span health = tracer.spanBuilder("get /health").setSpanKind(SpanKind.SERVER)
+                .setParent(Context.root().with(Span.wrap(remote))).startSpan();
+        Span child = tracer.spanBuilder("ballerina/log:printInfo")
+                .setParent(Context.root().with(health)).startSpan();
+        child.end();
+        health.end();
+
+        Map<String, SpanData> spans = flush();
+        Assert.assertEquals(spans.size(), 1);
+        Assert.assertEquals(spans.get("ballerina/log:printInfo").getParentSpanContext(), remote);
+    }
+
+    @Test
+    public void testDropsDescendantsOfDroppedRoot() {
+        Span health = tracer.spanBuilder("get /health").setSpanKind(SpanKind.SERVER).startSpan();
+        Span child = tracer.spanBuilder("ballerina/log:printInfo")
+                .setParent(Context.root().with(health)).startSpan();
+        Span grandchild = tracer.spanBuilder("ballerina/io:println")
+                .setParent(Context.root().with(child)).startSpan();
+        grandchild.end();
+        child.end();
+        health.end();
+        tracer.spanBuilder("get /sum").setSpanKind(SpanKind.SERVER).startSpan().end();
+
+        Map<String, SpanData> spans = flush();
+        Assert.assertEquals(spans.keySet(), Collections.singleton("get /sum"));
+        Assert.assertEquals(stage.getFilteredSpans(), 3);
+    }
+
+    @Test
+    public void testNamePatterns() {
+        assertNameMatches("get /sum", "get /sum", true);
+        assertNameMatches("get /sum", "get /sum/1", false);
+        assertNameMatches("get *", "get /sum", true);
+        assertNameMatches("*:respond", "ballerina/http/Caller:respond", true);
+        assertNameMatches("*/http/*", "ballerina/http/Caller:respond", true);
+        assertNameMatches("*/http/*", "ballerina/grpc/Caller:send", false);
+        assertNameMatches("ballerina/*/Caller:*", "ballerina/http/Caller:respond", true);
+        assertNameMatches("ballerina/*/Caller:*", "ballerina/http/Client:get", false);
+        assertNameMatches("a.c*", "abc", false);
+        assertNameMatches("", "anything", true);
+    }
+
+    private static void assertNameMatches(String pattern, String name, boolean expected) {
+        SpanFilter filter = SpanFilter.builder().setName(pattern).build();
+        Assert.assertEquals(filter.matches(name, SpanKind.INTERNAL, Attributes.empty()), expected,
+                pattern + " matching " + name);
+    }
+
+    private Map<String, SpanData> flush() {
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+        return exporter.spans;
+    }
+
+    private static final class CollectingExporter implements SpanExporter {
+        private final Map<String, SpanData> spans = new ConcurrentHashMap<>();
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            for (SpanData span : spans) {
+                this.spans.put(span.getName(), span);
+            }
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
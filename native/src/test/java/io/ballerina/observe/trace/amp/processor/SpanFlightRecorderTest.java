@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import io.ballerina.observe.trace.amp.processor.SpanFlightRecorder.RecordedSpan;
+import io.ballerina.observe.trace.amp.sampler.RecordingSampler;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.Clock;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link SpanFlightRecorder}.
+ */
+public class SpanFlightRecorderTest {
+    private CollectingExporter exporter;
+    private AmpBatchSpanProcessor spanProcessor;
+    private SpanFlightRecorder recorder;
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    private void createTracer(int capacity, Sampler sampler) {
+        exporter = new CollectingExporter();
+        spanProcessor = AmpBatchSpanProcessor.builder(exporter).build();
+        recorder = new SpanFlightRecorder(capacity, Clock.getDefault());
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(spanProcessor)
+                .addSpanProcessor(recorder)
+                .setSampler(new RecordingSampler(sampler))
+                .build();
+        tracer = tracerProvider.get("test");
+    }
+
+    @AfterMethod
+    public void cleanUp() {
+        tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testRecordsSpansWhichAreNotSampled() {
+        createTracer(16, Sampler.alwaysOff());
+        Span root = tracer.spanBuilder("get /orders").setSpanKind(SpanKind.SERVER).startSpan();
+        Span child = startChild(root, "ballerina/http/Client:get");
+        child.end();
+        root.end();
+
+        List<RecordedSpan> spans = recorder.getTrace(root.getSpanContext().getTraceId());
+        Assert.assertEquals(spans.size(), 2);
+        RecordedSpan recordedChild = spans.get(0);
+        RecordedSpan recordedRoot = spans.get(1);
+        Assert.assertEquals(recordedChild.getName(), "ballerina/http/Client:get");
+        Assert.assertEquals(recordedChild.getSpanId(), child.getSpanContext().getSpanId());
+        Assert.assertEquals(recordedChild.getParentSpanId(), root.getSpanContext().getSpanId());
+        Assert.assertEquals(recordedChild.getKind(), SpanKind.CLIENT);
+        Assert.assertEquals(recordedRoot.getParentSpanId(), SpanId.getInvalid());
+        Assert.assertEquals(recordedRoot.getKind(), SpanKind.SERVER);
+        Assert.assertEquals(recordedRoot.getTraceId(), root.getSpanContext().getTraceId());
+        Assert.assertFalse(recordedRoot.isSampled());
+        Assert.assertFalse(recordedRoot.isFailed());
+        Assert.assertTrue(recordedRoot.getStartEpochNanos() <= recordedChild.getStartEpochNanos());
+        Assert.assertTrue(recordedChild.getEndEpochNanos() <= recordedRoot.getEndEpochNanos());
+
+        // Spans which are not sampled are not exported
+        spanProcessor.forceFlush().join(10, TimeUnit.SECONDS);
+        Assert.assertTrue(exporter.spans.isEmpty());
+    }
+
+    @Test
+    public void testKeepsLatestRecords() {
+        createTracer(8, Sampler.alwaysOn());
+        List<Span> spans = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Span span = tracer.spanBuilder("span-" + i).startSpan();
+            span.end();
+            spans.add(span);
+        }
+        for (int i = 0; i < spans.size(); i++) {
+            List<RecordedSpan> recorded = recorder.getTrace(spans.get(i).getSpanContext().getTraceId());
+            if (i < 12) {
+                Assert.assertTrue(recorded.isEmpty(), "span " + i + " was not overwritten");
+            } else {
+                Assert.assertEquals(recorded.size(), 1);
+                Assert.assertEquals(recorded.get(0).getName(), "span-" + i);
+                Assert.assertTrue(recorded.get(0).isSampled());
+            }
+        }
+    }
+
+    @Test
+    public void testTruncatesLongNames() {
+        createTracer(4, Sampler.alwaysOn());
+        String name = "caf\u00e9/" + "x".repeat(200);
+        Span span = tracer.spanBuilder(name).startSpan();
+        span.end();
+
+        String recordedName = recorder.getTrace(span.getSpanContext().getTraceId()).get(0).getName();
+        Assert.assertEquals(recordedName.length(), SpanFlightRecorder.MAX_NAME_LENGTH);
+        Assert.assertTrue(recordedName.startsWith("caf?/xxx"));
+    }
+
+    @Test
+    public void testFailedTracesInTimeWindow() {
+        createTracer(64, Sampler.alwaysOff());
+        Span succeeded = tracer.spanBuilder("get /health").startSpan();
+        succeeded.end();
+        long from = System.currentTimeMillis() * 1_000_000;
+        Span root = tracer.spanBuilder("get /orders").startSpan();
+        startChild(root, "ballerina/sql/Client:query").end();
+        Span failed = startChild(root, "ballerina/http/Client:get");
+        failed.setAttribute("error", "true");
+        failed.end();
+        root.end();
+        long to = System.currentTimeMillis() * 1_000_000 + 1_000_000;
+
+        List<RecordedSpan> spans = recorder.getFailedTraces(from, to);
+        Assert.assertEquals(spans.size(), 3);
+        for (RecordedSpan span : spans) {
+            Assert.assertEquals(span.getTraceId(), root.getSpanContext().getTraceId());
+            Assert.assertEquals(span.isFailed(), span.getName().equals("ballerina/http/Client:get"));
+        }
+        Assert.assertTrue(recorder.getFailedTraces(to, to + TimeUnit.SECONDS.toNanos(1)).isEmpty());
+    }
+
+    @Test
+    public void testPromotedSpansAreExported() {
+        createTracer(64, Sampler.alwaysOff());
+        Span root = tracer.spanBuilder("get /orders").setSpanKind(SpanKind.SERVER).startSpan();
+        Span child = startChild(root, "ballerina/http/Client:get");
+        child.setAttribute("error", "true");
+        child.end();
+        root.end();
+
+        Resource resource = Resource.empty().toBuilder().put("service.name", "orders").build();
+        List<SpanData> promoted = SpanFlightRecorder.promote(
+                recorder.getTrace(root.getSpanContext().getTraceId()), resource);
+        spanProcessor.export(promoted);
+        spanProcessor.forceFlush().join(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(exporter.spans.size(), 2);
+        SpanData exportedChild = exporter.spans.get(0);
+        Assert.assertEquals(exportedChild.getSpanContext().getSpanId(), child.getSpanContext().getSpanId());
+        Assert.assertTrue(exportedChild.getSpanContext().isSampled());
+        Assert.assertEquals(exportedChild.getParentSpanContext().getSpanId(), root.getSpanContext().getSpanId());
+        Assert.assertEquals(exportedChild.getStatus().getStatusCode(), StatusCode.ERROR);
+        Assert.assertEquals(exportedChild.getAttributes().get(SpanFlightRecorder.PROMOTED), Boolean.TRUE);
+        Assert.assertEquals(exportedChild.getResource(), resource);
+        Assert.assertFalse(exporter.spans.get(1).getParentSpanContext().isValid());
+    }
+
+    @Test
+    public void testSampledSpansAreNotPromoted() {
+        createTracer(64, Sampler.alwaysOn());
+        Span span = tracer.spanBuilder("get /orders").startSpan();
+        span.end();
+
+        Assert.assertTrue(SpanFlightRecorder.promote(recorder.getTrace(span.getSpanContext().getTraceId()),
+                Resource.empty()).isEmpty());
+    }
+
+    @Test
+    public void testJson() {
+        createTracer(4, Sampler.alwaysOff());
+        Span span = tracer.spanBuilder("say \"hello\"").startSpan();
+        span.end();
+
+        String json = SpanFlightRecorder.toJson(recorder.getTrace(span.getSpanContext().getTraceId()));
+        Assert.assertTrue(json.startsWith("[{\"traceId\":\"" + span.getSpanContext().getTraceId() + "\""), json);
+        Assert.assertTrue(json.contains("\"name\":\"say \\\"hello\\\"\""), json);
+        Assert.assertTrue(json.contains("\"sampled\":false,\"failed\":false}]"), json);
+        Assert.assertEquals(SpanFlightRecorder.toJson(List.of()), "[]");
+    }
+
+    @Test
+    public void testReadersSkipRecordsBeingWritten() throws InterruptedException {
+        createTracer(32, Sampler.alwaysOff());
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger tornRecords = new AtomicInteger();
+        List<Thread> writers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread writer = new Thread(() -> {
+                while (running.get()) {
+                    Span span = tracer.spanBuilder("span").startSpan();
+                    // The name repeats the span ID, so that a torn record does not match itself
+                    span.updateName(span.getSpanContext().getSpanId());
+                    span.setAttribute("error", "true");
+                    span.end();
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+        int readSpans = 0;
+        while (System.nanoTime() < deadline) {
+            for (RecordedSpan span : recorder.getFailedTraces(Long.MIN_VALUE, Long.MAX_VALUE)) {
+                readSpans++;
+                if (!span.getName().equals(span.getSpanId()) || !span.isFailed()) {
+                    tornRecords.incrementAndGet();
+                }
+            }
+        }
+        running.set(false);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        Assert.assertTrue(readSpans > 0);
+        Assert.assertEquals(tornRecords.get(), 0);
+    }
+
+    private Span startChild(Span parent, String name) {
+        return tracer.spanBuilder(name)
+                .setParent(Context.root().with(parent))
+                .setSpanKind(SpanKind.CLIENT)
+                .startSpan();
+    }
+
+    private static final class CollectingExporter implements SpanExporter {
+        private final List<SpanData> spans = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            this.spans.addAll(spans);
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
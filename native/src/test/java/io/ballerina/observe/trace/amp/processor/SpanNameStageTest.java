@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link SpanNameStage}.
+ */
+public class SpanNameStageTest {
+    private CollectingExporter exporter;
+    private SpanNameStage stage;
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    @BeforeMethod
+    public void setup() {
+        exporter = new CollectingExporter();
+        stage = new SpanNameStage(3);
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(AmpBatchSpanProcessor.builder(exporter).addStage(stage).build())
+                .build();
+        tracer = tracerProvider.get("test");
+    }
+
+    @AfterMethod
+    public void cleanUp() {
+        tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testKeepsNamesWithinLimit() {
+        tracer.spanBuilder("get /orders/1").startSpan().end();
+        tracer.spanBuilder("get /orders/2").startSpan().end();
+        tracer.spanBuilder("get /orders/1").startSpan().end();
+
+        Assert.assertEquals(flush(), List.of("get /orders/1", "get /orders/2", "get /orders/1"));
+        Assert.assertFalse(stage.isTemplating());
+        Assert.assertEquals(stage.getDistinctNames(), 2);
+        Assert.assertEquals(stage.getTemplatedSpans(), 0);
+    }
+
+    @Test
+    public void testTemplatesNamesOverLimit() {
+        for (int i = 1; i <= 5; i++) {
+            tracer.spanBuilder("get /orders/" + i).startSpan().end();
+        }
+        tracer.spanBuilder("get /orders/1").startSpan().end();
+        tracer.spanBuilder("get /health").startSpan().end();
+
+        Assert.assertEquals(flush(), List.of("get /orders/1", "get /orders/2", "get /orders/3",
+                "get /orders/{num}", "get /orders/{num}", "get /orders/{num}", "get /health"));
+        Assert.assertTrue(stage.isTemplating());
+        Assert.assertEquals(stage.getDistinctNames(), 3);
+        Assert.assertEquals(stage.getTemplatedSpans(), 3);
+    }
+
+    @Test
+    public void testKeepsTemplatingWhileNamesAreEvicted() {
+        SpanNameStage bounded = new SpanNameStage(2);
+        for (int i = 0; i < 100; i++) {
+            bounded.normalize("get /orders/" + i + "/item" + i);
+        }
+
+        Assert.assertEquals(bounded.normalize("get /orders/1/item1"), "get /orders/{num}/item1");
+        Assert.assertEquals(bounded.normalize("get /orders/99/item99"), "get /orders/{num}/item99");
+        Assert.assertEquals(bounded.getDistinctNames(), 2);
+    }
+
+    @Test
+    public void testKeepsHotNamesWhileTemplating() {
+        SpanNameStage bounded = new SpanNameStage(4);
+        for (int i = 0; i < 5; i++) {
+            bounded.normalize("get /items/" + i);
+        }
+        Assert.assertTrue(bounded.isTemplating());
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(bounded.normalize("get /orders/1"), "get /orders/{num}");
+            bounded.normalize("get /customers/" + i);
+        }
+        Assert.assertTrue(bounded.isKnown("get /orders/1"));
+        Assert.assertFalse(bounded.isKnown("get /customers/0"));
+    }
+
+    @Test
+    public void testKeepsNamesChangedAfterStart() {
+        for (int i = 1; i <= 4; i++) {
+            tracer.spanBuilder("get /orders/" + i).startSpan().end();
+        }
+        tracer.spanBuilder("get /orders/5").startSpan().updateName("get /orders/5/items").end();
+
+        Assert.assertEquals(flush().get(4), "get /orders/5/items");
+    }
+
+    @Test
+    public void testTemplate() {
+        Assert.assertEquals(SpanNameStage.template("get /orders/1234/items/5"), "get /orders/{num}/items/{num}");
+        Assert.assertEquals(SpanNameStage.template("get /users/123e4567-e89b-12d3-a456-426614174000"),
+                "get /users/{uuid}");
+        Assert.assertEquals(SpanNameStage.template("get /commits/9fceb02d0ae598e95dc970b74767f19372d61af8/"),
+                "get /commits/{hex}/");
+        Assert.assertEquals(SpanNameStage.template("/1/"), "/{num}/");
+    }
+
+    @Test
+    public void testTemplateKeepsWords() {
+        for (String name : new String[]{"get /sum", "get /cafe/deadbeef", "get /v2/orders", "get /orders/12a",
+                "get /users/123e4567-e89b-12d3-a456-42661417400g", "ballerina/http/Caller:respond", "", "/", "//"}) {
+            Assert.assertSame(SpanNameStage.template(name), name, name);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsNonPositiveLimit() {
+        new SpanNameStage(0);
+    }
+
+    private List<String> flush() {
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+        List<String> names = new ArrayList<>();
+        for (SpanData span : exporter.spans) {
+            names.add(span.getName());
+        }
+        return names;
+    }
+
+    private static final class CollectingExporter implements SpanExporter {
+        private final List<SpanData> spans = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            this.spans.addAll(spans);
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
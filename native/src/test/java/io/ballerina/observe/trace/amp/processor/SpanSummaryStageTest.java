@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.processor;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for {@link SpanSummaryStage}.
+ */
+public class SpanSummaryStageTest {
+    private static final PrintStream console = System.out;
+
+    private CollectingExporter exporter;
+    private SpanSummaryStage stage;
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    @BeforeMethod
+    public void setup() {
+        createTracer(new SpanSummaryStage(5, 2));
+    }
+
+    private void createTracer(SpanSummaryStage stage) {
+        exporter = new CollectingExporter();
+        this.stage = stage;
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(AmpBatchSpanProcessor.builder(exporter)
+                        .setMaxQueueSize(100000)
+                        .addStage(stage)
+                        .build())
+                .build();
+        tracer = tracerProvider.get("test");
+    }
+
+    @AfterMethod
+    public void cleanUp() {
+        tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testSummarizesRunOfSiblings() {
+        Span root = tracer.spanBuilder("get /orders").setSpanKind(SpanKind.SERVER).startSpan();
+        for (int i = 0; i < 20; i++) {
+            startChild(root, "ballerina/http/Client:get").end();
+        }
+        root.end();
+
+        List<SpanData> spans = flush();
+        Assert.assertEquals(spans.size(), 4);
+        List<SpanData> gets = named(spans, "ballerina/http/Client:get");
+        List<SpanData> summaries = gets.stream()
+                .filter(span -> span.getAttributes().get(SpanSummaryStage.SUMMARY_COUNT) != null)
+                .collect(Collectors.toList());
+        Assert.assertEquals(summaries.size(), 1);
+        SpanData summary = summaries.get(0);
+        Assert.assertEquals(summary.getAttributes().get(SpanSummaryStage.SUMMARY_COUNT), Long.valueOf(20));
+        Assert.assertEquals(summary.getParentSpanId(), root.getSpanContext().getSpanId());
+        long min = summary.getAttributes().get(SpanSummaryStage.SUMMARY_DURATION_MIN);
+        long max = summary.getAttributes().get(SpanSummaryStage.SUMMARY_DURATION_MAX);
+        long total = summary.getAttributes().get(SpanSummaryStage.SUMMARY_DURATION_TOTAL);
+        Assert.assertTrue(min <= max && max <= total, min + " " + max + " " + total);
+        for (SpanData exemplar : gets) {
+            if (exemplar != summary) {
+                Assert.assertEquals(exemplar.getAttributes().get(SpanSummaryStage.SUMMARY_EXEMPLAR), Boolean.TRUE);
+                Assert.assertTrue(summary.getStartEpochNanos() <= exemplar.getStartEpochNanos()
+                        && exemplar.getEndEpochNanos() <= summary.getEndEpochNanos());
+            }
+        }
+        Assert.assertEquals(stage.getSummarizedSpans(), 17);
+    }
+
+    @Test
+    public void testKeepsShortRunsAndDifferentStatus() {
+        Span root = tracer.spanBuilder("get /orders").setSpanKind(SpanKind.SERVER).startSpan();
+        for (int i = 0; i < 4; i++) {
+            startChild(root, "ballerina/sql/Client:query").end();
+        }
+        for (int i = 0; i < 10; i++) {
+            Span get = startChild(root, "ballerina/http/Client:get");
+            if (i % 5 == 0) {
+                get.setStatus(StatusCode.ERROR);
+            }
+            get.end();
+        }
+        root.end();
+
+        List<SpanData> spans = flush();
+        Assert.assertEquals(named(spans, "ballerina/sql/Client:query").size(), 4);
+        List<SpanData> gets = named(spans, "ballerina/http/Client:get");
+        // The two failed calls are kept, and the eight successful ones are summarized with two exemplars
+        Assert.assertEquals(gets.stream().filter(span -> span.getStatus().getStatusCode() == StatusCode.ERROR)
+                .count(), 2);
+        Assert.assertEquals(gets.size(), 5);
+    }
+
+    @Test
+    public void testDoesNotSummarizeParents() {
+        Span root = tracer.spanBuilder("get /orders").setSpanKind(SpanKind.SERVER).startSpan();
+        for (int i = 0; i < 10; i++) {
+            Span item = startChild(root, "process item");
+            startChild(item, "ballerina/log:printInfo").end();
+            item.end();
+        }
+        root.end();
+
+        List<SpanData> spans = flush();
+        Assert.assertEquals(named(spans, "process item").size(), 10);
+        Assert.assertEquals(named(spans, "ballerina/log:printInfo").size(), 10);
+        Assert.assertEquals(stage.getSummarizedSpans(), 0);
+    }
+
+    @Test
+    public void testFlushPassesOnHeldBackSpans() {
+        Span root = tracer.spanBuilder("get /orders").setSpanKind(SpanKind.SERVER).startSpan();
+        for (int i = 0; i < 3; i++) {
+            startChild(root, "ballerina/http/Client:get").end();
+        }
+
+        List<SpanData> spans = flush();
+        Assert.assertEquals(named(spans, "ballerina/http/Client:get").size(), 3);
+        root.end();
+    }
+
+    @Test
+    public void testKeepsSpansWithPropagatedContext() {
+        tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+        PropagatedSpans propagatedSpans = new PropagatedSpans();
+        createTracer(new SpanSummaryStage(5, 2, propagatedSpans));
+        TextMapPropagator propagator = propagatedSpans.track(W3CTraceContextPropagator.getInstance());
+        Span root = tracer.spanBuilder("get /orders").setSpanKind(SpanKind.SERVER).startSpan();
+        Set<String> propagated = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            Span get = startChild(root, "ballerina/http/Client:get");
+            if (i % 3 == 0) {
+                // The called service continues the trace under the span
+                propagator.inject(Context.root().with(get), new HashMap<String, String>(), Map::put);
+                propagated.add(get.getSpanContext().getSpanId());
+            }
+            get.end();
+        }
+        root.end();
+
+        List<SpanData> gets = named(flush(), "ballerina/http/Client:get");
+        Set<String> kept = gets.stream()
+                .filter(span -> span.getAttributes().get(SpanSummaryStage.SUMMARY_COUNT) == null
+                        && span.getAttributes().get(SpanSummaryStage.SUMMARY_EXEMPLAR) == null)
+                .map(SpanData::getSpanId)
+                .collect(Collectors.toSet());
+        Assert.assertEquals(kept, propagated);
+        // The other six spans are summarized by the summary span and two exemplars
+        Assert.assertEquals(gets.size(), 7);
+        Assert.assertEquals(stage.getSummarizedSpans(), 3);
+    }
+
+    @Test
+    public void testPassesOnChildrenWhichEndAfterParent() {
+        SdkTracerProvider plainProvider = SdkTracerProvider.builder().build();
+        Tracer plainTracer = plainProvider.get("test");
+        SpanSummaryStage directStage = new SpanSummaryStage(5, 2);
+        List<SpanData> passed = new ArrayList<>();
+        Span root = plainTracer.spanBuilder("get /orders").setSpanKind(SpanKind.SERVER).startSpan();
+        Span late = plainTracer.spanBuilder("ballerina/log:printInfo").setParent(Context.root().with(root))
+                .startSpan();
+        root.end();
+        directStage.onEnd(((ReadableSpan) root).toSpanData(), passed::add);
+        late.end();
+        directStage.onEnd(((ReadableSpan) late).toSpanData(), passed::add);
+        plainProvider.shutdown().join(10, TimeUnit.SECONDS);
+
+        // Without a flush, which would pass on the held back spans anyway
+        Assert.assertEquals(passed.stream().map(SpanData::getName).collect(Collectors.toList()),
+                List.of("get /orders", "ballerina/log:printInfo"));
+    }
+
+    @Test
+    public void testReducesSpansOfRealisticWorkload() {
+        tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+        createTracer(new SpanSummaryStage(SpanSummaryStage.DEFAULT_MIN_RUN_LENGTH,
+                SpanSummaryStage.DEFAULT_EXEMPLARS));
+        Random random = new Random(42);
+        int createdSpans = 0;
+        for (int trace = 0; trace < 200; trace++) {
+            Span root = tracer.spanBuilder("post /checkout").setSpanKind(SpanKind.SERVER).startSpan();
+            createdSpans++;
+            int queries = 1 + random.nextInt(3);
+            for (int i = 0; i < queries; i++) {
+                startChild(root, "ballerina/sql/Client:query", SpanKind.CLIENT).end();
+                createdSpans++;
+            }
+            // Most requests call the inventory service for a few items, and some for a large cart
+            int items = random.nextInt(10) < 7 ? random.nextInt(6) : random.nextInt(301);
+            for (int i = 0; i < items; i++) {
+                Span get = startChild(root, "ballerina/http/Client:get", SpanKind.CLIENT);
+                if (random.nextInt(100) < 2) {
+                    get.setStatus(StatusCode.ERROR);
+                }
+                get.end();
+                createdSpans++;
+            }
+            Span respond = startChild(root, "ballerina/http/Caller:respond", SpanKind.INTERNAL);
+            startChild(respond, "ballerina/log:printInfo", SpanKind.INTERNAL).end();
+            respond.end();
+            root.end();
+            createdSpans += 2;
+        }
+
+        List<SpanData> spans = flush();
+        long summarized = stage.getSummarizedSpans();
+        Assert.assertEquals(spans.size() + summarized, createdSpans);
+        double reduction = (double) summarized / createdSpans;
+        console.println("span summarization reduced " + createdSpans + " spans to " + spans.size() + " ("
+                + Math.round(reduction * 100) + "%)");
+        Assert.assertTrue(reduction > 0.8, "reduction " + reduction);
+        long failed = spans.stream().filter(span -> span.getStatus().getStatusCode() == StatusCode.ERROR).count();
+        Assert.assertTrue(failed > 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidMinRunLength() {
+        new SpanSummaryStage(1, 1);
+    }
+
+    private Span startChild(Span parent, String name) {
+        return startChild(parent, name, SpanKind.CLIENT);
+    }
+
+    private Span startChild(Span parent, String name, SpanKind kind) {
+        return tracer.spanBuilder(name).setSpanKind(kind).setParent(Context.root().with(parent)).startSpan();
+    }
+
+    private static List<SpanData> named(List<SpanData> spans, String name) {
+        return spans.stream().filter(span -> span.getName().equals(name)).collect(Collectors.toList());
+    }
+
+    private List<SpanData> flush() {
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+        return exporter.spans;
+    }
+
+    private static final class CollectingExporter implements SpanExporter {
+        private final List<SpanData> spans = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            this.spans.addAll(spans);
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.recording;
+
+import io.ballerina.observe.trace.amp.processor.AmpBatchSpanProcessor;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.exporter.internal.otlp.traces.TraceRequestMarshaler;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static io.opentelemetry.semconv.ResourceAttributes.SERVICE_NAME;
+
+/**
+ * Tests for {@link SpanRecorder}, {@link SpanRecordWriter} and {@link SpanRecordReader}.
+ */
+public class SpanRecordingTest {
+    private static final String REMOTE_TRACE_ID = "0af7651916cd43dd8448eb211c80319c";
+    private static final String REMOTE_SPAN_ID = "b7ad6b7169203331";
+
+    private CollectingExporter exporter;
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+    private Path tempDir;
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        exporter = new CollectingExporter();
+        tracerProvider = SdkTracerProvider.builder()
+                .setResource(Resource.create(Attributes.of(SERVICE_NAME, "orders")))
+                .addSpanProcessor(AmpBatchSpanProcessor.builder(exporter).build())
+                .build();
+        tracer = tracerProvider.get("test", "1.0.0");
+        tempDir = Files.createTempDirectory("amp-recording");
+    }
+
+    @AfterMethod
+    public void cleanUp() throws IOException {
+        tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+        try (var paths = Files.walk(tempDir)) {
+            paths.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<SpanData> spans = createSpans();
+        byte[] recording = write(spans);
+
+        List<SpanData> read = read(new ByteArrayInputStream(recording));
+        Assert.assertEquals(read.size(), spans.size());
+        for (int i = 0; i < spans.size(); i++) {
+            assertSameSpan(read.get(i), spans.get(i));
+        }
+    }
+
+    @Test
+    public void testRecordingIsCompact() throws IOException {
+        List<SpanData> spans = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            spans.addAll(createSpans());
+        }
+        byte[] recording = write(spans);
+
+        // The names, attribute keys and repeated values are written once, so the recording is well under the size
+        // of the same spans in an OTLP request
+        int requestSize = TraceRequestMarshaler.create(spans).getBinarySerializedSize();
+        Assert.assertTrue(recording.length * 2 < requestSize,
+                recording.length + " bytes recorded for an OTLP request of " + requestSize + " bytes");
+    }
+
+    @Test
+    public void testReadsUpToTruncatedRecord() throws IOException {
+        List<SpanData> spans = createSpans();
+        byte[] recording = write(spans);
+
+        SpanRecordReader reader = new SpanRecordReader(
+                new ByteArrayInputStream(Arrays.copyOf(recording, recording.length - 3)));
+        int count = 0;
+        while (reader.read() != null) {
+            count++;
+        }
+        Assert.assertEquals(count, spans.size() - 1);
+        Assert.assertTrue(reader.isTruncated());
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testRejectsOtherFiles() throws IOException {
+        new SpanRecordReader(new ByteArrayInputStream("{\"spans\":[]}".getBytes()));
+    }
+
+    @Test
+    public void testRecordsSpansPassingThroughStage() throws IOException {
+        Path file = tempDir.resolve("spans.ampr");
+        SpanRecorder recorder = new SpanRecorder(file);
+        SdkTracerProvider recordingProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(AmpBatchSpanProcessor.builder(exporter).addStage(recorder).build())
+                .build();
+        Tracer recordingTracer = recordingProvider.get("test");
+        for (int i = 0; i < 10; i++) {
+            recordingTracer.spanBuilder("get /orders/" + i).startSpan().end();
+        }
+        recordingProvider.shutdown().join(10, TimeUnit.SECONDS);
+        recorder.close();
+
+        Assert.assertEquals(recorder.getRecordedSpans(), 10);
+        Assert.assertEquals(recorder.getDroppedSpans(), 0);
+        Assert.assertEquals(exporter.spans.size(), 10);
+        try (InputStream in = Files.newInputStream(file)) {
+            List<SpanData> read = read(in);
+            Assert.assertEquals(read.size(), 10);
+            for (int i = 0; i < 10; i++) {
+                assertSameSpan(read.get(i), exporter.spans.get(i));
+            }
+        }
+    }
+
+    private List<SpanData> createSpans() {
+        exporter.spans.clear();
+        SpanContext remoteParent = SpanContext.createFromRemoteParent(REMOTE_TRACE_ID, REMOTE_SPAN_ID,
+                TraceFlags.getSampled(), TraceState.builder().put("ot", "th:8").build());
+        Span server = tracer.spanBuilder("get /orders")
+                .setSpanKind(SpanKind.SERVER)
+                .setParent(Context.root().with(Span.wrap(remoteParent)))
+                .setAttribute("http.method", "GET")
+                .setAttribute("http.status_code", 200L)
+                .setAttribute("sampler.adjusted_count", 4.0)
+                .setAttribute("cache.hit", true)
+                .setAttribute(AttributeKey.stringArrayKey("tags"), List.of("a", "b"))
+                .setAttribute(AttributeKey.longArrayKey("sizes"), List.of(-1L, 300L))
+                .startSpan();
+        Span client = tracer.spanBuilder("select")
+                .setSpanKind(SpanKind.CLIENT)
+                .setParent(Context.root().with(server))
+                .addLink(remoteParent, Attributes.of(AttributeKey.stringKey("link"), "batch"))
+                .startSpan();
+        client.addEvent("retry", Attributes.of(AttributeKey.longKey("attempt"), 2L));
+        client.setStatus(StatusCode.ERROR, "timeout");
+        client.end();
+        server.end();
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+        return new ArrayList<>(exporter.spans);
+    }
+
+    private static byte[] write(List<SpanData> spans) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SpanRecordWriter writer = new SpanRecordWriter(out)) {
+            for (SpanData span : spans) {
+                writer.write(span);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static List<SpanData> read(InputStream in) throws IOException {
+        List<SpanData> spans = new ArrayList<>();
+        try (SpanRecordReader reader = new SpanRecordReader(in)) {
+            for (SpanData span = reader.read(); span != null; span = reader.read()) {
+                spans.add(span);
+            }
+            Assert.assertFalse(reader.isTruncated());
+        }
+        return spans;
+    }
+
+    private static void assertSameSpan(SpanData actual, SpanData expected) {
+        Assert.assertEquals(actual.getName(), expected.getName());
+        Assert.assertEquals(actual.getKind(), expected.getKind());
+        Assert.assertEquals(actual.getSpanContext(), expected.getSpanContext());
+        Assert.assertEquals(actual.getParentSpanContext(), expected.getParentSpanContext());
+        Assert.assertEquals(actual.getStatus(), expected.getStatus());
+        Assert.assertEquals(actual.getStartEpochNanos(), expected.getStartEpochNanos());
+        Assert.assertEquals(actual.getEndEpochNanos(), expected.getEndEpochNanos());
+        Assert.assertEquals(actual.getAttributes().asMap(), expected.getAttributes().asMap());
+        Assert.assertEquals(actual.getTotalAttributeCount(), expected.getTotalAttributeCount());
+        Assert.assertEquals(actual.getEvents().size(), expected.getEvents().size());
+        for (int i = 0; i < expected.getEvents().size(); i++) {
+            EventData actualEvent = actual.getEvents().get(i);
+            EventData expectedEvent = expected.getEvents().get(i);
+            Assert.assertEquals(actualEvent.getName(), expectedEvent.getName());
+            Assert.assertEquals(actualEvent.getEpochNanos(), expectedEvent.getEpochNanos());
+            Assert.assertEquals(actualEvent.getAttributes().asMap(), expectedEvent.getAttributes().asMap());
+        }
+        Assert.assertEquals(actual.getLinks().size(), expected.getLinks().size());
+        for (int i = 0; i < expected.getLinks().size(); i++) {
+            Assert.assertEquals(actual.getLinks().get(i).getSpanContext().getSpanId(),
+                    expected.getLinks().get(i).getSpanContext().getSpanId());
+            Assert.assertEquals(actual.getLinks().get(i).getAttributes().asMap(),
+                    expected.getLinks().get(i).getAttributes().asMap());
+        }
+        Assert.assertEquals(actual.getInstrumentationScopeInfo(), expected.getInstrumentationScopeInfo());
+        Assert.assertEquals(actual.getResource(), expected.getResource());
+    }
+
+    private static final class CollectingExporter implements SpanExporter {
+        private final List<SpanData> spans = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            this.spans.addAll(spans);
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
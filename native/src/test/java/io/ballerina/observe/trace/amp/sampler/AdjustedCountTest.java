@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.sampler;
+
+import io.ballerina.observe.trace.amp.AmpTracerProvider;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.Clock;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+
+/**
+ * Tests for the {@link AdjustedCount} recorded by the samplers.
+ */
+public class AdjustedCountTest {
+    // The upper half of the trace ID is below any keep probability of the load shedding sampler
+    private static final String TRACE_ID = "000000000000000f8448eb211c80319c";
+    // The upper half of the trace ID is above any keep probability below 1
+    private static final String SHED_TRACE_ID = "00000000ffffffff8448eb211c80319c";
+
+    @Test
+    public void testFixedProbabilitySampler() {
+        Sampler sampler = new FixedProbabilitySampler(Sampler.alwaysOn(), 0.25);
+        SamplingResult result = sample(sampler);
+        Assert.assertEquals(result.getDecision(), SamplingDecision.RECORD_AND_SAMPLE);
+        Assert.assertEquals(AdjustedCount.of(result), 4.0);
+        Assert.assertSame(sample(sampler), result);
+        Assert.assertEquals(sample(new FixedProbabilitySampler(Sampler.alwaysOff(), 0.25)).getAttributes().size(), 0);
+    }
+
+    @Test
+    public void testEverySamplerTypeRecordsAdjustedCount() {
+        String[][] samplers = {{"const", "1"}, {"probabilistic", "1"}, {"consistent", "1"}, {"ratelimiting", "100"}};
+        try {
+            for (String[] sampler : samplers) {
+                AmpTracerProvider.initializeConfigurationsForInternal("http://localhost:21893", sampler[0],
+                        Double.parseDouble(sampler[1]), 1000, 512, 256, "", new String[]{"tracecontext"}, false, 0,
+                        "full", Collections.emptyList(), 0, false, 10, 1, 0, 0, 10, 0, "queue", "",
+                        Collections.emptyList(), "", "", "", "", "", "");
+                Span span = new AmpTracerProvider().getTracer("orders").spanBuilder("get /orders").startSpan();
+                Assert.assertEquals(((ReadableSpan) span).getAttribute(AdjustedCount.KEY), 1.0, sampler[0]);
+                span.end();
+                AmpTracerProvider.shutdown();
+            }
+        } finally {
+            AmpTracerProvider.shutdown();
+        }
+    }
+
+    @Test
+    public void testConsistentProbabilitySampler() {
+        Sampler sampler = new ConsistentProbabilitySampler(1.0);
+        Assert.assertEquals(AdjustedCount.of(sample(sampler)), 1.0);
+        sampler = new ConsistentProbabilitySampler(0.25);
+        for (int i = 0; i < 1000; i++) {
+            SamplingResult result = sample(sampler);
+            if (result.getDecision() == SamplingDecision.RECORD_AND_SAMPLE) {
+                Assert.assertEquals(AdjustedCount.of(result), 4.0);
+            }
+        }
+    }
+
+    @Test
+    public void testRateLimitingSamplerUsesObservedRatio() {
+        ManualClock clock = new ManualClock();
+        RateLimitingSampler sampler = new RateLimitingSampler(10, clock);
+        Assert.assertEquals(AdjustedCount.of(sample(sampler)), 1.0);
+        int seen = 1;
+        int sampled = 1;
+        for (; seen < 100; seen++) {
+            if (sample(sampler).getDecision() == SamplingDecision.RECORD_AND_SAMPLE) {
+                sampled++;
+            }
+        }
+        Assert.assertEquals(sampled, 10);
+
+        clock.advance(1, TimeUnit.SECONDS);
+        // The decision which starts the next window is counted in the previous one
+        SamplingResult result = sample(sampler);
+        Assert.assertEquals(result.getDecision(), SamplingDecision.RECORD_AND_SAMPLE);
+        Assert.assertEquals(AdjustedCount.of(result), (seen + 1) / (double) (sampled + 1));
+        Assert.assertEquals(result.getAttributes().get(stringKey("sampler.type")), RateLimitingSampler.TYPE);
+    }
+
+    @Test
+    public void testRateLimitingSamplerReadsClockOnce() {
+        ManualClock clock = new ManualClock();
+        RateLimitingSampler sampler = new RateLimitingSampler(10, clock);
+        clock.advance(1, TimeUnit.SECONDS);
+        int reads = clock.nanoTimeReads;
+        // This decision also starts the next adjusted count window
+        sample(sampler);
+        Assert.assertEquals(clock.nanoTimeReads - reads, 1);
+    }
+
+    @Test
+    public void testLoadSheddingMultipliesAdjustedCount() {
+        double keepProbability = LoadSheddingSampler.keepProbability(0.9);
+        Assert.assertTrue(keepProbability < 1.0);
+        Sampler sampler = new LoadSheddingSampler(new FixedProbabilitySampler(Sampler.alwaysOn(), 0.5), () -> 0.9);
+        SamplingResult result = sample(sampler);
+        Assert.assertEquals(result.getDecision(), SamplingDecision.RECORD_AND_SAMPLE);
+        Assert.assertEquals(AdjustedCount.of(result), 2.0 / keepProbability);
+        Assert.assertSame(sample(sampler), result);
+
+        // Without pressure the result of the delegate is kept as is
+        sampler = new LoadSheddingSampler(new FixedProbabilitySampler(Sampler.alwaysOn(), 0.5), () -> 0.0);
+        Assert.assertEquals(AdjustedCount.of(sample(sampler)), 2.0);
+    }
+
+    @Test
+    public void testLoadSheddingKeepsTraceState() {
+        Sampler sampler = new LoadSheddingSampler(new ConsistentProbabilitySampler(1.0), () -> 0.9);
+        SamplingResult result = sample(sampler);
+        Assert.assertEquals(result.getDecision(), SamplingDecision.RECORD_AND_SAMPLE);
+        Assert.assertTrue(result.getUpdatedTraceState(TraceState.getDefault()).get("ot").startsWith("p:0;r:"));
+        Assert.assertEquals(AdjustedCount.of(result), 1.0 / LoadSheddingSampler.keepProbability(0.9));
+
+        // A shed span keeps the r-value of the delegate, so the services it calls still see it, but not the p-value
+        SamplingResult shed = sampler.shouldSample(Context.root(), SHED_TRACE_ID, "span", SpanKind.SERVER,
+                Attributes.empty(), Collections.emptyList());
+        Assert.assertEquals(shed.getDecision(), SamplingDecision.DROP);
+        String otValue = shed.getUpdatedTraceState(TraceState.getDefault()).get("ot");
+        Assert.assertTrue(otValue.startsWith("r:"), otValue);
+        Assert.assertEquals(ConsistentProbabilitySampler.parseValue(otValue, 'p', 63), -1);
+    }
+
+    private static SamplingResult sample(Sampler sampler) {
+        return sampler.shouldSample(Context.root(), TRACE_ID, "span", SpanKind.SERVER, Attributes.empty(),
+                Collections.emptyList());
+    }
+
+    /**
+     * Clock which only moves when advanced.
+     */
+    private static final class ManualClock implements Clock {
+        private long nanoTime = TimeUnit.DAYS.toNanos(1);
+        private int nanoTimeReads;
+
+        private void advance(long duration, TimeUnit unit) {
+            nanoTime += unit.toNanos(duration);
+        }
+
+        @Override
+        public long now() {
+            return nanoTime;
+        }
+
+        @Override
+        public long nanoTime() {
+            nanoTimeReads++;
+            return nanoTime;
+        }
+    }
+}
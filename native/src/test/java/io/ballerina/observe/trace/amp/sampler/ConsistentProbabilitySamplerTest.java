@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.sampler;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.IdGenerator;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+
+/**
+ * Tests for {@link ConsistentProbabilitySampler}.
+ */
+public class ConsistentProbabilitySamplerTest {
+    private static final String TRACE_ID = "0af7651916cd43dd8448eb211c80319c";
+    private static final String SPAN_ID = "b7ad6b7169203331";
+    private static final int TRACES = 100000;
+
+    @Test
+    public void testRootSamplingProbability() {
+        for (double probability : new double[]{1.0, 0.5, 0.25, 0.3, 0.01}) {
+            ConsistentProbabilitySampler sampler = new ConsistentProbabilitySampler(probability);
+            int sampled = 0;
+            for (int i = 0; i < TRACES; i++) {
+                String traceId = IdGenerator.random().generateTraceId();
+                if (sample(sampler, Context.root(), traceId).getDecision() == SamplingDecision.RECORD_AND_SAMPLE) {
+                    sampled++;
+                }
+            }
+            double expected = probability * TRACES;
+            Assert.assertTrue(Math.abs(sampled - expected) < 5 * Math.sqrt(expected) + 1,
+                    "sampled " + sampled + " traces with probability " + probability);
+        }
+        Assert.assertEquals(sample(new ConsistentProbabilitySampler(0.0), Context.root()).getDecision(),
+                SamplingDecision.DROP);
+    }
+
+    @Test
+    public void testTraceStateOfRootSpan() {
+        SamplingResult sampled = sample(new ConsistentProbabilitySampler(1.0), Context.root());
+        String otValue = sampled.getUpdatedTraceState(TraceState.getDefault()).get("ot");
+        Assert.assertTrue(otValue.startsWith("p:0;r:"), otValue);
+
+        SamplingResult dropped = sample(new ConsistentProbabilitySampler(0.0), Context.root());
+        TraceState traceState = TraceState.builder().put("vendor", "value").build();
+        TraceState updated = dropped.getUpdatedTraceState(traceState);
+        Assert.assertTrue(updated.get("ot").startsWith("r:"), updated.get("ot"));
+        Assert.assertEquals(updated.get("vendor"), "value");
+    }
+
+    @Test
+    public void testServicesWithSameProbabilityAgree() {
+        // Neither probability is a power of two, so each service chooses between two p-values
+        ConsistentProbabilitySampler upstream = new ConsistentProbabilitySampler(0.3);
+        ConsistentProbabilitySampler downstream = new ConsistentProbabilitySampler(0.3);
+        ConsistentProbabilitySampler wider = new ConsistentProbabilitySampler(0.75);
+        for (int i = 0; i < TRACES; i++) {
+            String traceId = IdGenerator.random().generateTraceId();
+            SamplingResult root = sample(upstream, Context.root(), traceId);
+            boolean rootSampled = root.getDecision() == SamplingDecision.RECORD_AND_SAMPLE;
+            TraceState traceState = root.getUpdatedTraceState(TraceState.getDefault());
+            Context remoteParent = remoteParent(traceId, traceState, rootSampled);
+            SamplingResult downstreamResult = sample(downstream, remoteParent, traceId);
+            Assert.assertEquals(downstreamResult.getDecision(), root.getDecision());
+            Assert.assertEquals(downstreamResult.getAttributes(), root.getAttributes());
+            if (rootSampled) {
+                Assert.assertEquals(sample(wider, remoteParent, traceId).getDecision(),
+                        SamplingDecision.RECORD_AND_SAMPLE);
+            }
+        }
+    }
+
+    @Test
+    public void testFollowsLocalParent() {
+        ConsistentProbabilitySampler sampler = new ConsistentProbabilitySampler(0.3);
+        TraceState traceState = TraceState.builder().put("ot", "p:1;r:1").build();
+        SamplingResult child = sample(sampler, localParent(traceState, true), TRACE_ID);
+        Assert.assertEquals(child.getDecision(), SamplingDecision.RECORD_AND_SAMPLE);
+        Assert.assertEquals(AdjustedCount.of(child), 2.0);
+        Assert.assertEquals(child.getUpdatedTraceState(traceState).get("ot"), "p:1;r:1");
+
+        // A local parent which was sampled by another sampler is followed as well
+        SamplingResult unsampledChild = sample(new ConsistentProbabilitySampler(0.0),
+                localParent(TraceState.getDefault(), true), TRACE_ID);
+        Assert.assertEquals(unsampledChild.getDecision(), SamplingDecision.RECORD_AND_SAMPLE);
+        Assert.assertEquals(sample(new ConsistentProbabilitySampler(1.0), localParent(traceState, false), TRACE_ID)
+                .getDecision(), SamplingDecision.DROP);
+    }
+
+    @Test
+    public void testFollowsParentWithoutRValue() {
+        ConsistentProbabilitySampler sampler = new ConsistentProbabilitySampler(0.0);
+        Assert.assertEquals(sample(sampler, remoteParent(TraceState.getDefault(), true)).getDecision(),
+                SamplingDecision.RECORD_AND_SAMPLE);
+        sampler = new ConsistentProbabilitySampler(1.0);
+        Assert.assertEquals(sample(sampler, remoteParent(TraceState.getDefault(), false)).getDecision(),
+                SamplingDecision.DROP);
+        // An invalid r-value is ignored
+        TraceState invalid = TraceState.builder().put("ot", "r:63").build();
+        Assert.assertEquals(sample(sampler, remoteParent(invalid, false)).getDecision(), SamplingDecision.DROP);
+    }
+
+    @Test
+    public void testOtValue() {
+        Assert.assertEquals(ConsistentProbabilitySampler.parseValue("p:3;r:10", 'r', 62), 10);
+        Assert.assertEquals(ConsistentProbabilitySampler.parseValue("p:3;r:10", 'p', 63), 3);
+        Assert.assertEquals(ConsistentProbabilitySampler.parseValue("p:3", 'r', 62), -1);
+        Assert.assertEquals(ConsistentProbabilitySampler.parseValue("r:x1", 'r', 62), -1);
+        Assert.assertEquals(ConsistentProbabilitySampler.parseValue("r:99999999999", 'r', 62), -1);
+        Assert.assertEquals(ConsistentProbabilitySampler.updateOtValue("p:3;r:10;x:foo", -1, 10), "r:10;x:foo");
+        Assert.assertEquals(ConsistentProbabilitySampler.updateOtValue(null, 2, 5), "p:2;r:5");
+        Assert.assertEquals(ConsistentProbabilitySampler.removePValue("p:3;r:10;x:foo"), "r:10;x:foo");
+        Assert.assertEquals(ConsistentProbabilitySampler.removePValue("x:foo;p:3"), "x:foo");
+        Assert.assertEquals(ConsistentProbabilitySampler.removePValue("p:3"), "");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidProbability() {
+        new ConsistentProbabilitySampler(1.5);
+    }
+
+    private static SamplingResult sample(ConsistentProbabilitySampler sampler, Context parent) {
+        return sample(sampler, parent, TRACE_ID);
+    }
+
+    private static SamplingResult sample(ConsistentProbabilitySampler sampler, Context parent, String traceId) {
+        return sampler.shouldSample(parent, traceId, "span", SpanKind.SERVER, Attributes.empty(),
+                Collections.emptyList());
+    }
+
+    private static Context remoteParent(TraceState traceState, boolean sampled) {
+        return remoteParent(TRACE_ID, traceState, sampled);
+    }
+
+    private static Context remoteParent(String traceId, TraceState traceState, boolean sampled) {
+        SpanContext spanContext = SpanContext.createFromRemoteParent(traceId, SPAN_ID,
+                sampled ? TraceFlags.getSampled() : TraceFlags.getDefault(), traceState);
+        return Context.root().with(Span.wrap(spanContext));
+    }
+
+    private static Context localParent(TraceState traceState, boolean sampled) {
+        SpanContext spanContext = SpanContext.create(TRACE_ID, SPAN_ID,
+                sampled ? TraceFlags.getSampled() : TraceFlags.getDefault(), traceState);
+        return Context.root().with(Span.wrap(spanContext));
+    }
+}
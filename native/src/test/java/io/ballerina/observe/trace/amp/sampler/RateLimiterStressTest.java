@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.sampler;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.Clock;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Concurrency stress tests for {@link RateLimiter} and {@link RateLimitingSampler}.
+ * <p>
+ * The credit accounting tests freeze a manual clock while many threads contend for credits, so that the number of
+ * granted credits is known exactly: a lost update or a double spend of the balance changes the count. The rate
+ * accuracy test runs against the system clock and checks the long run rate.
+ */
+public class RateLimiterStressTest {
+    private static final int THREADS = 32;
+    private static final int MAX_BALANCE = 500;
+    private static final String TRACE_ID = "0af7651916cd43dd8448eb211c80319c";
+
+    @Test
+    public void testCheckCreditGrantsEachCreditOnce() throws InterruptedException {
+        ManualClock clock = new ManualClock();
+        // Each credit takes 1 ms to accrue
+        RateLimiter rateLimiter = new RateLimiter(1000, MAX_BALANCE, clock);
+        assertGrantedExactly(() -> rateLimiter.checkCredit(1.0), clock);
+    }
+
+    @Test
+    public void testSamplerGrantsEachCreditOnce() throws InterruptedException {
+        ManualClock clock = new ManualClock();
+        // The sampler keeps a balance of one second of credits
+        RateLimitingSampler sampler = new RateLimitingSampler(MAX_BALANCE, clock);
+        assertGrantedExactly(() -> isSampled(sampler), clock, 2);
+    }
+
+    @Test
+    public void testSamplerRateAccuracy() throws InterruptedException {
+        int tracesPerSecond = 200;
+        RateLimitingSampler sampler = new RateLimitingSampler(tracesPerSecond);
+        LongAdder sampled = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        long start = System.nanoTime();
+        List<Thread> threads = startThreads(() -> {
+            while (running.get()) {
+                if (isSampled(sampler)) {
+                    sampled.increment();
+                }
+            }
+        });
+        Thread.sleep(2000);
+        running.set(false);
+        joinAll(threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // The initial balance of one second of credits is spent right away, and the rest accrues at the rate
+        double expected = tracesPerSecond * (1 + seconds);
+        Assert.assertTrue(Math.abs(sampled.sum() - expected) < expected * 0.05,
+                "sampled " + sampled.sum() + " traces, expected " + expected);
+    }
+
+    private static void assertGrantedExactly(BooleanSupplier trySpend, ManualClock clock)
+            throws InterruptedException {
+        assertGrantedExactly(trySpend, clock, 1);
+    }
+
+    /**
+     * Let all threads spend credits against a frozen clock, then advance the clock, a few times over, and check that
+     * exactly the accrued credits are granted each round.
+     */
+    private static void assertGrantedExactly(BooleanSupplier trySpend, ManualClock clock, long millisPerCredit)
+            throws InterruptedException {
+        // The limiter starts with the maximum balance
+        Assert.assertEquals(spendAll(trySpend), MAX_BALANCE);
+        for (long credits : new long[]{1, 37, 250, 499, MAX_BALANCE}) {
+            clock.advance(credits * millisPerCredit, TimeUnit.MILLISECONDS);
+            Assert.assertEquals(spendAll(trySpend), credits, "credits granted after " + credits + " accrued");
+        }
+        // The balance is capped, so a long pause does not accrue more than the maximum balance
+        clock.advance(1, TimeUnit.HOURS);
+        Assert.assertEquals(spendAll(trySpend), MAX_BALANCE);
+    }
+
+    /**
+     * Spend credits from all threads until the balance is exhausted.
+     *
+     * @return the number of granted credits
+     */
+    private static long spendAll(BooleanSupplier trySpend) throws InterruptedException {
+        LongAdder granted = new LongAdder();
+        List<Thread> threads = startThreads(() -> {
+            // Keep trying after the first denial, to race with the threads which are still spending
+            int denied = 0;
+            while (denied < 1000) {
+                if (trySpend.getAsBoolean()) {
+                    granted.increment();
+                } else {
+                    denied++;
+                }
+            }
+        });
+        joinAll(threads);
+        return granted.sum();
+    }
+
+    private static boolean isSampled(RateLimitingSampler sampler) {
+        return sampler.shouldSample(Context.root(), TRACE_ID, "span", SpanKind.SERVER, Attributes.empty(),
+                Collections.emptyList()).getDecision() == SamplingDecision.RECORD_AND_SAMPLE;
+    }
+
+    /**
+     * Start the threads, and release them together once all of them are running.
+     */
+    private static List<Thread> startThreads(Runnable task) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(() -> {
+                ready.countDown();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                task.run();
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        ready.await();
+        start.countDown();
+        return threads;
+    }
+
+    private static void joinAll(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+            Assert.assertFalse(thread.isAlive(), "stress thread did not finish");
+        }
+    }
+
+    /**
+     * Clock which only moves when advanced.
+     */
+    private static final class ManualClock implements Clock {
+        private final AtomicLong nanoTime = new AtomicLong(TimeUnit.DAYS.toNanos(1));
+
+        private void advance(long duration, TimeUnit unit) {
+            nanoTime.addAndGet(unit.toNanos(duration));
+        }
+
+        @Override
+        public long now() {
+            return nanoTime.get();
+        }
+
+        @Override
+        public long nanoTime() {
+            return nanoTime.get();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import io.ballerina.observe.trace.amp.backend.InProcessOtlpServer;
+import io.ballerina.observe.trace.amp.backend.JaegerServerProtocol;
+import org.ballerinalang.test.context.Utils;
+import org.ballerinalang.test.util.HttpClientRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Integration test which runs the test service as a GraalVM native executable.
+ * <p>
+ * The same service is also run in JVM mode so that the startup time and the resident memory of both modes
+ * can be reported side by side.
+ */
+public class AmpNativeImageTestCase extends BaseTestCase {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AmpNativeImageTestCase.class);
+
+    private static final File RESOURCES_DIR = Paths.get("src", "test", "resources", "bal").toFile();
+    private static final String TEST_RESOURCE_URL = "http://localhost:9091/test/sum";
+    private static final String SERVICE_NAME = "01_http_svc_test";
+    private static final String GRAALVM_HOME_ENV_VAR_KEY = "GRAALVM_HOME";
+    private static final int COLLECTOR_PORT = 14318;
+
+    private InProcessOtlpServer collector;
+    private Path workingDir;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        workingDir = Files.createTempDirectory("amp-native-image-test");
+        Files.copy(Paths.get(RESOURCES_DIR.getAbsolutePath(), SERVICE_NAME + ".bal"),
+                workingDir.resolve(SERVICE_NAME + ".bal"), StandardCopyOption.REPLACE_EXISTING);
+
+        collector = new InProcessOtlpServer();
+        collector.startServer("localhost", COLLECTOR_PORT, JaegerServerProtocol.OTL_HTTP);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void cleanUp() throws Exception {
+        if (collector != null) {
+            collector.cleanUp();
+        }
+        if (workingDir != null) {
+            try (var paths = Files.walk(workingDir)) {
+                paths.sorted((a, b) -> b.compareTo(a)).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    @Test
+    public void testNativeImageExportsSpans() throws Exception {
+        if (System.getenv(GRAALVM_HOME_ENV_VAR_KEY) == null) {
+            throw new SkipException(GRAALVM_HOME_ENV_VAR_KEY + " is not set, skipping native image test");
+        }
+        String bal = Paths.get(balServer.getServerHome(), "bin", "bal").toString();
+        runBuild(bal, "build", "--observability-included", SERVICE_NAME + ".bal");
+        runBuild(bal, "build", "--native", "--observability-included", SERVICE_NAME + ".bal");
+
+        Measurement jvmMeasurement = runService(Arrays.asList(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-jar", workingDir.resolve(SERVICE_NAME + ".jar").toString()));
+        Measurement nativeMeasurement = runService(List.of(workingDir.resolve(SERVICE_NAME).toString()));
+
+        LOGGER.info("JVM mode: startup " + jvmMeasurement.startupMillis + " ms, RSS "
+                + jvmMeasurement.rssKiloBytes + " kB");
+        LOGGER.info("Native mode: startup " + nativeMeasurement.startupMillis + " ms, RSS "
+                + nativeMeasurement.rssKiloBytes + " kB");
+
+        Assert.assertTrue(jvmMeasurement.exportRequests > 0, "No spans exported in JVM mode");
+        Assert.assertTrue(nativeMeasurement.exportRequests > 0, "No spans exported by the native executable");
+    }
+
+    private void runBuild(String... command) throws Exception {
+        Process process = new ProcessBuilder(command)
+                .directory(workingDir.toFile())
+                .inheritIO()
+                .start();
+        Assert.assertTrue(process.waitFor(15, TimeUnit.MINUTES), "Build timed out: " + Arrays.toString(command));
+        Assert.assertEquals(process.exitValue(), 0, "Build failed: " + Arrays.toString(command));
+    }
+
+    private Measurement runService(List<String> command) throws Exception {
+        collector.resetStats();
+        ProcessBuilder processBuilder = new ProcessBuilder(command)
+                .directory(workingDir.toFile())
+                .inheritIO();
+        Map<String, String> env = processBuilder.environment();
+        env.put("BAL_CONFIG_FILES", Paths.get(RESOURCES_DIR.getAbsolutePath(), "ConfigNativeImage.toml")
+                .toFile().getAbsolutePath());
+
+        long startTime = System.nanoTime();
+        Process process = processBuilder.start();
+        try {
+            int[] requiredPorts = {9091};
+            Utils.waitForPortsToOpen(requiredPorts, 1000 * 60, false, InetAddress.getByName("localhost"));
+            long startupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+            String responseData = HttpClientRequest.doGet(TEST_RESOURCE_URL).getData();
+            Assert.assertEquals(responseData, "Sum: 53");
+
+            long deadline = System.currentTimeMillis() + 20000;
+            while (collector.getReceivedRequests() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(200);
+            }
+            return new Measurement(startupMillis, readResidentSetSize(process.pid()), collector.getReceivedRequests());
+        } finally {
+            process.destroy();
+            process.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Read the resident set size of a process in kilobytes, or -1 if it is not available on this platform.
+     */
+    private static long readResidentSetSize(long pid) throws IOException {
+        Path status = Paths.get("/proc", String.valueOf(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.substring("VmRSS:".length()).replace("kB", "").trim());
+            }
+        }
+        return -1;
+    }
+
+    private static class Measurement {
+        private final long startupMillis;
+        private final long rssKiloBytes;
+        private final long exportRequests;
+
+        private Measurement(long startupMillis, long rssKiloBytes, long exportRequests) {
+            this.startupMillis = startupMillis;
+            this.rssKiloBytes = rssKiloBytes;
+            this.exportRequests = exportRequests;
+        }
+    }
+}
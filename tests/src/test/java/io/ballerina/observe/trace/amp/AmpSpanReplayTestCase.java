@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import io.ballerina.observe.trace.amp.backend.InProcessOtlpServer;
+import io.ballerina.observe.trace.amp.backend.JaegerServerProtocol;
+import io.ballerina.observe.trace.amp.load.ReplayResult;
+import io.ballerina.observe.trace.amp.load.SpanReplayer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test which replays a span recording through the export pipeline against an in-process collector.
+ * <p>
+ * The recording given with {@code -Damp.load.replayFile}, made by a program with the {@code spanRecordingFile}
+ * setting, is replayed at each of the speed multipliers given with {@code -Damp.load.replaySpeeds}, and the
+ * throughput, dropped spans and export latency of each speed are logged. Without a recording, a synthetic workload
+ * of {@code amp.load.durationSeconds} of traces is recorded through the tracer provider first. The test fails if
+ * any replayed span is neither received by the collector nor counted as dropped or failed.
+ * <p>
+ * The test is not part of the default suite, and runs with {@code ./gradlew :amp-extension-tests:loadTest}.
+ */
+public class AmpSpanReplayTestCase {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AmpSpanReplayTestCase.class);
+
+    private static final int COLLECTOR_PORT = 14320;
+    private static final String COLLECTOR_ENDPOINT = "http://localhost:" + COLLECTOR_PORT;
+    private static final int RECORDING_COLLECTOR_PORT = 14321;
+    private static final String SERVICE_NAME = "replay-test";
+    private static final int TRACES_PER_SECOND = 500;
+
+    private static final String REPLAY_FILE = System.getProperty("amp.load.replayFile", "");
+    private static final String REPLAY_SPEEDS = System.getProperty("amp.load.replaySpeeds", "1,4,16");
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("amp.load.durationSeconds", 30));
+    private static final int QUEUE_SIZE = Integer.getInteger("amp.load.replayQueueSize", 10000);
+    private static final long FLUSH_INTERVAL_MILLIS = Long.getLong("amp.load.replayFlushInterval", 1000L);
+
+    private InProcessOtlpServer collector;
+    private Path workingDir;
+    private Path recording;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        collector = new InProcessOtlpServer();
+        collector.startServer("localhost", COLLECTOR_PORT, JaegerServerProtocol.OTL_HTTP);
+        if (REPLAY_FILE.isEmpty()) {
+            workingDir = Files.createTempDirectory("amp-replay-test");
+            recording = workingDir.resolve("spans.ampr");
+            recordSyntheticWorkload(recording);
+        } else {
+            recording = Paths.get(REPLAY_FILE);
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void cleanUp() throws Exception {
+        if (collector != null) {
+            collector.cleanUp();
+        }
+        if (workingDir != null) {
+            try (var paths = Files.walk(workingDir)) {
+                paths.sorted((a, b) -> b.compareTo(a)).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    @Test
+    public void testReplay() throws Exception {
+        SpanReplayer replayer = new SpanReplayer(SpanReplayer.read(recording), QUEUE_SIZE, FLUSH_INTERVAL_MILLIS);
+        Assert.assertTrue(replayer.getSpans() > 0, "No spans found in " + recording);
+        LOGGER.info(String.format(Locale.ROOT, "Replaying %d spans recorded over %.1f s from %s",
+                replayer.getSpans(), replayer.getRecordedNanos() / 1e9, recording));
+
+        for (String speed : REPLAY_SPEEDS.split(",")) {
+            collector.resetStats();
+            ReplayResult result = replayer.replay(COLLECTOR_ENDPOINT + "/v1/traces", Double.parseDouble(speed.trim()));
+            LOGGER.info(String.format(Locale.ROOT, "speed %5.1fx throughput %9.1f spans/s, received %d, dropped %d, "
+                            + "failed %d, %d requests, latency p50 %7.1f ms, p99 %7.1f ms, max %7.1f ms",
+                    result.getSpeed(), result.getThroughput(), collector.getReceivedSpans(),
+                    result.getDroppedSpans(), result.getFailedSpans(), result.getExportRequests(),
+                    result.getExportLatencyMillis(50), result.getExportLatencyMillis(99),
+                    result.getExportLatencyMillis(100)));
+
+            Assert.assertEquals(collector.getReceivedSpans(), result.getExportedSpans(),
+                    "Spans received by the collector at speed " + speed);
+            Assert.assertEquals(result.getExportedSpans() + result.getFailedSpans() + result.getDroppedSpans(),
+                    result.getReplayedSpans(), "Spans lost at speed " + speed);
+        }
+    }
+
+    /**
+     * Record traces of a server span with a client and an internal span through the tracer provider, with
+     * timestamps spread over the load duration at a steady rate, so that recording does not take that long. The
+     * spans are exported to a separate collector, so that their exports do not overlap with the replay. As with a
+     * real program, the recording holds the spans which the sampler kept, after any load shedding.
+     */
+    private static void recordSyntheticWorkload(Path file) throws Exception {
+        InProcessOtlpServer recordingCollector = new InProcessOtlpServer();
+        recordingCollector.startServer("localhost", RECORDING_COLLECTOR_PORT, JaegerServerProtocol.OTL_HTTP);
+        try {
+            recordSyntheticTraces(file);
+        } finally {
+            recordingCollector.cleanUp();
+        }
+    }
+
+    private static void recordSyntheticTraces(Path file) {
+        AmpTracerProvider.initializeConfigurationsForInternal("http://localhost:" + RECORDING_COLLECTOR_PORT, "const",
+                1, 1000, 10000, 256, "", new String[]{"tracecontext"}, false, 0, "full", Collections.emptyList(), 0,
+                false, 10, 1, 0, 0, 10, 0, "queue", file.toString(), Collections.emptyList(), "", SERVICE_NAME, "",
+                "", "", "");
+        Tracer tracer = new AmpTracerProvider().getTracer(SERVICE_NAME);
+        long traces = DURATION.getSeconds() * TRACES_PER_SECOND;
+        long startNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / TRACES_PER_SECOND;
+        for (long i = 0; i < traces; i++) {
+            long traceStart = startNanos + i * intervalNanos;
+            Span server = tracer.spanBuilder("get /orders/{id}")
+                    .setSpanKind(SpanKind.SERVER)
+                    .setStartTimestamp(traceStart, TimeUnit.NANOSECONDS)
+                    .setAttribute("http.method", "GET")
+                    .setAttribute("http.url", "/orders/" + i)
+                    .startSpan();
+            Context context = Context.root().with(server);
+            Span client = tracer.spanBuilder("select orders")
+                    .setSpanKind(SpanKind.CLIENT)
+                    .setParent(context)
+                    .setStartTimestamp(traceStart + 100_000, TimeUnit.NANOSECONDS)
+                    .setAttribute("db.system", "mysql")
+                    .startSpan();
+            if (i % 100 == 0) {
+                client.setStatus(StatusCode.ERROR, "timeout");
+            }
+            client.end(traceStart + 1_100_000, TimeUnit.NANOSECONDS);
+            tracer.spanBuilder("render")
+                    .setParent(context)
+                    .setStartTimestamp(traceStart + 1_200_000, TimeUnit.NANOSECONDS)
+                    .startSpan()
+                    .end(traceStart + 1_500_000, TimeUnit.NANOSECONDS);
+            server.end(traceStart + 1_600_000, TimeUnit.NANOSECONDS);
+        }
+        AmpTracerProvider.shutdown();
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp;
+
+import io.ballerina.observe.trace.amp.backend.InProcessOtlpServer;
+import io.ballerina.observe.trace.amp.backend.JaegerServerProtocol;
+import io.ballerina.observe.trace.amp.load.JfrMetrics;
+import io.ballerina.observe.trace.amp.load.LoadGenerator;
+import io.ballerina.observe.trace.amp.load.LoadResult;
+import org.ballerinalang.test.context.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test which measures the overhead of tracing on the test service.
+ * <p>
+ * The service is built once and then run under sustained concurrent load with tracing disabled and with each
+ * sampler. The overhead of each sampler relative to the run with tracing disabled is compared with the checked
+ * in baseline, and the test fails if any overhead exceeds its baseline by more than the configured threshold.
+ * Overheads are compared instead of absolute numbers so that the baseline holds across machines.
+ * <p>
+ * The test is not part of the default suite, and runs with {@code ./gradlew :amp-extension-tests:loadTest}.
+ * Run it with {@code -Damp.load.recordBaseline=true} to write the measured overheads to the build directory
+ * instead of comparing them, so that the baseline can be updated.
+ */
+public class AmpTracingOverheadTestCase extends BaseTestCase {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AmpTracingOverheadTestCase.class);
+
+    private static final File RESOURCES_DIR = Paths.get("src", "test", "resources", "bal").toFile();
+    private static final Path BASELINE_FILE = Paths.get("src", "test", "resources", "load",
+            "tracing-overhead-baseline.properties");
+    private static final String TEST_RESOURCE_URL = "http://localhost:9091/test/sum";
+    private static final String SERVICE_NAME = "01_http_svc_test";
+    private static final String TRACING_OFF = "tracing-off";
+    private static final int COLLECTOR_PORT = 14319;
+
+    private static final int CONCURRENCY = Integer.getInteger("amp.load.concurrency", 16);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("amp.load.warmupSeconds", 15));
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("amp.load.durationSeconds", 30));
+    private static final double OVERHEAD_THRESHOLD = Double.parseDouble(
+            System.getProperty("amp.load.overheadThreshold", "0.05"));
+    private static final boolean RECORD_BASELINE = Boolean.getBoolean("amp.load.recordBaseline");
+
+    private InProcessOtlpServer collector;
+    private Path workingDir;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        workingDir = Files.createTempDirectory("amp-load-test");
+        Files.copy(Paths.get(RESOURCES_DIR.getAbsolutePath(), SERVICE_NAME + ".bal"),
+                workingDir.resolve(SERVICE_NAME + ".bal"), StandardCopyOption.REPLACE_EXISTING);
+
+        collector = new InProcessOtlpServer();
+        collector.startServer("localhost", COLLECTOR_PORT, JaegerServerProtocol.OTL_HTTP);
+
+        String bal = Paths.get(balServer.getServerHome(), "bin", "bal").toString();
+        Process process = new ProcessBuilder(bal, "build", "--observability-included", SERVICE_NAME + ".bal")
+                .directory(workingDir.toFile())
+                .inheritIO()
+                .start();
+        Assert.assertTrue(process.waitFor(10, TimeUnit.MINUTES), "Build of the test service timed out");
+        Assert.assertEquals(process.exitValue(), 0, "Build of the test service failed");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void cleanUp() throws Exception {
+        if (collector != null) {
+            collector.cleanUp();
+        }
+        if (workingDir != null) {
+            try (var paths = Files.walk(workingDir)) {
+                paths.sorted((a, b) -> b.compareTo(a)).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    @Test
+    public void testTracingOverhead() throws Exception {
+        Map<String, String> modes = new LinkedHashMap<>();
+        modes.put(TRACING_OFF, "ConfigLoadTracingOff.toml");
+        modes.put("const", "ConfigLoadSamplerConst.toml");
+        modes.put("probabilistic", "ConfigLoadSamplerProbabilistic.toml");
+        modes.put("ratelimiting", "ConfigLoadSamplerRatelimiting.toml");
+
+        Map<String, Measurement> measurements = new LinkedHashMap<>();
+        for (Map.Entry<String, String> mode : modes.entrySet()) {
+            Measurement measurement = runLoad(mode.getKey(), mode.getValue());
+            LOGGER.info(String.format(Locale.ROOT, "%-14s throughput %9.1f req/s, p50 %8.1f us, p99 %8.1f us, "
+                            + "CPU %5.1f %%, allocation %8.1f MB/s", mode.getKey(), measurement.throughput,
+                    measurement.p50Micros, measurement.p99Micros, measurement.cpuLoad * 100,
+                    measurement.allocationRate / (1024 * 1024)));
+            measurements.put(mode.getKey(), measurement);
+        }
+
+        Measurement tracingOff = measurements.get(TRACING_OFF);
+        Properties overheads = new Properties();
+        for (Map.Entry<String, Measurement> entry : measurements.entrySet()) {
+            if (!TRACING_OFF.equals(entry.getKey())) {
+                entry.getValue().overheadsOver(tracingOff).forEach((metric, overhead) ->
+                        overheads.setProperty(entry.getKey() + "." + metric,
+                                String.format(Locale.ROOT, "%.3f", overhead)));
+            }
+        }
+
+        if (RECORD_BASELINE) {
+            Path output = Paths.get(System.getProperty("basedir"), "load", BASELINE_FILE.getFileName().toString());
+            Files.createDirectories(output.getParent());
+            try (OutputStream out = Files.newOutputStream(output)) {
+                overheads.store(out, "Tracing overhead relative to the run with tracing disabled");
+            }
+            LOGGER.info("Recorded tracing overhead baseline to " + output);
+            return;
+        }
+
+        Properties baseline = new Properties();
+        try (InputStream in = Files.newInputStream(BASELINE_FILE)) {
+            baseline.load(in);
+        }
+        List<String> regressions = new ArrayList<>();
+        for (String key : overheads.stringPropertyNames()) {
+            double overhead = Double.parseDouble(overheads.getProperty(key));
+            String baselineValue = baseline.getProperty(key);
+            Assert.assertNotNull(baselineValue, "No baseline found for " + key);
+            if (overhead > Double.parseDouble(baselineValue) + OVERHEAD_THRESHOLD) {
+                regressions.add(key + " overhead " + overhead + " exceeds baseline " + baselineValue);
+            }
+        }
+        Assert.assertTrue(regressions.isEmpty(), "Tracing overhead regressed: " + regressions);
+    }
+
+    private Measurement runLoad(String mode, String configFilename) throws Exception {
+        Path recording = workingDir.resolve(mode + ".jfr");
+        ProcessBuilder processBuilder = new ProcessBuilder(Arrays.asList(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-XX:StartFlightRecording=settings=profile,dumponexit=true,filename=" + recording,
+                "-jar", workingDir.resolve(SERVICE_NAME + ".jar").toString()))
+                .directory(workingDir.toFile())
+                .inheritIO();
+        processBuilder.environment().put("BAL_CONFIG_FILES", Paths.get(RESOURCES_DIR.getAbsolutePath(),
+                configFilename).toFile().getAbsolutePath());
+
+        collector.resetStats();
+        Process process = processBuilder.start();
+        LoadResult loadResult;
+        try {
+            int[] requiredPorts = {9091};
+            Utils.waitForPortsToOpen(requiredPorts, 1000 * 60, false, InetAddress.getByName("localhost"));
+            loadResult = new LoadGenerator(TEST_RESOURCE_URL, CONCURRENCY).run(WARMUP, DURATION);
+        } finally {
+            // The recording is written by the shutdown hook of the service
+            process.destroy();
+            Assert.assertTrue(process.waitFor(60, TimeUnit.SECONDS), "Test service did not stop");
+        }
+        LOGGER.info(mode + ": collector received " + collector.getReceivedSpans() + " spans in "
+                + collector.getReceivedRequests() + " export requests");
+        Assert.assertEquals(loadResult.getErrors(), 0, "Failed requests with " + mode);
+        Assert.assertTrue(loadResult.getRequests() > 0, "No successful requests with " + mode);
+
+        JfrMetrics jfrMetrics = JfrMetrics.read(recording, loadResult.getStart(), loadResult.getEnd());
+        return new Measurement(loadResult.getThroughput(), loadResult.getLatencyMicros(50),
+                loadResult.getLatencyMicros(99), jfrMetrics.getCpuLoad(), jfrMetrics.getAllocationRate());
+    }
+
+    private static class Measurement {
+        private final double throughput;
+        private final double p50Micros;
+        private final double p99Micros;
+        private final double cpuLoad;
+        private final double allocationRate;
+
+        private Measurement(double throughput, double p50Micros, double p99Micros, double cpuLoad,
+                            double allocationRate) {
+            this.throughput = throughput;
+            this.p50Micros = p50Micros;
+            this.p99Micros = p99Micros;
+            this.cpuLoad = cpuLoad;
+            this.allocationRate = allocationRate;
+        }
+
+        /**
+         * Calculate the relative overhead of each metric over a reference measurement. CPU and allocation are
+         * compared per request, since a run with a higher throughput naturally uses more of both.
+         */
+        private Map<String, Double> overheadsOver(Measurement reference) {
+            Map<String, Double> overheads = new LinkedHashMap<>();
+            overheads.put("throughput", reference.throughput / throughput - 1);
+            overheads.put("p50", p50Micros / reference.p50Micros - 1);
+            overheads.put("p99", p99Micros / reference.p99Micros - 1);
+            overheads.put("cpuPerRequest", (cpuLoad / throughput) / (reference.cpuLoad / reference.throughput) - 1);
+            overheads.put("allocationPerRequest",
+                    (allocationRate / throughput) / (reference.allocationRate / reference.throughput) - 1);
+            return overheads;
+        }
+    }
+}
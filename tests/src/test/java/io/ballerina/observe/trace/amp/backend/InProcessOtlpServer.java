@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.backend;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * OTLP trace receiver which runs inside the test JVM.
+ * <p>
+ * This accepts OTLP/HTTP protobuf and OTLP/gRPC export requests, and counts the received spans without decoding
+ * them, so that it can keep up with the exporter under load. It does not store the spans or provide a query API.
+ * The response latency and the fraction of requests answered with an error or a throttling response can be
+ * configured to test the resilience of the exporter.
+ */
+public class InProcessOtlpServer implements JaegerServer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(InProcessOtlpServer.class);
+    private static final String TRACES_PATH = "/v1/traces";
+    private static final String TRACE_SERVICE_NAME = "opentelemetry.proto.collector.trace.v1.TraceService";
+    private static final MethodDescriptor<byte[], byte[]> EXPORT_METHOD =
+            MethodDescriptor.<byte[], byte[]>newBuilder()
+                    .setType(MethodDescriptor.MethodType.UNARY)
+                    .setFullMethodName(MethodDescriptor.generateFullMethodName(TRACE_SERVICE_NAME, "Export"))
+                    .setRequestMarshaller(ByteArrayMarshaller.INSTANCE)
+                    .setResponseMarshaller(ByteArrayMarshaller.INSTANCE)
+                    .build();
+    // An empty ExportTraceServiceResponse
+    private static final byte[] EMPTY_RESPONSE = new byte[0];
+
+    private final LongAdder receivedRequests = new LongAdder();
+    private final LongAdder receivedSpans = new LongAdder();
+    private final LongAdder receivedBytes = new LongAdder();
+    private final LongAdder failedRequests = new LongAdder();
+    private final LongAdder throttledRequests = new LongAdder();
+    private final ScheduledExecutorService responseScheduler = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                Thread thread = new Thread(runnable, "in-process-otlp-server-responder");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private volatile long responseLatencyNanos = 0;
+    private volatile double errorRate = 0;
+    private volatile double throttleRate = 0;
+    private HttpServer httpServer;
+    private ExecutorService httpExecutor;
+    private Server grpcServer;
+
+    @Override
+    public void startServer(String interfaceIP, int port, JaegerServerProtocol protocol) throws IOException {
+        if (httpServer != null || grpcServer != null) {
+            throw new IllegalStateException("In-process OTLP server already started");
+        }
+        switch (protocol) {
+            case OTL_HTTP:
+                httpServer = HttpServer.create(new InetSocketAddress(interfaceIP, port), 0);
+                httpServer.createContext(TRACES_PATH, this::handleHttpExport);
+                httpExecutor = Executors.newCachedThreadPool();
+                httpServer.setExecutor(httpExecutor);
+                httpServer.start();
+                break;
+            case OTL_GRPC:
+                grpcServer = NettyServerBuilder.forAddress(new InetSocketAddress(interfaceIP, port))
+                        .addService(ServerServiceDefinition.builder(TRACE_SERVICE_NAME)
+                                .addMethod(EXPORT_METHOD, new GrpcExportHandler())
+                                .build())
+                        .build()
+                        .start();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown Amp Protocol type " + protocol);
+        }
+        LOGGER.info("Started in-process OTLP server on " + interfaceIP + ":" + port + " using " + protocol);
+    }
+
+    @Override
+    public void stopServer() throws Exception {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpExecutor.shutdownNow();
+            httpServer = null;
+            httpExecutor = null;
+        }
+        if (grpcServer != null) {
+            grpcServer.shutdownNow();
+            grpcServer.awaitTermination(10, TimeUnit.SECONDS);
+            grpcServer = null;
+        }
+    }
+
+    @Override
+    public void cleanUp() throws Exception {
+        stopServer();
+        responseScheduler.shutdownNow();
+    }
+
+    /**
+     * Set the delay before each export request is answered.
+     *
+     * @param latency the response latency
+     */
+    public void setResponseLatency(Duration latency) {
+        this.responseLatencyNanos = latency.toNanos();
+    }
+
+    /**
+     * Set the fraction of export requests answered with an unavailable error.
+     *
+     * @param errorRate the fraction between 0 and 1
+     */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Set the fraction of export requests answered with a throttling response.
+     *
+     * @param throttleRate the fraction between 0 and 1
+     */
+    public void setThrottleRate(double throttleRate) {
+        this.throttleRate = throttleRate;
+    }
+
+    /**
+     * Get the number of export requests which were accepted.
+     *
+     * @return the number of accepted requests
+     */
+    public long getReceivedRequests() {
+        return receivedRequests.sum();
+    }
+
+    /**
+     * Get the number of spans in the accepted export requests.
+     *
+     * @return the number of received spans
+     */
+    public long getReceivedSpans() {
+        return receivedSpans.sum();
+    }
+
+    /**
+     * Get the number of bytes in the accepted export requests, after decompression.
+     *
+     * @return the number of received bytes
+     */
+    public long getReceivedBytes() {
+        return receivedBytes.sum();
+    }
+
+    public long getFailedRequests() {
+        return failedRequests.sum();
+    }
+
+    public long getThrottledRequests() {
+        return throttledRequests.sum();
+    }
+
+    /**
+     * Reset all ingest statistics.
+     */
+    public void resetStats() {
+        receivedRequests.reset();
+        receivedSpans.reset();
+        receivedBytes.reset();
+        failedRequests.reset();
+        throttledRequests.reset();
+    }
+
+    private Outcome nextOutcome() {
+        double random = ThreadLocalRandom.current().nextDouble();
+        if (random < errorRate) {
+            failedRequests.increment();
+            return Outcome.ERROR;
+        } else if (random < errorRate + throttleRate) {
+            throttledRequests.increment();
+            return Outcome.THROTTLED;
+        }
+        return Outcome.ACCEPTED;
+    }
+
+    private void ingest(byte[] request) {
+        int spans = OtlpSpanCounter.countSpans(request, 0, request.length);
+        receivedRequests.increment();
+        receivedSpans.add(spans);
+        receivedBytes.add(request.length);
+    }
+
+    private void respondAfterLatency(Runnable response) {
+        long latencyNanos = responseLatencyNanos;
+        if (latencyNanos > 0) {
+            responseScheduler.schedule(response, latencyNanos, TimeUnit.NANOSECONDS);
+        } else {
+            response.run();
+        }
+    }
+
+    private void handleHttpExport(HttpExchange exchange) throws IOException {
+        byte[] request;
+        try (InputStream body = "gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))
+                ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody()) {
+            request = body.readAllBytes();
+        }
+        Outcome outcome = nextOutcome();
+        if (outcome == Outcome.ACCEPTED) {
+            ingest(request);
+        }
+        respondAfterLatency(() -> {
+            try {
+                switch (outcome) {
+                    case ERROR:
+                        exchange.sendResponseHeaders(503, -1);
+                        break;
+                    case THROTTLED:
+                        exchange.getResponseHeaders().add("Retry-After", "1");
+                        exchange.sendResponseHeaders(429, -1);
+                        break;
+                    default:
+                        exchange.getResponseHeaders().add("Content-Type", "application/x-protobuf");
+                        exchange.sendResponseHeaders(200, -1);
+                        break;
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Failed to respond to export request", e);
+            } finally {
+                exchange.close();
+            }
+        });
+    }
+
+    private enum Outcome {
+        ACCEPTED,
+        ERROR,
+        THROTTLED
+    }
+
+    /**
+     * Handles the unary gRPC export call with the raw request bytes.
+     */
+    private class GrpcExportHandler implements ServerCallHandler<byte[], byte[]> {
+        @Override
+        public ServerCall.Listener<byte[]> startCall(ServerCall<byte[], byte[]> call, Metadata headers) {
+            call.request(1);
+            return new ServerCall.Listener<>() {
+                private byte[] request;
+
+                @Override
+                public void onMessage(byte[] message) {
+                    request = message;
+                }
+
+                @Override
+                public void onHalfClose() {
+                    Outcome outcome = nextOutcome();
+                    if (outcome == Outcome.ACCEPTED && request != null) {
+                        ingest(request);
+                    }
+                    respondAfterLatency(() -> {
+                        switch (outcome) {
+                            case ERROR:
+                                call.close(Status.UNAVAILABLE.withDescription("simulated error"), new Metadata());
+                                break;
+                            case THROTTLED:
+                                call.close(Status.RESOURCE_EXHAUSTED.withDescription("simulated throttling"),
+                                        new Metadata());
+                                break;
+                            default:
+                                call.sendHeaders(new Metadata());
+                                call.sendMessage(EMPTY_RESPONSE);
+                                call.close(Status.OK, new Metadata());
+                                break;
+                        }
+                    });
+                }
+            };
+        }
+    }
+
+    /**
+     * Passes messages through as bytes, so that the requests are not decoded by gRPC.
+     */
+    private static class ByteArrayMarshaller implements MethodDescriptor.Marshaller<byte[]> {
+        private static final ByteArrayMarshaller INSTANCE = new ByteArrayMarshaller();
+
+        @Override
+        public InputStream stream(byte[] value) {
+            return new ByteArrayInputStream(value);
+        }
+
+        @Override
+        public byte[] parse(InputStream stream) {
+            try (stream) {
+                return stream.readAllBytes();
+            } catch (IOException e) {
+                throw Status.INTERNAL.withDescription("failed to read request").withCause(e).asRuntimeException();
+            }
+        }
+    }
+}
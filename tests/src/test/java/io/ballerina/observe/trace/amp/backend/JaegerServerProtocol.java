@@ -21,5 +21,6 @@ package io.ballerina.observe.trace.amp.backend;
  * Types of supported Amp protocols.
  */
 public enum JaegerServerProtocol {
-    OTL_GRPC
+    OTL_GRPC,
+    OTL_HTTP
 }
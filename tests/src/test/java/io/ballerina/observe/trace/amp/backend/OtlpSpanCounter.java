@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.backend;
+
+/**
+ * Counts the spans in a protobuf encoded OTLP {@code ExportTraceServiceRequest} without decoding them.
+ * <p>
+ * Only the length delimited fields on the path to the spans are followed, and all other fields, including the
+ * span contents, are skipped over.
+ */
+public final class OtlpSpanCounter {
+    private static final int WIRE_TYPE_VARINT = 0;
+    private static final int WIRE_TYPE_I64 = 1;
+    private static final int WIRE_TYPE_LEN = 2;
+    private static final int WIRE_TYPE_I32 = 5;
+
+    // ExportTraceServiceRequest.resource_spans
+    private static final int RESOURCE_SPANS_FIELD = 1;
+    // ResourceSpans.scope_spans
+    private static final int SCOPE_SPANS_FIELD = 2;
+    // ResourceSpans.instrumentation_library_spans, used by older exporters
+    private static final int INSTRUMENTATION_LIBRARY_SPANS_FIELD = 1000;
+    // ScopeSpans.spans
+    private static final int SPANS_FIELD = 2;
+
+    private final byte[] buffer;
+    private int position;
+
+    private OtlpSpanCounter(byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Count the spans in a request.
+     *
+     * @param request the serialized request
+     * @param offset  the offset of the request in the array
+     * @param length  the length of the request
+     * @return the number of spans
+     * @throws IllegalArgumentException if the request is not a valid protobuf message
+     */
+    public static int countSpans(byte[] request, int offset, int length) {
+        OtlpSpanCounter counter = new OtlpSpanCounter(request);
+        counter.position = offset;
+        return counter.countRequest(offset + length);
+    }
+
+    private int countRequest(int end) {
+        int spans = 0;
+        while (position < end) {
+            int tag = readVarint32();
+            if (tag >>> 3 == RESOURCE_SPANS_FIELD && (tag & 7) == WIRE_TYPE_LEN) {
+                int length = readVarint32();
+                spans += countResourceSpans(position + length);
+            } else {
+                skipField(tag);
+            }
+        }
+        return spans;
+    }
+
+    private int countResourceSpans(int end) {
+        int spans = 0;
+        while (position < end) {
+            int tag = readVarint32();
+            int field = tag >>> 3;
+            if ((field == SCOPE_SPANS_FIELD || field == INSTRUMENTATION_LIBRARY_SPANS_FIELD)
+                    && (tag & 7) == WIRE_TYPE_LEN) {
+                int length = readVarint32();
+                spans += countScopeSpans(position + length);
+            } else {
+                skipField(tag);
+            }
+        }
+        return spans;
+    }
+
+    private int countScopeSpans(int end) {
+        int spans = 0;
+        while (position < end) {
+            int tag = readVarint32();
+            if (tag >>> 3 == SPANS_FIELD && (tag & 7) == WIRE_TYPE_LEN) {
+                spans++;
+            }
+            skipField(tag);
+        }
+        return spans;
+    }
+
+    private void skipField(int tag) {
+        switch (tag & 7) {
+            case WIRE_TYPE_VARINT:
+                readVarint64();
+                break;
+            case WIRE_TYPE_I64:
+                position += 8;
+                break;
+            case WIRE_TYPE_LEN:
+                int length = readVarint32();
+                position += length;
+                break;
+            case WIRE_TYPE_I32:
+                position += 4;
+                break;
+            default:
+                throw new IllegalArgumentException("unsupported wire type in tag " + tag);
+        }
+        if (position > buffer.length) {
+            throw new IllegalArgumentException("truncated message");
+        }
+    }
+
+    private int readVarint32() {
+        return (int) readVarint64();
+    }
+
+    private long readVarint64() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position >= buffer.length) {
+                throw new IllegalArgumentException("truncated varint");
+            }
+            byte b = buffer[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint");
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.load;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Server side metrics of a load run, read from a JFR recording of the service process.
+ * <p>
+ * The recording must be taken with the {@code profile} settings, which enable the {@code jdk.CPULoad} and
+ * {@code jdk.ObjectAllocationSample} events. Only events within the measured period are taken into account.
+ */
+public class JfrMetrics {
+    private static final String CPU_LOAD_EVENT = "jdk.CPULoad";
+    private static final String ALLOCATION_SAMPLE_EVENT = "jdk.ObjectAllocationSample";
+
+    private final double cpuLoad;
+    private final double allocationRate;
+
+    private JfrMetrics(double cpuLoad, double allocationRate) {
+        this.cpuLoad = cpuLoad;
+        this.allocationRate = allocationRate;
+    }
+
+    /**
+     * Read the metrics of a time window from a recording.
+     *
+     * @param recording the JFR recording file
+     * @param start     the start of the measured period
+     * @param end       the end of the measured period
+     * @return the metrics of the period
+     * @throws IOException if the recording cannot be read
+     */
+    public static JfrMetrics read(Path recording, Instant start, Instant end) throws IOException {
+        double cpuLoadSum = 0;
+        int cpuLoadSamples = 0;
+        long allocatedBytes = 0;
+        try (RecordingFile recordingFile = new RecordingFile(recording)) {
+            while (recordingFile.hasMoreEvents()) {
+                RecordedEvent event = recordingFile.readEvent();
+                Instant time = event.getStartTime();
+                if (time.isBefore(start) || time.isAfter(end)) {
+                    continue;
+                }
+                String eventName = event.getEventType().getName();
+                if (CPU_LOAD_EVENT.equals(eventName)) {
+                    cpuLoadSum += event.getFloat("jvmUser") + event.getFloat("jvmSystem");
+                    cpuLoadSamples++;
+                } else if (ALLOCATION_SAMPLE_EVENT.equals(eventName)) {
+                    allocatedBytes += event.getLong("weight");
+                }
+            }
+        }
+        double seconds = Duration.between(start, end).toNanos() / 1e9;
+        return new JfrMetrics(cpuLoadSamples == 0 ? 0 : cpuLoadSum / cpuLoadSamples, allocatedBytes / seconds);
+    }
+
+    /**
+     * Get the average CPU load of the service process.
+     *
+     * @return the CPU load between 0 and 1, relative to all available processors
+     */
+    public double getCpuLoad() {
+        return cpuLoad;
+    }
+
+    /**
+     * Get the estimated heap allocation rate of the service process.
+     *
+     * @return the allocation rate in bytes per second
+     */
+    public double getAllocationRate() {
+        return allocationRate;
+    }
+}
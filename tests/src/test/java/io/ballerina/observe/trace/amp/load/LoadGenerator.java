@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed loop load generator which keeps a fixed number of requests in flight against a single URL.
+ * <p>
+ * Each client thread sends the next request as soon as the previous one completes, and records the latency of
+ * every successful request. Requests sent during the warm up period are not recorded.
+ */
+public class LoadGenerator {
+    private final URI uri;
+    private final int concurrency;
+    private final HttpClient httpClient;
+
+    public LoadGenerator(String url, int concurrency) {
+        this.uri = URI.create(url);
+        this.concurrency = concurrency;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    /**
+     * Run the load, first for the warm up period and then for the measured period.
+     *
+     * @param warmup   the period whose requests are not recorded
+     * @param duration the measured period
+     * @return the latencies and the time window of the measured period
+     * @throws Exception if a client thread fails
+     */
+    public LoadResult run(Duration warmup, Duration duration) throws Exception {
+        drive(warmup);
+        Instant start = Instant.now();
+        List<Recorder> recorders = drive(duration);
+        Instant end = Instant.now();
+
+        int count = 0;
+        long errors = 0;
+        for (Recorder recorder : recorders) {
+            count += recorder.count;
+            errors += recorder.errors;
+        }
+        long[] latencies = new long[count];
+        int offset = 0;
+        for (Recorder recorder : recorders) {
+            System.arraycopy(recorder.latencies, 0, latencies, offset, recorder.count);
+            offset += recorder.count;
+        }
+        Arrays.sort(latencies);
+        return new LoadResult(latencies, errors, start, end);
+    }
+
+    private List<Recorder> drive(Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<Recorder>> futures = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(executor.submit(() -> {
+                    Recorder recorder = new Recorder();
+                    HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+                    while (System.nanoTime() < deadline) {
+                        long startTime = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request,
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                recorder.record(System.nanoTime() - startTime);
+                            } else {
+                                recorder.errors++;
+                            }
+                        } catch (IOException e) {
+                            recorder.errors++;
+                        }
+                    }
+                    return recorder;
+                }));
+            }
+            List<Recorder> recorders = new ArrayList<>(concurrency);
+            for (Future<Recorder> future : futures) {
+                recorders.add(future.get());
+            }
+            return recorders;
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static class Recorder {
+        private long[] latencies = new long[16384];
+        private int count;
+        private long errors;
+
+        private void record(long latencyNanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+        }
+    }
+}
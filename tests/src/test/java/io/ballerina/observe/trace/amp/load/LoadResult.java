@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.load;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Client side result of a load run.
+ */
+public class LoadResult {
+    private final long[] sortedLatencies;
+    private final long errors;
+    private final Instant start;
+    private final Instant end;
+
+    LoadResult(long[] sortedLatencies, long errors, Instant start, Instant end) {
+        this.sortedLatencies = sortedLatencies;
+        this.errors = errors;
+        this.start = start;
+        this.end = end;
+    }
+
+    public long getRequests() {
+        return sortedLatencies.length;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public Instant getStart() {
+        return start;
+    }
+
+    public Instant getEnd() {
+        return end;
+    }
+
+    /**
+     * Get the number of successful requests per second.
+     *
+     * @return the throughput in requests per second
+     */
+    public double getThroughput() {
+        return sortedLatencies.length / (Duration.between(start, end).toNanos() / 1e9);
+    }
+
+    /**
+     * Get a latency percentile using the nearest rank method.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the latency in microseconds, or 0 if no request succeeded
+     */
+    public double getLatencyMicros(double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sortedLatencies.length);
+        return sortedLatencies[Math.max(0, Math.min(sortedLatencies.length - 1, rank - 1))] / 1e3;
+    }
+}
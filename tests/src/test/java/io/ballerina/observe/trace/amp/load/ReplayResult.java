@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.load;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Result of replaying a span recording through the export pipeline.
+ */
+public class ReplayResult {
+    private final double speed;
+    private final long replayedSpans;
+    private final long exportedSpans;
+    private final long failedSpans;
+    private final long droppedSpans;
+    private final long[] sortedExportLatencies;
+    private final Instant start;
+    private final Instant end;
+
+    ReplayResult(double speed, long replayedSpans, long exportedSpans, long failedSpans, long droppedSpans,
+                 long[] sortedExportLatencies, Instant start, Instant end) {
+        this.speed = speed;
+        this.replayedSpans = replayedSpans;
+        this.exportedSpans = exportedSpans;
+        this.failedSpans = failedSpans;
+        this.droppedSpans = droppedSpans;
+        this.sortedExportLatencies = sortedExportLatencies;
+        this.start = start;
+        this.end = end;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    public long getReplayedSpans() {
+        return replayedSpans;
+    }
+
+    /**
+     * Get the number of spans in the export requests which succeeded.
+     *
+     * @return the number of exported spans
+     */
+    public long getExportedSpans() {
+        return exportedSpans;
+    }
+
+    /**
+     * Get the number of spans in the export requests which failed.
+     *
+     * @return the number of spans which failed to export
+     */
+    public long getFailedSpans() {
+        return failedSpans;
+    }
+
+    /**
+     * Get the number of spans dropped from the span queue because the exporter did not keep up.
+     *
+     * @return the number of dropped spans
+     */
+    public long getDroppedSpans() {
+        return droppedSpans;
+    }
+
+    public long getExportRequests() {
+        return sortedExportLatencies.length;
+    }
+
+    public Instant getStart() {
+        return start;
+    }
+
+    public Instant getEnd() {
+        return end;
+    }
+
+    /**
+     * Get the number of exported spans per second, from the start of the replay until the last export completed.
+     *
+     * @return the throughput in spans per second
+     */
+    public double getThroughput() {
+        return exportedSpans / (Duration.between(start, end).toNanos() / 1e9);
+    }
+
+    /**
+     * Get an export request latency percentile using the nearest rank method.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the latency in milliseconds, or 0 if no request was sent
+     */
+    public double getExportLatencyMillis(double percentile) {
+        if (sortedExportLatencies.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sortedExportLatencies.length);
+        return sortedExportLatencies[Math.max(0, Math.min(sortedExportLatencies.length - 1, rank - 1))] / 1e6;
+    }
+}
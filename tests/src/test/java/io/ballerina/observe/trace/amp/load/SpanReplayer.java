@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.ballerina.observe.trace.amp.load;
+
+import io.ballerina.observe.trace.amp.processor.AmpBatchSpanProcessor;
+import io.ballerina.observe.trace.amp.recording.SpanRecordReader;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.DelegatingSpanData;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a span recording made with the {@code spanRecordingFile} setting through the span queue and exporter of
+ * the extension.
+ * <p>
+ * The spans are queued at the times at which they ended in the recording, with the gaps between them divided by
+ * the speed, and their timestamps are shifted so that they end at the time they are queued. Since the recorded
+ * spans already passed through the stages of the pipeline, they are queued directly for export. The export
+ * requests are timed from the moment they are handed to the exporter until their response arrives.
+ */
+public class SpanReplayer {
+    private final List<SpanData> spans;
+    private final int maxQueueSize;
+    private final long scheduleDelayMillis;
+
+    /**
+     * Create a replayer with the span queue size and flush interval of the extension.
+     *
+     * @param spans               the spans to replay
+     * @param maxQueueSize        the size of the span queue
+     * @param scheduleDelayMillis the interval in which queued spans are exported
+     */
+    public SpanReplayer(List<SpanData> spans, int maxQueueSize, long scheduleDelayMillis) {
+        List<SpanData> sortedSpans = new ArrayList<>(spans);
+        sortedSpans.sort(Comparator.comparingLong(SpanData::getEndEpochNanos));
+        this.spans = sortedSpans;
+        this.maxQueueSize = maxQueueSize;
+        this.scheduleDelayMillis = scheduleDelayMillis;
+    }
+
+    /**
+     * Read all spans of a recording. A record cut short at the end of the file, such as when the recorded program
+     * was killed, is ignored.
+     *
+     * @param recording the recording file
+     * @return the recorded spans
+     * @throws IOException if the file cannot be read or is not a span recording
+     */
+    public static List<SpanData> read(Path recording) throws IOException {
+        List<SpanData> spans = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(recording);
+             SpanRecordReader reader = new SpanRecordReader(in)) {
+            for (SpanData span = reader.read(); span != null; span = reader.read()) {
+                spans.add(span);
+            }
+        }
+        return spans;
+    }
+
+    public int getSpans() {
+        return spans.size();
+    }
+
+    /**
+     * Get the time between the end of the first and the last recorded span.
+     *
+     * @return the recorded period in nanoseconds
+     */
+    public long getRecordedNanos() {
+        return spans.isEmpty() ? 0
+                : spans.get(spans.size() - 1).getEndEpochNanos() - spans.get(0).getEndEpochNanos();
+    }
+
+    /**
+     * Replay the spans to an OTLP/HTTP endpoint and wait until all of them are exported.
+     *
+     * @param endpoint the traces endpoint of the collector
+     * @param speed    the speed multiplier, where 2 replays the spans in half of the recorded time
+     * @return the numbers of spans exported and dropped, and the export request latencies
+     */
+    public ReplayResult replay(String endpoint, double speed) {
+        if (speed <= 0) {
+            throw new IllegalArgumentException("speed must be positive.");
+        }
+        TimedSpanExporter exporter = new TimedSpanExporter(OtlpHttpSpanExporter.builder()
+                .setEndpoint(endpoint)
+                .build());
+        AmpBatchSpanProcessor processor = AmpBatchSpanProcessor.builder(exporter)
+                .setMaxQueueSize(maxQueueSize)
+                .setScheduleDelay(scheduleDelayMillis, TimeUnit.MILLISECONDS)
+                .build();
+
+        Instant start = Instant.now();
+        long startNanos = System.nanoTime();
+        long startEpochNanos = TimeUnit.SECONDS.toNanos(start.getEpochSecond()) + start.getNano();
+        long firstEndNanos = spans.isEmpty() ? 0 : spans.get(0).getEndEpochNanos();
+        List<SpanData> due = new ArrayList<>();
+        int next = 0;
+        while (next < spans.size()) {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            while (next < spans.size()) {
+                SpanData span = spans.get(next);
+                long offsetNanos = (long) ((span.getEndEpochNanos() - firstEndNanos) / speed);
+                if (offsetNanos > elapsedNanos) {
+                    break;
+                }
+                due.add(new ShiftedSpanData(span, startEpochNanos + offsetNanos - span.getEndEpochNanos()));
+                next++;
+            }
+            if (!due.isEmpty()) {
+                processor.export(due);
+                due.clear();
+            }
+            if (next < spans.size()) {
+                long offsetNanos = (long) ((spans.get(next).getEndEpochNanos() - firstEndNanos) / speed);
+                LockSupport.parkNanos(offsetNanos - (System.nanoTime() - startNanos));
+            }
+        }
+        processor.forceFlush().join(1, TimeUnit.MINUTES);
+        Instant end = Instant.now();
+        long droppedSpans = processor.getDroppedNormalSpans() + processor.getDroppedPrioritySpans();
+        processor.shutdown().join(1, TimeUnit.MINUTES);
+
+        long[] latencies = exporter.latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        return new ReplayResult(speed, spans.size(), exporter.exportedSpans.sum(), exporter.failedSpans.sum(),
+                droppedSpans, latencies, start, end);
+    }
+
+    /**
+     * Recorded span moved in time by a fixed amount, keeping its duration and the times of its events.
+     */
+    private static final class ShiftedSpanData extends DelegatingSpanData {
+        private final long shiftNanos;
+
+        private ShiftedSpanData(SpanData delegate, long shiftNanos) {
+            super(delegate);
+            this.shiftNanos = shiftNanos;
+        }
+
+        @Override
+        public long getStartEpochNanos() {
+            return super.getStartEpochNanos() + shiftNanos;
+        }
+
+        @Override
+        public long getEndEpochNanos() {
+            return super.getEndEpochNanos() + shiftNanos;
+        }
+
+        @Override
+        public List<EventData> getEvents() {
+            List<EventData> events = super.getEvents();
+            if (events.isEmpty()) {
+                return events;
+            }
+            List<EventData> shiftedEvents = new ArrayList<>(events.size());
+            for (EventData event : events) {
+                shiftedEvents.add(EventData.create(event.getEpochNanos() + shiftNanos, event.getName(),
+                        event.getAttributes(), event.getTotalAttributeCount()));
+            }
+            return shiftedEvents;
+        }
+    }
+
+    /**
+     * Counts the exported spans and times each export request.
+     */
+    private static final class TimedSpanExporter implements SpanExporter {
+        private final SpanExporter delegate;
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final LongAdder exportedSpans = new LongAdder();
+        private final LongAdder failedSpans = new LongAdder();
+
+        private TimedSpanExporter(SpanExporter delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            long startNanos = System.nanoTime();
+            int count = spans.size();
+            CompletableResultCode result = delegate.export(spans);
+            result.whenComplete(() -> {
+                latencies.add(System.nanoTime() - startNanos);
+                if (result.isSuccess()) {
+                    exportedSpans.add(count);
+                } else {
+                    failedSpans.add(count);
+                }
+            });
+            return result;
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return delegate.flush();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return delegate.shutdown();
+        }
+    }
+}